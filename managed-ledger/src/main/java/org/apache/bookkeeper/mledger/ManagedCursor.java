@@ -19,6 +19,7 @@
 package org.apache.bookkeeper.mledger;
 
 import com.google.common.collect.Range;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -491,6 +492,31 @@ public interface ManagedCursor {
      */
     void asyncDelete(Iterable<Position> position, DeleteCallback callback, Object ctx);
 
+    /**
+     * Delete ranges of entries asynchronously.
+     *
+     * <p/>
+     * This is the same as {@link #asyncDelete(Iterable, DeleteCallback, Object)} with all the positions of the
+     * ranges, without creating a position for each entry.
+     *
+     * @param ranges
+     *            the closed ranges of entries to be deleted, each range is within a single ledger
+     * @param callback
+     *            callback object
+     * @param ctx
+     *            opaque context
+     */
+    default void asyncDeleteRanges(List<Range<Position>> ranges, DeleteCallback callback, Object ctx) {
+        List<Position> positions = new ArrayList<>();
+        for (Range<Position> range : ranges) {
+            Position first = range.lowerEndpoint();
+            for (long entryId = first.getEntryId(); entryId <= range.upperEndpoint().getEntryId(); entryId++) {
+                positions.add(PositionFactory.create(first.getLedgerId(), entryId));
+            }
+        }
+        asyncDelete(positions, callback, ctx);
+    }
+
     /**
      * Get the read position. This points to the next message to be read from the cursor.
      *
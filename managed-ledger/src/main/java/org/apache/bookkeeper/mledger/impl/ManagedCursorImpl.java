@@ -2349,6 +2349,16 @@ public class ManagedCursorImpl implements ManagedCursor {
 
     @Override
     public void asyncDelete(Iterable<Position> positions, AsyncCallbacks.DeleteCallback callback, Object ctx) {
+        internalAsyncDelete(positions, Collections.emptyList(), callback, ctx);
+    }
+
+    @Override
+    public void asyncDeleteRanges(List<Range<Position>> ranges, AsyncCallbacks.DeleteCallback callback, Object ctx) {
+        internalAsyncDelete(Collections.emptyList(), ranges, callback, ctx);
+    }
+
+    private void internalAsyncDelete(Iterable<Position> positions, List<Range<Position>> ranges,
+                                     AsyncCallbacks.DeleteCallback callback, Object ctx) {
         if (isClosed()) {
             callback.deleteFailed(new ManagedLedgerException
                     .CursorAlreadyClosedException("Cursor was already closed"), ctx);
@@ -2361,8 +2371,23 @@ public class ManagedCursorImpl implements ManagedCursor {
 
         try {
             if (log.isDebugEnabled()) {
-                log.debug("[{}] [{}] Deleting individual messages at {}. Current status: {} - md-position: {}",
-                        ledger.getName(), name, positions, individualDeletedMessages, markDeletePosition);
+                log.debug("[{}] [{}] Deleting individual messages at {} {}. Current status: {} - md-position: {}",
+                        ledger.getName(), name, positions, ranges, individualDeletedMessages, markDeletePosition);
+            }
+
+            for (Range<Position> range : ranges) {
+                Position first = range.lowerEndpoint();
+                Position last = range.upperEndpoint();
+                if (first.getLedgerId() != last.getLedgerId() || first.getEntryId() < 0
+                        || ledger.getLastConfirmedEntry().compareTo(last) < 0 || !ledger.isValidPosition(last)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("[{}] Failed to delete invalid range {} for cursor [{}], last-confirmed-entry {}",
+                                ledger.getName(), range, name, ledger.getLastConfirmedEntry());
+                    }
+                    callback.deleteFailed(new ManagedLedgerException("Invalid delete range " + range), ctx);
+                    return;
+                }
+                deleteRange(first.getLedgerId(), first.getEntryId(), last.getEntryId());
             }
 
             for (Position pos : positions) {
@@ -2513,6 +2538,25 @@ public class ManagedCursorImpl implements ManagedCursor {
         }
     }
 
+    private void deleteRange(long ledgerId, long firstEntryId, long lastEntryId) {
+        if (ledgerId < markDeletePosition.getLedgerId()) {
+            return;
+        }
+        if (ledgerId == markDeletePosition.getLedgerId()) {
+            firstEntryId = Math.max(firstEntryId, markDeletePosition.getEntryId() + 1);
+        }
+        if (firstEntryId > lastEntryId) {
+            return;
+        }
+        long alreadyDeleted = individualDeletedMessages.cardinality(ledgerId, firstEntryId, ledgerId, lastEntryId);
+        if (batchDeletedIndexes != null) {
+            batchDeletedIndexes.subMap(PositionFactory.create(ledgerId, firstEntryId), true,
+                    PositionFactory.create(ledgerId, lastEntryId), true).clear();
+        }
+        individualDeletedMessages.addOpenClosed(ledgerId, firstEntryId - 1, ledgerId, lastEntryId);
+        MSG_CONSUMED_COUNTER_UPDATER.addAndGet(this, lastEntryId - firstEntryId + 1 - alreadyDeleted);
+    }
+
     // update lastMarkDeleteEntry field if newPosition is later than the current lastMarkDeleteEntry.newPosition
     private void updateLastMarkDeleteEntryToLatest(final Position newPosition,
                                                    final Map<String, Long> properties) {
@@ -32,6 +32,7 @@ import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
 import static org.testng.Assert.fail;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Range;
@@ -1771,6 +1772,56 @@ public class ManagedCursorTest extends MockedBookKeeperTestCase {
         assertEquals(cursor.getNumberOfEntriesInBacklog(false), 3);
     }
 
+    @Test(timeOut = 20000, dataProvider = "useOpenRangeSet")
+    void testDeleteRanges(boolean useOpenRangeSet) throws Exception {
+        ManagedLedger ledger = factory.open("my_test_ledger", new ManagedLedgerConfig()
+                .setUnackedRangesOpenCacheSetEnabled(useOpenRangeSet).setMaxEntriesPerLedger(20));
+        ManagedCursor cursor = ledger.openCursor("c1");
+        List<Position> positions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            positions.add(ledger.addEntry(("entry" + i).getBytes()));
+        }
+        Position p0 = cursor.getMarkDeletedPosition();
+
+        // the entry that is already deleted isn't counted twice
+        cursor.delete(positions.get(3));
+        deleteRanges(cursor, Range.closed(positions.get(2), positions.get(5))).get();
+        assertEquals(cursor.getMarkDeletedPosition(), p0);
+        assertEquals(cursor.getNumberOfEntriesInBacklog(false), 6);
+        assertTrue(cursor.isMessageDeleted(positions.get(2)));
+        assertTrue(cursor.isMessageDeleted(positions.get(5)));
+        assertFalse(cursor.isMessageDeleted(positions.get(6)));
+
+        deleteRanges(cursor, Range.closed(positions.get(0), positions.get(1)),
+                Range.closed(positions.get(7), positions.get(7))).get();
+        assertEquals(cursor.getMarkDeletedPosition(), positions.get(5));
+        assertEquals(cursor.getNumberOfEntriesInBacklog(false), 3);
+
+        // a range that goes beyond the last entry is rejected
+        Position beyondLastEntry = PositionFactory.create(positions.get(9).getLedgerId(), 100);
+        CompletableFuture<Void> future = deleteRanges(cursor, Range.closed(positions.get(8), beyondLastEntry));
+        ExecutionException e = expectThrows(ExecutionException.class, future::get);
+        assertTrue(e.getCause() instanceof ManagedLedgerException);
+        assertEquals(cursor.getNumberOfEntriesInBacklog(false), 3);
+    }
+
+    @SafeVarargs
+    private static CompletableFuture<Void> deleteRanges(ManagedCursor cursor, Range<Position>... ranges) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        cursor.asyncDeleteRanges(List.of(ranges), new DeleteCallback() {
+            @Override
+            public void deleteComplete(Object ctx) {
+                future.complete(null);
+            }
+
+            @Override
+            public void deleteFailed(ManagedLedgerException exception, Object ctx) {
+                future.completeExceptionally(exception);
+            }
+        }, null);
+        return future;
+    }
+
     @Test(timeOut = 20000, dataProvider = "useOpenRangeSet")
     void testMarkDeleteTwice(boolean useOpenRangeSet) throws Exception {
         ManagedLedger ledger = factory.open("my_test_ledger", new ManagedLedgerConfig()
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.impl;
+
+import io.netty.buffer.ByteBuf;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.pulsar.client.api.CompressionType;
+import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.common.api.proto.MessageMetadata;
+import org.apache.pulsar.common.compression.CompressionCodecProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time per message to build an uncompressed batch, with and without referencing the large payloads.
+ * The allocation rate per message is reported when running with the gc profiler, e.g. {@code -prof gc}.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class BatchMessageContainerBenchmark {
+
+    private static final int MESSAGES_PER_BATCH = 32;
+
+    @Param({"100", "1024", "10240", "102400"})
+    private int payloadSize;
+
+    @Param({"true", "false"})
+    private boolean zeroCopy;
+
+    private BatchMessageContainerImpl container;
+    private final List<MessageImpl<?>> messages = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        container = new BatchMessageContainerImpl();
+        container.compressionType = CompressionCodecProvider.convertToWireProtocol(CompressionType.NONE);
+        container.compressor = CompressionCodecProvider.getCompressionCodec(container.compressionType);
+        if (!zeroCopy) {
+            container.zeroCopyMinPayloadSize = Integer.MAX_VALUE;
+        }
+        byte[] payload = new byte[payloadSize];
+        for (int i = 0; i < MESSAGES_PER_BATCH; i++) {
+            MessageMetadata messageMetadata = new MessageMetadata();
+            messageMetadata.setSequenceId(i);
+            messageMetadata.setProducerName("producer");
+            messageMetadata.setPublishTime(System.currentTimeMillis());
+            messages.add(MessageImpl.create(messageMetadata, ByteBuffer.wrap(payload), Schema.BYTES, null));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        messages.forEach(MessageImpl::release);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES_PER_BATCH)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    @Warmup(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    public int buildBatch() {
+        for (int i = 0; i < MESSAGES_PER_BATCH; i++) {
+            container.add(messages.get(i), null);
+        }
+        ByteBuf batch = container.getCompressedBatchMetadataAndPayload();
+        int size = batch.readableBytes();
+        batch.release();
+        container.clear();
+        return size;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.pulsar.client.api.Producer;
+import org.apache.pulsar.client.api.PulsarClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time to create the producers of many topics at once, as many clients do after a broker restart, with
+ * and without the lookup cache of the client.
+ * <p>
+ * The benchmark requires a running broker, e.g. started with {@code bin/pulsar standalone}. The service url can be
+ * changed with {@code -p serviceUrl=pulsar://host:6650}.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class LookupCacheBenchmark {
+
+    private static final int TOPICS = 1000;
+
+    @Param("pulsar://localhost:6650")
+    private String serviceUrl;
+
+    @Param({"0", "60000"})
+    private int lookupCacheTtlMs;
+
+    private PulsarClient client;
+    private final List<String> topics = new ArrayList<>(TOPICS);
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        client = PulsarClient.builder()
+                .serviceUrl(serviceUrl)
+                .lookupCacheTtl(lookupCacheTtlMs, TimeUnit.MILLISECONDS)
+                .build();
+        String prefix = "persistent://public/default/lookup-cache-benchmark-" + System.nanoTime() + "-";
+        for (int i = 0; i < TOPICS; i++) {
+            topics.add(prefix + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws Exception {
+        client.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOPICS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 3)
+    @Warmup(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    public void createProducers() throws Exception {
+        List<CompletableFuture<Producer<byte[]>>> producers = new ArrayList<>(TOPICS);
+        for (String topic : topics) {
+            producers.add(client.newProducer().topic(topic).createAsync());
+        }
+        List<CompletableFuture<Void>> closeFutures = new ArrayList<>(TOPICS);
+        for (CompletableFuture<Producer<byte[]>> producer : producers) {
+            closeFutures.add(producer.get().closeAsync());
+        }
+        CompletableFuture.allOf(closeFutures.toArray(new CompletableFuture[0])).get();
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.Producer;
+import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.SubscriptionInitialPosition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time per message to receive a backlog spread over many topics with a single
+ * {@link MultiTopicsConsumerImpl}. Each iteration publishes the backlog, then receives it once.
+ * <p>
+ * The benchmark requires a running broker, e.g. started with {@code bin/pulsar standalone}. The service url can be
+ * changed with {@code -p serviceUrl=pulsar://host:6650}.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class MultiTopicsConsumerBenchmark {
+
+    private static final int BACKLOG = 100_000;
+
+    @Param("pulsar://localhost:6650")
+    private String serviceUrl;
+
+    @Param({"1", "10", "100", "1000"})
+    private int topics;
+
+    private PulsarClient client;
+    private final List<Producer<byte[]>> producers = new ArrayList<>();
+    private Consumer<byte[]> consumer;
+    private final byte[] payload = new byte[64];
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        client = PulsarClient.builder().serviceUrl(serviceUrl).build();
+        String prefix = "persistent://public/default/multi-topics-consumer-benchmark-" + System.nanoTime() + "-";
+        List<String> topicNames = new ArrayList<>(topics);
+        for (int i = 0; i < topics; i++) {
+            topicNames.add(prefix + i);
+            producers.add(client.newProducer().topic(prefix + i).blockIfQueueFull(true).create());
+        }
+        consumer = client.newConsumer()
+                .topics(topicNames)
+                .subscriptionName("sub")
+                .subscriptionInitialPosition(SubscriptionInitialPosition.Earliest)
+                .subscribe();
+    }
+
+    @Setup(Level.Iteration)
+    public void publishBacklog() throws Exception {
+        for (int i = 0; i < BACKLOG; i++) {
+            producers.get(i % topics).sendAsync(payload);
+        }
+        for (Producer<byte[]> producer : producers) {
+            producer.flush();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws Exception {
+        consumer.close();
+        for (Producer<byte[]> producer : producers) {
+            producer.close();
+        }
+        client.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BACKLOG)
+    @Measurement(iterations = 5)
+    @Warmup(iterations = 1)
+    public long receive() throws Exception {
+        long bytes = 0;
+        for (int i = 0; i < BACKLOG; i++) {
+            Message<byte[]> message = consumer.receive();
+            bytes += message.getData().length;
+            consumer.acknowledgeAsync(message);
+        }
+        return bytes;
+    }
+}
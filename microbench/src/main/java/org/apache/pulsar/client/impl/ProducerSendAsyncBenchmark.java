@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.impl;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.pulsar.client.api.Producer;
+import org.apache.pulsar.client.api.PulsarClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the throughput of {@link Producer#sendAsync(Object)} when a single producer is shared by many threads.
+ * <p>
+ * The benchmark requires a running broker, e.g. started with {@code bin/pulsar standalone}. The service url can be
+ * changed with {@code -p serviceUrl=pulsar://host:6650}.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class ProducerSendAsyncBenchmark {
+
+    @Param("pulsar://localhost:6650")
+    private String serviceUrl;
+
+    @Param({"true", "false"})
+    private boolean batchingEnabled;
+
+    private PulsarClient client;
+    private Producer<byte[]> producer;
+    private final byte[] payload = new byte[64];
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        client = PulsarClient.builder().serviceUrl(serviceUrl).build();
+        producer = client.newProducer()
+                .topic("persistent://public/default/producer-send-async-benchmark-" + System.nanoTime())
+                .enableBatching(batchingEnabled)
+                .blockIfQueueFull(true)
+                .maxPendingMessages(10_000)
+                .create();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws Exception {
+        producer.flush();
+        producer.close();
+        client.close();
+    }
+
+    @Threads(1)
+    @Benchmark
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    @Warmup(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    public void sendAsync01Threads(Blackhole blackhole) {
+        blackhole.consume(producer.sendAsync(payload));
+    }
+
+    @Threads(4)
+    @Benchmark
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    @Warmup(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    public void sendAsync04Threads(Blackhole blackhole) {
+        blackhole.consume(producer.sendAsync(payload));
+    }
+
+    @Threads(16)
+    @Benchmark
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    @Warmup(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    public void sendAsync16Threads(Blackhole blackhole) {
+        blackhole.consume(producer.sendAsync(payload));
+    }
+
+    @Threads(32)
+    @Benchmark
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    @Warmup(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    public void sendAsync32Threads(Blackhole blackhole) {
+        blackhole.consume(producer.sendAsync(payload));
+    }
+
+    @Threads(64)
+    @Benchmark
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    @Warmup(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    public void sendAsync64Threads(Blackhole blackhole) {
+        blackhole.consume(producer.sendAsync(payload));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.impl;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import lombok.Data;
+import org.apache.pulsar.client.api.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time to decode a struct value, as done by {@link MessageImpl#getValue()}, from a heap buffer (the
+ * payload copy of a message that isn't pooled) and from a direct buffer (the payload of a pooled message).
+ */
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class SchemaDecodeBenchmark {
+
+    @Data
+    public static class Order {
+        private long orderId;
+        private String customer;
+        private String country;
+        private int quantity;
+        private double price;
+        private String status;
+    }
+
+    @Param({"AVRO", "JSON"})
+    private String schemaType;
+
+    private Schema<Order> schema;
+    private ByteBuffer heapPayload;
+    private ByteBuffer directPayload;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        schema = "AVRO".equals(schemaType) ? Schema.AVRO(Order.class) : Schema.JSON(Order.class);
+        Order order = new Order();
+        order.setOrderId(123456789L);
+        order.setCustomer("customer-42");
+        order.setCountry("US");
+        order.setQuantity(3);
+        order.setPrice(19.99);
+        order.setStatus("CREATED");
+        byte[] bytes = schema.encode(order);
+        heapPayload = ByteBuffer.wrap(bytes);
+        directPayload = ByteBuffer.allocateDirect(bytes.length);
+        directPayload.put(bytes).flip();
+    }
+
+    @Benchmark
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    @Warmup(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    public Order decodeHeapBuffer() {
+        return schema.decode(heapPayload.duplicate());
+    }
+
+    @Benchmark
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    @Warmup(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    public Order decodeDirectBuffer() {
+        return schema.decode(directPayload.duplicate());
+    }
+}
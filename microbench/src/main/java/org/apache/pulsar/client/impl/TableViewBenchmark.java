@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.impl;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.apache.pulsar.client.api.Producer;
+import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.client.api.TableView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time to load a {@link TableView} and the latency of {@link TableView#get(String)}, with the values
+ * stored decoded or in their serialized form. The heap used by the table is logged after each load.
+ * <p>
+ * The benchmark requires a running broker, e.g. started with {@code bin/pulsar standalone}. The service url can be
+ * changed with {@code -p serviceUrl=pulsar://host:6650}.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+public class TableViewBenchmark {
+
+    @Param("pulsar://localhost:6650")
+    private String serviceUrl;
+
+    @Param({"100000", "1000000"})
+    private int keys;
+
+    @Param({"decoded", "serialized", "offHeap"})
+    private String valueStore;
+
+    private PulsarClient client;
+    private String topic;
+    private TableView<String> tableView;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        client = PulsarClient.builder().serviceUrl(serviceUrl).build();
+        topic = "persistent://public/default/table-view-benchmark-" + System.nanoTime();
+        try (Producer<String> producer = client.newProducer(Schema.STRING)
+                .topic(topic)
+                .blockIfQueueFull(true)
+                .create()) {
+            for (int i = 0; i < keys; i++) {
+                producer.newMessage().key("key-" + i).value("{\"id\":" + i + ",\"name\":\"value-" + i + "\"}")
+                        .sendAsync();
+            }
+            producer.flush();
+        }
+        tableView = createTableView();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws Exception {
+        tableView.close();
+        client.close();
+    }
+
+    private TableView<String> createTableView() throws Exception {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long usedBefore = runtime.totalMemory() - runtime.freeMemory();
+        long directBefore = directMemoryUsed();
+        TableView<String> tableView = client.newTableView(Schema.STRING)
+                .topic(topic)
+                .storeSerializedValues(valueStore.equals("serialized"))
+                .storeValuesOffHeap(valueStore.equals("offHeap"))
+                .create();
+        System.gc();
+        long usedAfter = runtime.totalMemory() - runtime.freeMemory();
+        long directAfter = directMemoryUsed();
+        System.out.printf("%nTable view of %d keys: %d MB of heap, %d MB of direct memory%n", tableView.size(),
+                (usedAfter - usedBefore) / (1024 * 1024), (directAfter - directBefore) / (1024 * 1024));
+        return tableView;
+    }
+
+    private static long directMemoryUsed() {
+        long used = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                used += pool.getMemoryUsed();
+            }
+        }
+        return used;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 3)
+    @Warmup(iterations = 1)
+    public int load() throws Exception {
+        try (TableView<String> tableView = createTableView()) {
+            return tableView.size();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    @Warmup(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    public String get() {
+        return tableView.get("key-" + ThreadLocalRandom.current().nextInt(keys));
+    }
+}
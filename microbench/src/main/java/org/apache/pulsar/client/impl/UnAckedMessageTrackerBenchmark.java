@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.impl;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.impl.conf.ConsumerConfigurationData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time per message to track 1M unacked messages in the {@link UnAckedMessageTracker} and in the
+ * {@link NegativeAcksTracker}, then to remove them individually or with a cumulative ack. The allocation rate per
+ * message is reported when running with the gc profiler, e.g. {@code -prof gc}.
+ * <p>
+ * The trackers are created for a consumer, which requires a running broker, e.g. started with
+ * {@code bin/pulsar standalone}. The service url can be changed with {@code -p serviceUrl=pulsar://host:6650}.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class UnAckedMessageTrackerBenchmark {
+
+    private static final int TRACKED_MESSAGES = 1_000_000;
+
+    @Param("pulsar://localhost:6650")
+    private String serviceUrl;
+
+    private PulsarClientImpl client;
+    private ConsumerImpl<byte[]> consumer;
+    private UnAckedMessageTracker unAckedMessageTracker;
+    private NegativeAcksTracker negativeAcksTracker;
+    private final MessageIdImpl[] messageIds = new MessageIdImpl[TRACKED_MESSAGES];
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        client = (PulsarClientImpl) PulsarClient.builder().serviceUrl(serviceUrl).build();
+        consumer = (ConsumerImpl<byte[]>) client.newConsumer()
+                .topic("persistent://public/default/unacked-message-tracker-benchmark-" + System.nanoTime())
+                .subscriptionName("sub")
+                .subscribe();
+
+        // the timeouts are long enough for the messages to never be redelivered during the benchmark
+        ConsumerConfigurationData<?> conf = new ConsumerConfigurationData<>();
+        conf.setAckTimeoutMillis(TimeUnit.HOURS.toMillis(1));
+        conf.setTickDurationMillis(TimeUnit.SECONDS.toMillis(1));
+        conf.setNegativeAckRedeliveryDelayMicros(TimeUnit.HOURS.toMicros(1));
+        unAckedMessageTracker = new UnAckedMessageTracker(client, consumer, conf);
+        negativeAcksTracker = new NegativeAcksTracker(consumer, conf);
+
+        for (int i = 0; i < TRACKED_MESSAGES; i++) {
+            // 1000 messages per ledger, as many ledgers as a consumer would see over a long period
+            messageIds[i] = new MessageIdImpl(i / 1000, i % 1000, -1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws Exception {
+        unAckedMessageTracker.close();
+        negativeAcksTracker.close();
+        consumer.close();
+        client.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRACKED_MESSAGES)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    @Warmup(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    public long addAndRemove() {
+        for (MessageIdImpl messageId : messageIds) {
+            unAckedMessageTracker.add(messageId);
+        }
+        long size = unAckedMessageTracker.size();
+        for (MessageIdImpl messageId : messageIds) {
+            unAckedMessageTracker.remove(messageId);
+        }
+        return size;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRACKED_MESSAGES)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    @Warmup(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    public int addAndRemoveTill() {
+        for (MessageIdImpl messageId : messageIds) {
+            unAckedMessageTracker.add(messageId);
+        }
+        return unAckedMessageTracker.removeMessagesTill(messageIds[TRACKED_MESSAGES - 1]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRACKED_MESSAGES)
+    @Measurement(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    @Warmup(time = 10, timeUnit = TimeUnit.SECONDS, iterations = 1)
+    public long negativeAck() {
+        for (MessageIdImpl messageId : messageIds) {
+            negativeAcksTracker.add(messageId);
+        }
+        long count = negativeAcksTracker.getNackedMessagesCount();
+        negativeAcksTracker.close();
+        return count;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Producer;
+import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.SubscriptionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time for many consumers, whose message listener blocks for {@value #BLOCKING_MS} ms, to process one
+ * message each, with the listeners on the shared listener threads or on virtual threads. Each iteration publishes
+ * one message per consumer on a shared subscription, the consumers have a receiver queue of one message.
+ * <p>
+ * The virtual threads require running the benchmark on Java 21 or later. The benchmark requires a running broker,
+ * e.g. started with {@code bin/pulsar standalone}. The service url can be changed with
+ * {@code -p serviceUrl=pulsar://host:6650}.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class VirtualThreadListenerBenchmark {
+
+    private static final long BLOCKING_MS = 10;
+
+    @Param("pulsar://localhost:6650")
+    private String serviceUrl;
+
+    @Param({"1000", "10000", "100000"})
+    private int consumers;
+
+    @Param({"false", "true"})
+    private boolean listenerVirtualThreads;
+
+    private PulsarClient client;
+    private Producer<byte[]> producer;
+    private final List<Consumer<byte[]>> consumerList = new ArrayList<>();
+    private volatile CountDownLatch processed;
+    private final byte[] payload = new byte[64];
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        client = PulsarClient.builder()
+                .serviceUrl(serviceUrl)
+                .listenerVirtualThreads(listenerVirtualThreads)
+                .build();
+        String topic = "persistent://public/default/virtual-thread-listener-benchmark-" + System.nanoTime();
+        producer = client.newProducer().topic(topic).blockIfQueueFull(true).create();
+        List<CompletableFuture<Consumer<byte[]>>> futures = new ArrayList<>(consumers);
+        for (int i = 0; i < consumers; i++) {
+            futures.add(client.newConsumer()
+                    .topic(topic)
+                    .subscriptionName("sub")
+                    .subscriptionType(SubscriptionType.Shared)
+                    .receiverQueueSize(1)
+                    .messageListener((consumer, message) -> {
+                        try {
+                            // e.g. a blocking call to another service
+                            Thread.sleep(BLOCKING_MS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        consumer.acknowledgeAsync(message);
+                        processed.countDown();
+                    })
+                    .subscribeAsync());
+        }
+        for (CompletableFuture<Consumer<byte[]>> future : futures) {
+            consumerList.add(future.get());
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        processed = new CountDownLatch(consumers);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws Exception {
+        for (Consumer<byte[]> consumer : consumerList) {
+            consumer.closeAsync();
+        }
+        producer.close();
+        client.close();
+    }
+
+    @Benchmark
+    @Measurement(iterations = 5)
+    @Warmup(iterations = 1)
+    public void process() throws Exception {
+        for (int i = 0; i < consumers; i++) {
+            producer.sendAsync(payload);
+        }
+        producer.flush();
+        processed.await();
+    }
+}
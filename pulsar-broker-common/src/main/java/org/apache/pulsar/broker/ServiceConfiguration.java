@@ -606,7 +606,8 @@ public class ServiceConfiguration implements PulsarConfiguration {
     @FieldContext(
         dynamic = true,
         category = CATEGORY_POLICIES,
-        doc = "Max capacity of the topic name cache. -1 means unlimited cache; 0 means broker will clear all cache"
+        doc = "Max capacity of the topic name cache. The least recently used topic names are evicted when the"
+                + " cache is full. -1 means unlimited cache; 0 means broker will clear all cache"
                 + " per maxSecondsToClearTopicNameCache, it does not mean broker will not cache TopicName."
     )
     private int topicNameCacheMaxCapacity = 100_000;
@@ -753,6 +754,52 @@ public class ServiceConfiguration implements PulsarConfiguration {
     )
     private int maxPendingPublishRequestsPerConnection = 1000;
 
+    @FieldContext(
+        category = CATEGORY_POLICIES,
+        dynamic = true,
+        doc = "Pack messages that producers publish without batching into batch entries on the broker before"
+                + " writing them to the managed ledger. This reduces the number of entries for topics with"
+                + " producers that publish many small messages. A packed entry contains messages of all producers"
+                + " of the topic with the same schema version, and each message is acknowledged to its producer with"
+                + " its own sequence id and its index in the entry. The producer name and the publish time of each"
+                + " message are kept in the entry, clients that don't support them see those of the first message"
+                + " of the entry. Messages that are compressed, encrypted, chunked,"
+                + " delayed or part of a transaction are never packed, and topics with deduplication enabled are"
+                + " not affected. Default is false."
+    )
+    private boolean brokerSideBatchingEnabled = false;
+
+    @FieldContext(
+        category = CATEGORY_POLICIES,
+        dynamic = true,
+        doc = "Max time that a message waits on the broker to be packed with other messages when"
+                + " brokerSideBatchingEnabled=true. Default is 1000 microseconds."
+    )
+    private long brokerSideBatchingMaxPublishDelayMicros = 1000;
+
+    @FieldContext(
+        category = CATEGORY_POLICIES,
+        dynamic = true,
+        doc = "Max number of messages in a batch entry packed by the broker. Default is 1000."
+    )
+    private int brokerSideBatchingMaxMessages = 1000;
+
+    @FieldContext(
+        category = CATEGORY_POLICIES,
+        dynamic = true,
+        doc = "Max size in bytes of a batch entry packed by the broker. Default is 131072 (128KB)."
+    )
+    private int brokerSideBatchingMaxBytes = 128 * 1024;
+
+    @FieldContext(
+        category = CATEGORY_POLICIES,
+        doc = "Throttle producers that exceed publish rate limits by delaying the send receipts of the affected"
+                + " producers instead of pausing reads on the whole connection. Connections that carry many"
+                + " producers keep serving the producers that are within their limits. The messages a throttled"
+                + " producer can publish without receipts are bounded by its max pending messages. Default is false."
+    )
+    private boolean publishThrottlingDelayReceiptsEnabled = false;
+
     @FieldContext(
         category = CATEGORY_POLICIES,
         minValue = 1,
@@ -1356,6 +1403,14 @@ public class ServiceConfiguration implements PulsarConfiguration {
             doc = "Number of worker threads to serve topic ordered executor")
     private int topicOrderedExecutorThreadNum = Runtime.getRuntime().availableProcessors();
 
+    @FieldContext(
+            category = CATEGORY_SERVER,
+            doc = "Assign each persistent topic a home IO event loop. Publish requests that arrive on other event"
+                    + " loops are handed off to the home event loop, and the topic's ordered tasks and dispatchers"
+                    + " run on it too, so that the state of a topic is mostly accessed by a single thread."
+                    + " Default is false.")
+    private boolean topicEventLoopAffinityEnabled = false;
+
     @FieldContext(
         category = CATEGORY_SERVER,
         doc = "Enable broker to load persistent topics"
@@ -113,6 +113,7 @@ import org.apache.pulsar.broker.service.schema.SchemaRegistryService;
 import org.apache.pulsar.broker.service.schema.SchemaStorageFactory;
 import org.apache.pulsar.broker.stats.MetricsGenerator;
 import org.apache.pulsar.broker.stats.OpenTelemetryConsumerStats;
+import org.apache.pulsar.broker.stats.OpenTelemetryNameCacheStats;
 import org.apache.pulsar.broker.stats.OpenTelemetryProducerStats;
 import org.apache.pulsar.broker.stats.OpenTelemetryReplicatedSubscriptionStats;
 import org.apache.pulsar.broker.stats.OpenTelemetryReplicatorStats;
@@ -271,6 +272,7 @@ public class PulsarService implements AutoCloseable, ShutdownService {
     private OpenTelemetryTopicStats openTelemetryTopicStats;
     private OpenTelemetryConsumerStats openTelemetryConsumerStats;
     private OpenTelemetryProducerStats openTelemetryProducerStats;
+    private OpenTelemetryNameCacheStats openTelemetryNameCacheStats;
     private OpenTelemetryReplicatorStats openTelemetryReplicatorStats;
     private OpenTelemetryReplicatedSubscriptionStats openTelemetryReplicatedSubscriptionStats;
     private OpenTelemetryTransactionCoordinatorStats openTelemetryTransactionCoordinatorStats;
@@ -695,6 +697,10 @@ public class PulsarService implements AutoCloseable, ShutdownService {
                 openTelemetryProducerStats.close();
                 openTelemetryProducerStats = null;
             }
+            if (openTelemetryNameCacheStats != null) {
+                openTelemetryNameCacheStats.close();
+                openTelemetryNameCacheStats = null;
+            }
             if (openTelemetryConsumerStats != null) {
                 openTelemetryConsumerStats.close();
                 openTelemetryConsumerStats = null;
@@ -847,6 +853,7 @@ public class PulsarService implements AutoCloseable, ShutdownService {
             openTelemetryTopicStats = new OpenTelemetryTopicStats(this);
             openTelemetryConsumerStats = new OpenTelemetryConsumerStats(this);
             openTelemetryProducerStats = new OpenTelemetryProducerStats(this);
+            openTelemetryNameCacheStats = new OpenTelemetryNameCacheStats(this);
             openTelemetryReplicatorStats = new OpenTelemetryReplicatorStats(this);
             openTelemetryReplicatedSubscriptionStats = new OpenTelemetryReplicatedSubscriptionStats(this);
 
@@ -3159,9 +3159,10 @@ public class PersistentTopicsBase extends AdminResource {
                 .compareTo(persistentTopic.getMaxReadPosition()) > 0;
         responseBuilder.header("X-Pulsar-txn-uncommitted", isTxnUncommitted);
 
-        // Decode if needed
-        CompressionCodec codec = CompressionCodecProvider
-                .getCompressionCodec(isEncrypted ? NONE : metadata.getCompression());
+        // Decode if needed, a payload compressed with a dictionary is returned as is
+        CompressionCodec codec = CompressionCodecProvider.getCompressionCodec(
+                isEncrypted || !CompressionCodecProvider.isDecodable(metadata.getCompression())
+                        ? NONE : metadata.getCompression());
         ByteBuf uncompressedPayload = codec.decode(metadataAndPayload, metadata.getUncompressedSize());
 
         // Copy into a heap buffer for output stream compatibility
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.broker.rest;
+
+import io.netty.buffer.ByteBuf;
+import org.apache.pulsar.client.api.CompressionType;
+import org.apache.pulsar.common.allocator.PulsarByteBufAllocator;
+import org.apache.pulsar.common.api.proto.MessageMetadata;
+import org.apache.pulsar.common.api.proto.SingleMessageMetadata;
+import org.apache.pulsar.common.compression.CompressionCodecProvider;
+import org.apache.pulsar.common.protocol.Commands;
+
+/**
+ * Packs the payloads of a streaming REST produce request into batch entries, in the same format that the Pulsar
+ * client uses for batched messages, so that a single managed ledger entry is written for many small messages.
+ * <p>
+ * This class is not thread safe. It's used by the request thread that reads the request body.
+ */
+class RestMessageBatchBuilder {
+
+    private final String producerName;
+    private final int maxMessagesInBatch;
+    private final int maxBatchSizeBytes;
+    private final SingleMessageMetadata singleMessageMetadata = new SingleMessageMetadata();
+    private ByteBuf batchBuffer;
+    private int numMessagesInBatch;
+    private long nextSequenceId;
+    private long firstSequenceIdInBatch;
+
+    RestMessageBatchBuilder(String producerName, int maxMessagesInBatch, int maxBatchSizeBytes) {
+        this.producerName = producerName;
+        this.maxMessagesInBatch = maxMessagesInBatch;
+        this.maxBatchSizeBytes = maxBatchSizeBytes;
+    }
+
+    /**
+     * Adds a message to the current batch. The payload is copied and its reader index is not modified. The caller
+     * should check {@link #hasSpaceFor(int)} and build the current batch first if the message doesn't fit.
+     */
+    void add(ByteBuf payload) {
+        if (batchBuffer == null) {
+            batchBuffer = PulsarByteBufAllocator.DEFAULT.buffer(Math.min(maxBatchSizeBytes, 64 * 1024));
+            firstSequenceIdInBatch = nextSequenceId;
+        }
+        singleMessageMetadata.clear();
+        Commands.serializeSingleMessageInBatchWithPayload(singleMessageMetadata, payload.duplicate(), batchBuffer);
+        numMessagesInBatch++;
+        nextSequenceId++;
+    }
+
+    /**
+     * Returns whether a message with a payload of the given size can be added to the current batch without exceeding
+     * the max number of messages or the max size of the batch. A message can always be added to an empty batch.
+     */
+    boolean hasSpaceFor(int payloadSize) {
+        if (numMessagesInBatch == 0) {
+            return true;
+        }
+        if (numMessagesInBatch >= maxMessagesInBatch) {
+            return false;
+        }
+        singleMessageMetadata.clear();
+        singleMessageMetadata.setPayloadSize(payloadSize);
+        long messageSize = 4L + singleMessageMetadata.getSerializedSize() + payloadSize;
+        return batchBuffer.readableBytes() + messageSize <= maxBatchSizeBytes;
+    }
+
+    boolean isEmpty() {
+        return numMessagesInBatch == 0;
+    }
+
+    int getNumMessagesInBatch() {
+        return numMessagesInBatch;
+    }
+
+    /**
+     * Builds the entry for the current batch, including the checksum and the message metadata, and starts a new
+     * batch. The caller is responsible for releasing the returned buffer.
+     */
+    ByteBuf build() {
+        MessageMetadata messageMetadata = new MessageMetadata();
+        messageMetadata.setProducerName(producerName);
+        messageMetadata.setPublishTime(System.currentTimeMillis());
+        messageMetadata.setSequenceId(firstSequenceIdInBatch);
+        messageMetadata.setHighestSequenceId(nextSequenceId - 1);
+        messageMetadata.setNumMessagesInBatch(numMessagesInBatch);
+        messageMetadata.setCompression(CompressionCodecProvider.convertToWireProtocol(CompressionType.NONE));
+        messageMetadata.setUncompressedSize(batchBuffer.readableBytes());
+        try {
+            return Commands.serializeMetadataAndPayload(Commands.ChecksumType.Crc32c, messageMetadata, batchBuffer);
+        } finally {
+            batchBuffer.release();
+            batchBuffer = null;
+            numMessagesInBatch = 0;
+        }
+    }
+
+    /**
+     * Releases the buffer of the current batch, if any, without building it.
+     */
+    void discard() {
+        if (batchBuffer != null) {
+            batchBuffer.release();
+            batchBuffer = null;
+        }
+        numMessagesInBatch = 0;
+    }
+}
@@ -35,6 +35,7 @@ public class RestMessagePublishContext implements Topic.PublishContext {
     private Topic topic;
     private long startTimeNs;
     private CompletableFuture<Position> positionFuture;
+    private long numberOfMessages;
 
     /**
      * Executed from managed ledger thread when the message is persisted.
@@ -60,13 +61,24 @@ public class RestMessagePublishContext implements Topic.PublishContext {
         recycle();
     }
 
+    @Override
+    public long getNumberOfMessages() {
+        return numberOfMessages;
+    }
+
     // recycler
     public static RestMessagePublishContext get(CompletableFuture<Position> positionFuture, Topic topic,
                                                      long startTimeNs) {
+        return get(positionFuture, topic, startTimeNs, 1);
+    }
+
+    public static RestMessagePublishContext get(CompletableFuture<Position> positionFuture, Topic topic,
+                                                     long startTimeNs, long numberOfMessages) {
         RestMessagePublishContext callback = RECYCLER.get();
         callback.positionFuture = positionFuture;
         callback.topic = topic;
         callback.startTimeNs = startTimeNs;
+        callback.numberOfMessages = numberOfMessages;
         return callback;
     }
 
@@ -85,6 +97,7 @@ public class RestMessagePublishContext implements Topic.PublishContext {
     public void recycle() {
         topic = null;
         startTimeNs = -1;
+        numberOfMessages = 0;
         recyclerHandle.recycle(this);
     }
 }
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.broker.rest;
+
+import io.netty.buffer.ByteBuf;
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Incrementally decodes the message payloads of a streaming REST produce request body, so that the body never has
+ * to be held in memory as a whole.
+ * <p>
+ * Two body formats are supported:
+ * <ul>
+ *     <li>{@link Format#LENGTH_PREFIXED}: each message is a 4-byte big-endian payload length followed by the raw
+ *     payload bytes.</li>
+ *     <li>{@link Format#NDJSON}: each non-empty line is the UTF-8 payload of one message. A trailing carriage return
+ *     is removed.</li>
+ * </ul>
+ */
+public class RestMessageStreamDecoder {
+
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    /**
+     * The format of the request body.
+     */
+    public enum Format {
+        LENGTH_PREFIXED,
+        NDJSON;
+
+        /**
+         * Returns the format for the media type of a request body. Bodies that aren't newline delimited JSON are
+         * decoded as length prefixed binary messages.
+         */
+        public static Format fromMediaType(String mediaType) {
+            return mediaType != null && mediaType.toLowerCase().startsWith(NDJSON_MEDIA_TYPE)
+                    ? NDJSON : LENGTH_PREFIXED;
+        }
+    }
+
+    private final InputStream in;
+    private final Format format;
+    private final int maxMessageSize;
+
+    public RestMessageStreamDecoder(InputStream in, Format format, int maxMessageSize) {
+        this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in);
+        this.format = format;
+        this.maxMessageSize = maxMessageSize;
+    }
+
+    /**
+     * Reads the payload of the next message into the given buffer.
+     *
+     * @param payload the buffer to write the payload to
+     * @return false if the end of the stream has been reached and there are no more messages
+     * @throws IOException if the stream can't be read or the body is malformed
+     */
+    public boolean readNext(ByteBuf payload) throws IOException {
+        return format == Format.NDJSON ? readNextLine(payload) : readNextLengthPrefixed(payload);
+    }
+
+    private boolean readNextLengthPrefixed(ByteBuf payload) throws IOException {
+        int b1 = in.read();
+        if (b1 < 0) {
+            return false;
+        }
+        int b2 = in.read();
+        int b3 = in.read();
+        int b4 = in.read();
+        if ((b2 | b3 | b4) < 0) {
+            throw new EOFException("Truncated message length");
+        }
+        int length = (b1 << 24) | (b2 << 16) | (b3 << 8) | b4;
+        if (length < 0 || length > maxMessageSize) {
+            throw new IOException("Invalid message length " + length + ", the max message size is "
+                    + maxMessageSize);
+        }
+        int remaining = length;
+        while (remaining > 0) {
+            int read = payload.writeBytes(in, remaining);
+            if (read < 0) {
+                throw new EOFException("Truncated message payload, expected " + length + " bytes");
+            }
+            remaining -= read;
+        }
+        return true;
+    }
+
+    private boolean readNextLine(ByteBuf payload) throws IOException {
+        while (true) {
+            int b;
+            int length = 0;
+            while ((b = in.read()) >= 0 && b != '\n') {
+                if (++length > maxMessageSize) {
+                    throw new IOException("Message exceeds the max message size " + maxMessageSize);
+                }
+                payload.writeByte(b);
+            }
+            if (length > 0 && payload.getByte(payload.writerIndex() - 1) == '\r') {
+                payload.writerIndex(payload.writerIndex() - 1);
+                length--;
+            }
+            if (length > 0) {
+                return true;
+            }
+            if (b < 0) {
+                return false;
+            }
+            // skip empty lines
+        }
+    }
+}
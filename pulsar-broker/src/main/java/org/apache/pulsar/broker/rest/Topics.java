@@ -23,9 +23,11 @@ import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import java.io.InputStream;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.Encoded;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
@@ -33,6 +35,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import org.apache.pulsar.websocket.data.ProducerMessages;
 import org.slf4j.Logger;
@@ -102,6 +105,78 @@ public class Topics extends TopicsBase {
         }
     }
 
+    @POST
+    @Path("/persistent/{tenant}/{namespace}/{topic}/stream")
+    @Consumes({MediaType.APPLICATION_OCTET_STREAM, RestMessageStreamDecoder.NDJSON_MEDIA_TYPE})
+    @ApiOperation(value = "Produce a stream of messages to a persistent topic. The body is either a sequence of "
+            + "4-byte big-endian length prefixed payloads (application/octet-stream) or one payload per line "
+            + "(application/x-ndjson). The messages are published in batches and one result is returned per batch.",
+            response = String.class, responseContainer = "List")
+    @ApiResponses(value = {
+            @ApiResponse(code = 400, message = "The message stream is malformed"),
+            @ApiResponse(code = 401, message = "Client is not authorized to perform operation"),
+            @ApiResponse(code = 404, message = "tenant/namespace/topic doesn't exit"),
+            @ApiResponse(code = 412, message = "Namespace name is not valid"),
+            @ApiResponse(code = 500, message = "Internal server error") })
+    public void produceStreamOnPersistentTopic(@Suspended final AsyncResponse asyncResponse,
+                                               @ApiParam(value = "Specify the tenant", required = true)
+                                               @PathParam("tenant") String tenant,
+                                               @ApiParam(value = "Specify the namespace", required = true)
+                                               @PathParam("namespace") String namespace,
+                                               @ApiParam(value = "Specify topic name", required = true)
+                                               @PathParam("topic") @Encoded String encodedTopic,
+                                               @QueryParam("authoritative") @DefaultValue("false")
+                                                       boolean authoritative,
+                                               @QueryParam("producerName") String producerName,
+                                               @HeaderParam(HttpHeaders.CONTENT_TYPE) String contentType,
+                                               InputStream body) {
+        try {
+            validateTopicName(tenant, namespace, encodedTopic);
+            validateProducePermission();
+            publishMessageStream(asyncResponse, body, RestMessageStreamDecoder.Format.fromMediaType(contentType),
+                    producerName, authoritative, null);
+        } catch (Exception e) {
+            log.error("[{}] Failed to produce on topic {}", clientAppId(), topicName, e);
+            resumeAsyncResponseExceptionally(asyncResponse, e);
+        }
+    }
+
+    @POST
+    @Path("/persistent/{tenant}/{namespace}/{topic}/partitions/{partition}/stream")
+    @Consumes({MediaType.APPLICATION_OCTET_STREAM, RestMessageStreamDecoder.NDJSON_MEDIA_TYPE})
+    @ApiOperation(value = "Produce a stream of messages to a partition of a persistent topic.",
+            response = String.class, responseContainer = "List")
+    @ApiResponses(value = {
+            @ApiResponse(code = 400, message = "The message stream is malformed"),
+            @ApiResponse(code = 401, message = "Client is not authorized to perform operation"),
+            @ApiResponse(code = 404, message = "tenant/namespace/topic doesn't exit"),
+            @ApiResponse(code = 412, message = "Namespace name is not valid"),
+            @ApiResponse(code = 500, message = "Internal server error") })
+    public void produceStreamOnPersistentTopicPartition(@Suspended final AsyncResponse asyncResponse,
+                                                        @ApiParam(value = "Specify the tenant", required = true)
+                                                        @PathParam("tenant") String tenant,
+                                                        @ApiParam(value = "Specify the namespace", required = true)
+                                                        @PathParam("namespace") String namespace,
+                                                        @ApiParam(value = "Specify topic name", required = true)
+                                                        @PathParam("topic") @Encoded String encodedTopic,
+                                                        @ApiParam(value = "Specify topic partition", required = true)
+                                                        @PathParam("partition") int partition,
+                                                        @QueryParam("authoritative") @DefaultValue("false")
+                                                                boolean authoritative,
+                                                        @QueryParam("producerName") String producerName,
+                                                        @HeaderParam(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                        InputStream body) {
+        try {
+            validateTopicName(tenant, namespace, encodedTopic);
+            validateProducePermission();
+            publishMessageStream(asyncResponse, body, RestMessageStreamDecoder.Format.fromMediaType(contentType),
+                    producerName, authoritative, partition);
+        } catch (Exception e) {
+            log.error("[{}] Failed to produce on topic {}", clientAppId(), topicName, e);
+            resumeAsyncResponseExceptionally(asyncResponse, e);
+        }
+    }
+
     @POST
     @Path("/non-persistent/{tenant}/{namespace}/{topic}")
     @ApiOperation(value = "Produce message to a persistent topic.", response = String.class, responseContainer = "List")
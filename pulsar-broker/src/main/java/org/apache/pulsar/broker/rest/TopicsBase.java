@@ -22,6 +22,7 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 import com.fasterxml.jackson.databind.ObjectReader;
 import io.netty.buffer.ByteBuf;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URL;
 import java.nio.ByteBuffer;
@@ -41,6 +42,8 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import javax.ws.rs.container.AsyncResponse;
@@ -64,6 +67,7 @@ import org.apache.pulsar.broker.lookup.LookupResult;
 import org.apache.pulsar.broker.namespace.LookupOptions;
 import org.apache.pulsar.broker.service.BrokerServiceException;
 import org.apache.pulsar.broker.service.Topic;
+import org.apache.pulsar.broker.service.persistent.PersistentTopic;
 import org.apache.pulsar.broker.service.schema.SchemaRegistry;
 import org.apache.pulsar.broker.service.schema.exceptions.SchemaException;
 import org.apache.pulsar.broker.web.RestException;
@@ -84,6 +88,7 @@ import org.apache.pulsar.client.impl.schema.generic.GenericAvroRecord;
 import org.apache.pulsar.client.impl.schema.generic.GenericAvroWriter;
 import org.apache.pulsar.client.impl.schema.generic.GenericJsonRecord;
 import org.apache.pulsar.client.impl.schema.generic.GenericJsonWriter;
+import org.apache.pulsar.common.allocator.PulsarByteBufAllocator;
 import org.apache.pulsar.common.api.proto.MessageMetadata;
 import org.apache.pulsar.common.compression.CompressionCodecProvider;
 import org.apache.pulsar.common.naming.TopicName;
@@ -111,6 +116,13 @@ public class TopicsBase extends PersistentTopicsBase {
 
     private static String defaultProducerName = "RestProducer";
 
+    // Limits for packing the payloads of a streaming produce request into batch entries.
+    private static final int MAX_MESSAGES_IN_STREAM_BATCH = 1000;
+    private static final int MAX_STREAM_BATCH_SIZE_BYTES = 128 * 1024;
+    // Max number of batches of a streaming produce request that wait to be persisted before reading more of the body
+    // is suspended.
+    private static final int MAX_PENDING_STREAM_BATCHES = 32;
+
     // Publish message to a topic, can be partitioned or non-partitioned
     protected void publishMessages(AsyncResponse asyncResponse, ProducerMessages request, boolean authoritative) {
         String topic = topicName.getPartitionedTopicName();
@@ -190,6 +202,215 @@ public class TopicsBase extends PersistentTopicsBase {
         }
     }
 
+    // Publish a stream of raw message payloads to a topic, or to a single partition if partition isn't null.
+    // The request body is decoded incrementally and packed into batch entries while it's being read.
+    protected void publishMessageStream(AsyncResponse asyncResponse, InputStream body,
+                                        RestMessageStreamDecoder.Format format, String producerName,
+                                        boolean authoritative, Integer partition) {
+        if (partition != null && topicName.isPartitioned()) {
+            asyncResponse.resume(new RestException(Status.BAD_REQUEST, "Topic name can't contain "
+                    + "'-partition-' suffix."));
+            return;
+        }
+        String topic = topicName.getPartitionedTopicName();
+        try {
+            Set<Integer> owningPartitions = pulsar().getBrokerService().getOwningTopics().get(topic);
+            boolean owned = owningPartitions != null
+                    && (partition == null ? !owningPartitions.isEmpty() : owningPartitions.contains(partition));
+            if (owned || !findOwnerBrokerForTopic(authoritative, asyncResponse)) {
+                owningPartitions = pulsar().getBrokerService().getOwningTopics().getOrDefault(topic, Set.of());
+                List<Integer> partitionIndexes = partition == null ? owningPartitions.stream().toList()
+                        : (owningPartitions.contains(partition) ? List.of(partition) : List.of());
+                if (partitionIndexes.isEmpty()) {
+                    asyncResponse.resume(new RestException(Status.INTERNAL_SERVER_ERROR,
+                            new BrokerServiceException.TopicNotFoundException("Topic not owned by current broker.")));
+                    return;
+                }
+                internalPublishMessageStream(body, format,
+                        StringUtils.isEmpty(producerName) ? defaultProducerName : producerName,
+                        partitionIndexes, asyncResponse);
+            }
+        } catch (Exception e) {
+            asyncResponse.resume(new RestException(Status.INTERNAL_SERVER_ERROR, "Fail to publish message: "
+                    + e.getMessage()));
+        }
+    }
+
+    private void internalPublishMessageStream(InputStream body, RestMessageStreamDecoder.Format format,
+                                              String producerName, List<Integer> partitionIndexes,
+                                              AsyncResponse asyncResponse) throws Exception {
+        List<Topic> topics = new ArrayList<>(partitionIndexes.size());
+        for (Integer partitionIndex : partitionIndexes) {
+            TopicName partitionName = topicName.getPartition(partitionIndex);
+            Optional<Topic> topic = pulsar().getBrokerService().getTopic(partitionName.toString(), false)
+                    .get(pulsar().getConfiguration().getMetadataStoreOperationTimeoutSeconds(), SECONDS);
+            if (topic.isEmpty()) {
+                // Topic not found, and remove from owning partition list.
+                Set<Integer> owningPartitions = pulsar().getBrokerService().getOwningTopics()
+                        .get(topicName.getPartitionedTopicName());
+                if (owningPartitions != null) {
+                    owningPartitions.remove(partitionIndex);
+                }
+                asyncResponse.resume(new RestException(Status.INTERNAL_SERVER_ERROR,
+                        new BrokerServiceException.TopicNotFoundException("Topic not owned by current broker.")));
+                return;
+            }
+            topics.add(topic.get());
+        }
+
+        RestMessageStreamDecoder decoder = new RestMessageStreamDecoder(body, format,
+                pulsar().getConfiguration().getMaxMessageSize());
+        RestMessageBatchBuilder batchBuilder = new RestMessageBatchBuilder(producerName,
+                MAX_MESSAGES_IN_STREAM_BATCH, MAX_STREAM_BATCH_SIZE_BYTES);
+        Executor readExecutor = pulsar().getWebService() != null
+                ? pulsar().getWebService().getWebServiceExecutor() : pulsar().getExecutor();
+        new MessageStreamPublisher(decoder, batchBuilder, topics, partitionIndexes, readExecutor, asyncResponse)
+                .readBody();
+    }
+
+    /**
+     * Reads the body of a streaming produce request and publishes it in batches. When too many batches wait to be
+     * persisted, or the managed ledger of the next topic has too many pending writes, reading the body is suspended
+     * without blocking the request thread. It's resumed on the web service executor once a batch is persisted.
+     */
+    private class MessageStreamPublisher {
+        private final RestMessageStreamDecoder decoder;
+        private final RestMessageBatchBuilder batchBuilder;
+        private final List<Topic> topics;
+        private final List<Integer> partitionIndexes;
+        private final Executor readExecutor;
+        private final AsyncResponse asyncResponse;
+        private final int maxPendingAddEntries;
+        private final List<ProducerAck> produceMessageResults = new ArrayList<>();
+        private final List<CompletableFuture<Position>> publishResults = new ArrayList<>();
+        private final ByteBuf payload = PulsarByteBufAllocator.DEFAULT.buffer();
+        // guarded by this
+        private int pendingBatches;
+        // guarded by this
+        private boolean suspended;
+
+        MessageStreamPublisher(RestMessageStreamDecoder decoder, RestMessageBatchBuilder batchBuilder,
+                               List<Topic> topics, List<Integer> partitionIndexes, Executor readExecutor,
+                               AsyncResponse asyncResponse) {
+            this.decoder = decoder;
+            this.batchBuilder = batchBuilder;
+            this.topics = topics;
+            this.partitionIndexes = partitionIndexes;
+            this.readExecutor = readExecutor;
+            this.asyncResponse = asyncResponse;
+            this.maxPendingAddEntries = pulsar().getConfiguration().getMaxPendingPublishRequestsPerConnection();
+        }
+
+        void readBody() {
+            try {
+                while (true) {
+                    synchronized (this) {
+                        if (shouldSuspend()) {
+                            suspended = true;
+                            return;
+                        }
+                    }
+                    if (!decoder.readNext(payload)) {
+                        break;
+                    }
+                    if (!batchBuilder.hasSpaceFor(payload.readableBytes())) {
+                        publishBatch();
+                    }
+                    batchBuilder.add(payload);
+                    payload.clear();
+                }
+                if (!batchBuilder.isEmpty()) {
+                    publishBatch();
+                }
+            } catch (IOException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Fail to read rest produce message stream for topic {}: {}", topicName,
+                            e.getMessage());
+                }
+                // Batches that have been published before the malformed part of the body are not rolled back.
+                fail(new RestException(Status.BAD_REQUEST, "Fail to read message stream after "
+                        + publishResults.size() + " published batches: " + e.getMessage()));
+                return;
+            } catch (Throwable t) {
+                fail(new RestException(Status.INTERNAL_SERVER_ERROR, "Fail to publish message: " + t.getMessage()));
+                return;
+            }
+            payload.release();
+            FutureUtil.waitForAll(publishResults).whenComplete((__, e) -> {
+                // Some batches may be published successfully, so still return ok with the result of each batch.
+                processPublishMessageResults(produceMessageResults, publishResults);
+                asyncResponse.resume(Response.ok().entity(new ProducerAcks(produceMessageResults, -1)).build());
+            });
+        }
+
+        private boolean shouldSuspend() {
+            if (pendingBatches >= MAX_PENDING_STREAM_BATCHES) {
+                return true;
+            }
+            // Only wait for the managed ledger when one of our batches is pending, its completion resumes reading.
+            return pendingBatches > 0 && nextTopic() instanceof PersistentTopic persistentTopic
+                    && persistentTopic.getManagedLedger().getPendingAddEntriesCount() >= maxPendingAddEntries;
+        }
+
+        private Topic nextTopic() {
+            return topics.get(publishResults.size() % topics.size());
+        }
+
+        private void publishBatch() {
+            int index = publishResults.size() % topics.size();
+            ProducerAck produceMessageResult = new ProducerAck();
+            produceMessageResult.setMessageId(partitionIndexes.get(index) + "");
+            produceMessageResult.setNumMessages(batchBuilder.getNumMessagesInBatch());
+            produceMessageResults.add(produceMessageResult);
+            synchronized (this) {
+                pendingBatches++;
+            }
+            CompletableFuture<Position> publishResult = publishBatchToPartition(topics.get(index), batchBuilder);
+            publishResults.add(publishResult);
+            publishResult.whenComplete((__, ___) -> onBatchCompleted());
+        }
+
+        private void onBatchCompleted() {
+            synchronized (this) {
+                pendingBatches--;
+                if (!suspended || shouldSuspend()) {
+                    return;
+                }
+                suspended = false;
+            }
+            try {
+                readExecutor.execute(this::readBody);
+            } catch (RejectedExecutionException e) {
+                fail(new RestException(Status.SERVICE_UNAVAILABLE, "Fail to resume reading message stream: "
+                        + e.getMessage()));
+            }
+        }
+
+        private void fail(RestException exception) {
+            batchBuilder.discard();
+            payload.release();
+            asyncResponse.resume(exception);
+        }
+    }
+
+    private CompletableFuture<Position> publishBatchToPartition(Topic topic, RestMessageBatchBuilder batchBuilder) {
+        CompletableFuture<Position> publishResult = new CompletableFuture<>();
+        int numMessages = batchBuilder.getNumMessagesInBatch();
+        ByteBuf headersAndPayload = batchBuilder.build();
+        try {
+            topic.publishMessage(headersAndPayload,
+                    RestMessagePublishContext.get(publishResult, topic, System.nanoTime(), numMessages));
+        } catch (Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Fail to publish message batch to topic {}: {} ", topic.getName(), e.getMessage());
+            }
+            publishResult.completeExceptionally(e);
+        } finally {
+            headersAndPayload.release();
+        }
+        return publishResult;
+    }
+
     private void internalPublishMessagesToPartition(TopicName topicName, ProducerMessages request,
                                                   int partition, AsyncResponse asyncResponse,
                                                   Schema schema, SchemaVersion schemaVersion) {
@@ -48,6 +48,7 @@ import org.apache.pulsar.broker.service.plugin.EntryFilter;
 import org.apache.pulsar.broker.transaction.pendingack.impl.PendingAckHandleImpl;
 import org.apache.pulsar.client.api.transaction.TxnID;
 import org.apache.pulsar.common.api.proto.CommandAck.AckType;
+import org.apache.pulsar.common.api.proto.CompressionType;
 import org.apache.pulsar.common.api.proto.MessageMetadata;
 import org.apache.pulsar.common.api.proto.ReplicatedSubscriptionsSnapshot;
 import org.apache.pulsar.common.protocol.Commands;
@@ -182,6 +183,21 @@ public abstract class AbstractBaseDispatcher extends EntryFilterSupport implemen
                 entry.release();
                 continue;
             }
+            if (msgMetadata != null && consumer != null && consumer.cnx() != null
+                    && ((msgMetadata.getCompression() == CompressionType.ZSTD_DICTIONARY
+                            && !consumer.cnx().isClientSupportsZstdDictionaryCompression())
+                    || (msgMetadata.isColumnarBatch() && !consumer.cnx().isClientSupportsColumnarBatch()))) {
+                // The client would read the compression as NONE and deliver the compressed payload to the
+                // application, or read the columnar batch as a regular batch. The entry is redelivered later, e.g.
+                // to another consumer of the subscription
+                if (entriesToRedeliver == null) {
+                    entriesToRedeliver = new ArrayList<>();
+                }
+                entriesToRedeliver.add(entry.getPosition());
+                entries.set(i, null);
+                entry.release();
+                continue;
+            }
             if (msgMetadata != null && msgMetadata.hasTxnidMostBits()
                     && msgMetadata.hasTxnidLeastBits()) {
                 if (Markers.isTxnMarker(msgMetadata)) {
@@ -304,11 +320,12 @@ public abstract class AbstractBaseDispatcher extends EntryFilterSupport implemen
             }
         }
         if (CollectionUtils.isNotEmpty(entriesToRedeliver)) {
+            final List<Position> positionsToRedeliver = entriesToRedeliver;
             this.subscription.getTopic().getBrokerService().getPulsar().getExecutor()
                     .schedule(() -> {
                         // simulate the Consumer rejected the message
                         subscription
-                                .redeliverUnacknowledgedMessages(consumer, entriesToRedeliver);
+                                .redeliverUnacknowledgedMessages(consumer, positionsToRedeliver);
                     }, serviceConfig.getDispatcherEntryFilterRescheduledMessageDelay(), TimeUnit.MILLISECONDS);
 
         }
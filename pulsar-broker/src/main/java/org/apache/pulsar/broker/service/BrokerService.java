@@ -36,6 +36,7 @@ import io.netty.channel.AdaptiveRecvByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.ssl.SslContext;
@@ -150,6 +151,7 @@ import org.apache.pulsar.client.impl.ClientBuilderImpl;
 import org.apache.pulsar.client.impl.conf.ClientConfigurationData;
 import org.apache.pulsar.client.internal.PropertiesUtils;
 import org.apache.pulsar.client.util.ExecutorProvider;
+import org.apache.pulsar.client.util.MathUtils;
 import org.apache.pulsar.common.allocator.PulsarByteBufAllocator;
 import org.apache.pulsar.common.configuration.BindAddress;
 import org.apache.pulsar.common.configuration.FieldContext;
@@ -235,6 +237,8 @@ public class BrokerService implements Closeable {
     private final EventLoopGroup acceptorGroup;
     private final EventLoopGroup workerGroup;
     private final OrderedExecutor topicOrderedExecutor;
+    // Home event loops of the topics if topicEventLoopAffinityEnabled=true, otherwise null
+    private final EventLoop[] topicEventLoops;
     // offline topic backlog cache
     private final Map<TopicName, PersistentOfflineTopicStats> offlineTopicStatCache = new ConcurrentHashMap<>();
     private final Map<String, ConfigField> dynamicConfigurationMap;
@@ -349,6 +353,13 @@ public class BrokerService implements Closeable {
         this.acceptorGroup = EventLoopUtil.newEventLoopGroup(
                 pulsar.getConfiguration().getNumAcceptorThreads(), false, acceptorThreadFactory);
         this.workerGroup = eventLoopGroup;
+        if (pulsar.getConfiguration().isTopicEventLoopAffinityEnabled()) {
+            List<EventLoop> eventLoops = new ArrayList<>();
+            workerGroup.forEach(executor -> eventLoops.add((EventLoop) executor));
+            this.topicEventLoops = eventLoops.toArray(new EventLoop[0]);
+        } else {
+            this.topicEventLoops = null;
+        }
 
         this.statsUpdater = OrderedScheduler.newSchedulerBuilder()
                 .name("pulsar-stats-updater")
@@ -646,6 +657,7 @@ public class BrokerService implements Closeable {
 
     protected void startClearInvalidateTopicNameCacheTask() {
         final int maxSecondsToClearTopicNameCache = pulsar.getConfiguration().getMaxSecondsToClearTopicNameCache();
+        TopicName.clearIfReachedMaxCapacity(pulsar.getConfiguration().getTopicNameCacheMaxCapacity());
         inactivityMonitor.scheduleAtFixedRate(
             () -> TopicName.clearIfReachedMaxCapacity(pulsar.getConfiguration().getTopicNameCacheMaxCapacity()),
             maxSecondsToClearTopicNameCache,
@@ -3362,6 +3374,16 @@ public class BrokerService implements Closeable {
         return topicOrderedExecutor;
     }
 
+    /**
+     * Returns the home event loop of a topic, or null if topicEventLoopAffinityEnabled=false.
+     */
+    public EventLoop getTopicEventLoop(String topic) {
+        if (topicEventLoops == null || topicEventLoops.length == 0) {
+            return null;
+        }
+        return topicEventLoops[MathUtils.signSafeMod(topic.hashCode(), topicEventLoops.length)];
+    }
+
     /**
      * If per-broker unacked message reached to limit then it blocks dispatcher if its unacked message limit has been
      * reached to {@link #maxUnackedMsgsPerDispatcher}.
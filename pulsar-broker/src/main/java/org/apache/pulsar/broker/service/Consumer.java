@@ -23,11 +23,14 @@ import static org.apache.pulsar.broker.service.StickyKeyConsumerSelector.STICKY_
 import static org.apache.pulsar.common.protocol.Commands.DEFAULT_CONSUMER_EPOCH;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.Range;
 import com.google.common.util.concurrent.AtomicDouble;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.Promise;
 import io.opentelemetry.api.common.Attributes;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntIntPair;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectIntPair;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -64,6 +67,7 @@ import org.apache.pulsar.common.api.proto.CommandTopicMigrated.ResourceType;
 import org.apache.pulsar.common.api.proto.KeyLongValue;
 import org.apache.pulsar.common.api.proto.KeySharedMeta;
 import org.apache.pulsar.common.api.proto.MessageIdData;
+import org.apache.pulsar.common.api.proto.MessageIdRange;
 import org.apache.pulsar.common.naming.TopicName;
 import org.apache.pulsar.common.policies.data.ClusterPolicies.ClusterUrl;
 import org.apache.pulsar.common.policies.data.TopicOperation;
@@ -549,6 +553,10 @@ public class Consumer {
             }
         } else {
             if (ack.hasTxnidLeastBits() && ack.hasTxnidMostBits()) {
+                if (ack.getMessageIdRangesCount() > 0) {
+                    return FutureUtil.failedFuture(new BrokerServiceException.NotAllowedException(
+                            "Ack ranges are not supported with transactions"));
+                }
                 future = individualAckWithTransaction(ack);
             } else {
                 future = individualAckNormal(ack, properties);
@@ -605,9 +613,22 @@ public class Consumer {
 
             totalAckCount += ackedCount;
         }
-        subscription.acknowledgeMessage(positionsAcked.stream()
-                .map(Pair::getRight)
-                .collect(Collectors.toList()), AckType.Individual, properties);
+        if (!positionsAcked.isEmpty() || ack.getMessageIdRangesCount() == 0) {
+            subscription.acknowledgeMessage(positionsAcked.stream()
+                    .map(Pair::getRight)
+                    .collect(Collectors.toList()), AckType.Individual, properties);
+        }
+        if (ack.getMessageIdRangesCount() > 0) {
+            List<Range<Position>> rangesAcked = new ArrayList<>(ack.getMessageIdRangesCount());
+            for (int i = 0; i < ack.getMessageIdRangesCount(); i++) {
+                MessageIdRange range = ack.getMessageIdRangeAt(i);
+                totalAckCount += individualAckRange(range.getLedgerId(), range.getFirstEntryId(),
+                        range.getLastEntryId());
+                rangesAcked.add(Range.closed(PositionFactory.create(range.getLedgerId(), range.getFirstEntryId()),
+                        PositionFactory.create(range.getLedgerId(), range.getLastEntryId())));
+            }
+            subscription.acknowledgeMessageRanges(rangesAcked, properties);
+        }
         CompletableFuture<Long> completableFuture = new CompletableFuture<>();
         completableFuture.complete(totalAckCount);
         if (isTransactionEnabled() && Subscription.isIndividualAckMode(subType)) {
@@ -628,6 +649,40 @@ public class Consumer {
     }
 
 
+    /**
+     * Removes the pending acks of a range of acknowledged entries, without looking up each entry of the range, and
+     * returns the number of acknowledged messages.
+     */
+    private long individualAckRange(long ledgerId, long firstEntryId, long lastEntryId) {
+        long ackedCount = lastEntryId - firstEntryId + 1;
+        if (!Subscription.isIndividualAckMode(subType)) {
+            return ackedCount;
+        }
+        // The entries are usually pending acks of this consumer, but they can be pending acks of the other consumers
+        // when they are acknowledged through a different consumer
+        for (Consumer consumer : subscription.getConsumers()) {
+            LongArrayList removedEntryIds = new LongArrayList();
+            IntArrayList removedBatchSizes = new IntArrayList();
+            consumer.getPendingAcks().removeRange(ledgerId, firstEntryId, lastEntryId,
+                    (__, entryId, batchSize, stickyKeyHash) -> {
+                        removedEntryIds.add(entryId);
+                        removedBatchSizes.add(batchSize);
+                    });
+            if (removedEntryIds.isEmpty()) {
+                continue;
+            }
+            int removedMessages = 0;
+            for (int i = 0; i < removedEntryIds.size(); i++) {
+                removedMessages += (int) getUnAckedCountForBatchIndexLevelEnabled(
+                        PositionFactory.create(ledgerId, removedEntryIds.getLong(i)), removedBatchSizes.getInt(i));
+            }
+            ackedCount += removedMessages - removedEntryIds.size();
+            addAndGetUnAckedMsgs(consumer, -removedMessages);
+            updateBlockedConsumerOnUnackedMsgs(consumer);
+        }
+        return ackedCount;
+    }
+
     //this method is for individual ack carry the transaction
     private CompletableFuture<Long> individualAckWithTransaction(CommandAck ack) {
         // Individual ack
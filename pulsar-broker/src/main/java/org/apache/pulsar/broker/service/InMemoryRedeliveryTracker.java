@@ -100,6 +100,23 @@ public class InMemoryRedeliveryTracker implements RedeliveryTracker {
         }
     }
 
+    @Override
+    public void removeRange(long ledgerId, long firstEntryId, long lastEntryId) {
+        long stamp = rwLock.writeLock();
+        try {
+            Long2IntMap entryMap = trackerCache.get(ledgerId);
+            if (entryMap != null) {
+                // only the redelivered entries are tracked, so the map is usually much smaller than the range
+                entryMap.keySet().removeIf(entryId -> entryId >= firstEntryId && entryId <= lastEntryId);
+                if (entryMap.isEmpty()) {
+                    trackerCache.remove(ledgerId);
+                }
+            }
+        } finally {
+            rwLock.unlockWrite(stamp);
+        }
+    }
+
     @Override
     public void clear() {
         long stamp = rwLock.writeLock();
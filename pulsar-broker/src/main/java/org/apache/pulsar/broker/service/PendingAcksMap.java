@@ -325,6 +325,52 @@ public class PendingAcksMap {
         }
     }
 
+    /**
+     * Remove the pending acks of the entries from the first to the last entry ID, both included, of a ledger.
+     *
+     * @param ledgerId the ledger ID
+     * @param firstEntryId the first entry ID
+     * @param lastEntryId the last entry ID
+     * @param processor the processor to handle each removed pending ack
+     */
+    public void removeRange(long ledgerId, long firstEntryId, long lastEntryId, PendingAcksConsumer processor) {
+        PendingAcksRemoveHandler pendingAcksRemoveHandler = pendingAcksRemoveHandlerSupplier.get();
+        boolean batchStarted = false;
+        try {
+            writeLock.lock();
+            Long2ObjectSortedMap<IntIntPair> ledgerMap = pendingAcks.get(ledgerId);
+            if (ledgerMap == null) {
+                return;
+            }
+            ObjectBidirectionalIterator<Long2ObjectMap.Entry<IntIntPair>> entryMapIterator =
+                    ledgerMap.subMap(firstEntryId, lastEntryId + 1).long2ObjectEntrySet().iterator();
+            while (entryMapIterator.hasNext()) {
+                Long2ObjectMap.Entry<IntIntPair> entry = entryMapIterator.next();
+                long entryId = entry.getLongKey();
+                IntIntPair batchSizeAndStickyKeyHash = entry.getValue();
+                if (pendingAcksRemoveHandler != null) {
+                    if (!batchStarted) {
+                        pendingAcksRemoveHandler.startBatch();
+                        batchStarted = true;
+                    }
+                    pendingAcksRemoveHandler.handleRemoving(consumer, ledgerId, entryId,
+                            batchSizeAndStickyKeyHash.rightInt(), closed);
+                }
+                processor.accept(ledgerId, entryId, batchSizeAndStickyKeyHash.leftInt(),
+                        batchSizeAndStickyKeyHash.rightInt());
+                entryMapIterator.remove();
+            }
+            if (ledgerMap.isEmpty()) {
+                pendingAcks.remove(ledgerId);
+            }
+        } finally {
+            if (batchStarted) {
+                pendingAcksRemoveHandler.endBatch();
+            }
+            writeLock.unlock();
+        }
+    }
+
     /**
      * Remove all pending acks up to the given ledger ID and entry ID.
      *
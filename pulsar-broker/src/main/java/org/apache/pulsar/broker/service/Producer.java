@@ -28,9 +28,11 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.CaseFormat;
 import com.google.common.base.MoreObjects;
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.EventLoop;
 import io.netty.util.Recycler;
 import io.netty.util.Recycler.Handle;
 import io.opentelemetry.api.common.Attributes;
+import java.util.ArrayDeque;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -39,6 +41,7 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import org.apache.bookkeeper.mledger.Position;
@@ -108,6 +111,14 @@ public class Producer {
     private final String clientAddress; // IP address only, no port number included
     private final AtomicBoolean isDisconnecting = new AtomicBoolean(false);
 
+    // when enabled, publish throttling delays the send receipts of this producer instead of pausing the connection
+    private final boolean throttlingDelaysReceipts;
+    private volatile int receiptThrottleCount = 0;
+    private static final AtomicIntegerFieldUpdater<Producer> RECEIPT_THROTTLE_COUNT_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(Producer.class, "receiptThrottleCount");
+    // accessed only from the connection's I/O thread
+    private final ArrayDeque<MessagePublishContext> delayedReceipts = new ArrayDeque<>();
+
     public Producer(Topic topic, TransportCnx cnx, long producerId, String producerName, String appId,
             boolean isEncrypted, Map<String, String> metadata, SchemaVersion schemaVersion, long epoch,
             boolean userProvidedProducerName,
@@ -161,6 +172,7 @@ public class Producer {
 
         this.clientAddress = cnx.clientSourceAddress();
         this.brokerInterceptor = cnx.getBrokerService().getInterceptor();
+        this.throttlingDelaysReceipts = serviceConf.isPublishThrottlingDelayReceiptsEnabled();
     }
 
     /**
@@ -292,7 +304,7 @@ public class Producer {
             brokerInterceptor
                     .onMessagePublish(this, headersAndPayload, messagePublishContext);
         }
-        topic.publishMessage(headersAndPayload, messagePublishContext);
+        publishMessageOnHomeEventLoop(headersAndPayload, messagePublishContext);
     }
 
     private void publishMessageToTopic(ByteBuf headersAndPayload, long lowestSequenceId, long highestSequenceId,
@@ -304,7 +316,25 @@ public class Producer {
             brokerInterceptor
                     .onMessagePublish(this, headersAndPayload, messagePublishContext);
         }
-        topic.publishMessage(headersAndPayload, messagePublishContext);
+        publishMessageOnHomeEventLoop(headersAndPayload, messagePublishContext);
+    }
+
+    private void publishMessageOnHomeEventLoop(ByteBuf headersAndPayload, MessagePublishContext publishContext) {
+        EventLoop homeEventLoop = topic.getHomeEventLoop();
+        if (homeEventLoop == null || homeEventLoop.inEventLoop()) {
+            topic.publishMessage(headersAndPayload, publishContext);
+            return;
+        }
+        // The buffer is released by the connection once the command has been handled, keep it until the topic's
+        // event loop has published it. The order of the messages of this producer is kept by the task queue.
+        headersAndPayload.retain();
+        homeEventLoop.execute(() -> {
+            try {
+                topic.publishMessage(headersAndPayload, publishContext);
+            } finally {
+                headersAndPayload.release();
+            }
+        });
     }
 
     private boolean verifyChecksum(ByteBuf headersAndPayload) {
@@ -390,6 +420,9 @@ public class Producer {
         private long sequenceId;
         private long ledgerId;
         private long entryId;
+        // the index and the number of messages in the entry that the broker packed this message into, if any
+        private int batchIndexInEntry;
+        private int batchSizeOfEntry;
         private int msgSize;
         private int batchSize;
         private boolean chunked;
@@ -500,6 +533,11 @@ public class Producer {
          */
         @Override
         public void completed(Exception exception, long ledgerId, long entryId) {
+            completed(exception, ledgerId, entryId, -1, 0);
+        }
+
+        @Override
+        public void completed(Exception exception, long ledgerId, long entryId, int batchIndex, int batchSize) {
             if (exception != null) {
                 final ServerError serverError = getServerError(exception);
 
@@ -530,6 +568,8 @@ public class Producer {
 
                 this.ledgerId = ledgerId;
                 this.entryId = entryId;
+                this.batchIndexInEntry = batchIndex;
+                this.batchSizeOfEntry = batchSize;
                 producer.cnx.execute(this);
             }
         }
@@ -559,13 +599,25 @@ public class Producer {
             // stats
             producer.stats.recordMsgIn(batchSize, msgSize);
             producer.topic.recordAddLatency(System.nanoTime() - startTimeNs, TimeUnit.NANOSECONDS);
+            producer.cnx.completedSendOperation(producer.isNonPersistentTopic, msgSize);
+            if (producer.shouldDelayReceipt()) {
+                // the producer is throttled, the receipt is sent when the throttling period is over
+                producer.delayedReceipts.add(this);
+                return;
+            }
+            sendReceipt();
+        }
+
+        /**
+         * Sends the receipt to the client and recycles this instance. Executed from I/O thread.
+         */
+        void sendReceipt() {
             if (producer.isRemoteOrShadow && producer.isSupportsReplDedupByLidAndEid()) {
                 sendSendReceiptResponseRepl();
             } else {
                 // Repl V1 is the same as normal for this handling.
                 sendSendReceiptResponseNormal();
             }
-            producer.cnx.completedSendOperation(producer.isNonPersistentTopic, msgSize);
             if (this.chunked) {
                 producer.stats.recordChunkedMsgIn();
             }
@@ -611,7 +663,7 @@ public class Producer {
 
         private void sendSendReceiptResponseNormal() {
             producer.cnx.getCommandSender().sendSendReceiptResponse(producer.producerId, sequenceId, highestSequenceId,
-                    ledgerId, entryId);
+                    ledgerId, entryId, batchIndexInEntry, batchSizeOfEntry);
         }
 
         static MessagePublishContext get(Producer producer, long sequenceId, int msgSize, int batchSize,
@@ -630,6 +682,8 @@ public class Producer {
             callback.supportsReplDedupByLidAndEid = supportsReplDedupByLidAndEid;
             callback.ledgerId = position == null ? -1 : position.getLedgerId();
             callback.entryId = position == null ? -1 : position.getEntryId();
+            callback.batchIndexInEntry = -1;
+            callback.batchSizeOfEntry = 0;
             if (callback.propertyMap != null) {
                 callback.propertyMap.clear();
             }
@@ -653,6 +707,8 @@ public class Producer {
             callback.supportsReplDedupByLidAndEid = supportsReplDedupByLidAndEid;
             callback.ledgerId = position == null ? -1 : position.getLedgerId();
             callback.entryId = position == null ? -1 : position.getEntryId();
+            callback.batchIndexInEntry = -1;
+            callback.batchSizeOfEntry = 0;
             if (callback.propertyMap != null) {
                 callback.propertyMap.clear();
             }
@@ -695,6 +751,8 @@ public class Producer {
             msgSize = 0;
             ledgerId = -1L;
             entryId = -1L;
+            batchIndexInEntry = -1;
+            batchSizeOfEntry = 0;
             batchSize = 0;
             startTimeNs = -1L;
             chunked = false;
@@ -757,6 +815,9 @@ public class Producer {
             topic.removeProducer(this);
         }
         cnx.removedProducer(this);
+        if (throttlingDelaysReceipts) {
+            cnx.execute(() -> sendDelayedReceipts(true));
+        }
 
         if (log.isDebugEnabled()) {
             log.debug("Removed producer: {}", this);
@@ -908,7 +969,13 @@ public class Producer {
      * needed on the connection.
      */
     public void incrementThrottleCount() {
-        cnx.incrementThrottleCount();
+        if (throttlingDelaysReceipts) {
+            if (RECEIPT_THROTTLE_COUNT_UPDATER.incrementAndGet(this) == 1) {
+                topic.increasePublishLimitedTimes();
+            }
+        } else {
+            cnx.incrementThrottleCount();
+        }
     }
 
     /**
@@ -920,7 +987,39 @@ public class Producer {
      * was needed on the connection.
      */
     public void decrementThrottleCount() {
-        cnx.decrementThrottleCount();
+        if (throttlingDelaysReceipts) {
+            if (RECEIPT_THROTTLE_COUNT_UPDATER.decrementAndGet(this) == 0) {
+                cnx.execute(() -> sendDelayedReceipts(false));
+            }
+        } else {
+            cnx.decrementThrottleCount();
+        }
+    }
+
+    /**
+     * Checks whether the receipt of a persisted message should be delayed. When the producer is throttled,
+     * all following receipts are also delayed so that the receipts are sent in order.
+     * Executed from I/O thread.
+     */
+    private boolean shouldDelayReceipt() {
+        return throttlingDelaysReceipts && (receiptThrottleCount > 0 || !delayedReceipts.isEmpty());
+    }
+
+    /**
+     * Sends the receipts that were delayed while the producer was throttled. Executed from I/O thread.
+     *
+     * @param force send the receipts also when the producer is still throttled, used when the producer is closed
+     */
+    private void sendDelayedReceipts(boolean force) {
+        MessagePublishContext publishContext;
+        while ((force || receiptThrottleCount == 0) && (publishContext = delayedReceipts.poll()) != null) {
+            publishContext.sendReceipt();
+        }
+    }
+
+    @VisibleForTesting
+    int getDelayedReceiptsCount() {
+        return delayedReceipts.size();
     }
 
     public Attributes getOpenTelemetryAttributes() {
@@ -104,8 +104,14 @@ public class PulsarCommandSenderImpl implements PulsarCommandSender {
     @Override
     public void sendSendReceiptResponse(long producerId, long sequenceId, long highestId, long ledgerId,
                                         long entryId) {
+        sendSendReceiptResponse(producerId, sequenceId, highestId, ledgerId, entryId, -1, 0);
+    }
+
+    @Override
+    public void sendSendReceiptResponse(long producerId, long sequenceId, long highestId, long ledgerId,
+                                        long entryId, int batchIndex, int batchSize) {
         BaseCommand command = Commands.newSendReceiptCommand(producerId, sequenceId, highestId, ledgerId,
-                entryId);
+                entryId, batchIndex, batchSize);
         safeIntercept(command, cnx);
         ByteBuf outBuf = Commands.serializeWithSize(command);
         writeAndFlush(outBuf);
@@ -165,7 +171,7 @@ public class PulsarCommandSenderImpl implements PulsarCommandSender {
     @Override
     public void sendConnectedResponse(int clientProtocolVersion, int maxMessageSize, boolean supportsTopicWatchers) {
         BaseCommand command = Commands.newConnectedCommand(
-                clientProtocolVersion, maxMessageSize, supportsTopicWatchers);
+                clientProtocolVersion, maxMessageSize, supportsTopicWatchers, true);
         safeIntercept(command, cnx);
         ByteBuf outBuf = Commands.serializeWithSize(command);
         writeAndFlush(outBuf);
@@ -31,5 +31,10 @@ public interface RedeliveryTracker {
 
     void removeBatch(List<Position> positions);
 
+    /**
+     * Removes the entries from the first to the last entry id, both included, of a ledger.
+     */
+    void removeRange(long ledgerId, long firstEntryId, long lastEntryId);
+
     void clear();
 }
\ No newline at end of file
@@ -47,6 +47,11 @@ public class RedeliveryTrackerDisabled implements RedeliveryTracker {
         // no-op
     }
 
+    @Override
+    public void removeRange(long ledgerId, long firstEntryId, long lastEntryId) {
+        // no-op
+    }
+
     @Override
     public void clear() {
         // no-op
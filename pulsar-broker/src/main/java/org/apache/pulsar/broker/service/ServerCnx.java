@@ -144,6 +144,7 @@ import org.apache.pulsar.common.api.proto.KeySharedMeta;
 import org.apache.pulsar.common.api.proto.KeySharedMode;
 import org.apache.pulsar.common.api.proto.KeyValue;
 import org.apache.pulsar.common.api.proto.MessageIdData;
+import org.apache.pulsar.common.api.proto.MessageIdRange;
 import org.apache.pulsar.common.api.proto.MessageMetadata;
 import org.apache.pulsar.common.api.proto.ProducerAccessMode;
 import org.apache.pulsar.common.api.proto.ProtocolVersion;
@@ -817,7 +818,8 @@ public class ServerCnx extends PulsarHandler implements TransportCnx {
             }
             maybeScheduleAuthenticationCredentialsRefresh();
         }
-        writeAndFlush(Commands.newConnected(clientProtoVersion, maxMessageSize, enableSubscriptionPatternEvaluation));
+        writeAndFlush(Commands.newConnected(clientProtoVersion, maxMessageSize, enableSubscriptionPatternEvaluation,
+                true));
         state = State.Connected;
         service.getPulsarStats().recordConnectionCreateSuccess();
         if (log.isDebugEnabled()) {
@@ -1965,6 +1967,16 @@ public class ServerCnx extends PulsarHandler implements TransportCnx {
         final boolean hasRequestId = ack.hasRequestId();
         final long requestId = hasRequestId ? ack.getRequestId() : 0;
         final long consumerId = ack.getConsumerId();
+        String invalidRange = validateMessageIdRanges(ack);
+        if (invalidRange != null) {
+            log.warn("[{}] Rejecting ack of consumer {} with invalid range {}", remoteAddress, consumerId,
+                    invalidRange);
+            if (hasRequestId) {
+                writeAndFlush(Commands.newAckResponse(requestId, ServerError.NotAllowedError,
+                        "Invalid ack range " + invalidRange, consumerId));
+            }
+            return;
+        }
         // It is necessary to make a copy of the CommandAck instance for the interceptor.
         final CommandAck copyOfAckForInterceptor = brokerInterceptor != null ? new CommandAck().copyFrom(ack) : null;
 
@@ -2013,6 +2025,21 @@ public class ServerCnx extends PulsarHandler implements TransportCnx {
         }
     }
 
+    /**
+     * Returns the first invalid range of an ack, or null if all the ranges are valid. The ranges are acknowledged as
+     * ranges by the cursor, the entries of the ranges aren't expanded.
+     */
+    private static String validateMessageIdRanges(CommandAck ack) {
+        for (int i = 0; i < ack.getMessageIdRangesCount(); i++) {
+            MessageIdRange range = ack.getMessageIdRangeAt(i);
+            if (range.getFirstEntryId() < 0 || range.getLastEntryId() < range.getFirstEntryId()
+                    || range.getLastEntryId() == Long.MAX_VALUE) {
+                return range.getLedgerId() + ":" + range.getFirstEntryId() + "-" + range.getLastEntryId();
+            }
+        }
+        return null;
+    }
+
     @Override
     protected void handleFlow(CommandFlow flow) {
         checkArgument(state == State.Connected);
@@ -2438,7 +2465,7 @@ public class ServerCnx extends PulsarHandler implements TransportCnx {
 
     private int calculateTheLastBatchIndexInBatch(MessageMetadata metadata, ByteBuf payload) throws IOException {
         int batchSize = metadata.getNumMessagesInBatch();
-        if (batchSize <= 1){
+        if (batchSize <= 1 || !CompressionCodecProvider.isDecodable(metadata.getCompression())){
             return -1;
         }
         if (metadata.hasCompression()) {
@@ -18,12 +18,15 @@
  */
 package org.apache.pulsar.broker.service;
 
+import com.google.common.collect.Range;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import org.apache.bookkeeper.mledger.Entry;
 import org.apache.bookkeeper.mledger.Position;
+import org.apache.bookkeeper.mledger.PositionFactory;
 import org.apache.pulsar.broker.intercept.BrokerInterceptor;
 import org.apache.pulsar.broker.loadbalance.extensions.data.BrokerLookupData;
 import org.apache.pulsar.common.api.proto.CommandAck.AckType;
@@ -50,6 +53,20 @@ public interface Subscription extends MessageExpirer {
 
     void acknowledgeMessage(List<Position> positions, AckType ackType, Map<String, Long> properties);
 
+    /**
+     * Individually acknowledges closed ranges of entries, each range is within a single ledger.
+     */
+    default void acknowledgeMessageRanges(List<Range<Position>> ranges, Map<String, Long> properties) {
+        List<Position> positions = new ArrayList<>();
+        for (Range<Position> range : ranges) {
+            Position first = range.lowerEndpoint();
+            for (long entryId = first.getEntryId(); entryId <= range.upperEndpoint().getEntryId(); entryId++) {
+                positions.add(PositionFactory.create(first.getLedgerId(), entryId));
+            }
+        }
+        acknowledgeMessage(positions, AckType.Individual, properties);
+    }
+
     String getTopicName();
 
     boolean isReplicated();
@@ -19,6 +19,7 @@
 package org.apache.pulsar.broker.service;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.EventLoop;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -81,6 +82,17 @@ public interface Topic {
 
         void completed(Exception e, long ledgerId, long entryId);
 
+        /**
+         * Completes the publish of a message that has been written as a part of an entry that the broker packed from
+         * several published messages.
+         *
+         * @param batchIndex the index of the message in the entry
+         * @param batchSize the number of messages in the entry
+         */
+        default void completed(Exception e, long ledgerId, long entryId, int batchIndex, int batchSize) {
+            completed(e, ledgerId, entryId);
+        }
+
         default void setMetadataFromEntryData(ByteBuf entryData) {
         }
 
@@ -136,6 +148,15 @@ public interface Topic {
 
     void publishMessage(ByteBuf headersAndPayload, PublishContext callback);
 
+    /**
+     * Returns the IO event loop that owns the state of this topic when topicEventLoopAffinityEnabled=true.
+     *
+     * @return the home event loop, or null if the topic can be accessed from any thread
+     */
+    default EventLoop getHomeEventLoop() {
+        return null;
+    }
+
     /**
      * Tries to add a producer to the topic. Several validations will be performed.
      *
@@ -111,4 +111,12 @@ public interface TransportCnx {
         return getFeatures() != null && getFeatures().hasSupportsReplDedupByLidAndEid()
                 && getFeatures().isSupportsReplDedupByLidAndEid();
     }
+
+    default boolean isClientSupportsZstdDictionaryCompression() {
+        return getFeatures() != null && getFeatures().isSupportsZstdDictionaryCompression();
+    }
+
+    default boolean isClientSupportsColumnarBatch() {
+        return getFeatures() != null && getFeatures().isSupportsColumnarBatch();
+    }
 }
@@ -19,6 +19,7 @@
 package org.apache.pulsar.broker.service.nonpersistent;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.Range;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -201,6 +202,11 @@ public class NonPersistentSubscription extends AbstractSubscription {
         // No-op
     }
 
+    @Override
+    public void acknowledgeMessageRanges(List<Range<Position>> ranges, Map<String, Long> properties) {
+        // No-op
+    }
+
     @Override
     public String toString() {
         return fullName;
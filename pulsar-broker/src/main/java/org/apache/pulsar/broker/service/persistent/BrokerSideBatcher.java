@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.broker.service.persistent;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.Timeout;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pulsar.broker.ServiceConfiguration;
+import org.apache.pulsar.broker.service.Topic.PublishContext;
+import org.apache.pulsar.common.allocator.PulsarByteBufAllocator;
+import org.apache.pulsar.common.api.proto.CompressionType;
+import org.apache.pulsar.common.api.proto.MessageMetadata;
+import org.apache.pulsar.common.protocol.Commands;
+
+/**
+ * Packs messages that producers publish without batching into batch entries before they are written to the managed
+ * ledger, so that topics with many producers of small messages don't create one entry per message.
+ * <p>
+ * A packed entry contains the messages of all producers of the topic in the order in which they have been published,
+ * as long as they have the same schema version, and has the same layout as a batch built by the client. The producer
+ * name, sequence id, publish time, keys, properties and event time of each message are kept in its single message
+ * metadata, clients that don't know the producer name and publish time of a single message see those of the first
+ * message of the entry. Each original {@link PublishContext} is completed with the position of the packed entry and
+ * the index of the message in the entry, so that each producer receives a receipt with the message id that consumers
+ * will see.
+ * <p>
+ * Messages that can't be represented in a batch entry without losing information, e.g. compressed, encrypted,
+ * chunked or delayed messages, are written as they are after the pending batch, so that the order of the messages
+ * of each producer is preserved. Transactional messages don't go through this class, the pending batch is written
+ * with {@link #flush()} before them.
+ */
+@Slf4j
+class BrokerSideBatcher {
+
+    // Max size of the metadata of the packed entry and of the single message metadata of a message
+    private static final int METADATA_SIZE_RESERVATION = 10 * 1024;
+
+    private final PersistentTopic topic;
+    private final ServiceConfiguration config;
+    private final MessageMetadata messageMetadata = new MessageMetadata();
+    private final MessageMetadata batchMetadata = new MessageMetadata();
+
+    private PendingBatch pendingBatch;
+    private Timeout flushTask;
+
+    BrokerSideBatcher(PersistentTopic topic, ServiceConfiguration config) {
+        this.topic = topic;
+        this.config = config;
+    }
+
+    private volatile boolean hasPendingMessages;
+
+    boolean isEnabled() {
+        return config.isBrokerSideBatchingEnabled()
+                && !topic.isSystemTopic()
+                && topic.getShadowSourceTopic().isEmpty()
+                // the deduplication snapshot relies on the producer name and sequence id of each entry
+                && !topic.messageDeduplication.isEnabled();
+    }
+
+    /**
+     * Returns true if there are messages waiting to be written, e.g. after batching has been disabled. Writes must
+     * go through {@link #add(ByteBuf, PublishContext)} until the pending messages have been written.
+     */
+    boolean hasPendingMessages() {
+        return hasPendingMessages;
+    }
+
+    /**
+     * Adds a message to the pending batch, or writes it directly after the pending batch if it can't be packed. The
+     * message is copied, the caller keeps the ownership of the buffer.
+     */
+    synchronized void add(ByteBuf headersAndPayload, PublishContext publishContext) {
+        ByteBuf payload = parseMetadata(headersAndPayload);
+        if (!isEnabled() || payload == null || !canBePacked(publishContext)) {
+            flush();
+            topic.asyncAddEntry(headersAndPayload, publishContext);
+            return;
+        }
+
+        int maxBatchSize = Math.min(config.getBrokerSideBatchingMaxBytes(),
+                topic.getBrokerService().getPulsar().getConfiguration().getMaxMessageSize()
+                        - METADATA_SIZE_RESERVATION);
+        if (pendingBatch != null && !pendingBatch.canAdd(messageMetadata, payload.readableBytes(), maxBatchSize)) {
+            flush(pendingBatch);
+        }
+        if (pendingBatch == null) {
+            pendingBatch = new PendingBatch(messageMetadata, maxBatchSize);
+        }
+        PendingBatch batch = pendingBatch;
+        batch.add(messageMetadata, payload, headersAndPayload.readableBytes(), publishContext);
+        hasPendingMessages = true;
+
+        if (batch.publishContexts.size() >= config.getBrokerSideBatchingMaxMessages()
+                || batch.batchBuffer.readableBytes() >= maxBatchSize) {
+            flush(batch);
+        }
+        if (pendingBatch != null && flushTask == null) {
+            // the timer only hands the flush over to the ordered executor of the topic, so that it doesn't run the
+            // flushes of all topics
+            flushTask = topic.getBrokerService().getPulsar().getBrokerClientSharedTimer().newTimeout(
+                    timeout -> flushExecutor().execute(() -> flushPending(timeout)),
+                    config.getBrokerSideBatchingMaxPublishDelayMicros(), TimeUnit.MICROSECONDS);
+        }
+    }
+
+    private Executor flushExecutor() {
+        // null check for tests which mock the broker service
+        return topic.getOrderedExecutor() != null ? topic.getOrderedExecutor() : topic.getBrokerService().executor();
+    }
+
+    private synchronized void flushPending(Timeout timeout) {
+        if (flushTask == timeout) {
+            flushTask = null;
+            flush();
+        }
+    }
+
+    /**
+     * Writes the pending batch, if any.
+     */
+    synchronized void flush() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        if (pendingBatch != null) {
+            flush(pendingBatch);
+        }
+    }
+
+    private void flush(PendingBatch batch) {
+        pendingBatch = null;
+        hasPendingMessages = false;
+        int numMessages = batch.publishContexts.size();
+        batchMetadata.clear();
+        // the entry has the producer name and the sequence id of its first message and the lowest publish time, the
+        // values of each message are in its single message metadata
+        batchMetadata.setProducerName(batch.producerName)
+                .setSequenceId(batch.firstSequenceId)
+                .setPublishTime(batch.publishTime)
+                .setNumMessagesInBatch(numMessages)
+                .setUncompressedSize(batch.batchBuffer.readableBytes());
+        if (batch.schemaVersion != null) {
+            batchMetadata.setSchemaVersion(batch.schemaVersion);
+        }
+        ByteBuf entry;
+        try {
+            entry = Commands.serializeMetadataAndPayload(Commands.ChecksumType.Crc32c, batchMetadata,
+                    batch.batchBuffer);
+        } finally {
+            batch.batchBuffer.release();
+        }
+        try {
+            topic.asyncAddBatchedEntry(entry, new BatchedPublishContext(batch.publishContexts, batch.msgSize));
+        } finally {
+            entry.release();
+        }
+        var metrics = topic.getPersistentTopicMetrics().getBrokerSideBatchingMetrics();
+        metrics.getBatchedEntryCount().increment();
+        metrics.getBatchedMessageCount().add(numMessages);
+    }
+
+    // Parses the metadata into messageMetadata and returns the payload, without changing the reader index
+    private ByteBuf parseMetadata(ByteBuf headersAndPayload) {
+        ByteBuf buffer = headersAndPayload.duplicate();
+        try {
+            Commands.skipChecksumIfPresent(buffer);
+            int metadataSize = (int) buffer.readUnsignedInt();
+            messageMetadata.parseFrom(buffer, metadataSize);
+            return buffer;
+        } catch (Throwable t) {
+            log.warn("[{}] Failed to parse message metadata, the message is written without batching",
+                    topic.getName(), t);
+            return null;
+        }
+    }
+
+    private boolean canBePacked(PublishContext publishContext) {
+        MessageMetadata md = messageMetadata;
+        return !publishContext.isChunked()
+                && !publishContext.isMarkerMessage()
+                && !md.hasNumMessagesInBatch()
+                && (!md.hasCompression() || md.getCompression() == CompressionType.NONE)
+                && md.getEncryptionKeysCount() == 0
+                && !md.hasEncryptionParam()
+                && !md.hasChunkId()
+                && !md.hasDeliverAtTime()
+                && !md.hasTxnidMostBits()
+                && !md.hasMarkerType()
+                && !md.hasReplicatedFrom()
+                && md.getReplicateTosCount() == 0;
+    }
+
+    /**
+     * The messages that wait to be written as one packed entry.
+     */
+    private static class PendingBatch {
+        private final String producerName;
+        private final long firstSequenceId;
+        private final byte[] schemaVersion;
+        private final ByteBuf batchBuffer;
+        private final List<PublishContext> publishContexts = new ArrayList<>();
+        private long publishTime;
+        private long msgSize;
+
+        PendingBatch(MessageMetadata metadata, int maxBatchSize) {
+            this.producerName = metadata.getProducerName();
+            this.firstSequenceId = metadata.getSequenceId();
+            this.publishTime = metadata.getPublishTime();
+            this.schemaVersion = metadata.hasSchemaVersion() ? metadata.getSchemaVersion() : null;
+            this.batchBuffer = PulsarByteBufAllocator.DEFAULT.buffer(Math.min(maxBatchSize, 16 * 1024));
+        }
+
+        boolean canAdd(MessageMetadata metadata, int payloadSize, int maxBatchSize) {
+            return batchBuffer.readableBytes() + payloadSize <= maxBatchSize
+                    // the schema version is stored once for the whole entry
+                    && Arrays.equals(schemaVersion, metadata.hasSchemaVersion() ? metadata.getSchemaVersion() : null);
+        }
+
+        void add(MessageMetadata metadata, ByteBuf payload, int msgSize, PublishContext publishContext) {
+            Commands.serializeSingleMessageInBrokerBatchWithPayload(metadata, payload, batchBuffer);
+            publishContexts.add(publishContext);
+            publishTime = Math.min(publishTime, metadata.getPublishTime());
+            this.msgSize += msgSize;
+        }
+    }
+
+    /**
+     * The context of a packed entry, it completes the contexts of all messages in the entry.
+     */
+    static class BatchedPublishContext implements PublishContext {
+        private final List<PublishContext> publishContexts;
+        private final long msgSize;
+
+        BatchedPublishContext(List<PublishContext> publishContexts, long msgSize) {
+            this.publishContexts = publishContexts;
+            this.msgSize = msgSize;
+        }
+
+        List<PublishContext> getPublishContexts() {
+            return publishContexts;
+        }
+
+        @Override
+        public void completed(Exception e, long ledgerId, long entryId) {
+            int batchSize = publishContexts.size();
+            for (int batchIndex = 0; batchIndex < batchSize; batchIndex++) {
+                publishContexts.get(batchIndex).completed(e, ledgerId, entryId, batchIndex, batchSize);
+            }
+        }
+
+        @Override
+        public void setMetadataFromEntryData(ByteBuf entryData) {
+            for (PublishContext publishContext : publishContexts) {
+                publishContext.setMetadataFromEntryData(entryData);
+            }
+        }
+
+        @Override
+        public long getNumberOfMessages() {
+            return publishContexts.size();
+        }
+
+        @Override
+        public long getMsgSize() {
+            return msgSize;
+        }
+    }
+}
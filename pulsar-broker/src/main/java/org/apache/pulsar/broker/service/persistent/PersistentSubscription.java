@@ -22,6 +22,7 @@ import static org.apache.pulsar.broker.service.AbstractBaseDispatcher.checkAndAp
 import static org.apache.pulsar.common.naming.SystemTopicNames.isEventSystemTopic;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.Range;
 import io.netty.buffer.ByteBuf;
 import java.io.IOException;
 import java.util.Collections;
@@ -451,6 +452,30 @@ public class PersistentSubscription extends AbstractSubscription {
             }
         }
 
+        afterAcknowledgeMessage(previousMarkDeletePosition);
+    }
+
+    @Override
+    public void acknowledgeMessageRanges(List<Range<Position>> ranges, Map<String, Long> properties) {
+        cursor.updateLastActive();
+        Position previousMarkDeletePosition = cursor.getMarkDeletedPosition();
+        if (log.isDebugEnabled()) {
+            log.debug("[{}][{}] Individual acks on ranges {}", topicName, subName, ranges);
+        }
+        cursor.asyncDeleteRanges(ranges, deleteCallback, previousMarkDeletePosition);
+        for (Range<Position> range : ranges) {
+            if (config.isTransactionCoordinatorEnabled()) {
+                pendingAckHandle.clearIndividualPositions(range);
+            }
+            if (dispatcher != null) {
+                dispatcher.getRedeliveryTracker().removeRange(range.lowerEndpoint().getLedgerId(),
+                        range.lowerEndpoint().getEntryId(), range.upperEndpoint().getEntryId());
+            }
+        }
+        afterAcknowledgeMessage(previousMarkDeletePosition);
+    }
+
+    private void afterAcknowledgeMessage(Position previousMarkDeletePosition) {
         if (!cursor.getMarkDeletedPosition().equals(previousMarkDeletePosition)) {
             this.updateLastMarkDeleteAdvancedTimestamp();
 
@@ -30,6 +30,7 @@ import com.carrotsearch.hppc.ObjectObjectHashMap;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Sets;
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.EventLoop;
 import io.netty.util.concurrent.FastThreadLocal;
 import java.time.Clock;
 import java.util.ArrayList;
@@ -286,11 +287,16 @@ public class PersistentTopic extends AbstractTopic implements Topic, AddEntryCal
     @Getter
     private final ExecutorService orderedExecutor;
 
+    // The event loop that owns the state of this topic, null if topicEventLoopAffinityEnabled=false
+    private final EventLoop homeEventLoop;
+
     private volatile CloseFutures closeFutures;
 
     @Getter
     private final PersistentTopicMetrics persistentTopicMetrics = new PersistentTopicMetrics();
 
+    private final BrokerSideBatcher brokerSideBatcher;
+
     private volatile PersistentTopicAttributes persistentTopicAttributes = null;
     private static final AtomicReferenceFieldUpdater<PersistentTopic, PersistentTopicAttributes>
             PERSISTENT_TOPIC_ATTRIBUTES_FIELD_UPDATER = AtomicReferenceFieldUpdater.newUpdater(
@@ -391,14 +397,21 @@ public class PersistentTopic extends AbstractTopic implements Topic, AddEntryCal
 
     public PersistentTopic(String topic, ManagedLedger ledger, BrokerService brokerService) {
         super(topic, brokerService);
-        // null check for backwards compatibility with tests which mock the broker service
-        this.orderedExecutor = brokerService.getTopicOrderedExecutor() != null
-                ? brokerService.getTopicOrderedExecutor().chooseThread(topic)
-                : null;
+        this.homeEventLoop = brokerService.getTopicEventLoop(topic);
+        if (homeEventLoop != null) {
+            // the ordered tasks of the topic run on its home event loop
+            this.orderedExecutor = homeEventLoop;
+        } else {
+            // null check for backwards compatibility with tests which mock the broker service
+            this.orderedExecutor = brokerService.getTopicOrderedExecutor() != null
+                    ? brokerService.getTopicOrderedExecutor().chooseThread(topic)
+                    : null;
+        }
         this.ledger = ledger;
         this.backloggedCursorThresholdEntries =
                 brokerService.pulsar().getConfiguration().getManagedLedgerCursorBackloggedThreshold();
         this.messageDeduplication = new MessageDeduplication(brokerService.pulsar(), this, ledger);
+        this.brokerSideBatcher = new BrokerSideBatcher(this, brokerService.pulsar().getConfiguration());
         if (ledger.getProperties().containsKey(TOPIC_EPOCH_PROPERTY_NAME)) {
             topicEpoch = Optional.of(Long.parseLong(ledger.getProperties().get(TOPIC_EPOCH_PROPERTY_NAME)));
         }
@@ -425,12 +438,19 @@ public class PersistentTopic extends AbstractTopic implements Topic, AddEntryCal
     PersistentTopic(String topic, BrokerService brokerService, ManagedLedger ledger,
                     MessageDeduplication messageDeduplication) {
         super(topic, brokerService);
-        // null check for backwards compatibility with tests which mock the broker service
-        this.orderedExecutor = brokerService.getTopicOrderedExecutor() != null
-                ? brokerService.getTopicOrderedExecutor().chooseThread(topic)
-                : null;
+        this.homeEventLoop = brokerService.getTopicEventLoop(topic);
+        if (homeEventLoop != null) {
+            // the ordered tasks of the topic run on its home event loop
+            this.orderedExecutor = homeEventLoop;
+        } else {
+            // null check for backwards compatibility with tests which mock the broker service
+            this.orderedExecutor = brokerService.getTopicOrderedExecutor() != null
+                    ? brokerService.getTopicOrderedExecutor().chooseThread(topic)
+                    : null;
+        }
         this.ledger = ledger;
         this.messageDeduplication = messageDeduplication;
+        this.brokerSideBatcher = new BrokerSideBatcher(this, brokerService.pulsar().getConfiguration());
         this.backloggedCursorThresholdEntries =
                 brokerService.pulsar().getConfiguration().getManagedLedgerCursorBackloggedThreshold();
 
@@ -640,7 +660,11 @@ public class PersistentTopic extends AbstractTopic implements Topic, AddEntryCal
                 messageDeduplication.isDuplicate(publishContext, headersAndPayload);
         switch (status) {
             case NotDup:
-                asyncAddEntry(headersAndPayload, publishContext);
+                if (brokerSideBatcher.isEnabled() || brokerSideBatcher.hasPendingMessages()) {
+                    brokerSideBatcher.add(headersAndPayload, publishContext);
+                } else {
+                    asyncAddEntry(headersAndPayload, publishContext);
+                }
                 break;
             case Dup:
                 // Immediately acknowledge duplicated message
@@ -654,6 +678,11 @@ public class PersistentTopic extends AbstractTopic implements Topic, AddEntryCal
         }
     }
 
+    @Override
+    public EventLoop getHomeEventLoop() {
+        return homeEventLoop;
+    }
+
     public void updateSubscribeRateLimiter() {
         SubscribeRate subscribeRate = getSubscribeRate();
         synchronized (subscribeRateLimiter) {
@@ -672,11 +701,18 @@ public class PersistentTopic extends AbstractTopic implements Topic, AddEntryCal
         }
     }
 
-    private void asyncAddEntry(ByteBuf headersAndPayload, PublishContext publishContext) {
+    void asyncAddEntry(ByteBuf headersAndPayload, PublishContext publishContext) {
         ledger.asyncAddEntry(headersAndPayload,
             (int) publishContext.getNumberOfMessages(), this, publishContext);
     }
 
+    // Write an entry that was packed from several published messages
+    void asyncAddBatchedEntry(ByteBuf entry, BrokerSideBatcher.BatchedPublishContext publishContext) {
+        // Each published message was counted as a pending write, the packed entry is a single write from now on
+        pendingWriteOps.addAndGet(1 - publishContext.getNumberOfMessages());
+        asyncAddEntry(entry, publishContext);
+    }
+
     public void asyncReadEntry(Position position, AsyncCallbacks.ReadEntryCallback callback, Object ctx) {
         ledger.asyncReadEntry(position, callback, ctx);
     }
@@ -720,7 +756,13 @@ public class PersistentTopic extends AbstractTopic implements Topic, AddEntryCal
         Position position = pos;
 
         // Message has been successfully persisted
-        messageDeduplication.recordMessagePersisted(publishContext, position);
+        if (publishContext instanceof BrokerSideBatcher.BatchedPublishContext batchedPublishContext) {
+            for (PublishContext context : batchedPublishContext.getPublishContexts()) {
+                messageDeduplication.recordMessagePersisted(context, position);
+            }
+        } else {
+            messageDeduplication.recordMessagePersisted(publishContext, position);
+        }
 
         // in order to sync the max position when cursor read entries
         transactionBuffer.syncMaxReadPositionForNormalPublish(ledger.getLastConfirmedEntry(),
@@ -4293,6 +4335,10 @@ public class PersistentTopic extends AbstractTopic implements Topic, AddEntryCal
                 messageDeduplication.isDuplicate(publishContext, headersAndPayload);
         switch (status) {
             case NotDup:
+                if (brokerSideBatcher.hasPendingMessages()) {
+                    // write the earlier messages of the producer that wait in a packed batch first
+                    brokerSideBatcher.flush();
+                }
                 transactionBuffer.appendBufferToTxn(txnID, publishContext.getSequenceId(), headersAndPayload)
                         .thenAccept(position -> {
                             // Message has been successfully persisted
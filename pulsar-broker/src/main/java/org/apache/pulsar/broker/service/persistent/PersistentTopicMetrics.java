@@ -28,6 +28,8 @@ public class PersistentTopicMetrics {
 
     private final TransactionBufferClientMetrics transactionBufferClientMetrics = new TransactionBufferClientMetrics();
 
+    private final BrokerSideBatchingMetrics brokerSideBatchingMetrics = new BrokerSideBatchingMetrics();
+
     public static class BacklogQuotaMetrics {
         private final LongAdder timeBasedBacklogQuotaExceededEvictionCount = new LongAdder();
         private final LongAdder sizeBasedBacklogQuotaExceededEvictionCount = new LongAdder();
@@ -57,4 +59,12 @@ public class PersistentTopicMetrics {
         private final LongAdder abortSucceededCount = new LongAdder();
         private final LongAdder abortFailedCount = new LongAdder();
     }
-}
\ No newline at end of file
+
+    @Getter
+    public static class BrokerSideBatchingMetrics {
+        // entries that were packed by the broker
+        private final LongAdder batchedEntryCount = new LongAdder();
+        // messages in the entries that were packed by the broker
+        private final LongAdder batchedMessageCount = new LongAdder();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.broker.stats;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.BatchCallback;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+import org.apache.pulsar.broker.PulsarService;
+import org.apache.pulsar.common.naming.NameCache;
+import org.apache.pulsar.common.naming.NamespaceBundleFactory;
+import org.apache.pulsar.common.naming.NamespaceName;
+import org.apache.pulsar.common.naming.TopicName;
+
+public class OpenTelemetryNameCacheStats implements AutoCloseable {
+
+    public static final AttributeKey<String> NAME_CACHE_TYPE = AttributeKey.stringKey("pulsar.name.cache.type");
+    public enum NameCacheType {
+        TOPIC,
+        NAMESPACE,
+        BUNDLE_RANGE;
+        private final Attributes attributes = Attributes.of(NAME_CACHE_TYPE, name().toLowerCase());
+    }
+
+    public static final String HIT_COUNTER = "pulsar.broker.name.cache.hit.count";
+    private final ObservableLongMeasurement hitCounter;
+
+    public static final String MISS_COUNTER = "pulsar.broker.name.cache.miss.count";
+    private final ObservableLongMeasurement missCounter;
+
+    public static final String EVICTION_COUNTER = "pulsar.broker.name.cache.eviction.count";
+    private final ObservableLongMeasurement evictionCounter;
+
+    public static final String SIZE_GAUGE = "pulsar.broker.name.cache.size";
+    private final ObservableLongMeasurement sizeGauge;
+
+    private final BatchCallback batchCallback;
+
+    public OpenTelemetryNameCacheStats(PulsarService pulsar) {
+        var meter = pulsar.getOpenTelemetry().getMeter();
+
+        hitCounter = meter
+                .counterBuilder(HIT_COUNTER)
+                .setUnit("{lookup}")
+                .setDescription("The total number of name lookups that were served from the name cache.")
+                .buildObserver();
+
+        missCounter = meter
+                .counterBuilder(MISS_COUNTER)
+                .setUnit("{lookup}")
+                .setDescription("The total number of name lookups that required parsing the name.")
+                .buildObserver();
+
+        evictionCounter = meter
+                .counterBuilder(EVICTION_COUNTER)
+                .setUnit("{name}")
+                .setDescription("The total number of names evicted from the name cache.")
+                .buildObserver();
+
+        sizeGauge = meter
+                .upDownCounterBuilder(SIZE_GAUGE)
+                .setUnit("{name}")
+                .setDescription("The number of names in the name cache.")
+                .buildObserver();
+
+        batchCallback = meter.batchCallback(() -> {
+                    recordMetricsForCache(TopicName.getCache(), NameCacheType.TOPIC);
+                    recordMetricsForCache(NamespaceName.getCache(), NameCacheType.NAMESPACE);
+                    recordMetricsForCache(NamespaceBundleFactory.getBundleRangeCache(), NameCacheType.BUNDLE_RANGE);
+                },
+                hitCounter,
+                missCounter,
+                evictionCounter,
+                sizeGauge);
+    }
+
+    @Override
+    public void close() {
+        batchCallback.close();
+    }
+
+    private void recordMetricsForCache(NameCache<?> cache, NameCacheType type) {
+        hitCounter.record(cache.getHitCount(), type.attributes);
+        missCounter.record(cache.getMissCount(), type.attributes);
+        evictionCounter.record(cache.getEvictionCount(), type.attributes);
+        sizeGauge.record(cache.size(), type.attributes);
+    }
+}
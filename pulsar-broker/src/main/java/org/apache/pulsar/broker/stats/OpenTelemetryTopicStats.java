@@ -107,6 +107,15 @@ public class OpenTelemetryTopicStats implements AutoCloseable {
     public static final String STORAGE_OUT_COUNTER = "pulsar.broker.topic.storage.entry.outgoing.count";
     private final ObservableLongMeasurement storageOutCounter;
 
+    public static final String STORAGE_OUT_SIZE_COUNTER = "pulsar.broker.topic.storage.entry.outgoing.size";
+    private final ObservableLongMeasurement storageOutSizeCounter;
+
+    public static final String BATCHED_ENTRY_COUNTER = "pulsar.broker.topic.storage.entry.batched.count";
+    private final ObservableLongMeasurement batchedEntryCounter;
+
+    public static final String BATCHED_MESSAGE_COUNTER = "pulsar.broker.topic.storage.message.batched.count";
+    private final ObservableLongMeasurement batchedMessageCounter;
+
     // Replaces pulsar_storage_read_rate
     public static final String STORAGE_IN_COUNTER = "pulsar.broker.topic.storage.entry.incoming.count";
     private final ObservableLongMeasurement storageInCounter;
@@ -284,6 +293,27 @@ public class OpenTelemetryTopicStats implements AutoCloseable {
                 .setDescription("The total message batches (entries) written to the storage for this topic.")
                 .buildObserver();
 
+        storageOutSizeCounter = meter
+                .counterBuilder(STORAGE_OUT_SIZE_COUNTER)
+                .setUnit("By")
+                .setDescription("The total size of the message batches (entries) written to the storage for this "
+                        + "topic.")
+                .buildObserver();
+
+        batchedEntryCounter = meter
+                .counterBuilder(BATCHED_ENTRY_COUNTER)
+                .setUnit("{entry}")
+                .setDescription("The total message batches (entries) packed by the broker from messages that were "
+                        + "published without batching.")
+                .buildObserver();
+
+        batchedMessageCounter = meter
+                .counterBuilder(BATCHED_MESSAGE_COUNTER)
+                .setUnit("{message}")
+                .setDescription("The total messages that were published without batching and packed into message "
+                        + "batches (entries) by the broker.")
+                .buildObserver();
+
         storageInCounter = meter
                 .counterBuilder(STORAGE_IN_COUNTER)
                 .setUnit("{entry}")
@@ -374,6 +404,9 @@ public class OpenTelemetryTopicStats implements AutoCloseable {
                 backlogEvictionCounter,
                 backlogQuotaAge,
                 storageOutCounter,
+                storageOutSizeCounter,
+                batchedEntryCounter,
+                batchedMessageCounter,
                 storageInCounter,
                 compactionRemovedCounter,
                 compactionOperationCounter,
@@ -423,6 +456,10 @@ public class OpenTelemetryTopicStats implements AutoCloseable {
             storageOffloadedCounter.record(managedLedger.getOffloadedSize(), attributes);
             storageInCounter.record(managedLedgerStats.getReadEntriesSucceededTotal(), attributes);
             storageOutCounter.record(managedLedgerStats.getAddEntrySucceedTotal(), attributes);
+            storageOutSizeCounter.record(managedLedgerStats.getAddEntryBytesTotal(), attributes);
+            var brokerSideBatchingMetrics = persistentTopicMetrics.getBrokerSideBatchingMetrics();
+            batchedEntryCounter.record(brokerSideBatchingMetrics.getBatchedEntryCount().sum(), attributes);
+            batchedMessageCounter.record(brokerSideBatchingMetrics.getBatchedMessageCount().sum(), attributes);
 
             backlogQuotaLimitSize.record(
                     topic.getBacklogQuota(BacklogQuota.BacklogQuotaType.destination_storage).getLimitSize(),
@@ -18,6 +18,7 @@
  */
 package org.apache.pulsar.broker.transaction.pendingack;
 
+import com.google.common.collect.Range;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -123,6 +124,13 @@ public interface PendingAckHandle {
      */
     void clearIndividualPosition(Position position);
 
+    /**
+     * Same as {@link #clearIndividualPosition(Position)} for all the positions of a closed range of entries.
+     *
+     * @param range {@link Range} the range of positions need to clear
+     */
+    void clearIndividualPositions(Range<Position> range);
+
     /**
      * Pending ack recover whether ready future.
      *
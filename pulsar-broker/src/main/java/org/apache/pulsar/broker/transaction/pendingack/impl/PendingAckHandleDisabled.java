@@ -18,6 +18,7 @@
  */
 package org.apache.pulsar.broker.transaction.pendingack.impl;
 
+import com.google.common.collect.Range;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -77,6 +78,11 @@ public class PendingAckHandleDisabled implements PendingAckHandle {
         //no-op
     }
 
+    @Override
+    public void clearIndividualPositions(Range<Position> range) {
+        //no-op
+    }
+
     @Override
     public CompletableFuture<PendingAckHandle> pendingAckHandleFuture() {
         return pendingAckHandleCompletableFuture;
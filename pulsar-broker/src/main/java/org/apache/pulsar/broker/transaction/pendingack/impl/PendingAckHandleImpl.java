@@ -24,6 +24,7 @@ import static org.apache.bookkeeper.mledger.util.PositionAckSetUtil.andAckSet;
 import static org.apache.bookkeeper.mledger.util.PositionAckSetUtil.compareToWithAckSet;
 import static org.apache.bookkeeper.mledger.util.PositionAckSetUtil.isAckSetOverlap;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Range;
 import io.netty.util.Timer;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -915,7 +916,20 @@ public class PendingAckHandleImpl extends PendingAckHandleState implements Pendi
         }
 
         individualAckPositions.remove(position);
+        removeIndividualAckPositionsBeforeMarkDelete();
+    }
+
+    @Override
+    public synchronized void clearIndividualPositions(Range<Position> range) {
+        if (individualAckPositions == null) {
+            return;
+        }
+
+        individualAckPositions.subMap(range.lowerEndpoint(), true, range.upperEndpoint(), true).clear();
+        removeIndividualAckPositionsBeforeMarkDelete();
+    }
 
+    private void removeIndividualAckPositionsBeforeMarkDelete() {
         while (individualAckPositions.firstEntry() != null) {
             if (individualAckPositions.firstKey().compareTo(persistentSubscription
                     .getCursor().getMarkDeletedPosition()) < 0) {
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import javax.servlet.DispatcherType;
@@ -448,6 +449,10 @@ public class WebService implements AutoCloseable {
         }
     }
 
+    public Executor getWebServiceExecutor() {
+        return webServiceExecutor;
+    }
+
     public Optional<Integer> getListenPortHTTP() {
         if (httpConnector != null) {
             return Optional.of(httpConnector.getLocalPort());
@@ -49,7 +49,8 @@ public class RawBatchConverter {
     }
 
     public static boolean isReadableBatch(MessageMetadata metadata) {
-        return metadata.hasNumMessagesInBatch() && metadata.getEncryptionKeysCount() == 0;
+        return metadata.hasNumMessagesInBatch() && metadata.getEncryptionKeysCount() == 0
+                && CompressionCodecProvider.isDecodable(metadata.getCompression()) && !metadata.isColumnarBatch();
     }
 
     public static List<MessageCompactionData> extractMessageCompactionData(RawMessage msg, MessageMetadata metadata)
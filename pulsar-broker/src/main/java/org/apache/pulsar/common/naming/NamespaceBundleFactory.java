@@ -64,6 +64,9 @@ import org.slf4j.LoggerFactory;
 public class NamespaceBundleFactory {
     private static final Logger LOG = LoggerFactory.getLogger(NamespaceBundleFactory.class);
 
+    private static final NameCache<Range<Long>> bundleRangeCache =
+            new NameCache<>(100_000, NamespaceBundleFactory::parseBundleRange);
+
     private final HashFunction hashFunc;
 
     private final AsyncLoadingCache<NamespaceName, NamespaceBundles> bundlesCache;
@@ -275,12 +278,19 @@ public class NamespaceBundleFactory {
     }
 
     public NamespaceBundle getBundle(String namespace, String bundleRange) {
+        return getBundle(NamespaceName.get(namespace), bundleRangeCache.get(bundleRange));
+    }
+
+    private static Range<Long> parseBundleRange(String bundleRange) {
         checkArgument(bundleRange.contains("_"), "Invalid bundle range");
         String[] boundaries = bundleRange.split("_");
         Long lowerEndpoint = Long.decode(boundaries[0]);
         Long upperEndpoint = Long.decode(boundaries[1]);
-        Range<Long> hashRange = getRange(lowerEndpoint, upperEndpoint);
-        return getBundle(NamespaceName.get(namespace), hashRange);
+        return getRange(lowerEndpoint, upperEndpoint);
+    }
+
+    public static NameCache<Range<Long>> getBundleRangeCache() {
+        return bundleRangeCache;
     }
 
     public NamespaceBundle getFullBundle(NamespaceName fqnn) throws Exception {
@@ -29,8 +29,11 @@ import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -39,6 +42,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 import lombok.AllArgsConstructor;
@@ -87,6 +91,7 @@ import org.apache.pulsar.common.policies.data.TenantInfoImpl;
 import org.apache.pulsar.common.schema.KeyValue;
 import org.apache.pulsar.common.schema.KeyValueEncodingType;
 import org.apache.pulsar.common.util.ObjectMapperFactory;
+import org.apache.pulsar.websocket.data.ProducerAck;
 import org.apache.pulsar.websocket.data.ProducerAcks;
 import org.apache.pulsar.websocket.data.ProducerMessage;
 import org.apache.pulsar.websocket.data.ProducerMessages;
@@ -160,6 +165,127 @@ public class TopicsTest extends MockedPulsarServiceBaseTest {
         }
     }
 
+    @Test
+    public void testProduceStreamToNonPartitionedTopic() throws Exception {
+        String topic = "persistent://" + testTenant + "/" + testNamespace + "/" + testTopicName + "-stream";
+        admin.topics().createNonPartitionedTopic(topic);
+        @Cleanup
+        Consumer<byte[]> consumer = pulsarClient.newConsumer(Schema.BYTES)
+                .topic(topic)
+                .subscriptionName("my-sub")
+                .subscribe();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        int numMessages = 2500;
+        for (int i = 0; i < numMessages; i++) {
+            byte[] payload = ("message-" + i).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(payload.length);
+            out.write(payload);
+        }
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+        topics.produceStreamOnPersistentTopic(asyncResponse, testTenant, testNamespace, testTopicName + "-stream",
+                false, null, MediaType.APPLICATION_OCTET_STREAM, new ByteArrayInputStream(body.toByteArray()));
+        ArgumentCaptor<Response> responseCaptor = ArgumentCaptor.forClass(Response.class);
+        verify(asyncResponse, timeout(5000).times(1)).resume(responseCaptor.capture());
+        Assert.assertEquals(responseCaptor.getValue().getStatus(), Response.Status.OK.getStatusCode());
+        ProducerAcks response = (ProducerAcks) responseCaptor.getValue().getEntity();
+        // The messages are packed into batches of at most 1000 messages.
+        Assert.assertEquals(response.getMessagePublishResults().size(), 3);
+        int publishedMessages = 0;
+        for (ProducerAck ack : response.getMessagePublishResults()) {
+            Assert.assertEquals(ack.getErrorCode(), 0);
+            Assert.assertEquals(Integer.parseInt(ack.getMessageId().split(":")[2]), -1);
+            Assert.assertNull(ack.getContext());
+            publishedMessages += ack.getNumMessages();
+        }
+        Assert.assertEquals(publishedMessages, numMessages);
+        for (int i = 0; i < numMessages; i++) {
+            Message<byte[]> msg = consumer.receive(5, TimeUnit.SECONDS);
+            Assert.assertNotNull(msg);
+            Assert.assertEquals(new String(msg.getValue(), StandardCharsets.UTF_8), "message-" + i);
+        }
+    }
+
+    @Test
+    public void testProduceNdjsonStreamToNonPartitionedTopic() throws Exception {
+        String topic = "persistent://" + testTenant + "/" + testNamespace + "/" + testTopicName + "-ndjson";
+        admin.topics().createNonPartitionedTopic(topic);
+        @Cleanup
+        Consumer<String> consumer = pulsarClient.newConsumer(Schema.STRING)
+                .topic(topic)
+                .subscriptionName("my-sub")
+                .subscribe();
+        String body = "{\"id\":1}\n{\"id\":2}\r\n\n{\"id\":3}";
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+        topics.produceStreamOnPersistentTopic(asyncResponse, testTenant, testNamespace, testTopicName + "-ndjson",
+                false, "my-producer", "application/x-ndjson",
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        ArgumentCaptor<Response> responseCaptor = ArgumentCaptor.forClass(Response.class);
+        verify(asyncResponse, timeout(5000).times(1)).resume(responseCaptor.capture());
+        ProducerAcks response = (ProducerAcks) responseCaptor.getValue().getEntity();
+        Assert.assertEquals(response.getMessagePublishResults().size(), 1);
+        Assert.assertEquals(response.getMessagePublishResults().get(0).getNumMessages().intValue(), 3);
+        for (int i = 1; i <= 3; i++) {
+            Message<String> msg = consumer.receive(5, TimeUnit.SECONDS);
+            Assert.assertNotNull(msg);
+            Assert.assertEquals(msg.getValue(), "{\"id\":" + i + "}");
+            Assert.assertEquals(msg.getProducerName(), "my-producer");
+        }
+    }
+
+    @Test
+    public void testProduceStreamBatchesDoNotExceedMaxSize() throws Exception {
+        String topic = "persistent://" + testTenant + "/" + testNamespace + "/" + testTopicName + "-large";
+        admin.topics().createNonPartitionedTopic(topic);
+        @Cleanup
+        Consumer<byte[]> consumer = pulsarClient.newConsumer(Schema.BYTES)
+                .topic(topic)
+                .subscriptionName("my-sub")
+                .subscribe();
+        // 100 messages of 50KB, at most two of them fit into a batch of 128KB. More batches than the max number of
+        // pending batches are published, so reading the body is suspended and resumed.
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        int numMessages = 100;
+        byte[] payload = new byte[50 * 1024];
+        for (int i = 0; i < numMessages; i++) {
+            payload[0] = (byte) i;
+            out.writeInt(payload.length);
+            out.write(payload);
+        }
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+        topics.produceStreamOnPersistentTopic(asyncResponse, testTenant, testNamespace, testTopicName + "-large",
+                false, null, MediaType.APPLICATION_OCTET_STREAM, new ByteArrayInputStream(body.toByteArray()));
+        ArgumentCaptor<Response> responseCaptor = ArgumentCaptor.forClass(Response.class);
+        verify(asyncResponse, timeout(10000).times(1)).resume(responseCaptor.capture());
+        ProducerAcks response = (ProducerAcks) responseCaptor.getValue().getEntity();
+        Assert.assertEquals(response.getMessagePublishResults().size(), numMessages / 2);
+        for (ProducerAck ack : response.getMessagePublishResults()) {
+            Assert.assertEquals(ack.getErrorCode(), 0);
+            Assert.assertEquals(ack.getNumMessages().intValue(), 2);
+        }
+        for (int i = 0; i < numMessages; i++) {
+            Message<byte[]> msg = consumer.receive(5, TimeUnit.SECONDS);
+            Assert.assertNotNull(msg);
+            Assert.assertEquals(msg.getValue()[0], (byte) i);
+        }
+    }
+
+    @Test
+    public void testProduceMalformedStream() throws Exception {
+        admin.topics().createNonPartitionedTopic("persistent://" + testTenant + "/" + testNamespace + "/"
+                + testTopicName + "-malformed");
+        // The length prefix announces more bytes than the body contains.
+        byte[] body = new byte[] {0, 0, 0, 10, 1, 2, 3};
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+        topics.produceStreamOnPersistentTopic(asyncResponse, testTenant, testNamespace, testTopicName + "-malformed",
+                false, null, MediaType.APPLICATION_OCTET_STREAM, new ByteArrayInputStream(body));
+        ArgumentCaptor<RestException> responseCaptor = ArgumentCaptor.forClass(RestException.class);
+        verify(asyncResponse, timeout(5000).times(1)).resume(responseCaptor.capture());
+        Assert.assertEquals(responseCaptor.getValue().getResponse().getStatus(),
+                Response.Status.BAD_REQUEST.getStatusCode());
+    }
+
     private static List<ProducerMessage> createMessages(String message) throws JsonProcessingException {
         return ObjectMapperFactory.getMapper().reader()
                 .forType(new TypeReference<List<ProducerMessage>>() {
@@ -50,7 +50,6 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -87,6 +86,7 @@ import org.apache.pulsar.client.impl.ProducerBuilderImpl;
 import org.apache.pulsar.client.impl.ProducerImpl;
 import org.apache.pulsar.client.impl.PulsarClientImpl;
 import org.apache.pulsar.client.impl.conf.ProducerConfigurationData;
+import org.apache.pulsar.common.naming.NameCache;
 import org.apache.pulsar.common.naming.TopicName;
 import org.apache.pulsar.common.partition.PartitionedTopicMetadata;
 import org.apache.pulsar.common.policies.data.ClusterData;
@@ -1297,8 +1297,7 @@ public class OneWayReplicatorTest extends OneWayReplicatorTestBase {
     public void testCloseTopicAfterStartReplicationFailed() throws Exception {
         Field fieldTopicNameCache = TopicName.class.getDeclaredField("cache");
         fieldTopicNameCache.setAccessible(true);
-        ConcurrentHashMap<String, TopicName> topicNameCache =
-                (ConcurrentHashMap<String, TopicName>) fieldTopicNameCache.get(null);
+        NameCache<TopicName> topicNameCache = (NameCache<TopicName>) fieldTopicNameCache.get(null);
         final String topicName = BrokerTestUtil.newUniqueName("persistent://" + nonReplicatedNamespace + "/tp_");
         // 1.Create topic, does not enable replication now.
         admin1.topics().createNonPartitionedTopic(topicName);
@@ -1323,9 +1322,9 @@ public class OneWayReplicatorTest extends OneWayReplicatorTestBase {
         // - Since the topic should not be touched anymore, we use "TopicName" to confirm whether it be used by
         //   Replication again.
         Thread.sleep(10 * 1000);
-        topicNameCache.remove(topicName);
+        topicNameCache.invalidate(topicName);
         Thread.sleep(60 * 1000);
-        assertTrue(!topicNameCache.containsKey(topicName));
+        assertNull(topicNameCache.getIfPresent(topicName));
 
         // cleanup.
         admin1.topics().setReplicationClusters(topicName, Arrays.asList(cluster1));
@@ -117,6 +117,7 @@ import org.apache.pulsar.common.api.proto.AuthMethod;
 import org.apache.pulsar.common.api.proto.BaseCommand;
 import org.apache.pulsar.common.api.proto.BaseCommand.Type;
 import org.apache.pulsar.common.api.proto.CommandAck.AckType;
+import org.apache.pulsar.common.api.proto.CommandAckResponse;
 import org.apache.pulsar.common.api.proto.CommandAddPartitionToTxnResponse;
 import org.apache.pulsar.common.api.proto.CommandAddSubscriptionToTxnResponse;
 import org.apache.pulsar.common.api.proto.CommandAuthChallenge;
@@ -2608,6 +2609,33 @@ public class ServerCnxTest {
         channel.finish();
     }
 
+    @Test(timeOut = 30000)
+    public void testAckCommandWithInvalidRange() throws Exception {
+        resetChannel();
+        setChannelConnected();
+
+        ByteBuf clientCommand = Commands.newSubscribe(successTopicName, successSubName, 1 /* consumer id */,
+                1 /* request id */, SubType.Exclusive, 0, "test" /* consumer name */, 0 /*avoid reseting cursor*/);
+        channel.writeInbound(clientCommand);
+        assertTrue(getResponse() instanceof CommandSuccess);
+
+        BaseCommand ackCommand = new BaseCommand().setType(Type.ACK);
+        ackCommand.setAck()
+                .setConsumerId(1)
+                .setAckType(AckType.Individual)
+                .setRequestId(2)
+                .addMessageIdRange()
+                .setLedgerId(0)
+                .setFirstEntryId(5)
+                .setLastEntryId(2);
+        channel.writeInbound(Commands.serializeWithSize(ackCommand));
+
+        CommandAckResponse response = (CommandAckResponse) getResponse();
+        assertEquals(response.getRequestId(), 2);
+        assertEquals(response.getError(), ServerError.NotAllowedError);
+        channel.finish();
+    }
+
     @Test(timeOut = 30000)
     public void testFlowCommand() throws Exception {
         resetChannel();
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.broker.service;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertSame;
+import io.netty.channel.EventLoop;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.Cleanup;
+import org.apache.pulsar.broker.service.persistent.PersistentTopic;
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.Producer;
+import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.common.util.FutureUtil;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@Test(groups = "broker")
+public class TopicEventLoopAffinityTest extends BrokerTestBase {
+
+    @BeforeClass
+    @Override
+    protected void setup() throws Exception {
+        conf.setTopicEventLoopAffinityEnabled(true);
+        super.baseSetup();
+    }
+
+    @AfterClass(alwaysRun = true)
+    @Override
+    protected void cleanup() throws Exception {
+        super.internalCleanup();
+    }
+
+    @Test
+    public void testTopicIsPinnedToHomeEventLoop() throws Exception {
+        final String topicName = "persistent://" + newTopicName();
+
+        @Cleanup
+        Consumer<String> consumer = pulsarClient.newConsumer(Schema.STRING)
+                .topic(topicName)
+                .subscriptionName("sub")
+                .subscribe();
+
+        PersistentTopic topic = (PersistentTopic) pulsar.getBrokerService().getTopicReference(topicName).get();
+        EventLoop homeEventLoop = topic.getHomeEventLoop();
+        assertNotNull(homeEventLoop);
+        assertSame(pulsar.getBrokerService().getTopicEventLoop(topicName), homeEventLoop);
+        assertSame(topic.getOrderedExecutor(), homeEventLoop);
+
+        // producers on separate connections, which are likely served by other event loops
+        List<PulsarClient> clients = new ArrayList<>();
+        List<Producer<String>> producers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            PulsarClient client = newPulsarClient(lookupUrl.toString(), 0);
+            clients.add(client);
+            producers.add(client.newProducer(Schema.STRING)
+                    .topic(topicName)
+                    .producerName("producer-" + i)
+                    .enableBatching(false)
+                    .create());
+        }
+
+        final int numMessagesPerProducer = 50;
+        List<CompletableFuture<MessageId>> sendFutures = new ArrayList<>();
+        for (int i = 0; i < numMessagesPerProducer; i++) {
+            for (int p = 0; p < producers.size(); p++) {
+                sendFutures.add(producers.get(p).sendAsync(p + "-" + i));
+            }
+        }
+        FutureUtil.waitForAll(sendFutures).get(30, TimeUnit.SECONDS);
+
+        // the messages of each producer are persisted in order
+        int[] nextIndexByProducer = new int[producers.size()];
+        for (int i = 0; i < producers.size() * numMessagesPerProducer; i++) {
+            Message<String> msg = consumer.receive(5, TimeUnit.SECONDS);
+            assertNotNull(msg);
+            String[] parts = msg.getValue().split("-");
+            int producerIndex = Integer.parseInt(parts[0]);
+            assertEquals(Integer.parseInt(parts[1]), nextIndexByProducer[producerIndex]++);
+            consumer.acknowledge(msg);
+        }
+
+        for (Producer<String> producer : producers) {
+            producer.close();
+        }
+        for (PulsarClient client : clients) {
+            client.close();
+        }
+    }
+}
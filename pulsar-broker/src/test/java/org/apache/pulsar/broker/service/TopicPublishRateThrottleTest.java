@@ -18,6 +18,7 @@
  */
 package org.apache.pulsar.broker.service;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import org.apache.pulsar.broker.BrokerTestUtil;
@@ -73,6 +74,42 @@ public class TopicPublishRateThrottleTest extends BrokerTestBase{
         pulsarClient.close();
     }
 
+    @Test
+    public void testThrottlingDelaysOnlyReceiptsOfThrottledProducer() throws Exception {
+        PublishRate publishRate = new PublishRate(5, 1000);
+        conf.setMaxPendingPublishRequestsPerConnection(0);
+        conf.setPublishThrottlingDelayReceiptsEnabled(true);
+        super.baseSetup();
+        admin.namespaces().setPublishRate("prop/ns-abc", publishRate);
+        final String throttledTopic = BrokerTestUtil.newUniqueName("persistent://prop/ns-abc/throttled");
+        final String otherTopic = BrokerTestUtil.newUniqueName("persistent://prop/ns-abc/other");
+        // both producers share the same connection
+        org.apache.pulsar.client.api.Producer<byte[]> throttledProducer = pulsarClient.newProducer()
+                .topic(throttledTopic)
+                .create();
+        org.apache.pulsar.client.api.Producer<byte[]> otherProducer = pulsarClient.newProducer()
+                .topic(otherTopic)
+                .create();
+
+        // exceed the rate so that the throttling period is longer than a second
+        CompletableFuture<MessageId> delayedSend = null;
+        for (int i = 0; i < 10; i++) {
+            delayedSend = throttledProducer.sendAsync(new byte[10]);
+        }
+        // the receipts are delayed until the throttling period is over
+        try {
+            delayedSend.get(500, TimeUnit.MILLISECONDS);
+            Assert.fail("should fail, because the receipt is delayed by topic publish rate limiting");
+        } catch (TimeoutException e) {
+            // No-op
+        }
+        // the other producer on the same connection isn't affected
+        Assert.assertNotNull(otherProducer.sendAsync(new byte[10]).get(500, TimeUnit.MILLISECONDS));
+        Assert.assertNotNull(delayedSend.get(5, TimeUnit.SECONDS));
+        // Close the PulsarClient gracefully to avoid ByteBuf leak
+        pulsarClient.close();
+    }
+
     @Test
     public void testSystemTopicPublishNonBlock() throws Exception {
         super.baseSetup();
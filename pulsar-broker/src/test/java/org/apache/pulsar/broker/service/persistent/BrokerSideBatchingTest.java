@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.broker.service.persistent;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.Cleanup;
+import org.apache.pulsar.broker.service.BrokerTestBase;
+import org.apache.pulsar.client.api.CompressionType;
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.Producer;
+import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.client.impl.MessageIdImpl;
+import org.apache.pulsar.common.util.FutureUtil;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@Test(groups = "broker")
+public class BrokerSideBatchingTest extends BrokerTestBase {
+
+    @BeforeClass
+    @Override
+    protected void setup() throws Exception {
+        conf.setBrokerSideBatchingEnabled(true);
+        // a long delay so that the messages sent asynchronously are packed together
+        conf.setBrokerSideBatchingMaxPublishDelayMicros(TimeUnit.MILLISECONDS.toMicros(100));
+        conf.setBrokerSideBatchingMaxMessages(50);
+        super.baseSetup();
+    }
+
+    @AfterClass(alwaysRun = true)
+    @Override
+    protected void cleanup() throws Exception {
+        super.internalCleanup();
+    }
+
+    @Test
+    public void testMessagesOfMultipleProducersArePacked() throws Exception {
+        final String topicName = "persistent://prop/ns-abc/broker-side-batching-" + System.nanoTime();
+        final int numProducers = 2;
+        final int numMessagesPerProducer = 100;
+
+        @Cleanup
+        Consumer<String> consumer = pulsarClient.newConsumer(Schema.STRING)
+                .topic(topicName)
+                .subscriptionName("sub")
+                .subscribe();
+        List<Producer<String>> producers = new ArrayList<>();
+        for (int i = 0; i < numProducers; i++) {
+            producers.add(pulsarClient.newProducer(Schema.STRING)
+                    .topic(topicName)
+                    .producerName("producer-" + i)
+                    .enableBatching(false)
+                    .create());
+        }
+
+        List<CompletableFuture<MessageId>> sendFutures = new ArrayList<>();
+        Map<String, CompletableFuture<MessageId>> sendFutureByValue = new HashMap<>();
+        for (int i = 0; i < numMessagesPerProducer; i++) {
+            for (int p = 0; p < numProducers; p++) {
+                String value = "producer-" + p + "-" + i;
+                CompletableFuture<MessageId> sendFuture = producers.get(p).newMessage()
+                        .key("key-" + i)
+                        .property("index", String.valueOf(i))
+                        .value(value)
+                        .sendAsync();
+                sendFutures.add(sendFuture);
+                sendFutureByValue.put(value, sendFuture);
+            }
+        }
+        FutureUtil.waitForAll(sendFutures).get(30, TimeUnit.SECONDS);
+
+        PersistentTopic topic = (PersistentTopic) pulsar.getBrokerService().getTopicReference(topicName).get();
+        int numMessages = numProducers * numMessagesPerProducer;
+        assertTrue(topic.getManagedLedger().getNumberOfEntries() < numMessages);
+        var metrics = topic.getPersistentTopicMetrics().getBrokerSideBatchingMetrics();
+        assertEquals(metrics.getBatchedMessageCount().sum(), numMessages);
+        assertTrue(metrics.getBatchedEntryCount().sum() <= topic.getManagedLedger().getNumberOfEntries());
+
+        // the messages of each producer are received in order, with their own producer name, sequence ids, keys,
+        // properties and publish time, and with the message id that was returned to the producer
+        Map<String, Integer> nextIndexByProducer = new HashMap<>();
+        Map<Long, Set<String>> producersByEntry = new HashMap<>();
+        for (int i = 0; i < numMessages; i++) {
+            Message<String> msg = consumer.receive(5, TimeUnit.SECONDS);
+            assertNotNull(msg);
+            String[] parts = msg.getValue().split("-");
+            String producer = parts[0] + "-" + parts[1];
+            int index = Integer.parseInt(parts[2]);
+            assertEquals(index, (int) nextIndexByProducer.getOrDefault(producer, 0));
+            nextIndexByProducer.put(producer, index + 1);
+            assertEquals(msg.getSequenceId(), index);
+            assertEquals(msg.getKey(), "key-" + index);
+            assertEquals(msg.getProperty("index"), String.valueOf(index));
+            assertEquals(msg.getProducerName(), producer);
+            assertTrue(msg.getPublishTime() > 0);
+            assertEquals(msg.getMessageId(), sendFutureByValue.get(msg.getValue()).get());
+            producersByEntry.computeIfAbsent(((MessageIdImpl) msg.getMessageId()).getEntryId(), __ -> new HashSet<>())
+                    .add(producer);
+            consumer.acknowledge(msg);
+        }
+        // the messages of both producers are packed into the same entries
+        assertTrue(producersByEntry.values().stream().anyMatch(producerNames -> producerNames.size() == numProducers));
+        for (Producer<String> producer : producers) {
+            producer.close();
+        }
+    }
+
+    @Test
+    public void testCompressedMessagesAreNotPacked() throws Exception {
+        final String topicName = "persistent://prop/ns-abc/broker-side-batching-compressed-" + System.nanoTime();
+
+        @Cleanup
+        Consumer<String> consumer = pulsarClient.newConsumer(Schema.STRING)
+                .topic(topicName)
+                .subscriptionName("sub")
+                .subscribe();
+        @Cleanup
+        Producer<String> plainProducer = pulsarClient.newProducer(Schema.STRING)
+                .topic(topicName)
+                .enableBatching(false)
+                .create();
+        @Cleanup
+        Producer<String> compressedProducer = pulsarClient.newProducer(Schema.STRING)
+                .topic(topicName)
+                .enableBatching(false)
+                .compressionType(CompressionType.LZ4)
+                .create();
+
+        List<CompletableFuture<MessageId>> sendFutures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            sendFutures.add(plainProducer.sendAsync("plain-" + i));
+            sendFutures.add(compressedProducer.sendAsync("compressed-" + i));
+        }
+        FutureUtil.waitForAll(sendFutures).get(30, TimeUnit.SECONDS);
+
+        PersistentTopic topic = (PersistentTopic) pulsar.getBrokerService().getTopicReference(topicName).get();
+        var metrics = topic.getPersistentTopicMetrics().getBrokerSideBatchingMetrics();
+        assertEquals(metrics.getBatchedMessageCount().sum(), 10);
+
+        int plainIndex = 0;
+        int compressedIndex = 0;
+        for (int i = 0; i < 20; i++) {
+            Message<String> msg = consumer.receive(5, TimeUnit.SECONDS);
+            assertNotNull(msg);
+            if (msg.getValue().startsWith("plain-")) {
+                assertEquals(msg.getValue(), "plain-" + plainIndex++);
+            } else {
+                assertEquals(msg.getValue(), "compressed-" + compressedIndex++);
+            }
+        }
+    }
+}
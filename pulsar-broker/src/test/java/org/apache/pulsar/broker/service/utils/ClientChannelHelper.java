@@ -32,6 +32,7 @@ import org.apache.pulsar.common.api.proto.CommandPong;
 import org.apache.pulsar.common.api.proto.CommandWatchTopicListSuccess;
 import org.apache.pulsar.common.protocol.PulsarDecoder;
 import org.apache.pulsar.common.api.proto.CommandAck;
+import org.apache.pulsar.common.api.proto.CommandAckResponse;
 import org.apache.pulsar.common.api.proto.CommandCloseConsumer;
 import org.apache.pulsar.common.api.proto.CommandCloseProducer;
 import org.apache.pulsar.common.api.proto.CommandConnect;
@@ -126,6 +127,11 @@ public class ClientChannelHelper {
             queue.offer(new CommandAck().copyFrom(ack));
         }
 
+        @Override
+        protected void handleAckResponse(CommandAckResponse ackResponse) {
+            queue.offer(new CommandAckResponse().copyFrom(ackResponse));
+        }
+
         @Override
         protected void handleFlow(CommandFlow flow) {
             queue.offer(new CommandFlow().copyFrom(flow));
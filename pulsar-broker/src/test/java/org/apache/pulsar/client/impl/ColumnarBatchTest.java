@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import java.util.concurrent.TimeUnit;
+import lombok.AllArgsConstructor;
+import lombok.Cleanup;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.pulsar.client.api.BatcherBuilder;
+import org.apache.pulsar.client.api.CompressionType;
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.Producer;
+import org.apache.pulsar.client.api.ProducerConsumerBase;
+import org.apache.pulsar.client.api.RawMessage;
+import org.apache.pulsar.client.api.RawReader;
+import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.common.api.proto.MessageMetadata;
+import org.apache.pulsar.common.protocol.Commands;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@Test(groups = "broker-impl")
+public class ColumnarBatchTest extends ProducerConsumerBase {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Order {
+        private String id;
+        private int quantity;
+        private String country;
+    }
+
+    @Override
+    @BeforeClass
+    protected void setup() throws Exception {
+        super.internalSetup();
+        super.producerBaseSetup();
+    }
+
+    @Override
+    @AfterClass(alwaysRun = true)
+    protected void cleanup() throws Exception {
+        super.internalCleanup();
+    }
+
+    @Test
+    public void testColumnarBatch() throws Exception {
+        String topic = "persistent://my-property/my-ns/columnar-batch";
+        int numMessages = 10;
+        @Cleanup
+        Consumer<Order> consumer = pulsarClient.newConsumer(Schema.JSON(Order.class))
+                .topic(topic)
+                .subscriptionName("sub")
+                .subscribe();
+        @Cleanup("closeAsync")
+        RawReader rawReader = RawReader.create(pulsarClient, topic, "raw-sub").get();
+        @Cleanup
+        Producer<Order> producer = pulsarClient.newProducer(Schema.JSON(Order.class))
+                .topic(topic)
+                .compressionType(CompressionType.LZ4)
+                .batcherBuilder(BatcherBuilder.COLUMNAR)
+                .batchingMaxMessages(numMessages)
+                .batchingMaxPublishDelay(1, TimeUnit.HOURS)
+                .create();
+        for (int i = 0; i < numMessages; i++) {
+            producer.newMessage()
+                    .key("key-" + i)
+                    .property("index", String.valueOf(i))
+                    .value(new Order("order-" + i, i, i % 2 == 0 ? "US" : "DE"))
+                    .sendAsync();
+        }
+        producer.flush();
+
+        RawMessage rawMessage = rawReader.readNextAsync().get(10, TimeUnit.SECONDS);
+        MessageMetadata metadata = Commands.parseMessageMetadata(rawMessage.getHeadersAndPayload());
+        assertTrue(metadata.isColumnarBatch());
+        assertEquals(metadata.getNumMessagesInBatch(), numMessages);
+        rawMessage.close();
+
+        for (int i = 0; i < numMessages; i++) {
+            Message<Order> message = consumer.receive(10, TimeUnit.SECONDS);
+            assertEquals(message.getValue(), new Order("order-" + i, i, i % 2 == 0 ? "US" : "DE"));
+            assertEquals(message.getKey(), "key-" + i);
+            assertEquals(message.getProperty("index"), String.valueOf(i));
+            consumer.acknowledge(message);
+        }
+    }
+
+    @Test
+    public void testRegularBatchWithoutJsonSchema() throws Exception {
+        String topic = "persistent://my-property/my-ns/columnar-batch-string";
+        @Cleanup("closeAsync")
+        RawReader rawReader = RawReader.create(pulsarClient, topic, "raw-sub").get();
+        @Cleanup
+        Producer<String> producer = pulsarClient.newProducer(Schema.STRING)
+                .topic(topic)
+                .batcherBuilder(BatcherBuilder.COLUMNAR)
+                .batchingMaxMessages(2)
+                .batchingMaxPublishDelay(1, TimeUnit.HOURS)
+                .create();
+        producer.sendAsync("{\"a\":1}");
+        producer.sendAsync("{\"a\":2}");
+        producer.flush();
+
+        RawMessage rawMessage = rawReader.readNextAsync().get(10, TimeUnit.SECONDS);
+        MessageMetadata metadata = Commands.parseMessageMetadata(rawMessage.getHeadersAndPayload());
+        assertFalse(metadata.isColumnarBatch());
+        assertEquals(metadata.getNumMessagesInBatch(), 2);
+        rawMessage.close();
+    }
+}
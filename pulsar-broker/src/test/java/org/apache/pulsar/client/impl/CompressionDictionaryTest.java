@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import lombok.Cleanup;
+import org.apache.pulsar.client.api.CompressionType;
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.ConsumerCompressionFailureAction;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.Producer;
+import org.apache.pulsar.client.api.ProducerBuilder;
+import org.apache.pulsar.client.api.ProducerConsumerBase;
+import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.common.compression.CompressionCodecZstdDictionary;
+import org.apache.pulsar.common.policies.data.SubscriptionStats;
+import org.awaitility.Awaitility;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+@Test(groups = "broker-impl")
+public class CompressionDictionaryTest extends ProducerConsumerBase {
+
+    private final Random random = new Random(0);
+    private byte[] dictionary;
+
+    @Override
+    @BeforeClass
+    protected void setup() throws Exception {
+        super.internalSetup();
+        super.producerBaseSetup();
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            samples.add(newJsonMessage().getBytes(StandardCharsets.UTF_8));
+        }
+        dictionary = CompressionCodecZstdDictionary.train(samples, 16 * 1024);
+    }
+
+    @Override
+    @AfterClass(alwaysRun = true)
+    protected void cleanup() throws Exception {
+        super.internalCleanup();
+    }
+
+    private String newJsonMessage() {
+        return "{\"orderId\":\"" + random.nextLong() + "\",\"customer\":{\"id\":" + random.nextInt(100000)
+                + ",\"country\":\"" + (random.nextBoolean() ? "US" : "DE") + "\",\"tier\":\"gold\"},"
+                + "\"status\":\"CREATED\",\"source\":\"web\"}";
+    }
+
+    private String newLargeJsonMessage() {
+        StringBuilder message = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            message.append(i == 0 ? "" : ",").append(newJsonMessage());
+        }
+        return message.append("]").toString();
+    }
+
+    @DataProvider(name = "producerModes")
+    public Object[][] producerModes() {
+        return new Object[][]{{"batching"}, {"single"}, {"chunking"}};
+    }
+
+    private Producer<String> newProducer(String topic, String mode) throws Exception {
+        ProducerBuilder<String> builder = pulsarClient.newProducer(Schema.STRING)
+                .topic(topic)
+                .compressionType(CompressionType.ZSTD)
+                .compressionDictionary(dictionary);
+        switch (mode) {
+        case "batching":
+            builder.enableBatching(true).batchingMaxPublishDelay(1, TimeUnit.SECONDS).batchingMaxMessages(5);
+            break;
+        case "chunking":
+            builder.enableBatching(false).enableChunking(true).chunkMaxMessageSize(1024);
+            break;
+        default:
+            builder.enableBatching(false);
+        }
+        return builder.create();
+    }
+
+    private List<String> send(Producer<String> producer, String mode, int numMessages) throws Exception {
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < numMessages; i++) {
+            String message = mode.equals("chunking") ? newLargeJsonMessage() : newJsonMessage();
+            messages.add(message);
+            producer.sendAsync(message);
+        }
+        producer.flush();
+        return messages;
+    }
+
+    @Test(dataProvider = "producerModes")
+    public void testConsumeWithKnownDictionary(String mode) throws Exception {
+        final String topic = newTopicName();
+        @Cleanup
+        PulsarClient consumerClient = PulsarClient.builder()
+                .serviceUrl(lookupUrl.toString())
+                .compressionDictionaries(List.of(dictionary))
+                .build();
+        @Cleanup
+        Consumer<String> consumer = consumerClient.newConsumer(Schema.STRING)
+                .topic(topic)
+                .subscriptionName("sub")
+                .subscribe();
+        @Cleanup
+        Producer<String> producer = newProducer(topic, mode);
+
+        List<String> messages = send(producer, mode, 10);
+        for (String expected : messages) {
+            Message<String> message = consumer.receive(10, TimeUnit.SECONDS);
+            assertEquals(message.getValue(), expected);
+            consumer.acknowledge(message);
+        }
+    }
+
+    @Test(dataProvider = "producerModes")
+    public void testUnknownDictionaryIsRedelivered(String mode) throws Exception {
+        final String topic = newTopicName();
+        final String subscription = "sub";
+        @Cleanup
+        PulsarClient clientWithoutDictionary = PulsarClient.builder()
+                .serviceUrl(lookupUrl.toString())
+                .build();
+        Consumer<String> consumerWithoutDictionary = clientWithoutDictionary.newConsumer(Schema.STRING)
+                .topic(topic)
+                .subscriptionName(subscription)
+                .negativeAckRedeliveryDelay(100, TimeUnit.MILLISECONDS)
+                .subscribe();
+        @Cleanup
+        Producer<String> producer = newProducer(topic, mode);
+        List<String> messages = send(producer, mode, 10);
+
+        // The consumer can't decompress the messages and doesn't acknowledge them, they are dispatched again and again
+        Awaitility.await().untilAsserted(() -> {
+            SubscriptionStats stats = admin.topics().getStats(topic).getSubscriptions().get(subscription);
+            long entries = stats.getMsgBacklog();
+            long messagesPerDelivery = mode.equals("batching") ? messages.size() : entries;
+            assertTrue(entries > 0);
+            assertTrue(stats.getConsumers().get(0).getMsgOutCounter() >= 3 * messagesPerDelivery);
+        });
+        assertNull(consumerWithoutDictionary.receive(100, TimeUnit.MILLISECONDS));
+        consumerWithoutDictionary.close();
+
+        // Nothing was lost, a consumer that knows the dictionary receives all the messages
+        @Cleanup
+        PulsarClient clientWithDictionary = PulsarClient.builder()
+                .serviceUrl(lookupUrl.toString())
+                .compressionDictionaries(List.of(dictionary))
+                .build();
+        @Cleanup
+        Consumer<String> consumerWithDictionary = clientWithDictionary.newConsumer(Schema.STRING)
+                .topic(topic)
+                .subscriptionName(subscription)
+                .subscribe();
+        for (String expected : messages) {
+            Message<String> message = consumerWithDictionary.receive(10, TimeUnit.SECONDS);
+            assertEquals(message.getValue(), expected);
+            consumerWithDictionary.acknowledge(message);
+        }
+        Awaitility.await().untilAsserted(() -> assertEquals(
+                admin.topics().getStats(topic).getSubscriptions().get(subscription).getMsgBacklog(), 0));
+    }
+
+    @Test(dataProvider = "producerModes")
+    public void testUnknownDictionaryIsDiscarded(String mode) throws Exception {
+        final String topic = newTopicName();
+        final String subscription = "sub";
+        @Cleanup
+        PulsarClient clientWithoutDictionary = PulsarClient.builder()
+                .serviceUrl(lookupUrl.toString())
+                .build();
+        @Cleanup
+        Consumer<String> consumer = clientWithoutDictionary.newConsumer(Schema.STRING)
+                .topic(topic)
+                .subscriptionName(subscription)
+                .compressionFailureAction(ConsumerCompressionFailureAction.DISCARD)
+                .subscribe();
+        @Cleanup
+        Producer<String> producer = newProducer(topic, mode);
+        send(producer, mode, 10);
+
+        Awaitility.await().untilAsserted(() -> assertEquals(
+                admin.topics().getStats(topic).getSubscriptions().get(subscription).getMsgBacklog(), 0));
+        assertNull(consumer.receive(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testUnknownDictionaryIsConsumedCompressed() throws Exception {
+        final String topic = newTopicName();
+        @Cleanup
+        PulsarClient clientWithoutDictionary = PulsarClient.builder()
+                .serviceUrl(lookupUrl.toString())
+                .build();
+        @Cleanup
+        Consumer<byte[]> consumer = clientWithoutDictionary.newConsumer(Schema.BYTES)
+                .topic(topic)
+                .subscriptionName("sub")
+                .compressionFailureAction(ConsumerCompressionFailureAction.CONSUME)
+                .subscribe();
+        @Cleanup
+        Producer<String> producer = newProducer(topic, "single");
+        List<String> messages = send(producer, "single", 10);
+
+        // the application receives the compressed payloads and can decompress them with the dictionary
+        CompressionCodecZstdDictionary codec = new CompressionCodecZstdDictionary(dictionary);
+        for (String expected : messages) {
+            Message<byte[]> message = consumer.receive(10, TimeUnit.SECONDS);
+            byte[] expectedBytes = expected.getBytes(StandardCharsets.UTF_8);
+            ByteBuf decompressed = codec.decode(Unpooled.wrappedBuffer(message.getValue()), expectedBytes.length);
+            try {
+                assertEquals(decompressed.toString(StandardCharsets.UTF_8), expected);
+            } finally {
+                decompressed.release();
+            }
+            consumer.acknowledge(message);
+        }
+    }
+}
@@ -25,7 +25,9 @@ import io.netty.util.concurrent.DefaultThreadFactory;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
@@ -36,10 +38,12 @@ import io.netty.util.concurrent.Promise;
 import lombok.Cleanup;
 import org.apache.pulsar.broker.BrokerTestUtil;
 import org.apache.pulsar.broker.auth.MockedPulsarServiceBaseTest;
+import org.apache.pulsar.client.api.Producer;
 import org.apache.pulsar.client.api.PulsarClient;
 import org.apache.pulsar.client.impl.conf.ClientConfigurationData;
 import org.apache.pulsar.client.impl.metrics.InstrumentProvider;
 import org.apache.pulsar.common.api.proto.CommandCloseProducer;
+import org.apache.pulsar.common.util.FutureUtil;
 import org.apache.pulsar.common.util.netty.EventLoopUtil;
 import org.awaitility.Awaitility;
 import org.mockito.Mockito;
@@ -123,6 +127,77 @@ public class ConnectionPoolTest extends MockedPulsarServiceBaseTest {
         admin.topics().delete(topicName);
     }
 
+    @Test
+    public void testSelectLeastLoadedConnection() throws Exception {
+        final String topicName = BrokerTestUtil.newUniqueName("persistent://sample/standalone/ns/tp_");
+        @Cleanup
+        final PulsarClient clientWith2ConPerBroker = PulsarClient.builder().connectionsPerBroker(2)
+                .serviceUrl(lookupUrl.toString()).build();
+        Map<ClientCnx, Integer> producersPerConnection = new HashMap<>();
+        List<ProducerImpl<byte[]>> producers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ProducerImpl<byte[]> producer = (ProducerImpl<byte[]>) clientWith2ConPerBroker.newProducer()
+                    .topic(topicName + "-" + i).create();
+            producers.add(producer);
+            producersPerConnection.merge(producer.getClientCnx(), 1, Integer::sum);
+        }
+        // the producers are spread over the connections instead of being placed randomly
+        Assert.assertEquals(producersPerConnection.size(), 2);
+        producersPerConnection.values().forEach(count -> Assert.assertEquals(count.intValue(), 2));
+
+        // a producer reconnects with the same connection
+        ProducerImpl<byte[]> producer = producers.get(0);
+        ClientCnx cnx = producer.getClientCnx();
+        final CommandCloseProducer commandCloseProducer = new CommandCloseProducer();
+        commandCloseProducer.setProducerId(producer.producerId);
+        cnx.handleCloseProducer(commandCloseProducer);
+        Awaitility.await().untilAsserted(() -> {
+            Assert.assertEquals(producer.getState(), HandlerState.State.Ready);
+            Assert.assertSame(producer.getClientCnx(), cnx);
+        });
+
+        for (ProducerImpl<byte[]> p : producers) {
+            p.close();
+        }
+    }
+
+    @Test
+    public void testSelectLeastLoadedConnectionConcurrently() throws Exception {
+        final String topicName = BrokerTestUtil.newUniqueName("persistent://sample/standalone/ns/tp_");
+        final int connectionsPerBroker = 3;
+        final int numProducers = 9;
+        @Cleanup
+        final PulsarClient clientWith3ConPerBroker = PulsarClient.builder().connectionsPerBroker(connectionsPerBroker)
+                .serviceUrl(lookupUrl.toString()).build();
+        List<CompletableFuture<Producer<byte[]>>> futures = new ArrayList<>();
+        for (int i = 0; i < numProducers; i++) {
+            futures.add(clientWith3ConPerBroker.newProducer().topic(topicName + "-" + i).createAsync());
+        }
+        FutureUtil.waitForAll(futures).get();
+
+        // the producers created while the connections were being established don't all land on the same connection
+        Map<ClientCnx, Integer> producersPerConnection = new HashMap<>();
+        for (CompletableFuture<Producer<byte[]>> future : futures) {
+            producersPerConnection.merge(((ProducerImpl<byte[]>) future.join()).getClientCnx(), 1, Integer::sum);
+        }
+        Assert.assertEquals(producersPerConnection.size(), connectionsPerBroker);
+
+        // the load of the connections to the broker is balanced
+        ConnectionPool pool = ((PulsarClientImpl) clientWith3ConPerBroker).getCnxPool();
+        Awaitility.await().untilAsserted(() -> {
+            Map<InetSocketAddress, Long> loadImbalance = pool.getLoadImbalance();
+            Assert.assertEquals(loadImbalance.size(), 1);
+            Assert.assertEquals(loadImbalance.values().iterator().next().longValue(), 0L);
+        });
+        futures.get(0).join().close();
+        Awaitility.await().untilAsserted(() ->
+                Assert.assertEquals(pool.getLoadImbalance().values().iterator().next().longValue(), 1L));
+
+        for (CompletableFuture<Producer<byte[]>> future : futures) {
+            future.join().close();
+        }
+    }
+
     @Test
     public void testDoubleIpAddress() throws Exception {
         ClientConfigurationData conf = new ClientConfigurationData();
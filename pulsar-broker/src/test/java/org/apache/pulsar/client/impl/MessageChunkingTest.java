@@ -24,6 +24,7 @@ import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
 import java.lang.reflect.Field;
 import java.nio.charset.StandardCharsets;
@@ -448,6 +449,79 @@ public class MessageChunkingTest extends ProducerConsumerBase {
         Assert.assertEquals(((ConsumerImpl<String>) consumer).getAvailablePermits(), 8);
     }
 
+    /**
+     * The chunks of interleaved, duplicated and evicted chunked messages are reassembled without copies, and the
+     * buffers holding them are released once the messages are completed or discarded.
+     */
+    @Test
+    public void testChunkBuffersReleased() throws Exception {
+        log.info("-- Starting {} test --", methodName);
+        final String topicName = "persistent://my-property/my-ns/testChunkBuffersReleased";
+        @Cleanup
+        ConsumerImpl<String> consumer = (ConsumerImpl<String>) pulsarClient.newConsumer(Schema.STRING)
+                .topic(topicName)
+                .subscriptionName("my-subscriber-name")
+                .maxPendingChunkedMessage(2)
+                .autoAckOldestChunkedMessageOnQueueFull(true)
+                .subscribe();
+        @Cleanup
+        Producer<String> producer = pulsarClient.newProducer(Schema.STRING)
+                .topic(topicName)
+                .chunkMaxMessageSize(100)
+                .enableChunking(true)
+                .enableBatching(false)
+                .create();
+
+        // interleaved chunked messages
+        sendSingleChunk(producer, "0", 0, 3);
+        sendSingleChunk(producer, "1", 0, 2);
+        sendSingleChunk(producer, "0", 1, 3);
+        CompositeByteBuf buffer0 = getPendingChunksBuffer(consumer, "0", 2);
+        CompositeByteBuf buffer1 = getPendingChunksBuffer(consumer, "1", 1);
+
+        // the duplicated chunk is discarded
+        sendSingleChunk(producer, "0", 1, 3);
+        sendSingleChunk(producer, "1", 1, 2);
+        Message<String> receivedMsg = consumer.receive(5, TimeUnit.SECONDS);
+        assertEquals(receivedMsg.getValue(), "chunk-1-0|chunk-1-1|");
+        consumer.acknowledge(receivedMsg);
+        assertEquals(buffer1.refCnt(), 0);
+        Assert.assertSame(getPendingChunksBuffer(consumer, "0", 2), buffer0);
+
+        // the oldest chunked message is evicted when a third one is pending
+        sendSingleChunk(producer, "2", 0, 2);
+        sendSingleChunk(producer, "3", 0, 2);
+        CompositeByteBuf buffer2 = getPendingChunksBuffer(consumer, "2", 1);
+        CompositeByteBuf buffer3 = getPendingChunksBuffer(consumer, "3", 1);
+        assertNull(consumer.chunkedMessagesMap.get("0"));
+        assertEquals(buffer0.refCnt(), 0);
+
+        sendSingleChunk(producer, "3", 1, 2);
+        sendSingleChunk(producer, "2", 1, 2);
+        receivedMsg = consumer.receive(5, TimeUnit.SECONDS);
+        assertEquals(receivedMsg.getValue(), "chunk-3-0|chunk-3-1|");
+        consumer.acknowledge(receivedMsg);
+        receivedMsg = consumer.receive(5, TimeUnit.SECONDS);
+        assertEquals(receivedMsg.getValue(), "chunk-2-0|chunk-2-1|");
+        consumer.acknowledge(receivedMsg);
+
+        assertTrue(consumer.chunkedMessagesMap.isEmpty());
+        assertEquals(buffer2.refCnt(), 0);
+        assertEquals(buffer3.refCnt(), 0);
+    }
+
+    private static CompositeByteBuf getPendingChunksBuffer(ConsumerImpl<?> consumer, String uuid, int receivedChunks) {
+        Awaitility.await().until(() -> {
+            ConsumerImpl.ChunkedMessageCtx chunkedMsgCtx = consumer.chunkedMessagesMap.get(uuid);
+            return chunkedMsgCtx != null && chunkedMsgCtx.lastChunkedMessageId == receivedChunks - 1;
+        });
+        CompositeByteBuf buffer = consumer.chunkedMessagesMap.get(uuid).chunkedMsgBuffer;
+        // the buffer only holds the chunks received so far
+        assertEquals(buffer.numComponents(), receivedChunks);
+        assertEquals(buffer.refCnt(), 1);
+        return buffer;
+    }
+
     /**
      * Validate that chunking is not supported with batching and non-persistent topic
      *
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.Cleanup;
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.Producer;
+import org.apache.pulsar.client.api.ProducerConsumerBase;
+import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.common.util.FutureUtil;
+import org.awaitility.Awaitility;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+@Test(groups = "broker-impl")
+public class ProducerConcurrentSendTest extends ProducerConsumerBase {
+
+    @Override
+    @BeforeClass
+    protected void setup() throws Exception {
+        super.internalSetup();
+        super.producerBaseSetup();
+    }
+
+    @Override
+    @AfterClass(alwaysRun = true)
+    protected void cleanup() throws Exception {
+        super.internalCleanup();
+    }
+
+    @DataProvider(name = "batching")
+    public Object[][] batching() {
+        return new Object[][]{{true}, {false}};
+    }
+
+    @Test(dataProvider = "batching")
+    public void testConcurrentSendAsyncPreservesOrderOfEachThread(boolean batchingEnabled) throws Exception {
+        final String topic = newTopicName();
+        final int numThreads = 16;
+        final int numMessagesPerThread = 200;
+
+        @Cleanup
+        Consumer<String> consumer = pulsarClient.newConsumer(Schema.STRING)
+                .topic(topic)
+                .subscriptionName("sub")
+                .subscribe();
+        @Cleanup
+        Producer<String> producer = pulsarClient.newProducer(Schema.STRING)
+                .topic(topic)
+                .enableBatching(batchingEnabled)
+                .create();
+
+        @Cleanup("shutdownNow")
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<CompletableFuture<Void>> threadFutures = new ArrayList<>();
+        List<CompletableFuture<MessageId>> sendFutures = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            final int thread = t;
+            threadFutures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                List<CompletableFuture<MessageId>> futures = new ArrayList<>();
+                for (int i = 0; i < numMessagesPerThread; i++) {
+                    futures.add(producer.sendAsync(thread + "-" + i));
+                }
+                synchronized (sendFutures) {
+                    sendFutures.addAll(futures);
+                }
+            }, executor));
+        }
+        startLatch.countDown();
+        FutureUtil.waitForAll(threadFutures).get(30, TimeUnit.SECONDS);
+        producer.flush();
+        FutureUtil.waitForAll(sendFutures).get(30, TimeUnit.SECONDS);
+
+        // each message is sent once, with a unique sequence id, and the messages of each thread are in order
+        Set<Long> sequenceIds = ConcurrentHashMap.newKeySet();
+        int[] nextIndexByThread = new int[numThreads];
+        for (int i = 0; i < numThreads * numMessagesPerThread; i++) {
+            Message<String> msg = consumer.receive(5, TimeUnit.SECONDS);
+            assertNotNull(msg);
+            String[] parts = msg.getValue().split("-");
+            int thread = Integer.parseInt(parts[0]);
+            assertEquals(Integer.parseInt(parts[1]), nextIndexByThread[thread]++);
+            sequenceIds.add(msg.getSequenceId());
+            consumer.acknowledge(msg);
+        }
+        assertEquals(sequenceIds.size(), numThreads * numMessagesPerThread);
+        assertEquals(((ProducerImpl<String>) producer).getPendingQueueSize(), 0);
+    }
+
+    @Test
+    public void testPendingQueueSizeCountsQueuedMessages() throws Exception {
+        final String topic = newTopicName();
+        @Cleanup
+        ProducerImpl<String> producer = (ProducerImpl<String>) pulsarClient.newProducer(Schema.STRING)
+                .topic(topic)
+                .enableBatching(false)
+                .create();
+
+        CompletableFuture<CompletableFuture<MessageId>> firstSend = new CompletableFuture<>();
+        Thread sender = new Thread(() -> firstSend.complete(producer.sendAsync("first")));
+        CompletableFuture<MessageId> secondSend;
+        synchronized (producer) {
+            // the sending thread owns the send queue and waits for the producer mutex held by this thread
+            sender.start();
+            Awaitility.await().until(() -> sender.getState() == Thread.State.BLOCKED
+                    && producer.getPendingQueueSize() == 1);
+            // this message is only queued, since another thread owns the send queue
+            secondSend = producer.sendAsync("second");
+            assertEquals(producer.getPendingQueueSize(), 2);
+        }
+        firstSend.get(30, TimeUnit.SECONDS).get(30, TimeUnit.SECONDS);
+        secondSend.get(30, TimeUnit.SECONDS);
+        Awaitility.await().until(() -> producer.getPendingQueueSize() == 0);
+    }
+}
@@ -27,6 +27,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
@@ -41,7 +42,10 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
+import lombok.AllArgsConstructor;
 import lombok.Cleanup;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.RandomUtils;
 import org.apache.commons.lang3.reflect.FieldUtils;
@@ -60,6 +64,7 @@ import org.apache.pulsar.common.naming.TopicDomain;
 import org.apache.pulsar.common.naming.TopicName;
 import org.apache.pulsar.common.policies.data.ClusterData;
 import org.apache.pulsar.common.policies.data.TenantInfoImpl;
+import org.apache.pulsar.common.schema.SchemaType;
 import org.awaitility.Awaitility;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
@@ -411,11 +416,201 @@ public class TableViewTest extends MockedPulsarServiceBaseTest {
         }
     }
 
+    @Test(timeOut = 30 * 1000)
+    public void testStoreSerializedValues() throws Exception {
+        String topic = "persistent://public/default/tableview-test-store-serialized-values";
+        admin.topics().createPartitionedTopic(topic, 3);
+        @Cleanup
+        Producer<String> producer = pulsarClient.newProducer(Schema.STRING).topic(topic).create();
+        producer.newMessage().key("key1").value("value1").send();
+        producer.newMessage().key("key2").value("value2").send();
+
+        @Cleanup
+        TableView<String> tv = pulsarClient.newTableView(Schema.STRING)
+                .topic(topic)
+                .storeSerializedValues(true)
+                .create();
+        assertEquals(tv.size(), 2);
+        assertEquals(tv.get("key1"), "value1");
+        assertTrue(tv.containsKey("key2"));
+        assertEquals(new HashSet<>(tv.values()), Sets.newHashSet("value1", "value2"));
+
+        AtomicInteger updates = new AtomicInteger();
+        tv.forEachAndListen((k, v) -> {
+            if (k.equals("key1")) {
+                assertEquals(v, updates.getAndIncrement() == 0 ? "value1" : "value3");
+            }
+        });
+        producer.newMessage().key("key1").value("value3").send();
+        Awaitility.await().untilAsserted(() -> assertEquals(tv.get("key1"), "value3"));
+        assertEquals(updates.get(), 2);
+
+        // the tombstones remove the serialized values
+        producer.newMessage().key("key2").value(null).send();
+        Awaitility.await().untilAsserted(() -> assertEquals(tv.size(), 1));
+        assertEquals(tv.keySet(), Sets.newHashSet("key1"));
+
+        try {
+            pulsarClient.newTableView(Schema.AUTO_CONSUME()).topic(topic).storeSerializedValues(true).create();
+            fail("Should fail here");
+        } catch (PulsarClientException.InvalidConfigurationException ex) {
+            // expected
+        }
+    }
+
+    @Test(timeOut = 30 * 1000)
+    public void testStoreValuesOffHeap() throws Exception {
+        String topic = "persistent://public/default/tableview-test-store-values-off-heap";
+        admin.topics().createPartitionedTopic(topic, 3);
+        @Cleanup
+        Producer<String> producer = pulsarClient.newProducer(Schema.STRING).topic(topic).create();
+        producer.newMessage().key("key1").value("value-0").send();
+        producer.newMessage().key("key2").value("value2").send();
+
+        TableView<String> tv = pulsarClient.newTableView(Schema.STRING)
+                .topic(topic)
+                .storeValuesOffHeap(true)
+                .create();
+        assertEquals(tv.size(), 2);
+        assertEquals(tv.get("key2"), "value2");
+        assertEquals(new HashSet<>(tv.values()), Sets.newHashSet("value-0", "value2"));
+
+        // the reads that race with the updates never see a released value
+        AtomicBoolean reading = new AtomicBoolean(true);
+        CompletableFuture<Void> reads = CompletableFuture.runAsync(() -> {
+            while (reading.get()) {
+                assertTrue(tv.get("key1").startsWith("value-"));
+                tv.forEach((k, v) -> assertTrue(v.startsWith("value")));
+            }
+        });
+        for (int i = 1; i <= 100; i++) {
+            producer.newMessage().key("key1").value("value-" + i).sendAsync();
+        }
+        producer.flush();
+        Awaitility.await().untilAsserted(() -> assertEquals(tv.get("key1"), "value-100"));
+        reading.set(false);
+        reads.get();
+
+        producer.newMessage().key("key2").value(null).send();
+        Awaitility.await().untilAsserted(() -> assertEquals(tv.keySet(), Sets.newHashSet("key1")));
+
+        // closing the table view frees the values
+        tv.close();
+        assertEquals(tv.size(), 0);
+        assertNull(tv.get("key1"));
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class UserV1 {
+        private String name;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class UserV2 {
+        private String name;
+        private Integer age;
+    }
+
+    @DataProvider(name = "structSchemaType")
+    public static Object[][] structSchemaType() {
+        return new Object[][] {{SchemaType.AVRO}, {SchemaType.JSON}};
+    }
+
+    private static <T> Schema<T> structSchema(SchemaType type, Class<T> clazz) {
+        return type == SchemaType.AVRO ? Schema.AVRO(clazz) : Schema.JSON(clazz);
+    }
+
+    @Test(timeOut = 30 * 1000, dataProvider = "structSchemaType")
+    public void testStoreSerializedStructValues(SchemaType type) throws Exception {
+        String topic = "persistent://public/default/tableview-test-store-serialized-struct-values-" + type;
+        admin.topics().createPartitionedTopic(topic, 3);
+        @Cleanup
+        Producer<UserV1> producerV1 = pulsarClient.newProducer(structSchema(type, UserV1.class))
+                .topic(topic)
+                .create();
+        @Cleanup
+        Producer<UserV2> producerV2 = pulsarClient.newProducer(structSchema(type, UserV2.class))
+                .topic(topic)
+                .create();
+        producerV1.newMessage().key("key1").value(new UserV1("user1")).send();
+        producerV2.newMessage().key("key2").value(new UserV2("user2", 20)).send();
+
+        // the values written with both schema versions are decoded with the schema of the table view
+        @Cleanup
+        TableView<UserV2> tv = pulsarClient.newTableView(structSchema(type, UserV2.class))
+                .topic(topic)
+                .storeSerializedValues(true)
+                .create();
+        assertEquals(tv.size(), 2);
+        assertEquals(tv.get("key1"), new UserV2("user1", null));
+        assertEquals(tv.get("key2"), new UserV2("user2", 20));
+
+        producerV1.newMessage().key("key2").value(new UserV1("user3")).send();
+        producerV2.newMessage().key("key3").value(new UserV2("user4", 40)).send();
+        Awaitility.await().untilAsserted(() -> {
+            assertEquals(tv.get("key2"), new UserV2("user3", null));
+            assertEquals(tv.get("key3"), new UserV2("user4", 40));
+        });
+        assertEquals(new HashSet<>(tv.values()), Sets.newHashSet(new UserV2("user1", null),
+                new UserV2("user3", null), new UserV2("user4", 40)));
+    }
+
     @DataProvider(name = "partitionedTopic")
     public static Object[][] partitioned() {
         return new Object[][] {{true}, {false}};
     }
 
+    /**
+     * The existing messages are more than the receiver queue size, so that they are loaded both from the receiver
+     * queue without waiting and with asynchronous reads when the queue is empty.
+     */
+    @Test(timeOut = 60 * 1000, dataProvider = "partitionedTopic")
+    public void testLoadBacklogLargerThanReceiverQueue(boolean partitionedTopic) throws Exception {
+        String topic = "persistent://public/default/tableview-large-backlog-" + partitionedTopic;
+        if (partitionedTopic) {
+            admin.topics().createPartitionedTopic(topic, 3);
+        } else {
+            admin.topics().createNonPartitionedTopic(topic);
+        }
+        final int numKeys = 1000;
+        final int numMessages = 2500;
+        @Cleanup
+        Producer<String> producer = pulsarClient.newProducer(Schema.STRING)
+                .topic(topic)
+                .enableBatching(false)
+                .maxPendingMessages(numMessages)
+                .create();
+        for (int i = 0; i < numMessages; i++) {
+            producer.newMessage().key("key" + (i % numKeys)).value("value" + i).sendAsync();
+        }
+        producer.flush();
+
+        @Cleanup
+        TableView<String> tv = pulsarClient.newTableViewBuilder(Schema.STRING)
+                .topic(topic)
+                .create();
+        // the creation completes once all the existing messages are applied, the latest value of each key wins
+        assertEquals(tv.size(), numKeys);
+        for (int key = 0; key < numKeys; key++) {
+            int lastIndex = key < numMessages % numKeys ? numMessages - numMessages % numKeys + key
+                    : numMessages - numMessages % numKeys - numKeys + key;
+            assertEquals(tv.get("key" + key), "value" + lastIndex);
+        }
+
+        // the table view tails the topic afterwards
+        producer.newMessage().key("key0").value("updated").send();
+        producer.newMessage().key("new-key").value("new-value").send();
+        Awaitility.await().untilAsserted(() -> {
+            assertEquals(tv.get("key0"), "updated");
+            assertEquals(tv.get("new-key"), "new-value");
+        });
+        assertEquals(tv.size(), numKeys + 1);
+    }
+
     @Test(timeOut = 30 * 1000, dataProvider = "partitionedTopic")
     public void testAck(boolean partitionedTopic) throws Exception {
         String topic = null;
@@ -52,6 +52,20 @@ public interface BatcherBuilder extends Serializable {
      */
     BatcherBuilder KEY_BASED = DefaultImplementation.getDefaultImplementation().newKeyBasedBatcherBuilder();
 
+    /**
+     * Columnar batch message container, for the producers with a {@link Schema#JSON(Class)} schema.
+     *
+     * <p>The messages are batched like with {@link #DEFAULT}, but when all the messages of a batch are JSON objects
+     * with the same fields, the batch stores the values of each field next to each other instead of storing the
+     * messages one after the other. Such batches usually compress better. The consumers read the messages as usual.
+     *
+     * <p>The columnar batches are only dispatched to the consumers that support them, which are the Java consumers of
+     * the same version or later. They are not delivered to older consumers or to the consumers of other client
+     * libraries, so this batcher must only be used when all the consumers of the topic support it. The batches are
+     * written in the regular layout when the broker doesn't support the columnar batches.
+     */
+    BatcherBuilder COLUMNAR = DefaultImplementation.getDefaultImplementation().newColumnarBatcherBuilder();
+
     /**
      * Build a new batch message container.
      * @return new batch message container
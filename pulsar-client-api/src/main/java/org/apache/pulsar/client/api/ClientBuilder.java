@@ -247,6 +247,22 @@ public interface ClientBuilder extends Serializable, Cloneable {
      */
     ClientBuilder lookupTimeout(int lookupTimeout, TimeUnit unit);
 
+    /**
+     * Set the time for which the results of the lookups are cached <i>(default: 0, disabled)</i>.
+     *
+     * <p>
+     * When enabled, the broker serving a topic and the partitioned topic metadata are looked up once per TTL instead
+     * of for every new producer, consumer or reconnection, which limits the number of lookups the brokers receive
+     * when many clients reconnect at the same time. The broker of a topic is removed from the cache when a producer
+     * or consumer of the topic loses its connection or fails to connect. The partitioned topic metadata is only
+     * refreshed after the TTL, so new partitions may be detected later.
+     *
+     * @param lookupCacheTtl the time for which the results of the lookups are cached
+     * @param unit time unit for {@code lookupCacheTtl}
+     * @return the client builder instance
+     */
+    ClientBuilder lookupCacheTtl(int lookupCacheTtl, TimeUnit unit);
+
     /**
      * Set the number of threads to be used for handling connections to brokers
      * <i>(default: Runtime.getRuntime().availableProcessors())</i>.
@@ -269,6 +285,21 @@ public interface ClientBuilder extends Serializable, Cloneable {
      */
     ClientBuilder listenerThreads(int numListenerThreads);
 
+    /**
+     * Run the message listeners on virtual threads <i>(default: false)</i>.
+     *
+     * <p>Each consumer and reader using a "listener" model gets its own executor, which runs the listener on a
+     * virtual thread, one message at a time to ensure ordering. A listener that blocks then only delays the
+     * messages of its consumer, instead of the ones of all the consumers sharing the listener thread. The
+     * listeners of the Key_Shared consumers are still spread over {@link #listenerThreads(int)} executors by key.
+     *
+     * <p>Virtual threads require Java 21 or later, building the client fails on earlier versions.
+     *
+     * @param listenerVirtualThreads whether to run the message listeners on virtual threads
+     * @return the client builder instance
+     */
+    ClientBuilder listenerVirtualThreads(boolean listenerVirtualThreads);
+
     /**
      * Sets the max number of connection that the client library will open to a single broker.
      *
@@ -679,4 +710,20 @@ public interface ClientBuilder extends Serializable, Cloneable {
      * - The `loadManagerClassName` config in broker is a class that implements the `ExtensibleLoadManager` interface
      */
     ClientBuilder lookupProperties(Map<String, String> properties);
+
+    /**
+     * Set the zstd dictionaries that are used to decompress the messages that producers compress with a dictionary,
+     * see {@link ProducerBuilder#compressionDictionary(byte[])}.
+     * <p>
+     * The dictionary of each message is identified by the dictionary id. A message compressed with a dictionary that
+     * is unknown to the client can't be decompressed, it's handled according to
+     * {@link ConsumerBuilder#compressionFailureAction(ConsumerCompressionFailureAction)}. The dictionaries of the
+     * producers created by the client are known to the client.
+     * <p>
+     * The zstd dictionary compression requires the <code>com.github.luben:zstd-jni</code> library.
+     *
+     * @param dictionaries the dictionaries
+     * @return the client builder instance
+     */
+    ClientBuilder compressionDictionaries(List<byte[]> dictionaries);
 }
@@ -374,6 +374,18 @@ public interface ConsumerBuilder<T> extends Cloneable {
      */
     ConsumerBuilder<T> cryptoFailureAction(ConsumerCryptoFailureAction action);
 
+    /**
+     * Sets the action the consumer takes when it receives a message that is compressed with a zstd dictionary that
+     * the client doesn't know.
+     *
+     * <p>Default: {@link ConsumerCompressionFailureAction#FAIL}
+     *
+     * @param action
+     *            the action the consumer takes in case of unknown compression dictionaries
+     * @return the consumer builder instance
+     */
+    ConsumerBuilder<T> compressionFailureAction(ConsumerCompressionFailureAction action);
+
     /**
      * Sets the size of the consumer receive queue.
      *
@@ -917,6 +929,28 @@ public interface ConsumerBuilder<T> extends Cloneable {
      */
     ConsumerBuilder<T> autoScaledReceiverQueueSizeEnabled(boolean enabled);
 
+    /**
+     * If this is enabled, the consumer receiver queue size is scaled as with
+     * {@link #autoScaledReceiverQueueSizeEnabled(boolean)}, and it's also resized every second to the number of
+     * messages the application processes during the round trip time of a flow command, so that a slow consumer
+     * doesn't hold messages that the other consumers of a shared subscription could process, and that a fast
+     * consumer doesn't wait for messages between the flow commands.
+     *
+     * <p>The receiver queue size is bounded by the value set by {@link #receiverQueueSize(int)}, it doesn't grow when
+     * the client memory usage is high, and it's shrunk when the client memory limit set by
+     * {@link ClientBuilder#memoryLimit(long, SizeUnit)} is about to be reached.
+     *
+     * <p>The decisions are exposed by {@link ConsumerStats#getCurrentReceiverQueueSize()},
+     * {@link ConsumerStats#getEstimatedProcessingRate()} and {@link ConsumerStats#getEstimatedFlowRoundTripTimeMs()}.
+     *
+     * <p>This is only supported by the consumers of a single topic, the consumers of multiple topics or partitions
+     * scale their receiver queue size as with {@link #autoScaledReceiverQueueSizeEnabled(boolean)}.
+     *
+     * @param enabled whether to enable AdaptiveReceiverQueueSize.
+     * @default false
+     */
+    ConsumerBuilder<T> adaptiveReceiverQueueSizeEnabled(boolean enabled);
+
     /**
      * Configure topic specific options to override those set at the {@link ConsumerBuilder} level.
      *
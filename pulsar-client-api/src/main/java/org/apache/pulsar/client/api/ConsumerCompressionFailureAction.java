@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.api;
+
+import org.apache.pulsar.common.classification.InterfaceAudience;
+import org.apache.pulsar.common.classification.InterfaceStability;
+
+/**
+ * The action a consumer should take when it receives a message that is compressed with a zstd dictionary that the
+ * client doesn't know, see {@link ClientBuilder#compressionDictionaries(java.util.List)}.
+ */
+@InterfaceAudience.Public
+@InterfaceStability.Evolving
+public enum ConsumerCompressionFailureAction {
+    /**
+     * This is the default option. The message isn't delivered, it's negatively acknowledged so that it's redelivered,
+     * e.g. to another consumer of the subscription or once the dictionary is known.
+     */
+    FAIL,
+
+    /**
+     * Message is silently acknowledged and not delivered to the application.
+     */
+    DISCARD,
+
+    /**
+     * Deliver the compressed message to the application. It's the application's responsibility to decompress the
+     * message.
+     *
+     * <p>If message contain batch messages, client will not be able to retrieve individual messages in the batch.
+     */
+    CONSUME;
+}
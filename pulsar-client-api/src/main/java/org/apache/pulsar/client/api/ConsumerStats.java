@@ -120,6 +120,30 @@ public interface ConsumerStats extends Serializable {
      */
     Map<Long, Integer> getMsgNumInSubReceiverQueue();
 
+    /**
+     * Get the current receiver queue size, which changes when the receiver queue size is auto scaled or adaptive.
+     * @return
+     */
+    default Integer getCurrentReceiverQueueSize() {
+        return null;
+    }
+
+    /**
+     * @return the rate at which the application processes the messages in messages per second, as estimated to size
+     * the receiver queue when the adaptive receiver queue size is enabled, or 0
+     */
+    default double getEstimatedProcessingRate() {
+        return 0;
+    }
+
+    /**
+     * @return the round trip time between a flow command and the first message it brings in milliseconds, as
+     * estimated to size the receiver queue when the adaptive receiver queue size is enabled, or 0
+     */
+    default double getEstimatedFlowRoundTripTimeMs() {
+        return 0;
+    }
+
     /**
      * @return stats for each partition if topic is partitioned topic
      */
@@ -52,5 +52,17 @@ public enum MessageRoutingMode {
      * Use custom message router implementation that will be called to determine the partition
      * for a particular message.
      */
-    CustomPartition
+    CustomPartition,
+
+    /**
+     * If no key is provided, the producer picks two random partitions and publishes the message into the one
+     * with the lowest expected send latency, based on the number of pending messages of the partition and on
+     * the recent send latency. A partition whose broker is slow or throttled then receives fewer messages.
+     * As for {@link #RoundRobinPartition}, the partition is only chosen again on the boundary of the batching
+     * delay when batching is enabled.
+     *
+     * <p>While if a key is specified on the message, the partitioned producer will hash the key
+     * and assign message to a particular partition.
+     */
+    LeastLoadedPartition
 }
@@ -306,6 +306,27 @@ public interface ProducerBuilder<T> extends Cloneable {
      */
     ProducerBuilder<T> compressionMinMsgBodySize(int compressionMinMsgBodySize);
 
+    /**
+     * Set a zstd dictionary to compress the messages with. It requires the {@link CompressionType#ZSTD} compression
+     * type.
+     * <p>
+     * A dictionary trained on samples of the messages of a topic, e.g. with <code>zstd --train</code>, compresses
+     * small messages and small batches much better than zstd without a dictionary, so that a good compression ratio
+     * doesn't require large batches and long batching delays.
+     * <p>
+     * The id of the dictionary is stored in the metadata of each message. The consumer applications must know the
+     * dictionary to decompress the messages, see {@link ClientBuilder#compressionDictionaries(java.util.List)}.
+     * The messages have a dedicated compression type on the wire. The dictionary is only used while the producer is
+     * connected to a broker that supports it, otherwise the messages are compressed with zstd without dictionary. The
+     * broker doesn't dispatch the messages compressed with a dictionary to clients that don't support it.
+     * <p>
+     * The zstd dictionary compression requires the <code>com.github.luben:zstd-jni</code> library.
+     *
+     * @param dictionary the zstd dictionary
+     * @return the producer builder instance
+     */
+    ProducerBuilder<T> compressionDictionary(byte[] dictionary);
+
     /**
      * Set a custom message routing policy by passing an implementation of MessageRouter.
      *
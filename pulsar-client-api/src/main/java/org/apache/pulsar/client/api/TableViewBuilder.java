@@ -137,4 +137,38 @@ public interface TableViewBuilder<T> {
      * @return the {@link TableViewBuilder} builder instance
      */
     TableViewBuilder<T> cryptoFailureAction(ConsumerCryptoFailureAction action);
+
+    /**
+     * Store the values of the {@link TableView} in their serialized form <i>(default: false)</i>.
+     *
+     * <p>The values are decoded with the schema each time they are accessed, e.g. with {@link TableView#get(String)}
+     * or {@link TableView#forEach}, instead of being decoded once when the message is read. A serialized value is a
+     * single byte array, so large tables use less memory and put less pressure on the garbage collector, at the cost
+     * of decoding the values on every access.
+     *
+     * <p>This option can't be used with a {@link Schema#AUTO_CONSUME()} schema or with a key-value schema whose
+     * key is stored separately from the value.
+     *
+     * @param storeSerializedValues whether to store the values in their serialized form
+     * @return the {@link TableViewBuilder} builder instance
+     */
+    TableViewBuilder<T> storeSerializedValues(boolean storeSerializedValues);
+
+    /**
+     * Store the values of the {@link TableView} in their serialized form in direct memory, outside of the JVM heap
+     * <i>(default: false)</i>.
+     *
+     * <p>Like with {@link #storeSerializedValues(boolean)}, which this option implies, the values are decoded on every
+     * access. The payload of a value is copied to the heap before it is decoded, and the direct memory of a value is
+     * freed when it is updated or deleted, or when the table view is closed. Only the keys stay on the heap, so the
+     * size of the heap and the garbage collection pauses no longer grow with the size of the values. The direct memory
+     * is limited by the {@code -XX:MaxDirectMemorySize} option of the JVM.
+     *
+     * <p>This option can't be used with a {@link Schema#AUTO_CONSUME()} schema or with a key-value schema whose
+     * key is stored separately from the value.
+     *
+     * @param storeValuesOffHeap whether to store the values in direct memory
+     * @return the {@link TableViewBuilder} builder instance
+     */
+    TableViewBuilder<T> storeValuesOffHeap(boolean storeValuesOffHeap);
 }
@@ -21,6 +21,7 @@ package org.apache.pulsar.client.impl;
 import com.google.common.annotations.VisibleForTesting;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.util.ReferenceCountUtil;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -33,6 +34,7 @@ import org.apache.pulsar.client.impl.ProducerImpl.OpSendMsg;
 import org.apache.pulsar.common.allocator.PulsarByteBufAllocator;
 import org.apache.pulsar.common.api.proto.CompressionType;
 import org.apache.pulsar.common.api.proto.MessageMetadata;
+import org.apache.pulsar.common.compression.CompressionCodec;
 import org.apache.pulsar.common.protocol.ByteBufPair;
 import org.apache.pulsar.common.protocol.Commands;
 import org.slf4j.Logger;
@@ -67,6 +69,14 @@ class BatchMessageContainerImpl extends AbstractBatchMessageContainer {
     private static final int SHRINK_COOLING_OFF_PERIOD = 10;
     private int consecutiveShrinkTime = 0;
 
+    // When the batch is neither compressed nor encrypted, the payloads of at least this size are added to the batch
+    // as components of a composite buffer instead of being copied into the batch buffer
+    static final int ZERO_COPY_MIN_PAYLOAD_SIZE = 1024;
+    @VisibleForTesting
+    int zeroCopyMinPayloadSize = ZERO_COPY_MIN_PAYLOAD_SIZE;
+    // Capacity of the batch buffer of a composite batch, which excludes the referenced payloads
+    private int compositeBatchBufferCapacity;
+
     public BatchMessageContainerImpl() {
         this(PulsarByteBufAllocator.DEFAULT);
     }
@@ -146,6 +156,43 @@ class BatchMessageContainerImpl extends AbstractBatchMessageContainer {
     }
 
     protected ByteBuf getCompressedBatchMetadataAndPayload(boolean clientOperation) {
+        if (clientOperation && canReferencePayloads()) {
+            return getCompositeBatchMetadataAndPayload();
+        }
+        writeMessages();
+
+        int uncompressedSize = batchedMessageMetadataAndPayload.readableBytes();
+        ByteBuf compressedPayload;
+        if (clientOperation && producer != null){
+            if (compressionType != CompressionType.NONE
+                    && uncompressedSize > producer.conf.getCompressMinMsgBodySize()) {
+                CompressionCodec codec = producer.getCompressor();
+                compressedPayload = producer.applyCompression(batchedMessageMetadataAndPayload, codec);
+                producer.setCompression(messageMetadata, codec);
+                messageMetadata.setUncompressedSize(uncompressedSize);
+            } else {
+                compressedPayload = batchedMessageMetadataAndPayload;
+            }
+        } else {
+            compressedPayload = compressor.encode(batchedMessageMetadataAndPayload);
+            batchedMessageMetadataAndPayload.release();
+            if (compressionType != CompressionType.NONE) {
+                messageMetadata.setCompression(compressionType);
+                messageMetadata.setUncompressedSize(uncompressedSize);
+            }
+        }
+
+        // Update the current max batch size using the uncompressed size, which is what we need in any case to
+        // accumulate the batch content
+        updateMaxBatchSize(uncompressedSize);
+        maxMessagesNum = Math.max(maxMessagesNum, numMessagesInBatch);
+        return compressedPayload;
+    }
+
+    /**
+     * Writes the single message metadata and the payloads of the messages to the batch buffer.
+     */
+    protected void writeMessages() {
         int batchWriteIndex = batchedMessageMetadataAndPayload.writerIndex();
         int batchReadIndex = batchedMessageMetadataAndPayload.readerIndex();
 
@@ -169,32 +216,69 @@ class BatchMessageContainerImpl extends AbstractBatchMessageContainer {
                 msg.getDataBuffer().resetReaderIndex();
             }
         }
+    }
 
-        int uncompressedSize = batchedMessageMetadataAndPayload.readableBytes();
-        ByteBuf compressedPayload;
-        if (clientOperation && producer != null){
-            if (compressionType != CompressionType.NONE
-                    && uncompressedSize > producer.conf.getCompressMinMsgBodySize()) {
-                compressedPayload = producer.applyCompression(batchedMessageMetadataAndPayload);
-                messageMetadata.setCompression(compressionType);
-                messageMetadata.setUncompressedSize(uncompressedSize);
-            } else {
-                compressedPayload = batchedMessageMetadataAndPayload;
+    protected boolean canReferencePayloads() {
+        if (messages.size() <= 1 || compressionType != CompressionType.NONE
+                || (producer != null && producer.getConfiguration().isEncryptionEnabled())) {
+            return false;
+        }
+        for (int i = 0, n = messages.size(); i < n; i++) {
+            if (messages.get(i).getDataBuffer().readableBytes() >= zeroCopyMinPayloadSize) {
+                return true;
             }
-        } else {
-            compressedPayload = compressor.encode(batchedMessageMetadataAndPayload);
-            batchedMessageMetadataAndPayload.release();
-            if (compressionType != CompressionType.NONE) {
-                messageMetadata.setCompression(compressionType);
-                messageMetadata.setUncompressedSize(uncompressedSize);
+        }
+        return false;
+    }
+
+    /**
+     * Builds the batch as a composite buffer. The single message metadata and the small payloads are written to the
+     * batch buffer, the large payloads are referenced without copying them. The checksum is computed over the
+     * components when the message is sent, and the components are written to the socket with a gathering write.
+     * <p>
+     * The reference of the batch buffer is transferred to the returned buffer.
+     */
+    private ByteBuf getCompositeBatchMetadataAndPayload() {
+        final ByteBuf batchBuffer = batchedMessageMetadataAndPayload;
+        int batchWriteIndex = batchBuffer.writerIndex();
+        int batchReadIndex = batchBuffer.readerIndex();
+        CompositeByteBuf composite = allocator.compositeBuffer(2 * messages.size() + 1);
+        int segmentStart = batchWriteIndex;
+        try {
+            for (int i = 0, n = messages.size(); i < n; i++) {
+                MessageImpl<?> msg = messages.get(i);
+                ByteBuf payload = msg.getDataBuffer();
+                if (payload.readableBytes() < zeroCopyMinPayloadSize) {
+                    Commands.serializeSingleMessageInBatchWithPayload(msg.getMessageBuilder(), payload.duplicate(),
+                            batchBuffer);
+                    continue;
+                }
+                Commands.serializeSingleMessageMetadataInBatch(msg.getMessageBuilder(), payload.readableBytes(),
+                        batchBuffer);
+                composite.addComponent(true,
+                        batchBuffer.retainedSlice(segmentStart, batchBuffer.writerIndex() - segmentStart));
+                composite.addComponent(true, payload.retainedDuplicate());
+                segmentStart = batchBuffer.writerIndex();
             }
+        } catch (Throwable th) {
+            // Reset the index so, next iteration doesn't send corrupt message to broker.
+            composite.release();
+            batchBuffer.writerIndex(batchWriteIndex);
+            batchBuffer.readerIndex(batchReadIndex);
+            throw new RuntimeException(th);
         }
 
-        // Update the current max batch size using the uncompressed size, which is what we need in any case to
-        // accumulate the batch content
-        updateMaxBatchSize(uncompressedSize);
+        // Size the next batch buffer for the bytes that are actually copied
+        updateMaxBatchSize(batchBuffer.readableBytes());
         maxMessagesNum = Math.max(maxMessagesNum, numMessagesInBatch);
-        return compressedPayload;
+        compositeBatchBufferCapacity = batchBuffer.capacity();
+        if (batchBuffer.writerIndex() > segmentStart) {
+            composite.addComponent(true, batchBuffer.slice(segmentStart, batchBuffer.writerIndex() - segmentStart));
+        } else {
+            batchBuffer.release();
+        }
+        batchedMessageMetadataAndPayload = composite;
+        return composite;
     }
 
     void updateMaxBatchSize(int uncompressedSize) {
@@ -228,6 +312,7 @@ class BatchMessageContainerImpl extends AbstractBatchMessageContainer {
         lowestSequenceId = -1L;
         highestSequenceId = -1L;
         batchedMessageMetadataAndPayload = null;
+        compositeBatchBufferCapacity = 0;
         currentTxnidMostBits = -1L;
         currentTxnidLeastBits = -1L;
         batchAllocatedSizeBytes = 0;
@@ -301,7 +386,9 @@ class BatchMessageContainerImpl extends AbstractBatchMessageContainer {
         }
         ByteBuf encryptedPayload = producer.encryptMessage(messageMetadata,
                 getCompressedBatchMetadataAndPayload());
-        updateAndReserveBatchAllocatedSize(encryptedPayload.capacity());
+        // The memory of the payloads referenced by a composite batch is already reserved for each message
+        updateAndReserveBatchAllocatedSize(encryptedPayload instanceof CompositeByteBuf
+                ? compositeBatchBufferCapacity : encryptedPayload.capacity());
         if (encryptedPayload.readableBytes() > getMaxMessageSize()) {
             encryptedPayload.release();
             producer.semaphoreRelease(messages.size());
@@ -343,7 +430,12 @@ class BatchMessageContainerImpl extends AbstractBatchMessageContainer {
 
     @Override
     public void resetPayloadAfterFailedPublishing() {
-        if (batchedMessageMetadataAndPayload != null) {
+        if (batchedMessageMetadataAndPayload instanceof CompositeByteBuf) {
+            // The composite batch can't be written again, the messages are serialized again to a new batch buffer
+            ReferenceCountUtil.safeRelease(batchedMessageMetadataAndPayload);
+            batchedMessageMetadataAndPayload = allocator.buffer(Math.min(maxBatchSize, getMaxMessageSize()));
+            updateAndReserveBatchAllocatedSize(batchedMessageMetadataAndPayload.capacity());
+        } else if (batchedMessageMetadataAndPayload != null) {
             batchedMessageMetadataAndPayload.readerIndex(0);
             batchedMessageMetadataAndPayload.writerIndex(0);
         }
@@ -38,7 +38,9 @@ import org.apache.commons.lang3.mutable.MutableObject;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.pulsar.client.api.PulsarClientException;
 import org.apache.pulsar.client.api.SchemaSerializationException;
+import org.apache.pulsar.client.impl.metrics.Counter;
 import org.apache.pulsar.client.impl.metrics.LatencyHistogram;
+import org.apache.pulsar.client.impl.metrics.Unit;
 import org.apache.pulsar.common.api.proto.CommandGetTopicsOfNamespace.Mode;
 import org.apache.pulsar.common.api.proto.CommandLookupTopicResponse;
 import org.apache.pulsar.common.api.proto.CommandLookupTopicResponse.LookupType;
@@ -72,6 +74,22 @@ public class BinaryProtoLookupService implements LookupService {
     private final ConcurrentHashMap<TopicName, CompletableFuture<PartitionedTopicMetadata>>
             partitionedMetadataInProgress = new ConcurrentHashMap<>();
 
+    // the results of the lookups are cached for lookupCacheTtlNanos, the caches are disabled if it's 0. The lookup
+    // properties are not part of the key since they don't change for a client.
+    private final long lookupCacheTtlNanos;
+    private final ConcurrentHashMap<TopicName, CachedResult<LookupTopicResult>> lookupCache =
+            new ConcurrentHashMap<>();
+    // the key includes whether the metadata lookup may create the topic, since the broker answers differently
+    private final ConcurrentHashMap<Pair<TopicName, Boolean>, CachedResult<PartitionedTopicMetadata>>
+            partitionedMetadataCache = new ConcurrentHashMap<>();
+    // stamps the cached results and the invalidations, a lookup doesn't cache its result if the entry of its key has
+    // been invalidated after the lookup started
+    private final AtomicLong lookupCacheSequence = new AtomicLong();
+    // the sequence of the last invalidation of all the entries, e.g. after the service url has changed
+    private volatile long lookupCacheClearedSequence;
+    private final Counter lookupCacheHitCounter;
+    private final Counter partitionedMetadataCacheHitCounter;
+
     private final LatencyHistogram histoGetBroker;
     private final LatencyHistogram histoGetTopicMetadata;
     private final LatencyHistogram histoGetSchema;
@@ -117,6 +135,7 @@ public class BinaryProtoLookupService implements LookupService {
         this.maxLookupRedirects = client.getConfiguration().getMaxLookupRedirects();
         this.serviceNameResolver = new PulsarServiceNameResolver();
         this.listenerName = listenerName;
+        this.lookupCacheTtlNanos = TimeUnit.MILLISECONDS.toNanos(client.getConfiguration().getLookupCacheTtlMs());
         updateServiceUrl(serviceUrl);
 
         LatencyHistogram histo = client.instrumentProvider().newLatencyHistogram("pulsar.client.lookup.duration",
@@ -127,6 +146,12 @@ public class BinaryProtoLookupService implements LookupService {
                 histo.withAttributes(Attributes.builder().put("pulsar.lookup.type", "metadata").build());
         histoGetSchema = histo.withAttributes(Attributes.builder().put("pulsar.lookup.type", "schema").build());
         histoListTopics = histo.withAttributes(Attributes.builder().put("pulsar.lookup.type", "list-topics").build());
+        lookupCacheHitCounter = client.instrumentProvider().newCounter("pulsar.client.lookup.cache.hit", Unit.None,
+                "The number of lookup operations served from the lookup cache", null,
+                Attributes.builder().put("pulsar.lookup.type", "topic").build());
+        partitionedMetadataCacheHitCounter = client.instrumentProvider().newCounter("pulsar.client.lookup.cache.hit",
+                Unit.None, "The number of lookup operations served from the lookup cache", null,
+                Attributes.builder().put("pulsar.lookup.type", "metadata").build());
 
         if (lookupPinnedExecutor == null) {
             this.createdLookupPinnedExecutor = true;
@@ -141,6 +166,20 @@ public class BinaryProtoLookupService implements LookupService {
     @Override
     public void updateServiceUrl(String serviceUrl) throws PulsarClientException {
         serviceNameResolver.updateServiceUrl(serviceUrl);
+        // the cached results may belong to another cluster
+        lookupCacheClearedSequence = lookupCacheSequence.incrementAndGet();
+        lookupCache.clear();
+        partitionedMetadataCache.clear();
+    }
+
+    @Override
+    public void invalidateCachedBroker(TopicName topicName) {
+        if (lookupCacheTtlNanos <= 0) {
+            return;
+        }
+        // the entry is replaced by an invalidated entry instead of being removed, so that a lookup of the topic that
+        // is in progress doesn't cache its result
+        lookupCache.put(topicName, CachedResult.invalidated(lookupCacheSequence.incrementAndGet()));
     }
 
     /**
@@ -155,11 +194,18 @@ public class BinaryProtoLookupService implements LookupService {
         final MutableObject<CompletableFuture> newFutureCreated = new MutableObject<>();
         final Pair<TopicName, Map<String, String>> key = Pair.of(topicName,
                 client.getConfiguration().getLookupProperties());
+        LookupTopicResult cachedResult = getCachedResult(lookupCache, topicName);
+        if (cachedResult != null) {
+            lookupCacheHitCounter.increment();
+            return CompletableFuture.completedFuture(cachedResult);
+        }
         try {
             return lookupInProgress.computeIfAbsent(key, tpName -> {
+                long lookupSequence = lookupCacheSequence.get();
                 CompletableFuture<LookupTopicResult> newFuture = findBroker(serviceNameResolver.resolveHost(), false,
                         topicName, 0, key.getRight());
                 newFutureCreated.setValue(newFuture);
+                cacheResult(lookupCache, topicName, newFuture, lookupSequence);
 
                 newFuture.thenRun(() -> {
                     histoGetBroker.recordSuccess(System.nanoTime() - startTime);
@@ -186,12 +232,20 @@ public class BinaryProtoLookupService implements LookupService {
     public CompletableFuture<PartitionedTopicMetadata> getPartitionedTopicMetadata(
             TopicName topicName, boolean metadataAutoCreationEnabled, boolean useFallbackForNonPIP344Brokers) {
         final MutableObject<CompletableFuture> newFutureCreated = new MutableObject<>();
+        final Pair<TopicName, Boolean> cacheKey = Pair.of(topicName, metadataAutoCreationEnabled);
+        PartitionedTopicMetadata cachedMetadata = getCachedResult(partitionedMetadataCache, cacheKey);
+        if (cachedMetadata != null) {
+            partitionedMetadataCacheHitCounter.increment();
+            return CompletableFuture.completedFuture(cachedMetadata);
+        }
         try {
             return partitionedMetadataInProgress.computeIfAbsent(topicName, tpName -> {
+                long lookupSequence = lookupCacheSequence.get();
                 CompletableFuture<PartitionedTopicMetadata> newFuture = getPartitionedTopicMetadata(
                         serviceNameResolver.resolveHost(), topicName, metadataAutoCreationEnabled,
                         useFallbackForNonPIP344Brokers);
                 newFutureCreated.setValue(newFuture);
+                cacheResult(partitionedMetadataCache, cacheKey, newFuture, lookupSequence);
                 return newFuture;
             });
         } finally {
@@ -203,6 +257,48 @@ public class BinaryProtoLookupService implements LookupService {
         }
     }
 
+    private <K, V> V getCachedResult(ConcurrentHashMap<K, CachedResult<V>> cache, K key) {
+        if (lookupCacheTtlNanos <= 0) {
+            return null;
+        }
+        // expired entries are kept, with their sequence, until they are replaced by the result of the next lookup
+        CachedResult<V> cachedResult = cache.get(key);
+        if (cachedResult == null || cachedResult.result == null
+                || System.nanoTime() - cachedResult.cachedTimeNanos > lookupCacheTtlNanos) {
+            return null;
+        }
+        return cachedResult.result;
+    }
+
+    private <K, V> void cacheResult(ConcurrentHashMap<K, CachedResult<V>> cache, K key, CompletableFuture<V> future,
+                                    long lookupSequence) {
+        if (lookupCacheTtlNanos <= 0) {
+            return;
+        }
+        // the result isn't cached if the entry has been invalidated or replaced by the result of a newer lookup
+        // since the lookup started
+        future.thenAccept(result -> cache.compute(key, (k, v) -> lookupSequence >= lookupCacheClearedSequence
+                && (v == null || v.sequence <= lookupSequence)
+                ? new CachedResult<>(result, System.nanoTime(), lookupSequence) : v));
+    }
+
+    private static final class CachedResult<V> {
+        // null for an invalidated entry
+        private final V result;
+        private final long cachedTimeNanos;
+        private final long sequence;
+
+        CachedResult(V result, long cachedTimeNanos, long sequence) {
+            this.result = result;
+            this.cachedTimeNanos = cachedTimeNanos;
+            this.sequence = sequence;
+        }
+
+        static <V> CachedResult<V> invalidated(long sequence) {
+            return new CachedResult<>(null, 0, sequence);
+        }
+    }
+
     private CompletableFuture<LookupTopicResult> findBroker(InetSocketAddress socketAddress,
             boolean authoritative, TopicName topicName, final int redirectCount, Map<String, String> properties) {
         CompletableFuture<LookupTopicResult> addressFuture = new CompletableFuture<>();
@@ -461,6 +557,8 @@ public class BinaryProtoLookupService implements LookupService {
 
     @Override
     public void close() throws Exception {
+        lookupCache.clear();
+        partitionedMetadataCache.clear();
         if (createdLookupPinnedExecutor && lookupPinnedExecutor != null && !lookupPinnedExecutor.isShutdown()) {
             lookupPinnedExecutor.shutdown();
         }
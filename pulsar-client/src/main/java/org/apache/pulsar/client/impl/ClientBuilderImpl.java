@@ -22,6 +22,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import io.opentelemetry.api.OpenTelemetry;
 import java.net.InetSocketAddress;
 import java.time.Clock;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -180,6 +181,13 @@ public class ClientBuilderImpl implements ClientBuilder {
         return this;
     }
 
+    @Override
+    public ClientBuilder lookupCacheTtl(int lookupCacheTtl, TimeUnit unit) {
+        checkArgument(lookupCacheTtl >= 0, "lookupCacheTtl needs to be >= 0");
+        conf.setLookupCacheTtlMs(unit.toMillis(lookupCacheTtl));
+        return this;
+    }
+
     @Override
     public ClientBuilder ioThreads(int numIoThreads) {
         checkArgument(numIoThreads > 0, "ioThreads needs to be > 0");
@@ -194,6 +202,12 @@ public class ClientBuilderImpl implements ClientBuilder {
         return this;
     }
 
+    @Override
+    public ClientBuilder listenerVirtualThreads(boolean listenerVirtualThreads) {
+        conf.setListenerVirtualThreads(listenerVirtualThreads);
+        return this;
+    }
+
     @Override
     public ClientBuilder connectionsPerBroker(int connectionsPerBroker) {
         checkArgument(connectionsPerBroker >= 0, "connectionsPerBroker needs to be >= 0");
@@ -482,4 +496,10 @@ public class ClientBuilderImpl implements ClientBuilder {
         conf.setLookupProperties(properties);
         return this;
     }
+
+    @Override
+    public ClientBuilder compressionDictionaries(List<byte[]> dictionaries) {
+        conf.setCompressionDictionaries(new ArrayList<>(dictionaries));
+        return this;
+    }
 }
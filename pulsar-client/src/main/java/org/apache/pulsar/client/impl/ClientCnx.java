@@ -27,6 +27,7 @@ import com.google.common.collect.Queues;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundBuffer;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.unix.Errors.NativeIoException;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
@@ -51,6 +52,7 @@ import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicLong;
 import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.pulsar.PulsarVersion;
@@ -124,6 +126,12 @@ public class ClientCnx extends PulsarHandler {
 
     @VisibleForTesting
     protected AtomicLong duplicatedResponseCounter = new AtomicLong(0);
+    // the index of the connection to the broker in the connection pool
+    @Getter(AccessLevel.PACKAGE)
+    @Setter(AccessLevel.PACKAGE)
+    private volatile int connectionPoolKey = -1;
+    // the bytes waiting to be written that weigh as much as a producer or consumer in the load of the connection
+    static final long LOAD_PENDING_BYTES_PER_UNIT = 16 * 1024;
 
     @VisibleForTesting
     @Getter
@@ -197,6 +205,12 @@ public class ClientCnx extends PulsarHandler {
     private boolean supportsGetPartitionedMetadataWithoutAutoCreation;
     @Getter
     private boolean brokerSupportsReplDedupByLidAndEid;
+    @Getter
+    private boolean brokerSupportsAckRanges;
+    @Getter
+    private boolean brokerSupportsZstdDictionaryCompression;
+    @Getter
+    private boolean brokerSupportsColumnarBatch;
 
     /** Idle stat. **/
     @Getter
@@ -411,6 +425,12 @@ public class ClientCnx extends PulsarHandler {
                     && connected.getFeatureFlags().isSupportsGetPartitionedMetadataWithoutAutoCreation();
         brokerSupportsReplDedupByLidAndEid =
             connected.hasFeatureFlags() && connected.getFeatureFlags().isSupportsReplDedupByLidAndEid();
+        brokerSupportsAckRanges =
+            connected.hasFeatureFlags() && connected.getFeatureFlags().isSupportsAckRanges();
+        brokerSupportsZstdDictionaryCompression =
+            connected.hasFeatureFlags() && connected.getFeatureFlags().isSupportsZstdDictionaryCompression();
+        brokerSupportsColumnarBatch =
+            connected.hasFeatureFlags() && connected.getFeatureFlags().isSupportsColumnarBatch();
 
         // set remote protocol version to the correct version before we complete the connection future
         setRemoteEndpointProtocolVersion(connected.getProtocolVersion());
@@ -476,9 +496,16 @@ public class ClientCnx extends PulsarHandler {
         long highestSequenceId = sendReceipt.getHighestSequenceId();
         long ledgerId = -1;
         long entryId = -1;
+        int batchIndex = -1;
+        int batchSize = 0;
         if (sendReceipt.hasMessageId()) {
             ledgerId = sendReceipt.getMessageId().getLedgerId();
             entryId = sendReceipt.getMessageId().getEntryId();
+            // set when the broker packed the message into a batch entry together with other messages
+            if (sendReceipt.getMessageId().hasBatchIndex()) {
+                batchIndex = sendReceipt.getMessageId().getBatchIndex();
+                batchSize = sendReceipt.getMessageId().getBatchSize();
+            }
         }
         ProducerImpl<?> producer = producers.get(producerId);
         if (ledgerId == -1 && entryId == -1) {
@@ -494,7 +521,11 @@ public class ClientCnx extends PulsarHandler {
         }
 
         if (producer != null) {
-            producer.ackReceived(this, sequenceId, highestSequenceId, ledgerId, entryId);
+            if (batchIndex >= 0) {
+                producer.ackReceived(this, sequenceId, highestSequenceId, ledgerId, entryId, batchIndex, batchSize);
+            } else {
+                producer.ackReceived(this, sequenceId, highestSequenceId, ledgerId, entryId);
+            }
         } else {
             if (log.isDebugEnabled()) {
                 log.debug("Producer is {} already closed, ignore published message [{}-{}]", producerId, ledgerId,
@@ -1481,6 +1512,26 @@ public class ClientCnx extends PulsarHandler {
 
     private static final Logger log = LoggerFactory.getLogger(ClientCnx.class);
 
+    /**
+     * Get the load of the connection, used to place the new producers and consumers on the least loaded connection to
+     * a broker.
+     * @return the number of producers, consumers and pending requests of the connection, plus one for each
+     *         {@link #LOAD_PENDING_BYTES_PER_UNIT} bytes that wait to be written to the socket.
+     */
+    long getLoad() {
+        return producers.size() + consumers.size() + pendingRequests.size()
+                + getPendingWriteBytes() / LOAD_PENDING_BYTES_PER_UNIT;
+    }
+
+    /**
+     * Get the number of bytes that have been written to the connection but not flushed to the socket yet.
+     */
+    long getPendingWriteBytes() {
+        ChannelHandlerContext ctx = this.ctx;
+        ChannelOutboundBuffer outboundBuffer = ctx != null ? ctx.channel().unsafe().outboundBuffer() : null;
+        return outboundBuffer != null ? outboundBuffer.totalPendingWriteBytes() : 0;
+    }
+
     /**
      * Check client connection is now free. This method will not change the state to idle.
      * @return true if the connection is eligible.
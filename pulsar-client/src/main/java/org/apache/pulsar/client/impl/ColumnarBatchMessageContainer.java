@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.impl;
+
+import org.apache.pulsar.common.schema.SchemaInfo;
+import org.apache.pulsar.common.schema.SchemaType;
+
+/**
+ * Columnar batch message container.
+ *
+ * Batches the messages like the default batch message container, but writes the batches of JSON objects with the
+ * same fields in the columnar layout of {@link JsonColumnarBatch}, when the broker supports it.
+ */
+class ColumnarBatchMessageContainer extends BatchMessageContainerImpl {
+
+    @Override
+    protected void writeMessages() {
+        if (messages.size() > 1 && isColumnarBatchEnabled()
+                && JsonColumnarBatch.write(messages, batchedMessageMetadataAndPayload)) {
+            messageMetadata.setColumnarBatch(true);
+            return;
+        }
+        super.writeMessages();
+    }
+
+    @Override
+    protected boolean canReferencePayloads() {
+        return !isColumnarBatchEnabled() && super.canReferencePayloads();
+    }
+
+    private boolean isColumnarBatchEnabled() {
+        if (producer == null) {
+            return false;
+        }
+        SchemaInfo schemaInfo = producer.schema.getSchemaInfo();
+        if (schemaInfo == null || schemaInfo.getType() != SchemaType.JSON) {
+            return false;
+        }
+        ClientCnx cnx = producer.getClientCnx();
+        return cnx != null && cnx.isBrokerSupportsColumnarBatch();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.pulsar.common.compression.CompressionCodecZstdDictionary;
+
+/**
+ * The compression dictionaries known by a client, by dictionary id.
+ * <p>
+ * The dictionaries of the producers of the client are registered when the producers are created, the dictionaries
+ * that are only used to decompress messages are registered from the client configuration.
+ */
+class CompressionDictionaries {
+
+    private final Map<Integer, CompressionCodecZstdDictionary> codecs = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a dictionary and returns its codec. The codec of a dictionary that is already registered is reused.
+     */
+    CompressionCodecZstdDictionary register(byte[] dictionary) {
+        int dictionaryId = CompressionCodecZstdDictionary.getDictionaryId(dictionary);
+        return codecs.computeIfAbsent(dictionaryId, __ -> new CompressionCodecZstdDictionary(dictionary));
+    }
+
+    /**
+     * Returns the codec of a dictionary, or null if the dictionary is unknown.
+     */
+    CompressionCodecZstdDictionary get(int dictionaryId) {
+        return codecs.get(dictionaryId);
+    }
+}
@@ -31,6 +31,7 @@ import lombok.Getter;
 import lombok.Setter;
 import org.apache.pulsar.client.api.PulsarClientException;
 import org.apache.pulsar.client.impl.HandlerState.State;
+import org.apache.pulsar.common.naming.TopicName;
 import org.apache.pulsar.common.protocol.Commands;
 import org.apache.pulsar.common.util.Backoff;
 import org.slf4j.Logger;
@@ -54,7 +55,8 @@ public class ConnectionHandler {
     private volatile long epoch = -1L;
     protected volatile long lastConnectionClosedTimestamp = 0L;
     private final AtomicBoolean duringConnect = new AtomicBoolean(false);
-    protected final int randomKeyForSelectConnection;
+    // the least loaded connection is selected on the first connection, then the handler sticks to its index
+    protected volatile int randomKeyForSelectConnection;
 
     private volatile Boolean useProxy;
 
@@ -72,7 +74,7 @@ public class ConnectionHandler {
 
     protected ConnectionHandler(HandlerState state, Backoff backoff, Connection connection) {
         this.state = state;
-        this.randomKeyForSelectConnection = state.client.getCnxPool().genRandomKeyToSelectCon();
+        this.randomKeyForSelectConnection = state.client.getCnxPool().genLeastLoadedKeyToSelectCon();
         this.connection = connection;
         this.backoff = backoff;
         CLIENT_CNX_UPDATER.set(this, null);
@@ -132,7 +134,13 @@ public class ConnectionHandler {
                             return connectionResult.getLeft();
                         });
             }
-            cnxFuture.thenCompose(cnx -> connection.connectionOpened(cnx))
+            cnxFuture.thenCompose(cnx -> {
+                        if (randomKeyForSelectConnection == ConnectionPool.LEAST_LOADED_CONNECTION_KEY
+                                && cnx.getConnectionPoolKey() >= 0) {
+                            randomKeyForSelectConnection = cnx.getConnectionPoolKey();
+                        }
+                        return connection.connectionOpened(cnx);
+                    })
                     .thenAccept(__ -> duringConnect.set(false))
                     .exceptionally(this::handleConnectionError);
         } catch (Throwable t) {
@@ -142,6 +150,7 @@ public class ConnectionHandler {
     }
 
     private Void handleConnectionError(Throwable exception) {
+        invalidateCachedBroker();
         try {
             log.warn("[{}] [{}] Error connecting to broker: {}",
                     state.topic, state.getHandlerName(), exception.getMessage());
@@ -192,6 +201,7 @@ public class ConnectionHandler {
         lastConnectionClosedTimestamp = System.currentTimeMillis();
         duringConnect.set(false);
         state.client.getCnxPool().releaseConnection(cnx);
+        invalidateCachedBroker();
         if (CLIENT_CNX_UPDATER.compareAndSet(this, cnx, null)) {
             if (!state.changeToConnecting()) {
                 log.info("[{}] [{}] Ignoring reconnection request (state: {})",
@@ -209,6 +219,14 @@ public class ConnectionHandler {
         }
     }
 
+    // the topic may be served by another broker now, or the lookup returned a broker that can't be reached
+    private void invalidateCachedBroker() {
+        LookupService lookup = state.client.getLookup();
+        if (state.topic != null && lookup != null) {
+            lookup.invalidateCachedBroker(TopicName.get(state.topic));
+        }
+    }
+
     protected void resetBackoff() {
         backoff.reset();
     }
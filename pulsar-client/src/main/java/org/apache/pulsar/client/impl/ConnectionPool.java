@@ -32,12 +32,16 @@ import io.netty.resolver.dns.DnsNameResolverBuilder;
 import io.netty.resolver.dns.SequentialDnsServerAddressStreamProvider;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.ScheduledFuture;
+import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.ObservableLongGauge;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -49,6 +53,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import lombok.Value;
@@ -71,6 +76,8 @@ public class ConnectionPool implements AutoCloseable {
     public static final int IDLE_DETECTION_INTERVAL_SECONDS_MIN = 15;
 
     protected final ConcurrentMap<Key, CompletableFuture<ClientCnx>> pool;
+    // the number of handlers that selected each connection while it was being established
+    private final ConcurrentMap<Key, AtomicInteger> pendingPlacements;
 
     private final Bootstrap bootstrap;
     private final PulsarChannelInitializer channelInitializerHandler;
@@ -95,6 +102,9 @@ public class ConnectionPool implements AutoCloseable {
 
     private final Counter connectionsTcpFailureCounter;
     private final Counter connectionsHandshakeFailureCounter;
+    private final ObservableLongGauge connectionsLoadImbalanceGauge;
+
+    private static final AttributeKey<String> BROKER_ADDRESS_KEY = AttributeKey.stringKey("pulsar.broker.address");
 
     @Value
     private static class Key {
@@ -135,6 +145,7 @@ public class ConnectionPool implements AutoCloseable {
         }
 
         pool = new ConcurrentHashMap<>();
+        pendingPlacements = new ConcurrentHashMap<>();
         bootstrap = new Bootstrap();
         bootstrap.group(eventLoopGroup);
         bootstrap.channel(EventLoopUtil.getClientSocketChannelClass(eventLoopGroup));
@@ -183,6 +194,41 @@ public class ConnectionPool implements AutoCloseable {
         connectionsHandshakeFailureCounter = instrumentProvider.newCounter("pulsar.client.connection.failed",
                 Unit.Connections, "The number of failed connection attempts", null,
                 Attributes.builder().put("pulsar.failure.type", "handshake").build());
+        connectionsLoadImbalanceGauge = instrumentProvider.newObservableGauge("pulsar.client.connection.load.imbalance",
+                Unit.None, "The difference between the highest and the lowest load of the connections to a broker",
+                this::recordLoadImbalance);
+    }
+
+    private void recordLoadImbalance(ObservableLongMeasurement measurement) {
+        getLoadImbalance().forEach((address, imbalance) -> measurement.record(imbalance,
+                Attributes.of(BROKER_ADDRESS_KEY, address.getHostString() + ":" + address.getPort())));
+    }
+
+    /**
+     * Get the difference between the highest and the lowest load of the established connections to each broker, see
+     * {@link ClientCnx#getLoad()}.
+     */
+    @VisibleForTesting
+    Map<InetSocketAddress, Long> getLoadImbalance() {
+        Map<InetSocketAddress, long[]> loadRanges = new HashMap<>();
+        pool.forEach((key, future) -> {
+            if (!future.isDone() || future.isCompletedExceptionally()) {
+                return;
+            }
+            ClientCnx cnx = future.join();
+            if (cnx.ctx() == null) {
+                return;
+            }
+            long load = cnx.getLoad();
+            loadRanges.merge(key.getLogicalAddress(), new long[]{load, load}, (range, newRange) -> {
+                range[0] = Math.min(range[0], load);
+                range[1] = Math.max(range[1], load);
+                return range;
+            });
+        });
+        Map<InetSocketAddress, Long> imbalances = new HashMap<>();
+        loadRanges.forEach((address, range) -> imbalances.put(address, range[1] - range[0]));
+        return imbalances;
     }
 
     private static AddressResolver<InetSocketAddress> createAddressResolver(ClientConfigurationData conf,
@@ -209,6 +255,12 @@ public class ConnectionPool implements AutoCloseable {
 
     private static final Random random = new Random();
 
+    /**
+     * The key that selects the least loaded connection to the broker, see
+     * {@link #getConnection(InetSocketAddress, InetSocketAddress, int)}.
+     */
+    public static final int LEAST_LOADED_CONNECTION_KEY = -2;
+
     public int genRandomKeyToSelectCon() {
         if (maxConnectionsPerHosts == 0) {
             return -1;
@@ -216,6 +268,13 @@ public class ConnectionPool implements AutoCloseable {
         return signSafeMod(random.nextInt(), maxConnectionsPerHosts);
     }
 
+    public int genLeastLoadedKeyToSelectCon() {
+        if (maxConnectionsPerHosts == 0) {
+            return -1;
+        }
+        return LEAST_LOADED_CONNECTION_KEY;
+    }
+
     public CompletableFuture<ClientCnx> getConnection(final InetSocketAddress address) {
         if (maxConnectionsPerHosts == 0) {
             return getConnection(address, address, -1);
@@ -254,6 +313,8 @@ public class ConnectionPool implements AutoCloseable {
      *            the address to use as the broker tag
      * @param physicalAddress
      *            the real address where the TCP connection should be made
+     * @param randomKey
+     *            the index of the connection to the broker, or {@link #LEAST_LOADED_CONNECTION_KEY}
      * @return a future that will produce the ClientCnx object
      */
     public CompletableFuture<ClientCnx> getConnection(InetSocketAddress logicalAddress,
@@ -262,8 +323,13 @@ public class ConnectionPool implements AutoCloseable {
             // Disable pooling
             return createConnection(new Key(logicalAddress, physicalAddress, -1));
         }
-        Key key = new Key(logicalAddress, physicalAddress, randomKey);
+        boolean leastLoaded = randomKey == LEAST_LOADED_CONNECTION_KEY;
+        Key key = new Key(logicalAddress, physicalAddress,
+                leastLoaded ? selectLeastLoadedKey(logicalAddress, physicalAddress) : randomKey);
         CompletableFuture<ClientCnx> completableFuture = pool.computeIfAbsent(key, k -> createConnection(key));
+        if (leastLoaded) {
+            countPendingPlacement(key, completableFuture);
+        }
         if (completableFuture.isCompletedExceptionally()) {
             // we cannot cache a failed connection, so we remove it from the pool
             // there is a race condition in which
@@ -290,6 +356,59 @@ public class ConnectionPool implements AutoCloseable {
         });
     }
 
+    /**
+     * Select the connection to the broker with the lowest load. A connection whose channel is not writable, because
+     * the socket can't keep up with the writes, is only selected if all the other connections are in the same state.
+     * The connections that don't exist yet are selected first, so that the load is spread over all of them. The load
+     * of a connection that is being established is the number of handlers that already selected it.
+     */
+    @VisibleForTesting
+    int selectLeastLoadedKey(InetSocketAddress logicalAddress, InetSocketAddress physicalAddress) {
+        int selectedKey = 0;
+        boolean selectedWritable = false;
+        long selectedLoad = Long.MAX_VALUE;
+        for (int i = 0; i < maxConnectionsPerHosts; i++) {
+            Key key = new Key(logicalAddress, physicalAddress, i);
+            CompletableFuture<ClientCnx> future = pool.get(key);
+            if (future == null || future.isCompletedExceptionally()) {
+                return i;
+            }
+            boolean writable;
+            long load;
+            if (future.isDone()) {
+                ClientCnx cnx = future.join();
+                if (cnx.ctx() == null) {
+                    return i;
+                }
+                writable = cnx.channel().isWritable();
+                load = cnx.getLoad();
+            } else {
+                AtomicInteger placements = pendingPlacements.get(key);
+                writable = true;
+                load = placements != null ? placements.get() : 0;
+            }
+            if ((writable && !selectedWritable) || (writable == selectedWritable && load < selectedLoad)) {
+                selectedKey = i;
+                selectedWritable = writable;
+                selectedLoad = load;
+            }
+        }
+        return selectedKey;
+    }
+
+    /**
+     * Count a handler placed on a connection that is being established, until the connection is established and the
+     * handler registers itself on it.
+     */
+    private void countPendingPlacement(Key key, CompletableFuture<ClientCnx> future) {
+        if (future.isDone()) {
+            return;
+        }
+        AtomicInteger placements = pendingPlacements.computeIfAbsent(key, k -> new AtomicInteger());
+        placements.incrementAndGet();
+        future.whenComplete((__, ___) -> pendingPlacements.remove(key, placements));
+    }
+
     private CompletableFuture<ClientCnx> createConnection(Key key) {
         if (log.isDebugEnabled()) {
             log.debug("Connection for {} not found in cache", key.logicalAddress);
@@ -318,6 +437,7 @@ public class ConnectionPool implements AutoCloseable {
                 cnxFuture.completeExceptionally(new ChannelException("Connection already closed"));
                 return;
             }
+            cnx.setConnectionPoolKey(key.randomKey);
 
             cnx.connectionFuture().thenRun(() -> {
                 if (log.isDebugEnabled()) {
@@ -463,6 +583,7 @@ public class ConnectionPool implements AutoCloseable {
 
     @Override
     public void close() throws Exception {
+        connectionsLoadImbalanceGauge.close();
         closeAllConnections();
         if (shouldCloseDnsResolver) {
             addressResolver.close();
@@ -214,7 +214,7 @@ public abstract class ConsumerBase<T> extends HandlerState implements Consumer<T
     }
 
     public void initReceiverQueueSize() {
-        if (conf.isAutoScaledReceiverQueueSizeEnabled()) {
+        if (isAutoScaledReceiverQueueSizeEnabled()) {
             CURRENT_RECEIVER_QUEUE_SIZE_UPDATER.set(this, minReceiverQueueSize());
         } else {
             CURRENT_RECEIVER_QUEUE_SIZE_UPDATER.set(this, maxReceiverQueueSize);
@@ -223,8 +223,12 @@ public abstract class ConsumerBase<T> extends HandlerState implements Consumer<T
 
     public abstract int minReceiverQueueSize();
 
+    protected boolean isAutoScaledReceiverQueueSizeEnabled() {
+        return conf.isAutoScaledReceiverQueueSizeEnabled() || conf.isAdaptiveReceiverQueueSizeEnabled();
+    }
+
     protected void expectMoreIncomingMessages() {
-        if (!conf.isAutoScaledReceiverQueueSizeEnabled()) {
+        if (!isAutoScaledReceiverQueueSizeEnabled()) {
             return;
         }
         double usage = getMemoryLimitController().map(MemoryLimitController::currentUsagePercent).orElse(0d);
@@ -244,7 +248,7 @@ public abstract class ConsumerBase<T> extends HandlerState implements Consumer<T
     }
 
     protected void reduceCurrentReceiverQueueSize() {
-        if (!conf.isAutoScaledReceiverQueueSizeEnabled()) {
+        if (!isAutoScaledReceiverQueueSizeEnabled()) {
             return;
         }
         int oldSize = getCurrentReceiverQueueSize();
@@ -942,6 +946,48 @@ public abstract class ConsumerBase<T> extends HandlerState implements Consumer<T
         return hasEnoughMessagesForBatchReceive();
     }
 
+    /**
+     * Enqueues messages with a single acquisition of the incoming queue locks, see
+     * {@link #enqueueMessageAndCheckBatchReceive(Message)}. The messages that can't be enqueued are removed from the
+     * list.
+     */
+    protected boolean enqueueMessagesAndCheckBatchReceive(List<Message<T>> messages) {
+        if (messages.isEmpty()) {
+            return hasEnoughMessagesForBatchReceive();
+        }
+        // synchronize redeliverUnacknowledgedMessages().
+        incomingQueueLock.lock();
+        try {
+            long messagesSize = 0;
+            int enqueued = 0;
+            for (int i = 0; i < messages.size(); i++) {
+                Message<T> message = messages.get(i);
+                if (!canEnqueueMessage(message)) {
+                    continue;
+                }
+                messagesSize += message.size();
+                if (enqueued != i) {
+                    messages.set(enqueued, message);
+                }
+                enqueued++;
+            }
+            if (enqueued < messages.size()) {
+                messages.subList(enqueued, messages.size()).clear();
+            }
+            if (enqueued > 0) {
+                // The sizes are read before the messages are enqueued, see enqueueMessageAndCheckBatchReceive
+                incomingMessages.addAll(messages);
+                INCOMING_MESSAGES_SIZE_UPDATER.addAndGet(this, messagesSize);
+                long reservedSize = messagesSize;
+                getMemoryLimitController().ifPresent(limiter -> limiter.forceReserveMemory(reservedSize));
+                updateAutoScaleReceiverQueueHint();
+            }
+        } finally {
+            incomingQueueLock.unlock();
+        }
+        return hasEnoughMessagesForBatchReceive();
+    }
+
     protected abstract void updateAutoScaleReceiverQueueHint();
 
     protected boolean hasEnoughMessagesForBatchReceive() {
@@ -1223,7 +1269,7 @@ public abstract class ConsumerBase<T> extends HandlerState implements Consumer<T
     }
 
     Optional<MemoryLimitController> getMemoryLimitController() {
-        if (!conf.isAutoScaledReceiverQueueSizeEnabled()) {
+        if (!isAutoScaledReceiverQueueSizeEnabled()) {
             //disable memory limit.
             return Optional.empty();
         } else {
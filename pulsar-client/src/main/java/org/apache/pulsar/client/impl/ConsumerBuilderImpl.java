@@ -37,6 +37,7 @@ import org.apache.pulsar.client.admin.PulsarAdminException;
 import org.apache.pulsar.client.api.BatchReceivePolicy;
 import org.apache.pulsar.client.api.Consumer;
 import org.apache.pulsar.client.api.ConsumerBuilder;
+import org.apache.pulsar.client.api.ConsumerCompressionFailureAction;
 import org.apache.pulsar.client.api.ConsumerCryptoFailureAction;
 import org.apache.pulsar.client.api.ConsumerEventListener;
 import org.apache.pulsar.client.api.ConsumerInterceptor;
@@ -376,6 +377,12 @@ public class ConsumerBuilderImpl<T> implements ConsumerBuilder<T> {
         return this;
     }
 
+    @Override
+    public ConsumerBuilder<T> compressionFailureAction(@NonNull ConsumerCompressionFailureAction action) {
+        conf.setCompressionFailureAction(action);
+        return this;
+    }
+
     @Override
     public ConsumerBuilder<T> receiverQueueSize(int receiverQueueSize) {
         checkArgument(receiverQueueSize >= 0, "receiverQueueSize needs to be >= 0");
@@ -607,6 +614,12 @@ public class ConsumerBuilderImpl<T> implements ConsumerBuilder<T> {
         return this;
     }
 
+    @Override
+    public ConsumerBuilder<T> adaptiveReceiverQueueSizeEnabled(boolean enabled) {
+        conf.setAdaptiveReceiverQueueSizeEnabled(enabled);
+        return this;
+    }
+
     @Override
     public TopicConsumerBuilder<T> topicConfiguration(String topicName) {
         TopicConsumerConfigurationData topicConf = TopicConsumerConfigurationData.ofTopicName(topicName, conf);
@@ -28,6 +28,7 @@ import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.Iterables;
 import com.scurrilous.circe.checksum.Crc32cIntChecksum;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.util.Recycler;
 import io.netty.util.Recycler.Handle;
@@ -75,6 +76,7 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Triple;
 import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.ConsumerCompressionFailureAction;
 import org.apache.pulsar.client.api.ConsumerCryptoFailureAction;
 import org.apache.pulsar.client.api.DeadLetterPolicy;
 import org.apache.pulsar.client.api.DeadLetterProducerBuilderContext;
@@ -170,6 +172,9 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
 
     private final AcknowledgmentsGroupingTracker acknowledgmentsGroupingTracker;
     private final NegativeAcksTracker negativeAcksTracker;
+    // sizes the receiver queue when the adaptive receiver queue size is enabled, null otherwise
+    private final ReceiverQueueSizeController receiverQueueSizeController;
+    private volatile Timeout receiverQueueSizeUpdateTimeout;
 
     protected final ConsumerStatsRecorder stats;
     @Getter(AccessLevel.PACKAGE)
@@ -338,6 +343,15 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
             stats = ConsumerStatsDisabled.INSTANCE;
         }
 
+        // the consumers of a multi topics consumer fill the queue of their parent, which isn't sized after them
+        if (conf.isAdaptiveReceiverQueueSizeEnabled() && !hasParentConsumer) {
+            receiverQueueSizeController = new ReceiverQueueSizeController(System.nanoTime());
+            receiverQueueSizeUpdateTimeout = client.timer().newTimeout(this::updateReceiverQueueSize,
+                    ReceiverQueueSizeController.UPDATE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        } else {
+            receiverQueueSizeController = null;
+        }
+
         seekStatus = new AtomicReference<>(SeekStatus.NOT_STARTED);
 
         // Create msgCrypto if not created already
@@ -458,6 +472,39 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
         return negativeAcksTracker;
     }
 
+    ReceiverQueueSizeController getReceiverQueueSizeController() {
+        return receiverQueueSizeController;
+    }
+
+    private void updateReceiverQueueSize(Timeout timeout) {
+        if (timeout.isCancelled() || getState() == State.Closing || getState() == State.Closed) {
+            return;
+        }
+        double usage = getMemoryLimitController().map(MemoryLimitController::currentUsagePercent).orElse(0d);
+        int oldSize = getCurrentReceiverQueueSize();
+        int newSize = receiverQueueSizeController.update(System.nanoTime(), oldSize, minReceiverQueueSize(),
+                maxReceiverQueueSize, usage < MEMORY_THRESHOLD_FOR_RECEIVER_QUEUE_SIZE_EXPANSION);
+        if (newSize != oldSize) {
+            if (log.isDebugEnabled()) {
+                log.debug("[{}][{}] Resize the receiver queue from {} to {}, processing rate: {} msg/s, "
+                                + "flow round trip time: {} ms", topic, subscription, oldSize, newSize,
+                        receiverQueueSizeController.getProcessingRate(),
+                        receiverQueueSizeController.getRoundTripTimeMs());
+            }
+            setCurrentReceiverQueueSize(newSize);
+        }
+        receiverQueueSizeUpdateTimeout = client.timer().newTimeout(this::updateReceiverQueueSize,
+                ReceiverQueueSizeController.UPDATE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected void expectMoreIncomingMessages() {
+        if (receiverQueueSizeController != null) {
+            receiverQueueSizeController.recordStarved();
+        }
+        super.expectMoreIncomingMessages();
+    }
+
     @Override
     public CompletableFuture<Void> unsubscribeAsync(boolean force) {
         if (getState() == State.Closing || getState() == State.Closed) {
@@ -1074,6 +1121,9 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
             if (log.isDebugEnabled()) {
                 log.debug("[{}] [{}] Adding {} additional permits", topic, subscription, numMessages);
             }
+            if (receiverQueueSizeController != null && incomingMessages.isEmpty()) {
+                receiverQueueSizeController.recordFlowSent(System.nanoTime());
+            }
             if (log.isDebugEnabled()) {
                 cnx.ctx().writeAndFlush(Commands.newFlow(consumerId, numMessages))
                         .addListener(writeFuture -> {
@@ -1209,6 +1259,9 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
         }
         negativeAcksTracker.close();
         stats.getStatTimeout().ifPresent(Timeout::cancel);
+        if (receiverQueueSizeUpdateTimeout != null) {
+            receiverQueueSizeUpdateTimeout.cancel();
+        }
         if (poolMessages) {
             releasePooledMessagesAndStopAcceptNew();
         }
@@ -1251,6 +1304,7 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
                                                   final SingleMessageMetadata singleMessageMetadata,
                                                   final ByteBuf payload,
                                                   final MessageIdImpl messageId,
+                                                  final Optional<EncryptionContext> encryptionCtx,
                                                   final Schema<V> schema,
                                                   final boolean containMetadata,
                                                   final BitSetRecyclable ackBitSet,
@@ -1294,7 +1348,7 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
             final ByteBuf payloadBuffer = (singleMessagePayload != null) ? singleMessagePayload : payload;
             final MessageImpl<V> message = MessageImpl.create(topicName.toString(), batchMessageIdImpl,
                     msgMetadata, singleMessageMetadata, payloadBuffer,
-                    createEncryptionContext(msgMetadata), cnx(), schema, redeliveryCount, poolMessages, consumerEpoch);
+                    encryptionCtx, cnx(), schema, redeliveryCount, poolMessages, consumerEpoch);
             message.setBrokerEntryMetadata(brokerEntryMetadata);
             return message;
         } catch (IOException | IllegalStateException e) {
@@ -1326,20 +1380,44 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
         // Enqueue the message so that it can be retrieved when application calls receive()
         // if the conf.getReceiverQueueSize() is 0 then discard message if no one is waiting for it.
         // if asyncReceive is waiting then notify callback without adding to incomingMessages queue
+        internalPinnedExecutor.execute(() -> notifyCallback(message));
+    }
+
+    /**
+     * Same as {@link #executeNotifyCallback(MessageImpl)} for all the messages of a batch, which are handed over to
+     * the pinned executor with a single task rather than with a task per message.
+     */
+    private void executeNotifyCallback(final List<MessageImpl<T>> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        long size = 0;
+        for (int i = 0; i < messages.size(); i++) {
+            size += messages.get(i).size();
+        }
+        messagesPrefetchedGauge.add(messages.size());
+        bytesPrefetchedGauge.add(size);
+
         internalPinnedExecutor.execute(() -> {
-            if (!isValidConsumerEpoch(message)) {
-                increaseAvailablePermits(cnx());
-                return;
-            }
-            Message<T> interceptMsg = onArrival(message);
-            if (hasNextPendingReceive()) {
-                notifyPendingReceivedCallback(interceptMsg, null);
-            } else if (enqueueMessageAndCheckBatchReceive(interceptMsg) && hasPendingBatchReceive()) {
-                notifyPendingBatchReceivedCallBack();
+            for (int i = 0; i < messages.size(); i++) {
+                notifyCallback(messages.get(i));
             }
         });
     }
 
+    private void notifyCallback(final MessageImpl<T> message) {
+        if (!isValidConsumerEpoch(message)) {
+            increaseAvailablePermits(cnx());
+            return;
+        }
+        Message<T> interceptMsg = onArrival(message);
+        if (hasNextPendingReceive()) {
+            notifyPendingReceivedCallback(interceptMsg, null);
+        } else if (enqueueMessageAndCheckBatchReceive(interceptMsg) && hasPendingBatchReceive()) {
+            notifyPendingBatchReceivedCallBack();
+        }
+    }
+
     private void processPayloadByProcessor(final BrokerEntryMetadata brokerEntryMetadata,
                                            final MessageMetadata messageMetadata,
                                            final ByteBuf byteBuf,
@@ -1376,6 +1454,9 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
     }
 
     void messageReceived(CommandMessage cmdMessage, ByteBuf headersAndPayload, ClientCnx cnx) {
+        if (receiverQueueSizeController != null) {
+            receiverQueueSizeController.recordMessageReceived(System.nanoTime());
+        }
         List<Long> ackSet = Collections.emptyList();
         if (cmdMessage.getAckSetsCount() > 0) {
             ackSet = new ArrayList<>(cmdMessage.getAckSetsCount());
@@ -1436,8 +1517,18 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
             return;
         }
 
+        // a message compressed with an unknown dictionary is only delivered, compressed, with the CONSUME action
+        boolean isMessageUndecompressable = !isMessageUndecryptable && !isChunkedMessage
+                && getCompressionCodec(msgMetadata) == null;
+        if (isMessageUndecompressable && !handleCompressionFailure(msgMetadata,
+                Collections.singletonList(msgId), cnx, msgMetadata.getNumMessagesInBatch())) {
+            decryptedPayload.release();
+            return;
+        }
+
         // uncompress decryptedPayload and release decryptedPayload-ByteBuf
-        ByteBuf uncompressedPayload = (isMessageUndecryptable || isChunkedMessage) ? decryptedPayload.retain()
+        ByteBuf uncompressedPayload = (isMessageUndecryptable || isMessageUndecompressable || isChunkedMessage)
+                ? decryptedPayload.retain()
                 : uncompressPayloadIfNeeded(messageId, msgMetadata, decryptedPayload, cnx, true);
         decryptedPayload.release();
         if (uncompressedPayload == null) {
@@ -1445,6 +1536,21 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
             return;
         }
 
+        if (msgMetadata.isColumnarBatch() && !isMessageUndecryptable && !isMessageUndecompressable) {
+            // the rest of the receive path reads the batch in the regular layout
+            try {
+                ByteBuf rows = JsonColumnarBatch.toRows(uncompressedPayload, numMessages,
+                        PulsarByteBufAllocator.DEFAULT);
+                uncompressedPayload.release();
+                uncompressedPayload = rows;
+            } catch (IllegalStateException e) {
+                log.warn("[{}] [{}] unable to read the columnar batch", subscription, consumerName, e);
+                uncompressedPayload.release();
+                discardCorruptedMessage(messageId, cnx, ValidationError.BatchDeSerializeError);
+                return;
+            }
+        }
+
         if (conf.getPayloadProcessor() != null) {
             // uncompressedPayload is released in this method so we don't need to call release() again
             processPayloadByProcessor(brokerEntryMetadata, msgMetadata,
@@ -1454,7 +1560,8 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
 
         // if message is not decryptable then it can't be parsed as a batch-message. so, add EncyrptionCtx to message
         // and return undecrypted payload
-        if (isMessageUndecryptable || (numMessages == 1 && !msgMetadata.hasNumMessagesInBatch())) {
+        if (isMessageUndecryptable || isMessageUndecompressable
+                || (numMessages == 1 && !msgMetadata.hasNumMessagesInBatch())) {
 
             // right now, chunked messages are only supported by non-shared subscription
             if (isChunkedMessage) {
@@ -1589,8 +1696,8 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
                 removeOldestPendingChunkedMessage();
             }
             int totalChunks = msgMetadata.getNumChunksFromMsg();
-            ByteBuf chunkedMsgBuffer = PulsarByteBufAllocator.DEFAULT.buffer(msgMetadata.getTotalChunkMsgSize(),
-                    msgMetadata.getTotalChunkMsgSize());
+            // the chunks are added without being copied, so the buffer only grows as they're received
+            CompositeByteBuf chunkedMsgBuffer = PulsarByteBufAllocator.DEFAULT.compositeBuffer(totalChunks);
             chunkedMsgCtx = chunkedMessagesMap.computeIfAbsent(msgMetadata.getUuid(),
                     (key) -> ChunkedMessageCtx.get(totalChunks, chunkedMsgBuffer));
             pendingChunkedMessageUuidQueue.add(msgMetadata.getUuid());
@@ -1648,18 +1755,31 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
         }
 
         chunkedMsgCtx.chunkedMessageIds[msgMetadata.getChunkId()] = msgId;
-        // append the chunked payload and update lastChunkedMessage-id
-        chunkedMsgCtx.chunkedMsgBuffer.writeBytes(compressedPayload);
+        // append the chunked payload, the buffer takes ownership of it, and update lastChunkedMessage-id
+        chunkedMsgCtx.chunkedMsgBuffer.addComponent(true, compressedPayload);
         chunkedMsgCtx.lastChunkedMessageId = msgMetadata.getChunkId();
 
-        // if final chunk is not received yet then release payload and return
+        // if final chunk is not received yet then return
         if (msgMetadata.getChunkId() != (msgMetadata.getNumChunksFromMsg() - 1)) {
-            compressedPayload.release();
             return null;
         }
 
-        compressedPayload.release();
         compressedPayload = chunkedMsgCtx.chunkedMsgBuffer;
+        if (getCompressionCodec(msgMetadata) == null) {
+            List<MessageIdImpl> chunkIds = new ArrayList<>(chunkedMsgCtx.chunkedMessageIds.length);
+            for (MessageIdImpl chunkId : chunkedMsgCtx.chunkedMessageIds) {
+                if (chunkId != null) {
+                    chunkIds.add(chunkId);
+                }
+            }
+            if (handleCompressionFailure(msgMetadata, chunkIds, cnx, 1)) {
+                // the buffer is handed over to the caller, like the uncompressed payload below
+                return compressedPayload;
+            }
+            removeChunkMessage(msgMetadata.getUuid(), chunkedMsgCtx, false);
+            return null;
+        }
+
         ByteBuf uncompressedPayload = uncompressPayloadIfNeeded(messageId, msgMetadata, compressedPayload, cnx, false);
         compressedPayload.release();
         return uncompressedPayload;
@@ -1734,11 +1854,14 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
         }
 
         SingleMessageMetadata singleMessageMetadata = new SingleMessageMetadata();
+        // The messages of the entry share its encryption context
+        Optional<EncryptionContext> encryptionCtx = createEncryptionContext(msgMetadata);
+        List<MessageImpl<T>> messages = new ArrayList<>(batchSize);
         int skippedMessages = 0;
         try {
             for (int i = 0; i < batchSize; ++i) {
                 final MessageImpl<T> message = newSingleMessage(i, batchSize, brokerEntryMetadata, msgMetadata,
-                        singleMessageMetadata, uncompressedPayload, batchMessage, schema, true,
+                        singleMessageMetadata, uncompressedPayload, batchMessage, encryptionCtx, schema, true,
                         ackBitSet, ackSetInMessageId, redeliveryCount, consumerEpoch);
                 if (message == null) {
                     // If it is not in ackBitSet, it means Broker does not want to deliver it to the client, and
@@ -1763,7 +1886,7 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
                     skippedMessages++;
                     continue;
                 }
-                executeNotifyCallback(message);
+                messages.add(message);
             }
             if (ackBitSet != null) {
                 ackBitSet.recycle();
@@ -1772,6 +1895,7 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
             log.warn("[{}] [{}] unable to obtain message in batch", subscription, consumerName, e);
             discardCorruptedMessage(messageId, cnx, ValidationError.BatchDeSerializeError);
         }
+        executeNotifyCallback(messages);
 
         if (deadLetterPolicy != null && possibleSendToDeadLetterTopicMessages != null) {
             if (redeliveryCount >= deadLetterPolicy.getMaxRedeliverCount()) {
@@ -1820,6 +1944,9 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
 
         messagesPrefetchedGauge.decrement();
         messagesReceivedCounter.increment();
+        if (receiverQueueSizeController != null) {
+            receiverQueueSizeController.recordProcessed();
+        }
 
         bytesPrefetchedGauge.subtract(msg.size());
         bytesReceivedCounter.add(msg.size());
@@ -2001,7 +2128,7 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
     private ByteBuf uncompressPayloadIfNeeded(MessageIdData messageId, MessageMetadata msgMetadata, ByteBuf payload,
             ClientCnx currentCnx, boolean checkMaxMessageSize) {
         CompressionType compressionType = msgMetadata.getCompression();
-        CompressionCodec codec = CompressionCodecProvider.getCompressionCodec(compressionType);
+        CompressionCodec codec = getCompressionCodec(msgMetadata);
         int uncompressedSize = msgMetadata.getUncompressedSize();
         int payloadSize = payload.readableBytes();
         if (checkMaxMessageSize && payloadSize > getConnectionHandler().getMaxMessageSize()) {
@@ -2022,6 +2149,58 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
         }
     }
 
+    /**
+     * Handles a message that is compressed with a zstd dictionary that this client doesn't know, according to the
+     * configured {@link ConsumerCompressionFailureAction}. Returns true if the compressed payload must be delivered to
+     * the application, otherwise the message has been negatively acknowledged or discarded.
+     *
+     * @param messageIds the ids of the entries of the message, i.e. of all its chunks for a chunked message
+     * @param permits the permits that the message has taken
+     */
+    private boolean handleCompressionFailure(MessageMetadata msgMetadata, List<MessageIdImpl> messageIds,
+            ClientCnx currentCnx, int permits) {
+        switch (conf.getCompressionFailureAction()) {
+        case CONSUME:
+            log.warn("[{}][{}][{}] Unknown compression dictionary {} at {}. Consuming compressed message since config"
+                    + " is set to consume.", topic, subscription, consumerName,
+                    msgMetadata.getCompressionDictionaryId(), messageIds);
+            // the message is delivered as a single message, which returns one permit once it's processed
+            increaseAvailablePermits(currentCnx, permits - 1);
+            return true;
+        case DISCARD:
+            log.warn("[{}][{}][{}] Discarding message at {} since its compression dictionary {} is unknown and config"
+                    + " is set to discard", topic, subscription, consumerName, messageIds,
+                    msgMetadata.getCompressionDictionaryId());
+            for (MessageIdImpl messageId : messageIds) {
+                doAcknowledge(messageId, AckType.Individual, Collections.emptyMap(), null);
+            }
+            break;
+        case FAIL:
+        default:
+            // The message is redelivered, e.g. to another consumer or once the dictionary is known
+            log.error("[{}][{}][{}] Message delivery failed at {} since its compression dictionary {} is unknown",
+                    topic, subscription, consumerName, messageIds, msgMetadata.getCompressionDictionaryId());
+            for (MessageIdImpl messageId : messageIds) {
+                negativeAcksTracker.add(messageId);
+            }
+            break;
+        }
+        increaseAvailablePermits(currentCnx, permits);
+        stats.incrementNumReceiveFailed();
+        return false;
+    }
+
+    /**
+     * Returns the codec to decompress the payload with, or null if it's compressed with a dictionary that this client
+     * doesn't know.
+     */
+    private CompressionCodec getCompressionCodec(MessageMetadata msgMetadata) {
+        if (msgMetadata.getCompression() == CompressionType.ZSTD_DICTIONARY) {
+            return client.getCompressionDictionaries().get(msgMetadata.getCompressionDictionaryId());
+        }
+        return CompressionCodecProvider.getCompressionCodec(msgMetadata.getCompression());
+    }
+
     private boolean verifyChecksum(ByteBuf headersAndPayload, MessageIdData messageId) {
 
         if (hasChecksum(headersAndPayload)) {
@@ -2825,7 +3004,7 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
      * @param msgMetadata
      * @return {@link Optional}<{@link EncryptionContext}>
      */
-    private Optional<EncryptionContext> createEncryptionContext(MessageMetadata msgMetadata) {
+    Optional<EncryptionContext> createEncryptionContext(MessageMetadata msgMetadata) {
 
         EncryptionContext encryptionCtx = null;
         if (msgMetadata.getEncryptionKeysCount() > 0) {
@@ -2955,12 +3134,12 @@ public class ConsumerImpl<T> extends ConsumerBase<T> implements ConnectionHandle
     static class ChunkedMessageCtx {
 
         protected int totalChunks = -1;
-        protected ByteBuf chunkedMsgBuffer;
+        protected CompositeByteBuf chunkedMsgBuffer;
         protected int lastChunkedMessageId = -1;
         protected MessageIdImpl[] chunkedMessageIds;
         protected long receivedTime = 0;
 
-        static ChunkedMessageCtx get(int numChunksFromMsg, ByteBuf chunkedMsgBuffer) {
+        static ChunkedMessageCtx get(int numChunksFromMsg, CompositeByteBuf chunkedMsgBuffer) {
             ChunkedMessageCtx ctx = RECYCLER.get();
             ctx.totalChunks = numChunksFromMsg;
             ctx.chunkedMsgBuffer = chunkedMsgBuffer;
@@ -265,6 +265,33 @@ public class ConsumerStatsRecorderImpl implements ConsumerStatsRecorder {
         return null;
     }
 
+    @Override
+    public Integer getCurrentReceiverQueueSize() {
+        if (consumer instanceof ConsumerBase) {
+            return ((ConsumerBase<?>) consumer).getCurrentReceiverQueueSize();
+        }
+        return null;
+    }
+
+    @Override
+    public double getEstimatedProcessingRate() {
+        ReceiverQueueSizeController controller = getReceiverQueueSizeController();
+        return controller != null ? controller.getProcessingRate() : 0;
+    }
+
+    @Override
+    public double getEstimatedFlowRoundTripTimeMs() {
+        ReceiverQueueSizeController controller = getReceiverQueueSizeController();
+        return controller != null ? controller.getRoundTripTimeMs() : 0;
+    }
+
+    private ReceiverQueueSizeController getReceiverQueueSizeController() {
+        if (consumer instanceof ConsumerImpl) {
+            return ((ConsumerImpl<?>) consumer).getReceiverQueueSizeController();
+        }
+        return null;
+    }
+
     @Override
     public ProducerStats getDeadLetterProducerStats() {
         return deadLetterProducerStats;
@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.pulsar.common.api.proto.SingleMessageMetadata;
+import org.apache.pulsar.common.protocol.Commands;
+
+/**
+ * Writes and reads the columnar layout of a batch of JSON objects.
+ * <p>
+ * In the columnar layout, the single message metadata of all the messages come first, with a payload size of 0,
+ * followed by one column per field of the objects:
+ * <pre>
+ * [NUM_FIELDS] ([NAME_SIZE][NAME] [VALUE_SIZE]... [VALUE]...)...
+ * </pre>
+ * where a column holds the size of the value of each message, then the values of all the messages. The values are
+ * the JSON text of the fields, so that the values of a field, which are often similar, are next to each other when
+ * the batch is compressed.
+ * <p>
+ * A batch is only written in the columnar layout when all its messages are JSON objects with the same fields in the
+ * same order. The reader converts a columnar batch back to the regular layout, where each message is a JSON object
+ * with the same fields and values, without whitespace between the fields.
+ */
+final class JsonColumnarBatch {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private JsonColumnarBatch() {
+    }
+
+    /**
+     * Writes the messages to the batch buffer in the columnar layout.
+     *
+     * @return false, without writing anything, if the messages can't be written in the columnar layout
+     */
+    static boolean write(List<MessageImpl<?>> messages, ByteBuf batchBuffer) {
+        int numMessages = messages.size();
+        List<String> fieldNames = null;
+        byte[][] payloads = new byte[numMessages][];
+        // the start and end offsets of the values of the fields in the payloads
+        int[][] valueOffsets = new int[numMessages][];
+        for (int i = 0; i < numMessages; i++) {
+            MessageImpl<?> msg = messages.get(i);
+            if (msg.getMessageBuilder().isNullValue()) {
+                return false;
+            }
+            payloads[i] = ByteBufUtil.getBytes(msg.getDataBuffer());
+            List<String> names = new ArrayList<>(fieldNames != null ? fieldNames.size() : 8);
+            valueOffsets[i] = parseObject(payloads[i], names);
+            if (valueOffsets[i] == null || (fieldNames != null && !fieldNames.equals(names))) {
+                return false;
+            }
+            fieldNames = names;
+        }
+
+        for (int i = 0; i < numMessages; i++) {
+            Commands.serializeSingleMessageMetadataInBatch(messages.get(i).getMessageBuilder(), 0, batchBuffer);
+        }
+        batchBuffer.writeInt(fieldNames.size());
+        for (int field = 0; field < fieldNames.size(); field++) {
+            byte[] name = fieldNames.get(field).getBytes(StandardCharsets.UTF_8);
+            batchBuffer.writeInt(name.length);
+            batchBuffer.writeBytes(name);
+            for (int i = 0; i < numMessages; i++) {
+                batchBuffer.writeInt(valueOffsets[i][2 * field + 1] - valueOffsets[i][2 * field]);
+            }
+            for (int i = 0; i < numMessages; i++) {
+                int start = valueOffsets[i][2 * field];
+                batchBuffer.writeBytes(payloads[i], start, valueOffsets[i][2 * field + 1] - start);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a JSON object and collects the names of its fields.
+     *
+     * @return the start and end offsets of the values of the fields, or null if the payload is not a JSON object
+     */
+    private static int[] parseObject(byte[] payload, List<String> names) {
+        List<Integer> offsets = new ArrayList<>();
+        try (JsonParser parser = JSON_FACTORY.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                names.add(parser.getCurrentName());
+                parser.nextToken();
+                offsets.add((int) parser.getTokenLocation().getByteOffset());
+                parser.skipChildren();
+                // make sure that the end of the string values was read
+                parser.finishToken();
+                offsets.add((int) parser.getCurrentLocation().getByteOffset());
+            }
+            if (parser.nextToken() != null) {
+                return null;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        int[] result = new int[offsets.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = offsets.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Converts a batch in the columnar layout to the regular layout.
+     *
+     * @throws IllegalStateException if the batch is corrupted
+     */
+    static ByteBuf toRows(ByteBuf columnarBatch, int numMessages, ByteBufAllocator allocator) {
+        int batchSize = columnarBatch.readableBytes();
+        try {
+            int[] metadataOffsets = new int[numMessages];
+            int[] metadataSizes = new int[numMessages];
+            for (int i = 0; i < numMessages; i++) {
+                metadataSizes[i] = columnarBatch.readInt();
+                metadataOffsets[i] = columnarBatch.readerIndex();
+                columnarBatch.skipBytes(metadataSizes[i]);
+            }
+
+            int numFields = columnarBatch.readInt();
+            byte[][] names = new byte[numFields][];
+            int[][] valueSizes = new int[numFields][numMessages];
+            // the offset of the next value of each field
+            int[] valueOffsets = new int[numFields];
+            JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+            for (int field = 0; field < numFields; field++) {
+                byte[] name = new byte[columnarBatch.readInt()];
+                columnarBatch.readBytes(name);
+                names[field] = encoder.quoteAsUTF8(new String(name, StandardCharsets.UTF_8));
+                int valuesSize = 0;
+                for (int i = 0; i < numMessages; i++) {
+                    valueSizes[field][i] = columnarBatch.readInt();
+                    valuesSize += valueSizes[field][i];
+                }
+                valueOffsets[field] = columnarBatch.readerIndex();
+                columnarBatch.skipBytes(valuesSize);
+            }
+
+            ByteBuf rows = allocator.buffer(batchSize + numMessages * (2 + 4 * numFields));
+            try {
+                SingleMessageMetadata singleMessageMetadata = new SingleMessageMetadata();
+                for (int i = 0; i < numMessages; i++) {
+                    // {"name":value,...}
+                    int rowSize = 2 + Math.max(numFields - 1, 0);
+                    for (int field = 0; field < numFields; field++) {
+                        rowSize += names[field].length + 3 + valueSizes[field][i];
+                    }
+                    singleMessageMetadata.parseFrom(columnarBatch.slice(metadataOffsets[i], metadataSizes[i]),
+                            metadataSizes[i]);
+                    singleMessageMetadata.setPayloadSize(rowSize);
+                    rows.writeInt(singleMessageMetadata.getSerializedSize());
+                    singleMessageMetadata.writeTo(rows);
+
+                    rows.writeByte('{');
+                    for (int field = 0; field < numFields; field++) {
+                        if (field > 0) {
+                            rows.writeByte(',');
+                        }
+                        rows.writeByte('"');
+                        rows.writeBytes(names[field]);
+                        rows.writeByte('"');
+                        rows.writeByte(':');
+                        rows.writeBytes(columnarBatch, valueOffsets[field], valueSizes[field][i]);
+                        valueOffsets[field] += valueSizes[field][i];
+                    }
+                    rows.writeByte('}');
+                }
+                return rows;
+            } catch (Throwable t) {
+                rows.release();
+                throw t;
+            }
+        } catch (IndexOutOfBoundsException | IllegalStateException e) {
+            throw new IllegalStateException("Corrupted columnar batch", e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.impl;
+
+import static org.apache.pulsar.client.util.MathUtils.signSafeMod;
+import java.time.Clock;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntToDoubleFunction;
+import org.apache.pulsar.client.api.HashingScheme;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.TopicMetadata;
+
+/**
+ * The routing strategy here:
+ * <ul>
+ * <li>If a key is present, choose a partition based on a hash of the key.
+ * <li>If no key is present, pick two random partitions and choose the one with the lowest expected send latency
+ * ("power of two choices"), so that a partition whose broker is slow receives fewer messages. If batching is
+ * enabled, the partition is only chosen again on the partition switch boundary, to keep the batching locality.
+ * </ul>
+ */
+public class LeastLoadedPartitionMessageRouterImpl extends MessageRouterBase {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Clock SYSTEM_CLOCK = Clock.systemUTC();
+
+    // the expected send latency of a partition, lower is better
+    private final transient IntToDoubleFunction partitionCost;
+    private final boolean isBatchingEnabled;
+    private final long partitionSwitchMs;
+    private final Clock clock;
+
+    // the partition chosen for the current partition switch interval, if batching is enabled
+    private volatile long currentIntervalIndex = -1;
+    private volatile int currentPartition = 0;
+
+    public LeastLoadedPartitionMessageRouterImpl(HashingScheme hashingScheme,
+                                                 IntToDoubleFunction partitionCost,
+                                                 boolean isBatchingEnabled,
+                                                 long partitionSwitchMs) {
+        this(hashingScheme, partitionCost, isBatchingEnabled, partitionSwitchMs, SYSTEM_CLOCK);
+    }
+
+    public LeastLoadedPartitionMessageRouterImpl(HashingScheme hashingScheme,
+                                                 IntToDoubleFunction partitionCost,
+                                                 boolean isBatchingEnabled,
+                                                 long partitionSwitchMs,
+                                                 Clock clock) {
+        super(hashingScheme);
+        this.partitionCost = partitionCost;
+        this.isBatchingEnabled = isBatchingEnabled;
+        this.partitionSwitchMs = Math.max(1, partitionSwitchMs);
+        this.clock = clock;
+    }
+
+    @Override
+    public int choosePartition(Message<?> msg, TopicMetadata topicMetadata) {
+        // If the message has a key, it supersedes the least loaded routing policy
+        if (msg.hasKey()) {
+            return signSafeMod(hash.makeHash(msg.getKey()), topicMetadata.numPartitions());
+        }
+
+        int numPartitions = topicMetadata.numPartitions();
+        if (!isBatchingEnabled) {
+            return chooseLeastLoadedPartition(numPartitions);
+        }
+        // the fields may be updated concurrently, at worst a message is routed to the partition of another thread
+        long intervalIndex = clock.millis() / partitionSwitchMs;
+        int partition = currentPartition;
+        if (intervalIndex != currentIntervalIndex || partition >= numPartitions) {
+            partition = chooseLeastLoadedPartition(numPartitions);
+            currentPartition = partition;
+            currentIntervalIndex = intervalIndex;
+        }
+        return partition;
+    }
+
+    private int chooseLeastLoadedPartition(int numPartitions) {
+        if (numPartitions == 1) {
+            return 0;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(numPartitions);
+        int second = random.nextInt(numPartitions - 1);
+        if (second >= first) {
+            second++;
+        }
+        return partitionCost.applyAsDouble(second) < partitionCost.applyAsDouble(first) ? second : first;
+    }
+}
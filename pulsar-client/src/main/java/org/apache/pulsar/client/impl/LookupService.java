@@ -58,6 +58,16 @@ public interface LookupService extends AutoCloseable {
      */
     CompletableFuture<LookupTopicResult> getBroker(TopicName topicName);
 
+    /**
+     * Removes the cached result of {@link #getBroker(TopicName)} for the given topic, when the topic is not served by
+     * this broker anymore.
+     *
+     * @param topicName
+     *            topic-name
+     */
+    default void invalidateCachedBroker(TopicName topicName) {
+    }
+
     /**
      * Returns {@link PartitionedTopicMetadata} for a given topic.
      * Note: this method will try to create the topic partitioned metadata if it does not exist.
@@ -18,33 +18,77 @@
  */
 package org.apache.pulsar.client.impl;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Limits the memory used by the producers and the consumers of a client.
+ * <p>
+ * Far from the limit, small reservations and releases are served from per-thread stripes of credit, which are taken
+ * from the global usage in chunks, so that the threads of the client don't all update the same counter. The stripes
+ * are only used while the usage, including the credit of all the stripes, stays below the limit and the trigger
+ * threshold, so the decisions at these boundaries are taken on the exact usage. {@link #currentUsage()} retries its
+ * reads until no credit moved between the global usage and the stripes while it was reading them.
+ * <p>
+ * The threads that are blocked in {@link #reserveMemory(long)} are woken up one by one, in arrival order, rather
+ * than all at once when memory is released.
+ */
 @Slf4j
 public class MemoryLimitController {
 
+    private static final int STRIPES = 16;
+    private static final long MAX_STRIPE_CHUNK_SIZE = 64 * 1024;
+    private static final long MIN_STRIPE_CHUNK_SIZE = 1024;
+    // One stripe per 64 bytes cache line
+    private static final int STRIPE_SPACING = 8;
+
     private final long memoryLimit;
     private final long triggerThreshold;
     private final Runnable trigger;
+    // The memory in use plus the unused credit of the stripes
     private final AtomicLong currentUsage = new AtomicLong();
     private final ReentrantLock mutex = new ReentrantLock(false);
-    private final Condition condition = mutex.newCondition();
+    private final Deque<Condition> waiters = new ArrayDeque<>();
     private final AtomicBoolean triggerRunning = new AtomicBoolean(false);
 
+    // null when the limit is too small for striping
+    private final AtomicLongArray stripeCredits;
+    private final long stripeChunkSize;
+    // The usage, including the credit of the stripes, below which the stripes are used
+    private final long stripingLimit;
+    // Count the moves of credit between the global usage and the stripes, which update them one after the other,
+    // so that currentUsage() can retry when it read both in the middle of a move
+    private final AtomicLong creditMovesStarted = new AtomicLong();
+    private final AtomicLong creditMovesCompleted = new AtomicLong();
+
     public MemoryLimitController(long memoryLimitBytes) {
-        this.memoryLimit = memoryLimitBytes;
-        triggerThreshold = 0;
-        trigger = null;
+        this(memoryLimitBytes, 0, null);
     }
 
     public MemoryLimitController(long memoryLimitBytes, long triggerThreshold, Runnable trigger) {
         this.memoryLimit = memoryLimitBytes;
         this.triggerThreshold = triggerThreshold;
         this.trigger = trigger;
+
+        long boundary = trigger != null && triggerThreshold > 0
+                ? Math.min(memoryLimitBytes, triggerThreshold) : memoryLimitBytes;
+        // The stripes can hold up to 2 chunks of credit each, which must fit in 1/8 of the space below the boundary
+        long chunkSize = Math.min(MAX_STRIPE_CHUNK_SIZE, boundary / (STRIPES * 2 * 8));
+        if (chunkSize >= MIN_STRIPE_CHUNK_SIZE) {
+            this.stripeCredits = new AtomicLongArray(STRIPES * STRIPE_SPACING);
+            this.stripeChunkSize = chunkSize;
+            this.stripingLimit = boundary - STRIPES * 2 * chunkSize;
+        } else {
+            this.stripeCredits = null;
+            this.stripeChunkSize = 0;
+            this.stripingLimit = 0;
+        }
     }
 
     public void forceReserveMemory(long size) {
@@ -61,6 +105,19 @@ public class MemoryLimitController {
         if (size == 0) {
             return true;
         }
+        if (stripeCredits != null && size < stripeChunkSize) {
+            int stripe = stripeIndex();
+            if (tryTakeCredit(stripe, size) || tryReserveChunk(stripe, size)) {
+                return true;
+            }
+            // Close to the limit or to the trigger threshold, the unused credit of the stripes is given back so that
+            // the usage is exact when crossing them
+            reclaimStripeCredits();
+        }
+        return tryReserveGlobal(size) || (reclaimStripeCredits() && tryReserveGlobal(size));
+    }
+
+    private boolean tryReserveGlobal(long size) {
         while (true) {
             long current = currentUsage.get();
             long newUsage = current + size;
@@ -78,6 +135,63 @@ public class MemoryLimitController {
         }
     }
 
+    private static int stripeIndex() {
+        long threadId = Thread.currentThread().getId();
+        return (int) ((threadId ^ (threadId >>> 16)) & (STRIPES - 1)) * STRIPE_SPACING;
+    }
+
+    private boolean tryTakeCredit(int stripe, long size) {
+        while (true) {
+            long credit = stripeCredits.get(stripe);
+            if (credit < size) {
+                return false;
+            }
+            if (stripeCredits.compareAndSet(stripe, credit, credit - size)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean tryReserveChunk(int stripe, long size) {
+        creditMovesStarted.incrementAndGet();
+        try {
+            while (true) {
+                long current = currentUsage.get();
+                if (current + stripeChunkSize > stripingLimit) {
+                    return false;
+                }
+                if (currentUsage.compareAndSet(current, current + stripeChunkSize)) {
+                    stripeCredits.addAndGet(stripe, stripeChunkSize - size);
+                    return true;
+                }
+            }
+        } finally {
+            creditMovesCompleted.incrementAndGet();
+        }
+    }
+
+    private boolean reclaimStripeCredits() {
+        if (stripeCredits == null) {
+            return false;
+        }
+        creditMovesStarted.incrementAndGet();
+        try {
+            long reclaimed = 0;
+            for (int stripe = 0; stripe < stripeCredits.length(); stripe += STRIPE_SPACING) {
+                if (stripeCredits.get(stripe) != 0) {
+                    reclaimed += stripeCredits.getAndSet(stripe, 0);
+                }
+            }
+            if (reclaimed == 0) {
+                return false;
+            }
+            releaseGlobal(reclaimed);
+            return true;
+        } finally {
+            creditMovesCompleted.incrementAndGet();
+        }
+    }
+
     private static void checkPositive(long memorySize) {
         if (memorySize < 0) {
             String errorMsg = String.format("Try to reserve/release memory failed, the param memorySize"
@@ -107,8 +221,19 @@ public class MemoryLimitController {
         if (!tryReserveMemory(size)) {
             mutex.lock();
             try {
-                while (!tryReserveMemory(size)) {
-                    condition.await();
+                Condition waiter = mutex.newCondition();
+                waiters.addLast(waiter);
+                try {
+                    while (waiters.peekFirst() != waiter || !tryReserveMemory(size)) {
+                        waiter.await();
+                    }
+                } finally {
+                    boolean first = waiters.peekFirst() == waiter;
+                    waiters.remove(waiter);
+                    if (first) {
+                        // Hand over to the next waiter, which waits again if there isn't enough memory left
+                        signalFirstWaiter();
+                    }
                 }
             } finally {
                 mutex.unlock();
@@ -121,25 +246,69 @@ public class MemoryLimitController {
         if (size == 0) {
             return;
         }
+        if (stripeCredits != null && size < stripeChunkSize && currentUsage.get() <= stripingLimit) {
+            int stripe = stripeIndex();
+            long credit = stripeCredits.addAndGet(stripe, size);
+            // Give the credit above one chunk back once the stripe holds 2 chunks
+            if (credit > 2 * stripeChunkSize) {
+                creditMovesStarted.incrementAndGet();
+                try {
+                    while (credit > 2 * stripeChunkSize) {
+                        if (stripeCredits.compareAndSet(stripe, credit, stripeChunkSize)) {
+                            releaseGlobal(credit - stripeChunkSize);
+                            return;
+                        }
+                        credit = stripeCredits.get(stripe);
+                    }
+                } finally {
+                    creditMovesCompleted.incrementAndGet();
+                }
+            }
+            return;
+        }
+        releaseGlobal(size);
+    }
+
+    private void releaseGlobal(long size) {
         long newUsage = currentUsage.addAndGet(-size);
         if (newUsage + size > memoryLimit
                 && newUsage <= memoryLimit) {
             // We just crossed the limit. Now we have more space
             mutex.lock();
             try {
-                condition.signalAll();
+                signalFirstWaiter();
             } finally {
                 mutex.unlock();
             }
         }
     }
 
+    private void signalFirstWaiter() {
+        Condition waiter = waiters.peekFirst();
+        if (waiter != null) {
+            waiter.signal();
+        }
+    }
+
     public long currentUsage() {
-        return currentUsage.get();
+        if (stripeCredits == null) {
+            return currentUsage.get();
+        }
+        while (true) {
+            // The reads are consistent when no move of credit was in progress or started while they were done
+            long movesCompleted = creditMovesCompleted.get();
+            long usage = currentUsage.get();
+            for (int stripe = 0; stripe < stripeCredits.length(); stripe += STRIPE_SPACING) {
+                usage -= stripeCredits.get(stripe);
+            }
+            if (creditMovesStarted.get() == movesCompleted) {
+                return usage;
+            }
+        }
     }
 
     public double currentUsagePercent() {
-        return 1.0 * currentUsage.get() / memoryLimit;
+        return 1.0 * currentUsage() / memoryLimit;
     }
 
     public boolean isMemoryLimited() {
@@ -36,7 +36,6 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 import lombok.Getter;
 import org.apache.pulsar.client.api.CompressionType;
 import org.apache.pulsar.client.api.Message;
@@ -52,6 +51,7 @@ import org.apache.pulsar.common.api.proto.BrokerEntryMetadata;
 import org.apache.pulsar.common.api.proto.KeyValue;
 import org.apache.pulsar.common.api.proto.MessageMetadata;
 import org.apache.pulsar.common.api.proto.SingleMessageMetadata;
+import org.apache.pulsar.common.compression.CompressionCodecProvider;
 import org.apache.pulsar.common.protocol.Commands;
 import org.apache.pulsar.common.protocol.schema.BytesSchemaVersion;
 import org.apache.pulsar.common.protocol.schema.SchemaHash;
@@ -198,14 +198,13 @@ public class MessageImpl<T> implements Message<T> {
         msg.payload = poolMessage ? payload.retain() : Unpooled.copiedBuffer(payload);
 
         if (singleMessageMetadata != null) {
-            if (singleMessageMetadata.getPropertiesCount() > 0) {
-                Map<String, String> properties = new TreeMap<>();
-                for (KeyValue entry : singleMessageMetadata.getPropertiesList()) {
-                    properties.put(entry.getKey(), entry.getValue());
-                }
-                msg.properties = Collections.unmodifiableMap(properties);
-            } else {
-                msg.properties = Collections.emptyMap();
+            // The properties of the batch are replaced by the properties of the single message, the map is only
+            // built if the application reads the properties
+            msg.properties = null;
+            msg.msgMetadata.clearProperties();
+            for (int i = 0; i < singleMessageMetadata.getPropertiesCount(); i++) {
+                KeyValue entry = singleMessageMetadata.getPropertyAt(i);
+                msg.msgMetadata.addProperty().setKey(entry.getKey()).setValue(entry.getValue());
             }
             if (singleMessageMetadata.hasPartitionKey()) {
                 msg.msgMetadata.setPartitionKeyB64Encoded(singleMessageMetadata.isPartitionKeyB64Encoded())
@@ -236,11 +235,18 @@ public class MessageImpl<T> implements Message<T> {
             if (singleMessageMetadata.hasNullPartitionKey()) {
                 msg.msgMetadata.setNullPartitionKey(singleMessageMetadata.isNullPartitionKey());
             }
-        } else if (msgMetadata.getPropertiesCount() > 0) {
-            msg.properties = Collections.unmodifiableMap(msgMetadata.getPropertiesList().stream().collect(
-                    Collectors.toMap(KeyValue::getKey, KeyValue::getValue, (oldValue, newValue) -> newValue)));
+
+            // set in the batches that the broker packs from messages of different producers
+            if (singleMessageMetadata.hasProducerName()) {
+                msg.msgMetadata.setProducerName(singleMessageMetadata.getProducerName());
+            }
+
+            if (singleMessageMetadata.hasPublishTime()) {
+                msg.msgMetadata.setPublishTime(singleMessageMetadata.getPublishTime());
+            }
         } else {
-            msg.properties = Collections.emptyMap();
+            // built on first access by getProperties()
+            msg.properties = null;
         }
     }
 
@@ -583,10 +589,11 @@ public class MessageImpl<T> implements Message<T> {
     public synchronized Map<String, String> getProperties() {
         if (this.properties == null) {
             if (msgMetadata.getPropertiesCount() > 0) {
-                  this.properties = Collections.unmodifiableMap(msgMetadata.getPropertiesList().stream()
-                           .collect(Collectors.toMap(KeyValue::getKey, KeyValue::getValue,
-                                   (oldValue, newValue) -> newValue)));
-
+                Map<String, String> properties = new TreeMap<>();
+                for (KeyValue entry : msgMetadata.getPropertiesList()) {
+                    properties.put(entry.getKey(), entry.getValue());
+                }
+                this.properties = Collections.unmodifiableMap(properties);
             } else {
                 this.properties = Collections.emptyMap();
             }
@@ -782,7 +789,7 @@ public class MessageImpl<T> implements Message<T> {
     }
 
     CompressionType getCompressionType() {
-        return CompressionType.valueOf(msgMetadata.getCompression().name());
+        return CompressionCodecProvider.convertFromWireProtocol(msgMetadata.getCompression());
     }
 
     SchemaState getSchemaState() {
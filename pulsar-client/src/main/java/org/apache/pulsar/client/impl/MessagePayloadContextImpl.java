@@ -23,11 +23,13 @@ import io.netty.buffer.ByteBuf;
 import io.netty.util.Recycler;
 import java.util.BitSet;
 import java.util.List;
+import java.util.Optional;
 import lombok.NonNull;
 import org.apache.pulsar.client.api.Message;
 import org.apache.pulsar.client.api.MessagePayload;
 import org.apache.pulsar.client.api.MessagePayloadContext;
 import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.common.api.EncryptionContext;
 import org.apache.pulsar.common.api.proto.BrokerEntryMetadata;
 import org.apache.pulsar.common.api.proto.KeyValue;
 import org.apache.pulsar.common.api.proto.MessageMetadata;
@@ -49,6 +51,7 @@ public class MessagePayloadContextImpl implements MessagePayloadContext {
     private MessageMetadata messageMetadata;
     private SingleMessageMetadata singleMessageMetadata;
     private MessageIdImpl messageId;
+    private Optional<EncryptionContext> encryptionCtx;
     private ConsumerImpl<?> consumer;
     private int redeliveryCount;
     private BitSet ackSetInMessageId;
@@ -72,6 +75,7 @@ public class MessagePayloadContextImpl implements MessagePayloadContext {
         context.messageMetadata = messageMetadata;
         context.singleMessageMetadata = new SingleMessageMetadata();
         context.messageId = messageId;
+        context.encryptionCtx = consumer.createEncryptionContext(messageMetadata);
         context.consumer = consumer;
         context.redeliveryCount = redeliveryCount;
         context.ackSetInMessageId = BatchMessageIdImpl.newAckSet(context.getNumMessages());
@@ -86,6 +90,7 @@ public class MessagePayloadContextImpl implements MessagePayloadContext {
         messageMetadata = null;
         singleMessageMetadata = null;
         messageId = null;
+        encryptionCtx = null;
         consumer = null;
         redeliveryCount = 0;
         consumerEpoch = DEFAULT_CONSUMER_EPOCH;
@@ -132,6 +137,7 @@ public class MessagePayloadContextImpl implements MessagePayloadContext {
                     singleMessageMetadata,
                     payloadBuffer,
                     messageId,
+                    encryptionCtx,
                     schema,
                     containMetadata,
                     ackBitSet,
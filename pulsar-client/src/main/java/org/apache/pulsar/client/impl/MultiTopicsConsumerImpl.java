@@ -268,13 +268,14 @@ public class MultiTopicsConsumerImpl<T> extends ConsumerBase<T> {
                 return;
             }
             // Process the message, add to the queue and trigger listener or async callback
+            List<Message<T>> receivedMessages = new ArrayList<>(messages.size());
             messages.forEach(msg -> {
                 final boolean skipDueToSeek = duringSeek;
                 MessageImpl<T> msgImpl = (MessageImpl<T>) msg;
                 ClientCnx cnx = msgImpl.getCnx();
                 boolean isValidEpoch = isValidConsumerEpoch(msgImpl);
                 if (isValidEpoch && !skipDueToSeek) {
-                    messageReceived(consumer, msg);
+                    receivedMessages.add(msg);
                 } else if (!isValidEpoch) {
                     consumer.increaseAvailablePermits(cnx);
                 } else if (skipDueToSeek) {
@@ -282,6 +283,7 @@ public class MultiTopicsConsumerImpl<T> extends ConsumerBase<T> {
                             msg.getMessageId());
                 }
             });
+            messagesReceived(consumer, receivedMessages);
 
             int size = incomingMessages.size();
             int maxReceiverQueueSize = getCurrentReceiverQueueSize();
@@ -315,23 +317,41 @@ public class MultiTopicsConsumerImpl<T> extends ConsumerBase<T> {
     }
 
     // Must be called from the internalPinnedExecutor thread
-    private void messageReceived(ConsumerImpl<T> consumer, Message<T> message) {
-        checkArgument(message instanceof MessageImpl);
-        TopicMessageImpl<T> topicMessage = new TopicMessageImpl<>(consumer.getTopic(), message, consumer);
+    private void messagesReceived(ConsumerImpl<T> consumer, List<Message<T>> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        // the messages that are not returned to pending receives are enqueued at once, the list is reused for them
+        int enqueued = 0;
+        for (int i = 0; i < messages.size(); i++) {
+            Message<T> message = messages.get(i);
+            checkArgument(message instanceof MessageImpl);
+            TopicMessageImpl<T> topicMessage = new TopicMessageImpl<>(consumer.getTopic(), message, consumer);
 
-        if (log.isDebugEnabled()) {
-            log.debug("[{}][{}] Received message from topics-consumer {}",
-                    topic, subscription, message.getMessageId());
-        }
-
-        // if asyncReceive is waiting : return message to callback without adding to incomingMessages queue
-        CompletableFuture<Message<T>> receivedFuture = nextPendingReceive();
-        if (receivedFuture != null) {
-            unAckedMessageTracker.add(topicMessage.getMessageId(), topicMessage.getRedeliveryCount());
-            final Message<T> interceptMessage = beforeConsume(topicMessage);
-            completePendingReceive(receivedFuture, interceptMessage);
-        } else if (enqueueMessageAndCheckBatchReceive(topicMessage) && hasPendingBatchReceive()) {
-            notifyPendingBatchReceivedCallBack();
+            if (log.isDebugEnabled()) {
+                log.debug("[{}][{}] Received message from topics-consumer {}",
+                        topic, subscription, message.getMessageId());
+            }
+
+            // if asyncReceive is waiting : return message to callback without adding to incomingMessages queue,
+            // the receives only wait if the queue is empty, so they're completed with the first messages
+            CompletableFuture<Message<T>> receivedFuture = enqueued == 0 ? nextPendingReceive() : null;
+            if (receivedFuture != null) {
+                unAckedMessageTracker.add(topicMessage.getMessageId(), topicMessage.getRedeliveryCount());
+                final Message<T> interceptMessage = beforeConsume(topicMessage);
+                completePendingReceive(receivedFuture, interceptMessage);
+            } else {
+                messages.set(enqueued++, topicMessage);
+            }
+        }
+        messages.subList(enqueued, messages.size()).clear();
+
+        if (enqueueMessagesAndCheckBatchReceive(messages)) {
+            // each call completes at most one pending batch receive, the completed ones are skipped
+            int pending = pendingBatchReceives.size();
+            for (int i = 0; i < pending && hasEnoughMessagesForBatchReceive(); i++) {
+                notifyPendingBatchReceivedCallBack();
+            }
         }
 
         tryTriggerListener();
@@ -26,7 +26,7 @@ import it.unimi.dsi.fastutil.longs.Long2ObjectAVLTreeMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectSortedMap;
-import it.unimi.dsi.fastutil.longs.LongBidirectionalIterator;
+import it.unimi.dsi.fastutil.objects.ObjectBidirectionalIterator;
 import java.io.Closeable;
 import java.util.HashSet;
 import java.util.Set;
@@ -47,6 +47,11 @@ class NegativeAcksTracker implements Closeable {
     // different timestamp, there will be multiple entries in the map
     // RB Tree -> LongOpenHashMap -> Roaring64Bitmap
     private Long2ObjectSortedMap<Long2ObjectMap<Roaring64Bitmap>> nackedMessages = null;
+    // The entries of the last nacked message. The messages that are nacked in a row usually share the same
+    // redelivery timestamp and ledger, they are added to the same bitmap without looking it up in the maps.
+    private long lastTimestamp;
+    private long lastLedgerId;
+    private Roaring64Bitmap lastEntries = null;
 
     private final ConsumerBase<?> consumer;
     private final Timer timer;
@@ -78,13 +83,16 @@ class NegativeAcksTracker implements Closeable {
             }
 
             long currentTimestamp = System.currentTimeMillis();
-            for (long timestamp : nackedMessages.keySet()) {
-                if (timestamp > currentTimestamp) {
+            ObjectBidirectionalIterator<Long2ObjectMap.Entry<Long2ObjectMap<Roaring64Bitmap>>> iterator =
+                    nackedMessages.long2ObjectEntrySet().iterator();
+            while (iterator.hasNext()) {
+                Long2ObjectMap.Entry<Long2ObjectMap<Roaring64Bitmap>> timestampEntry = iterator.next();
+                if (timestampEntry.getLongKey() > currentTimestamp) {
                     // We are done with all the messages that need to be redelivered
                     break;
                 }
 
-                Long2ObjectMap<Roaring64Bitmap> ledgerMap = nackedMessages.get(timestamp);
+                Long2ObjectMap<Roaring64Bitmap> ledgerMap = timestampEntry.getValue();
                 for (Long2ObjectMap.Entry<Roaring64Bitmap> ledgerEntry : ledgerMap.long2ObjectEntrySet()) {
                     long ledgerId = ledgerEntry.getLongKey();
                     Roaring64Bitmap entrySet = ledgerEntry.getValue();
@@ -94,18 +102,9 @@ class NegativeAcksTracker implements Closeable {
                         messagesToRedeliver.add(msgId);
                     });
                 }
+                iterator.remove();
             }
-
-            // remove entries from the nackedMessages map
-            LongBidirectionalIterator iterator = nackedMessages.keySet().iterator();
-            while (iterator.hasNext()) {
-                long timestamp = iterator.nextLong();
-                if (timestamp <= currentTimestamp) {
-                    iterator.remove();
-                } else {
-                    break;
-                }
-            }
+            lastEntries = null;
 
             // Schedule the next redelivery if there are still messages to redeliver
             if (!nackedMessages.isEmpty()) {
@@ -155,9 +154,14 @@ class NegativeAcksTracker implements Closeable {
         }
         MessageIdAdv messageIdAdv = (MessageIdAdv) messageId;
         long timestamp = trimLowerBit(System.currentTimeMillis() + backoffMs, negativeAckPrecisionBitCnt);
-        nackedMessages.computeIfAbsent(timestamp, k -> new Long2ObjectOpenHashMap<>())
-                .computeIfAbsent(messageIdAdv.getLedgerId(), k -> new Roaring64Bitmap())
-                .add(messageIdAdv.getEntryId());
+        long ledgerId = messageIdAdv.getLedgerId();
+        if (lastEntries == null || lastTimestamp != timestamp || lastLedgerId != ledgerId) {
+            lastEntries = nackedMessages.computeIfAbsent(timestamp, k -> new Long2ObjectOpenHashMap<>())
+                    .computeIfAbsent(ledgerId, k -> new Roaring64Bitmap());
+            lastTimestamp = timestamp;
+            lastLedgerId = ledgerId;
+        }
+        lastEntries.add(messageIdAdv.getEntryId());
 
         if (this.timeout == null) {
             // Schedule a task and group all the redeliveries for same period. Leave a small buffer to allow for
@@ -201,5 +205,6 @@ class NegativeAcksTracker implements Closeable {
             nackedMessages.clear();
             nackedMessages = null;
         }
+        lastEntries = null;
     }
 }
@@ -41,6 +41,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.pulsar.client.api.Message;
 import org.apache.pulsar.client.api.MessageId;
 import org.apache.pulsar.client.api.MessageRouter;
@@ -133,6 +134,13 @@ public class PartitionedProducerImpl<T> extends ProducerBase<T> {
                 messageRouter = new SinglePartitionMessageRouterImpl(
                         ThreadLocalRandom.current().nextInt(topicMetadata.numPartitions()), conf.getHashingScheme());
                 break;
+            case LeastLoadedPartition:
+                messageRouter = new LeastLoadedPartitionMessageRouterImpl(
+                        conf.getHashingScheme(),
+                        this::getPartitionCost,
+                        conf.isBatchingEnabled(),
+                        TimeUnit.MICROSECONDS.toMillis(conf.batchingPartitionSwitchFrequencyIntervalMicros()));
+                break;
             case RoundRobinPartition:
             default:
                 messageRouter = new RoundRobinPartitionMessageRouterImpl(
@@ -145,6 +153,12 @@ public class PartitionedProducerImpl<T> extends ProducerBase<T> {
         return messageRouter;
     }
 
+    private double getPartitionCost(int partition) {
+        // a partition whose producer isn't created yet is as good as an idle one
+        ProducerImpl<T> producer = producers.get(partition);
+        return producer != null ? producer.getExpectedSendLatencyNanos() : 0;
+    }
+
     @Override
     public String getProducerName() {
         return producers.get(firstPartitionIndex).getProducerName();
@@ -194,6 +208,18 @@ public class PartitionedProducerImpl<T> extends ProducerBase<T> {
             }
         };
 
+        if (StringUtils.isNotBlank(conf.getProducerName())) {
+            // the partitions don't need the name the broker generates for the first one, so they're all created at
+            // once: the lookups and the producer commands of the partitions are pipelined
+            for (int index : indexList) {
+                createProducer(index).producerCreatedFuture().handle((prod, createException) -> {
+                    afterCreatingProducer.accept(false, createException);
+                    return null;
+                });
+            }
+            return;
+        }
+
         final ProducerImpl<T> firstProducer = createProducer(indexList.get(0));
         firstProducer.producerCreatedFuture().handle((prod, createException) -> {
             afterCreatingProducer.accept(true, createException);
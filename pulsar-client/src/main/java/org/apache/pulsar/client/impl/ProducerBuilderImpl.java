@@ -95,6 +95,8 @@ public class ProducerBuilderImpl<T> implements ProducerBuilder<T> {
         // config validation
         checkArgument(!(conf.isBatchingEnabled() && conf.isChunkingEnabled()),
                 "Batching and chunking of messages can't be enabled together");
+        checkArgument(conf.getCompressionDictionary() == null || conf.getCompressionType() == CompressionType.ZSTD,
+                "A compression dictionary requires the ZSTD compression type");
         if (conf.getTopicName() == null) {
             return FutureUtil
                     .failedFuture(new IllegalArgumentException("Topic name must be set on the producer builder"));
@@ -180,6 +182,12 @@ public class ProducerBuilderImpl<T> implements ProducerBuilder<T> {
         return this;
     }
 
+    @Override
+    public ProducerBuilder<T> compressionDictionary(@NonNull byte[] dictionary) {
+        conf.setCompressionDictionary(dictionary);
+        return this;
+    }
+
     @Override
     public ProducerBuilder<T> hashingScheme(@NonNull HashingScheme hashingScheme) {
         conf.setHashingScheme(hashingScheme);
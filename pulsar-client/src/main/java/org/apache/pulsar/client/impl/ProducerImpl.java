@@ -43,6 +43,7 @@ import io.netty.util.ReferenceCounted;
 import io.netty.util.Timeout;
 import io.netty.util.TimerTask;
 import io.netty.util.concurrent.ScheduledFuture;
+import io.netty.util.internal.PlatformDependent;
 import io.opentelemetry.api.common.Attributes;
 import java.io.IOException;
 import java.net.URI;
@@ -57,6 +58,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -94,6 +96,7 @@ import org.apache.pulsar.common.api.proto.MessageMetadata;
 import org.apache.pulsar.common.api.proto.ProtocolVersion;
 import org.apache.pulsar.common.compression.CompressionCodec;
 import org.apache.pulsar.common.compression.CompressionCodecProvider;
+import org.apache.pulsar.common.compression.CompressionCodecZstdDictionary;
 import org.apache.pulsar.common.naming.TopicName;
 import org.apache.pulsar.common.protocol.ByteBufPair;
 import org.apache.pulsar.common.protocol.Commands;
@@ -119,6 +122,20 @@ public class ProducerImpl<T> extends ProducerBase<T> implements TimerTask, Conne
 
     protected final OpSendMsgQueue pendingMessages;
     private final Optional<Semaphore> semaphore;
+
+    // Messages that are waiting to be sequenced and added to the batch container or to the pending messages. Any
+    // thread can add to the queue, it's only polled from within the ProducerImpl object mutex.
+    private final Queue<SendRequest> sendRequests = PlatformDependent.newMpscQueue();
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<ProducerImpl> SEND_REQUESTS_DRAINING_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(ProducerImpl.class, "sendRequestsDraining");
+    @SuppressWarnings("unused")
+    private volatile int sendRequestsDraining = 0;
+    // Max number of send requests processed each time the mutex is acquired, so that the send receipts and the batch
+    // flush task aren't delayed by a long running drain
+    private static final int MAX_SEND_REQUESTS_PER_DRAIN = 1000;
+    // the weight of the last send latency in the average
+    private static final double SEND_LATENCY_SMOOTHING_FACTOR = 0.1;
     private volatile Timeout sendTimeout = null;
     private final long lookupDeadline;
     private int chunkMaxMessageSize;
@@ -144,6 +161,9 @@ public class ProducerImpl<T> extends ProducerBase<T> implements TimerTask, Conne
     private final ProducerStatsRecorder stats;
 
     private final CompressionCodec compressor;
+    // The codec of the configured zstd dictionary, it's only used while the broker supports it
+    private final CompressionCodecZstdDictionary dictionaryCompressor;
+    private volatile boolean compressionDictionaryEnabled;
 
     static final AtomicLongFieldUpdater<ProducerImpl> LAST_SEQ_ID_PUBLISHED_UPDATER = AtomicLongFieldUpdater
             .newUpdater(ProducerImpl.class, "lastSequenceIdPublished");
@@ -183,6 +203,8 @@ public class ProducerImpl<T> extends ProducerBase<T> implements TimerTask, Conne
     private boolean errorState;
 
     private final LatencyHistogram latencyHistogram;
+    // the moving average of the send latency, used to route the messages of the partitioned producers
+    private volatile double averageSendLatencyNanos = 0;
     final LatencyHistogram rpcLatencyHistogram;
     private final Counter publishedBytesCounter;
     private final UpDownCounter pendingMessagesUpDownCounter;
@@ -213,6 +235,8 @@ public class ProducerImpl<T> extends ProducerBase<T> implements TimerTask, Conne
         overrideProducerName.ifPresent(key -> this.producerName = key);
 
         this.compressor = CompressionCodecProvider.getCompressionCodec(conf.getCompressionType());
+        this.dictionaryCompressor = conf.getCompressionDictionary() != null
+                ? client.getCompressionDictionaries().register(conf.getCompressionDictionary()) : null;
 
         if (conf.getInitialSequenceId() != null) {
             long initialSequenceId = conf.getInitialSequenceId();
@@ -441,6 +465,7 @@ public class ProducerImpl<T> extends ProducerBase<T> implements TimerTask, Conne
             long createdAt = (sendCallback instanceof ProducerImpl.DefaultSendMessageCallback)
                     ? ((DefaultSendMessageCallback) sendCallback).createdAt : this.createdAt;
             long latencyNanos = System.nanoTime() - createdAt;
+            updateAverageSendLatency(latencyNanos);
             pendingMessagesUpDownCounter.decrement();
             pendingBytesUpDownCounter.subtract(msgSize);
             ByteBuf payload = msg.getDataBuffer();
@@ -495,11 +520,35 @@ public class ProducerImpl<T> extends ProducerBase<T> implements TimerTask, Conne
      */
     @VisibleForTesting
     public ByteBuf applyCompression(ByteBuf payload) {
-        ByteBuf compressedPayload = compressor.encode(payload);
+        return applyCompression(payload, getCompressor());
+    }
+
+    ByteBuf applyCompression(ByteBuf payload, CompressionCodec codec) {
+        ByteBuf compressedPayload = codec.encode(payload);
         payload.release();
         return compressedPayload;
     }
 
+    /**
+     * Returns the codec to compress the next payload with. The zstd dictionary is only used while the producer is
+     * connected to a broker that supports it, since older brokers and clients read the compression as NONE.
+     */
+    CompressionCodec getCompressor() {
+        return compressionDictionaryEnabled ? dictionaryCompressor : compressor;
+    }
+
+    /**
+     * Sets the compression of a payload that has been compressed with the given codec in its metadata.
+     */
+    void setCompression(MessageMetadata msgMetadata, CompressionCodec codec) {
+        if (codec instanceof CompressionCodecZstdDictionary) {
+            msgMetadata.setCompression(org.apache.pulsar.common.api.proto.CompressionType.ZSTD_DICTIONARY)
+                    .setCompressionDictionaryId(((CompressionCodecZstdDictionary) codec).getDictionaryId());
+        } else {
+            msgMetadata.setCompression(CompressionCodecProvider.convertToWireProtocol(conf.getCompressionType()));
+        }
+    }
+
     /**
      * Note on ByteBuf Release Behavior.
      *
@@ -547,11 +596,13 @@ public class ProducerImpl<T> extends ProducerBase<T> implements TimerTask, Conne
         // If compression is enabled, we are compressing, otherwise it will simply use the same buffer
         ByteBuf compressedPayload = payload;
         boolean compressed = false;
+        CompressionCodec usedCompressor = null;
         // Batch will be compressed when closed
         // If a message has a delayed delivery time, we'll always send it individually
         if (!isBatchMessagingEnabled() || msgMetadata.hasDeliverAtTime()) {
             if (payload.readableBytes() > conf.getCompressMinMsgBodySize()) {
-                compressedPayload = applyCompression(payload);
+                usedCompressor = getCompressor();
+                compressedPayload = applyCompression(payload, usedCompressor);
                 compressed = true;
 
                 // validate msg-size (For batching this will be check at the batch completion size)
@@ -591,7 +642,7 @@ public class ProducerImpl<T> extends ProducerBase<T> implements TimerTask, Conne
 
         // Update the message metadata before computing the payload chunk size to avoid a large message cannot be split
         // into chunks.
-        updateMessageMetadata(msgMetadata, uncompressedSize, compressed);
+        updateMessageMetadata(msgMetadata, uncompressedSize, usedCompressor);
 
         // send in chunks
         int totalChunks;
@@ -630,12 +681,18 @@ public class ProducerImpl<T> extends ProducerBase<T> implements TimerTask, Conne
             }
         }
 
+        if (totalChunks == 1) {
+            enqueueSendRequest(SendRequest.create(msg, payload, compressedPayload, compressed, uncompressedSize,
+                    payloadChunkSize, callback));
+            return;
+        }
+
         try {
             int readStartIndex = 0;
-            ChunkedMessageCtx chunkedMessageCtx = totalChunks > 1 ? ChunkedMessageCtx.get(totalChunks) : null;
-            byte[] schemaVersion = totalChunks > 1 && msg.getMessageBuilder().hasSchemaVersion()
+            ChunkedMessageCtx chunkedMessageCtx = ChunkedMessageCtx.get(totalChunks);
+            byte[] schemaVersion = msg.getMessageBuilder().hasSchemaVersion()
                     ? msg.getMessageBuilder().getSchemaVersion() : null;
-            byte[] orderingKey = totalChunks > 1 && msg.getMessageBuilder().hasOrderingKey()
+            byte[] orderingKey = msg.getMessageBuilder().hasOrderingKey()
                     ? msg.getMessageBuilder().getOrderingKey() : null;
             // msg.messageId will be reset if previous message chunk is sent successfully.
             final MessageId messageId = msg.getMessageId();
@@ -660,10 +717,12 @@ public class ProducerImpl<T> extends ProducerBase<T> implements TimerTask, Conne
                     return;
                 }
                 synchronized (this) {
+                    // The messages sent before by the same thread are sequenced first
+                    drainSendRequests(Integer.MAX_VALUE);
                     // Update the message metadata before computing the payload chunk size
                     // to avoid a large message cannot be split into chunks.
                     final long sequenceId = updateMessageMetadataSequenceId(msgMetadata);
-                    String uuid = totalChunks > 1 ? String.format("%s-%d", producerName, sequenceId) : null;
+                    String uuid = String.format("%s-%d", producerName, sequenceId);
 
                     serializeAndSendMessage(msg, payload, sequenceId, uuid, chunkId, totalChunks,
                             readStartIndex, payloadChunkSize, compressedPayload, compressed,
@@ -680,6 +739,78 @@ public class ProducerImpl<T> extends ProducerBase<T> implements TimerTask, Conne
         }
     }
 
+    /**
+     * Adds a message to the send queue and processes the queue if no other thread is processing it.
+     * <p>
+     * Only the thread that owns the queue enters the ProducerImpl object mutex to sequence the queued messages and to
+     * add them to the batch container or to the pending messages, the other threads return without waiting for the
+     * mutex. The owner processes at most {@link #MAX_SEND_REQUESTS_PER_DRAIN} messages, so that a sender isn't kept
+     * busy by the messages of other threads. It releases the ownership before checking the queue again, and hands the
+     * remaining messages over to the internal executor, so that a message added concurrently is never left in the
+     * queue.
+     */
+    private void enqueueSendRequest(SendRequest request) {
+        sendRequests.offer(request);
+        processSendRequests();
+    }
+
+    private void processSendRequests() {
+        if (sendRequests.isEmpty() || !SEND_REQUESTS_DRAINING_UPDATER.compareAndSet(this, 0, 1)) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                drainSendRequests(MAX_SEND_REQUESTS_PER_DRAIN);
+            }
+        } finally {
+            SEND_REQUESTS_DRAINING_UPDATER.set(this, 0);
+        }
+        if (!sendRequests.isEmpty()) {
+            try {
+                client.getInternalExecutorService().execute(this::processSendRequests);
+            } catch (RejectedExecutionException e) {
+                // the client is being closed, the remaining messages are failed by processing them now
+                synchronized (this) {
+                    drainSendRequests(Integer.MAX_VALUE);
+                }
+            }
+        }
+    }
+
+    // Must be called from within the ProducerImpl object mutex
+    private void drainSendRequests(int maxRequests) {
+        SendRequest request;
+        for (int i = 0; i < maxRequests && (request = sendRequests.poll()) != null; i++) {
+            processSendRequest(request);
+        }
+    }
+
+    private void processSendRequest(SendRequest request) {
+        final MessageImpl<?> msg = request.msg;
+        try {
+            State state = getState();
+            if (state == State.Closing || state == State.Closed) {
+                request.compressedPayload.release();
+                completeCallbackAndReleaseSemaphore(request.uncompressedSize, request.callback,
+                        new PulsarClientException.AlreadyClosedException("Producer already closed",
+                                msg.getSequenceId()));
+                return;
+            }
+            final long sequenceId = updateMessageMetadataSequenceId(msg.getMessageBuilder());
+            serializeAndSendMessage(msg, request.payload, sequenceId, null, 0, 1, 0, request.payloadChunkSize,
+                    request.compressedPayload, request.compressed, request.compressedPayload.readableBytes(),
+                    request.callback, null, request.messageId);
+        } catch (PulsarClientException e) {
+            e.setSequenceId(msg.getSequenceId());
+            completeCallbackAndReleaseSemaphore(request.uncompressedSize, request.callback, e);
+        } catch (Throwable t) {
+            completeCallbackAndReleaseSemaphore(request.uncompressedSize, request.callback,
+                    new PulsarClientException(t, msg.getSequenceId()));
+        } finally {
+            request.recycle();
+        }
+    }
+
     /**
      * Update the message metadata except those fields that will be updated for chunks later.
      *
@@ -689,7 +820,7 @@ public class ProducerImpl<T> extends ProducerBase<T> implements TimerTask, Conne
      */
     @SuppressWarnings("checkstyle:Indentation")
     private void updateMessageMetadata(final MessageMetadata msgMetadata, final int uncompressedSize,
-                                       boolean isCompressed) {
+                                       CompressionCodec usedCompressor) {
         if (!msgMetadata.hasPublishTime()) {
             msgMetadata.setPublishTime(client.getClientClock().millis());
 
@@ -699,9 +830,8 @@ public class ProducerImpl<T> extends ProducerBase<T> implements TimerTask, Conne
 
             // The field "uncompressedSize" is zero means the compression info were not set yet.
             if (msgMetadata.getUncompressedSize() <= 0) {
-                if (conf.getCompressionType() != CompressionType.NONE && isCompressed) {
-                    msgMetadata.setCompression(
-                            CompressionCodecProvider.convertToWireProtocol(conf.getCompressionType()));
+                if (conf.getCompressionType() != CompressionType.NONE && usedCompressor != null) {
+                    setCompression(msgMetadata, usedCompressor);
                 }
                 msgMetadata.setUncompressedSize(uncompressedSize);
             }
@@ -1281,6 +1411,15 @@ public class ProducerImpl<T> extends ProducerBase<T> implements TimerTask, Conne
     }
 
     protected void ackReceived(ClientCnx cnx, long sequenceId, long highestSequenceId, long ledgerId, long entryId) {
+        ackReceived(cnx, sequenceId, highestSequenceId, ledgerId, entryId, -1, 0);
+    }
+
+    /**
+     * Handles a send receipt. The batch index is only set when the broker packed the message into a batch entry
+     * together with other messages, then the message id is the one that consumers see for the message.
+     */
+    protected void ackReceived(ClientCnx cnx, long sequenceId, long highestSequenceId, long ledgerId, long entryId,
+                               int batchIndex, int batchSize) {
         OpSendMsg op = null;
         synchronized (this) {
             op = pendingMessages.peek();
@@ -1329,7 +1468,12 @@ public class ProducerImpl<T> extends ProducerBase<T> implements TimerTask, Conne
 
         OpSendMsg finalOp = op;
         LAST_SEQ_ID_PUBLISHED_UPDATER.getAndUpdate(this, last -> Math.max(last, getHighestSequenceId(finalOp)));
-        op.setMessageId(ledgerId, entryId, partitionIndex);
+        if (batchIndex >= 0 && op.msg != null) {
+            op.msg.setMessageId(new BatchMessageIdImpl(ledgerId, entryId, partitionIndex, batchIndex, batchSize,
+                    null));
+        } else {
+            op.setMessageId(ledgerId, entryId, partitionIndex);
+        }
         if (op.totalChunks > 1) {
             if (op.chunkId == 0) {
                 op.chunkedMessageCtx.firstChunkMessageId = new MessageIdImpl(ledgerId, entryId, partitionIndex);
@@ -1527,6 +1671,59 @@ public class ProducerImpl<T> extends ProducerBase<T> implements TimerTask, Conne
         }
     }
 
+    /**
+     * A message that has been validated and compressed by the sending thread, and is waiting to be sequenced.
+     */
+    private static final class SendRequest {
+        MessageImpl<?> msg;
+        ByteBuf payload;
+        ByteBuf compressedPayload;
+        boolean compressed;
+        int uncompressedSize;
+        int payloadChunkSize;
+        SendCallback callback;
+        MessageId messageId;
+
+        static SendRequest create(MessageImpl<?> msg, ByteBuf payload, ByteBuf compressedPayload, boolean compressed,
+                                  int uncompressedSize, int payloadChunkSize, SendCallback callback) {
+            SendRequest request = RECYCLER.get();
+            request.msg = msg;
+            request.payload = payload;
+            request.compressedPayload = compressedPayload;
+            request.compressed = compressed;
+            request.uncompressedSize = uncompressedSize;
+            request.payloadChunkSize = payloadChunkSize;
+            request.callback = callback;
+            request.messageId = msg.getMessageId();
+            return request;
+        }
+
+        void recycle() {
+            msg = null;
+            payload = null;
+            compressedPayload = null;
+            compressed = false;
+            uncompressedSize = 0;
+            payloadChunkSize = 0;
+            callback = null;
+            messageId = null;
+            recyclerHandle.recycle(this);
+        }
+
+        private final Handle<SendRequest> recyclerHandle;
+
+        private SendRequest(Handle<SendRequest> recyclerHandle) {
+            this.recyclerHandle = recyclerHandle;
+        }
+
+        private static final Recycler<SendRequest> RECYCLER = new Recycler<SendRequest>() {
+            @Override
+            protected SendRequest newObject(Handle<SendRequest> handle) {
+                return new SendRequest(handle);
+            }
+        };
+    }
+
     protected static final class OpSendMsg {
         LatencyHistogram rpcLatencyHistogram;
         MessageImpl<?> msg;
@@ -1867,6 +2064,13 @@ public class ProducerImpl<T> extends ProducerBase<T> implements TimerTask, Conne
             epoch = connectionHandler.switchClientCnx(cnx);
         }
         cnx.registerProducer(producerId, this);
+        if (dictionaryCompressor != null) {
+            compressionDictionaryEnabled = cnx.isBrokerSupportsZstdDictionaryCompression();
+            if (!compressionDictionaryEnabled) {
+                log.warn("[{}] [{}] The broker doesn't support zstd dictionary compression, the messages are"
+                        + " compressed with plain zstd", topic, producerName);
+            }
+        }
 
         log.info("[{}] [{}] Creating producer on cnx {}", topic, producerName, cnx.ctx().channel());
 
@@ -2306,6 +2510,7 @@ public class ProducerImpl<T> extends ProducerBase<T> implements TimerTask, Conne
     @Override
     public CompletableFuture<Void> flushAsync() {
         synchronized (ProducerImpl.this) {
+            drainSendRequests(Integer.MAX_VALUE);
             if (isBatchMessagingEnabled()) {
                 batchMessageAndSend(false);
             }
@@ -2322,6 +2527,7 @@ public class ProducerImpl<T> extends ProducerBase<T> implements TimerTask, Conne
     protected void triggerFlush() {
         if (isBatchMessagingEnabled()) {
             synchronized (ProducerImpl.this) {
+                drainSendRequests(Integer.MAX_VALUE);
                 batchMessageAndSend(false);
             }
         }
@@ -2664,13 +2870,30 @@ public class ProducerImpl<T> extends ProducerBase<T> implements TimerTask, Conne
         return cnx() != null ? connectedSince : null;
     }
 
+    private void updateAverageSendLatency(long latencyNanos) {
+        // the concurrent updates may lose a sample, it doesn't matter for an average
+        double average = averageSendLatencyNanos;
+        averageSendLatencyNanos = average == 0 ? latencyNanos
+                : SEND_LATENCY_SMOOTHING_FACTOR * latencyNanos + (1 - SEND_LATENCY_SMOOTHING_FACTOR) * average;
+    }
+
+    /**
+     * @return the expected time for a new message to be acknowledged, i.e. the average send latency times the
+     * number of messages that are pending, in nanoseconds. It's 0 until a message is acknowledged.
+     */
+    double getExpectedSendLatencyNanos() {
+        return averageSendLatencyNanos * (pendingMessages.messagesCount() + 1);
+    }
+
     public int getPendingQueueSize() {
+        // the messages in the send queue haven't been added to the batch container or to the pending messages yet
         if (isBatchMessagingEnabled()) {
             synchronized (this) {
-                return pendingMessages.messagesCount() + batchMessageContainer.getNumMessagesInBatch();
+                return sendRequests.size() + pendingMessages.messagesCount()
+                        + batchMessageContainer.getNumMessagesInBatch();
             }
         }
-        return pendingMessages.messagesCount();
+        return sendRequests.size() + pendingMessages.messagesCount();
     }
 
     @Override
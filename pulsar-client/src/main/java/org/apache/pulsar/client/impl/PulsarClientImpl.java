@@ -83,6 +83,7 @@ import org.apache.pulsar.client.impl.transaction.TransactionBuilderImpl;
 import org.apache.pulsar.client.impl.transaction.TransactionCoordinatorClientImpl;
 import org.apache.pulsar.client.util.ExecutorProvider;
 import org.apache.pulsar.client.util.ScheduledExecutorProvider;
+import org.apache.pulsar.client.util.VirtualThreadExecutorProvider;
 import org.apache.pulsar.common.api.proto.CommandGetTopicsOfNamespace.Mode;
 import org.apache.pulsar.common.naming.NamespaceName;
 import org.apache.pulsar.common.naming.TopicDomain;
@@ -145,6 +146,7 @@ public class PulsarClientImpl implements PulsarClient {
 
     protected final EventLoopGroup eventLoopGroup;
     private final MemoryLimitController memoryLimitController;
+    private final CompressionDictionaries compressionDictionaries = new CompressionDictionaries();
 
     private final LoadingCache<String, SchemaInfoProvider> schemaProviderLoadingCache =
             CacheBuilder.newBuilder().maximumSize(100000)
@@ -205,6 +207,10 @@ public class PulsarClientImpl implements PulsarClient {
             if (conf == null || isBlank(conf.getServiceUrl())) {
                 throw new PulsarClientException.InvalidConfigurationException("Invalid client configuration");
             }
+            if (conf.isListenerVirtualThreads() && !VirtualThreadExecutorProvider.isSupported()) {
+                throw new PulsarClientException.InvalidConfigurationException(
+                        "Running the message listeners on virtual threads requires Java 21 or later");
+            }
             this.conf = conf;
             this.createdEventLoopGroup = eventLoopGroup == null;
             this.createdCnxPool = connectionPool == null;
@@ -227,8 +233,15 @@ public class PulsarClientImpl implements PulsarClient {
                             new ConnectionPool(instrumentProvider, conf, this.eventLoopGroup,
                                     (ScheduledExecutorService) this.scheduledExecutorProvider.getExecutor());
             this.cnxPool = connectionPoolReference;
-            this.externalExecutorProvider = externalExecutorProvider != null ? externalExecutorProvider :
-                    new ExecutorProvider(conf.getNumListenerThreads(), "pulsar-external-listener");
+            if (externalExecutorProvider != null) {
+                this.externalExecutorProvider = externalExecutorProvider;
+            } else if (conf.isListenerVirtualThreads()) {
+                this.externalExecutorProvider =
+                        new VirtualThreadExecutorProvider(conf.getNumListenerThreads(), "pulsar-external-listener");
+            } else {
+                this.externalExecutorProvider =
+                        new ExecutorProvider(conf.getNumListenerThreads(), "pulsar-external-listener");
+            }
             this.internalExecutorProvider = internalExecutorProvider != null ? internalExecutorProvider :
                     new ExecutorProvider(conf.getNumIoThreads(), "pulsar-client-internal");
             this.lookupExecutorProvider = lookupExecutorProvider != null ? lookupExecutorProvider :
@@ -261,6 +274,10 @@ public class PulsarClientImpl implements PulsarClient {
                 }
             }
 
+            if (conf.getCompressionDictionaries() != null) {
+                conf.getCompressionDictionaries().forEach(compressionDictionaries::register);
+            }
+
             memoryLimitController = new MemoryLimitController(conf.getMemoryLimitBytes(),
                     (long) (conf.getMemoryLimitBytes() * THRESHOLD_FOR_CONSUMER_RECEIVER_QUEUE_SIZE_SHRINKING),
                     this::reduceConsumerReceiverQueueSize);
@@ -1303,6 +1320,10 @@ public class PulsarClientImpl implements PulsarClient {
         return memoryLimitController;
     }
 
+    CompressionDictionaries getCompressionDictionaries() {
+        return compressionDictionaries;
+    }
+
     @SuppressWarnings("unchecked")
     protected <T> CompletableFuture<Schema<T>> preProcessSchemaBeforeSubscribe(PulsarClientImpl pulsarClientImpl,
                                                                       Schema<T> schema,
@@ -380,6 +380,10 @@ public final class PulsarClientImplementationBindingImpl implements PulsarClient
         return new KeyBasedBatcherBuilder();
     }
 
+    public BatcherBuilder newColumnarBatcherBuilder() {
+        return new ColumnarBatcherBuilder();
+    }
+
     public MessagePayloadFactory newDefaultMessagePayloadFactory() {
         return new MessagePayloadFactoryImpl();
     }
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sizes the receiver queue of a consumer after its bandwidth-delay product, i.e. the rate at which the application
+ * processes the messages times the round trip time between a flow command and the first message it brings.
+ * <p>
+ * The consumer sends a flow command once half of the receiver queue was processed, the other half must cover the
+ * round trip time for the application not to wait for messages, so the target size is twice the bandwidth-delay
+ * product. The queue grows to the target as soon as it's larger, unless the memory usage of the client is high.
+ * The queue shrinks by half at most per update, and only if the application didn't wait for messages since the
+ * previous update, because the processing rate of an application that waits for messages is the delivery rate.
+ * <p>
+ * The round trip time is only sampled when the flow command is sent while the receiver queue is empty, otherwise the
+ * first message may have been sent for the previous permits. The samples are also inflated when the subscription
+ * has no backlog, so the min sample of a window is used, the window restarts with the first sample after it expires.
+ */
+class ReceiverQueueSizeController {
+
+    static final long UPDATE_INTERVAL_MS = 1000;
+
+    private static final long RTT_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(10);
+    // the round trip time assumed until the first sample
+    private static final long DEFAULT_RTT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    // the weight of the last update in the processing rate
+    private static final double RATE_SMOOTHING_FACTOR = 0.5;
+
+    private final LongAdder processedMessages = new LongAdder();
+    private volatile boolean starved = false;
+    // the time the flow command that is being sampled was sent, or 0
+    private volatile long flowSentNanos = 0;
+
+    // written by the thread that receives the messages, read by the updates
+    private volatile long rttNanos = DEFAULT_RTT_NANOS;
+    private long rttWindowStartNanos = 0;
+    private boolean hasRttSample = false;
+
+    // only accessed by the updates
+    private long lastUpdateNanos;
+    private volatile double processingRate = 0;
+    private boolean hasProcessingRate = false;
+
+    ReceiverQueueSizeController(long nowNanos) {
+        this.lastUpdateNanos = nowNanos;
+    }
+
+    void recordProcessed() {
+        processedMessages.increment();
+    }
+
+    /**
+     * Records that the application is waiting for messages.
+     */
+    void recordStarved() {
+        starved = true;
+    }
+
+    /**
+     * Records a flow command that is sent while the receiver queue is empty.
+     */
+    void recordFlowSent(long nowNanos) {
+        if (flowSentNanos == 0) {
+            flowSentNanos = nowNanos;
+        }
+    }
+
+    void recordMessageReceived(long nowNanos) {
+        long sentNanos = flowSentNanos;
+        if (sentNanos == 0) {
+            return;
+        }
+        flowSentNanos = 0;
+        long sample = Math.max(nowNanos - sentNanos, 0);
+        if (!hasRttSample || nowNanos - rttWindowStartNanos > RTT_WINDOW_NANOS) {
+            hasRttSample = true;
+            rttWindowStartNanos = nowNanos;
+            rttNanos = sample;
+        } else if (sample < rttNanos) {
+            rttNanos = sample;
+        }
+    }
+
+    /**
+     * Updates the processing rate and returns the new receiver queue size.
+     *
+     * @param expansionAllowed whether the receiver queue can grow, it's false when the client memory usage is high
+     */
+    int update(long nowNanos, int currentSize, int minSize, int maxSize, boolean expansionAllowed) {
+        long elapsedNanos = nowNanos - lastUpdateNanos;
+        if (elapsedNanos <= 0) {
+            return currentSize;
+        }
+        lastUpdateNanos = nowNanos;
+        double rate = processedMessages.sumThenReset() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        if (hasProcessingRate) {
+            rate = RATE_SMOOTHING_FACTOR * rate + (1 - RATE_SMOOTHING_FACTOR) * processingRate;
+        }
+        processingRate = rate;
+        hasProcessingRate = true;
+        boolean wasStarved = starved;
+        starved = false;
+
+        long bandwidthDelayProduct = (long) Math.ceil(rate * rttNanos / TimeUnit.SECONDS.toNanos(1));
+        int targetSize = (int) Math.max(minSize, Math.min(maxSize, 2 * bandwidthDelayProduct));
+        if (targetSize > currentSize) {
+            return expansionAllowed ? targetSize : currentSize;
+        }
+        if (targetSize < currentSize && !wasStarved) {
+            return Math.max(targetSize, Math.max(minSize, currentSize / 2));
+        }
+        return currentSize;
+    }
+
+    /**
+     * @return the smoothed processing rate, in messages per second
+     */
+    double getProcessingRate() {
+        return processingRate;
+    }
+
+    /**
+     * @return the round trip time of the flow commands, in milliseconds
+     */
+    double getRoundTripTimeMs() {
+        return rttNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
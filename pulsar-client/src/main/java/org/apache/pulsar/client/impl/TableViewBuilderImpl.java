@@ -31,6 +31,7 @@ import org.apache.pulsar.client.api.Schema;
 import org.apache.pulsar.client.api.TableView;
 import org.apache.pulsar.client.api.TableViewBuilder;
 import org.apache.pulsar.client.impl.conf.ConfigurationDataUtils;
+import org.apache.pulsar.common.util.FutureUtil;
 
 public class TableViewBuilderImpl<T> implements TableViewBuilder<T> {
 
@@ -62,6 +63,11 @@ public class TableViewBuilderImpl<T> implements TableViewBuilder<T> {
 
     @Override
     public CompletableFuture<TableView<T>> createAsync() {
+       if ((conf.isStoreSerializedValues() || conf.isStoreValuesOffHeap())
+               && !TableViewImpl.canStoreSerializedValues(schema)) {
+           return FutureUtil.failedFuture(new PulsarClientException.InvalidConfigurationException(
+                   "The values can't be stored in their serialized form with the schema " + schema));
+       }
        return new TableViewImpl<>(client, schema, conf).start();
     }
 
@@ -109,4 +115,16 @@ public class TableViewBuilderImpl<T> implements TableViewBuilder<T> {
         conf.setCryptoFailureAction(action);
         return this;
     }
+
+    @Override
+    public TableViewBuilder<T> storeSerializedValues(boolean storeSerializedValues) {
+        conf.setStoreSerializedValues(storeSerializedValues);
+        return this;
+    }
+
+    @Override
+    public TableViewBuilder<T> storeValuesOffHeap(boolean storeValuesOffHeap) {
+        conf.setStoreValuesOffHeap(storeValuesOffHeap);
+        return this;
+    }
 }
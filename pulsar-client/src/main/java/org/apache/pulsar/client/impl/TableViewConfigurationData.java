@@ -36,6 +36,8 @@ public class TableViewConfigurationData implements Serializable, Cloneable {
 
     private CryptoKeyReader cryptoKeyReader = null;
     private ConsumerCryptoFailureAction cryptoFailureAction = ConsumerCryptoFailureAction.FAIL;
+    private boolean storeSerializedValues = false;
+    private boolean storeValuesOffHeap = false;
 
     @Override
     public TableViewConfigurationData clone() {
@@ -45,6 +47,8 @@ public class TableViewConfigurationData implements Serializable, Cloneable {
             clone.setAutoUpdatePartitionsSeconds(autoUpdatePartitionsSeconds);
             clone.setSubscriptionName(subscriptionName);
             clone.setTopicCompactionStrategyClassName(topicCompactionStrategyClassName);
+            clone.setStoreSerializedValues(storeSerializedValues);
+            clone.setStoreValuesOffHeap(storeValuesOffHeap);
             return clone;
         } catch (CloneNotSupportedException e) {
             throw new AssertionError();
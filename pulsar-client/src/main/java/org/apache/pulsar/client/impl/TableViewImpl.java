@@ -19,11 +19,20 @@
 package org.apache.pulsar.client.impl;
 
 import static org.apache.pulsar.common.topics.TopicCompactionStrategy.TABLE_VIEW_TAG;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.util.IllegalReferenceCountException;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -43,15 +52,32 @@ import org.apache.pulsar.client.api.ReaderBuilder;
 import org.apache.pulsar.client.api.Schema;
 import org.apache.pulsar.client.api.TableView;
 import org.apache.pulsar.client.api.TopicMessageId;
+import org.apache.pulsar.client.impl.schema.AutoConsumeSchema;
+import org.apache.pulsar.client.impl.schema.KeyValueSchemaImpl;
 import org.apache.pulsar.common.naming.TopicDomain;
+import org.apache.pulsar.common.schema.KeyValueEncodingType;
 import org.apache.pulsar.common.topics.TopicCompactionStrategy;
 
 @Slf4j
 public class TableViewImpl<T> implements TableView<T> {
 
+    private static final ByteBuffer NO_SCHEMA_VERSION = ByteBuffer.allocate(0);
+    // The off-heap values are not pooled, so that a released buffer is never reused for another value while a
+    // concurrent read still holds it. With a cleaner, the memory of the values that are still stored when the table
+    // view is garbage collected without being closed is freed too.
+    private static final ByteBufAllocator OFF_HEAP_ALLOCATOR = new UnpooledByteBufAllocator(true, false, false);
+
     private final TableViewConfigurationData conf;
 
+    private final Schema<T> schema;
+    // the values are stored in one of the maps, the other one is null
     private final ConcurrentMap<String, T> data;
+    private final ConcurrentMap<String, SerializedValue<T>> serializedData;
+    // the serialized values share one instance per schema version
+    private final ConcurrentMap<ByteBuffer, VersionedSchema<T>> versionedSchemas;
+    private final boolean storeValuesOffHeap;
+    // set under the listeners mutex once the off-heap values were released by close
+    private boolean valuesReleased;
     private final Map<String, T> immutableData;
 
     private final CompletableFuture<Reader<T>> reader;
@@ -84,8 +110,19 @@ public class TableViewImpl<T> implements TableView<T> {
     TableViewImpl(PulsarClientImpl client, Schema<T> schema, TableViewConfigurationData conf) {
         this.conf = conf;
         this.isPersistentTopic = conf.getTopicName().startsWith(TopicDomain.persistent.toString());
-        this.data = new ConcurrentHashMap<>();
-        this.immutableData = Collections.unmodifiableMap(data);
+        this.schema = schema;
+        this.storeValuesOffHeap = conf.isStoreValuesOffHeap();
+        if (conf.isStoreSerializedValues() || storeValuesOffHeap) {
+            this.data = null;
+            this.serializedData = new ConcurrentHashMap<>();
+            this.versionedSchemas = new ConcurrentHashMap<>();
+            this.immutableData = Collections.unmodifiableMap(new DecodedValues());
+        } else {
+            this.data = new ConcurrentHashMap<>();
+            this.serializedData = null;
+            this.versionedSchemas = null;
+            this.immutableData = Collections.unmodifiableMap(data);
+        }
         this.listeners = new ArrayList<>();
         this.listenersMutex = new ReentrantLock();
         this.compactionStrategy =
@@ -126,22 +163,22 @@ public class TableViewImpl<T> implements TableView<T> {
 
     @Override
     public int size() {
-        return data.size();
+        return immutableData.size();
     }
 
     @Override
     public boolean isEmpty() {
-        return data.isEmpty();
+        return immutableData.isEmpty();
     }
 
     @Override
     public boolean containsKey(String key) {
-        return data.containsKey(key);
+        return immutableData.containsKey(key);
     }
 
     @Override
     public T get(String key) {
-       return data.get(key);
+       return immutableData.get(key);
     }
 
     @Override
@@ -161,7 +198,7 @@ public class TableViewImpl<T> implements TableView<T> {
 
     @Override
     public void forEach(BiConsumer<String, T> action) {
-        data.forEach(action);
+        immutableData.forEach(action);
     }
 
     @Override
@@ -191,7 +228,26 @@ public class TableViewImpl<T> implements TableView<T> {
 
     @Override
     public CompletableFuture<Void> closeAsync() {
-        return reader.thenCompose(Reader::closeAsync);
+        CompletableFuture<Void> future = reader.thenCompose(Reader::closeAsync);
+        if (!storeValuesOffHeap) {
+            return future;
+        }
+        return future.thenRun(this::releaseOffHeapValues);
+    }
+
+    private void releaseOffHeapValues() {
+        try {
+            listenersMutex.lock();
+            valuesReleased = true;
+            for (String key : serializedData.keySet()) {
+                SerializedValue<T> value = serializedData.remove(key);
+                if (value != null) {
+                    value.release();
+                }
+            }
+        } finally {
+            listenersMutex.unlock();
+        }
     }
 
     @Override
@@ -208,7 +264,10 @@ public class TableViewImpl<T> implements TableView<T> {
         try {
             if (msg.hasKey()) {
                 String key = msg.getKey();
-                T cur = msg.size() > 0 ? msg.getValue() : null;
+                boolean hasValue = msg.size() > 0;
+                // the serialized values are only decoded if the compaction strategy or the listeners need them
+                boolean decoded = serializedData == null || compactionStrategy != null;
+                T cur = hasValue && decoded ? msg.getValue() : null;
                 if (log.isDebugEnabled()) {
                     log.debug("Applying message from topic {}. key={} value={}",
                             conf.getTopicName(),
@@ -218,7 +277,7 @@ public class TableViewImpl<T> implements TableView<T> {
 
                 boolean update = true;
                 if (compactionStrategy != null) {
-                    T prev = data.get(key);
+                    T prev = immutableData.get(key);
                     update = !compactionStrategy.shouldKeepLeft(prev, cur);
                     if (!update) {
                         log.info("Skipped the message from topic {}. key={} value={} prev={}",
@@ -233,7 +292,24 @@ public class TableViewImpl<T> implements TableView<T> {
                 if (update) {
                     try {
                         listenersMutex.lock();
-                        if (null == cur) {
+                        if (serializedData != null) {
+                            SerializedValue<T> prev;
+                            if (!hasValue) {
+                                prev = serializedData.remove(key);
+                            } else if (valuesReleased) {
+                                // a message handled while closing the table view
+                                prev = null;
+                            } else {
+                                prev = serializedData.put(key, newSerializedValue(msg));
+                            }
+                            if (prev != null) {
+                                // a concurrent read that still holds the value keeps it until it is copied
+                                prev.release();
+                            }
+                            if (hasValue && !decoded && !listeners.isEmpty()) {
+                                cur = msg.getValue();
+                            }
+                        } else if (null == cur) {
                             data.remove(key);
                         } else {
                             data.put(key, cur);
@@ -365,11 +441,9 @@ public class TableViewImpl<T> implements TableView<T> {
                    if (hasMessage) {
                        reader.readNextAsync()
                                .thenAccept(msg -> {
-                                  messagesRead.incrementAndGet();
-                                  String topicName = msg.getTopicName();
-                                  MessageId messageId = msg.getMessageId();
-                                  handleMessage(msg);
-                                  if (!checkFreshTask(maxMessageIds, future, messageId, topicName)) {
+                                  if (!handleExistingMessage(msg, future, messagesRead, maxMessageIds)
+                                          && !handleQueuedExistingMessages(reader, future, messagesRead,
+                                                  maxMessageIds)) {
                                       readAllExistingMessages(reader, future, startTime,
                                               messagesRead, maxMessageIds);
                                   }
@@ -397,6 +471,48 @@ public class TableViewImpl<T> implements TableView<T> {
                 });
     }
 
+    /**
+     * Applies a message read while loading the existing messages.
+     *
+     * @return true if all the existing messages were read
+     */
+    private boolean handleExistingMessage(Message<T> msg, CompletableFuture<Void> future, AtomicLong messagesRead,
+                                          Map<String, TopicMessageId> maxMessageIds) {
+        messagesRead.incrementAndGet();
+        String topicName = msg.getTopicName();
+        MessageId messageId = msg.getMessageId();
+        handleMessage(msg);
+        return checkFreshTask(maxMessageIds, future, messageId, topicName);
+    }
+
+    /**
+     * Applies the existing messages that are already in the receiver queue without waiting, so that loading a large
+     * topic doesn't cost an asynchronous round trip per message.
+     *
+     * @return true if all the existing messages were read, or if the reading failed
+     */
+    private boolean handleQueuedExistingMessages(Reader<T> reader, CompletableFuture<Void> future,
+                                                 AtomicLong messagesRead,
+                                                 Map<String, TopicMessageId> maxMessageIds) {
+        try {
+            Message<T> msg;
+            while ((msg = reader.readNext(0, TimeUnit.MILLISECONDS)) != null) {
+                if (handleExistingMessage(msg, future, messagesRead, maxMessageIds)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (PulsarClientException e) {
+            if (e instanceof PulsarClientException.AlreadyClosedException) {
+                log.info("Reader {} was closed while reading existing messages.", reader.getTopic());
+            } else {
+                log.warn("Reader {} was interrupted while reading existing messages. ", reader.getTopic(), e);
+            }
+            future.completeExceptionally(e);
+            return true;
+        }
+    }
+
     private void readTailMessages(Reader<T> reader) {
         reader.readNextAsync()
                 .thenAccept(msg -> {
@@ -424,4 +540,231 @@ public class TableViewImpl<T> implements TableView<T> {
                     return null;
                 });
     }
+
+    static boolean canStoreSerializedValues(Schema<?> schema) {
+        // the messages decode these schemas with the schema of the message, which is not known from the payload
+        if (schema instanceof AutoConsumeSchema) {
+            return false;
+        }
+        return !(schema instanceof KeyValueSchemaImpl)
+                || ((KeyValueSchemaImpl<?, ?>) schema).getKeyValueEncodingType() != KeyValueEncodingType.SEPARATED;
+    }
+
+    private SerializedValue<T> newSerializedValue(Message<T> msg) {
+        VersionedSchema<T> versionedSchema = getVersionedSchema(msg);
+        if (!storeValuesOffHeap) {
+            return new HeapValue<>(msg.getData(), versionedSchema);
+        }
+        Message<T> message = msg instanceof TopicMessageImpl ? ((TopicMessageImpl<T>) msg).getMessage() : msg;
+        ByteBuf payload;
+        if (message instanceof MessageImpl) {
+            // copy the payload from the buffer of the message, without going through a byte array on the heap
+            ByteBuf data = ((MessageImpl<T>) message).getDataBuffer();
+            payload = OFF_HEAP_ALLOCATOR.directBuffer(data.readableBytes(), data.readableBytes());
+            payload.writeBytes(data, data.readerIndex(), data.readableBytes());
+        } else {
+            byte[] data = msg.getData();
+            payload = OFF_HEAP_ALLOCATOR.directBuffer(data.length, data.length);
+            payload.writeBytes(data);
+        }
+        return new OffHeapValue<>(payload, versionedSchema);
+    }
+
+    private VersionedSchema<T> getVersionedSchema(Message<T> msg) {
+        byte[] schemaVersion = msg.getSchemaVersion();
+        ByteBuffer key = schemaVersion != null ? ByteBuffer.wrap(schemaVersion) : NO_SCHEMA_VERSION;
+        VersionedSchema<T> versionedSchema = versionedSchemas.get(key);
+        if (versionedSchema == null) {
+            versionedSchema = versionedSchemas.computeIfAbsent(key,
+                    __ -> new VersionedSchema<>(getMessageSchema(msg), schemaVersion));
+        }
+        return versionedSchema;
+    }
+
+    /**
+     * Returns the schema the reader decodes the message with. Unlike the schema passed to the table view, it has a
+     * schema info provider, which is required to decode the values of the versioned schemas.
+     */
+    private Schema<T> getMessageSchema(Message<T> msg) {
+        Schema<T> messageSchema = null;
+        if (msg instanceof TopicMessageImpl) {
+            messageSchema = ((TopicMessageImpl<T>) msg).getSchemaInternal();
+        } else if (msg instanceof MessageImpl) {
+            messageSchema = ((MessageImpl<T>) msg).getSchemaInternal();
+        }
+        return messageSchema != null ? messageSchema : schema;
+    }
+
+    /**
+     * Decodes the value of a key, or returns null if the key was deleted. An off-heap value released by a concurrent
+     * update can't be read anymore, the value that replaced it is decoded instead.
+     */
+    private T decode(Object key, SerializedValue<T> value) {
+        while (value != null) {
+            byte[] payload = value.getPayload();
+            if (payload != null) {
+                return value.schema.decode(payload);
+            }
+            value = serializedData.get(key);
+        }
+        return null;
+    }
+
+    private static final class VersionedSchema<T> {
+        private final Schema<T> schema;
+        private final byte[] schemaVersion;
+
+        VersionedSchema(Schema<T> schema, byte[] schemaVersion) {
+            this.schema = schema;
+            this.schemaVersion = schemaVersion;
+        }
+
+        T decode(byte[] payload) {
+            return schemaVersion != null && schema.supportSchemaVersioning()
+                    ? schema.decode(payload, schemaVersion)
+                    : schema.decode(payload);
+        }
+    }
+
+    private abstract static class SerializedValue<T> {
+        private final VersionedSchema<T> schema;
+
+        SerializedValue(VersionedSchema<T> schema) {
+            this.schema = schema;
+        }
+
+        /**
+         * Returns the payload on the heap, or null if the value was released.
+         */
+        abstract byte[] getPayload();
+
+        void release() {
+        }
+    }
+
+    private static final class HeapValue<T> extends SerializedValue<T> {
+        private final byte[] payload;
+
+        HeapValue(byte[] payload, VersionedSchema<T> schema) {
+            super(schema);
+            this.payload = payload;
+        }
+
+        @Override
+        byte[] getPayload() {
+            return payload;
+        }
+    }
+
+    /**
+     * A value stored in direct memory. The table view holds one reference, which it releases when the value is
+     * replaced, deleted or when the table view is closed. The readers hold another reference while they copy the
+     * payload to the heap, so that the memory is only freed once no reader uses it anymore.
+     */
+    private static final class OffHeapValue<T> extends SerializedValue<T> {
+        private final ByteBuf payload;
+
+        OffHeapValue(ByteBuf payload, VersionedSchema<T> schema) {
+            super(schema);
+            this.payload = payload;
+        }
+
+        @Override
+        byte[] getPayload() {
+            try {
+                payload.retain();
+            } catch (IllegalReferenceCountException e) {
+                return null;
+            }
+            try {
+                byte[] bytes = new byte[payload.readableBytes()];
+                payload.getBytes(payload.readerIndex(), bytes);
+                return bytes;
+            } finally {
+                payload.release();
+            }
+        }
+
+        @Override
+        void release() {
+            payload.release();
+        }
+    }
+
+    /**
+     * A read-only view of the serialized values that decodes them on access.
+     */
+    private final class DecodedValues extends AbstractMap<String, T> {
+
+        @Override
+        public int size() {
+            return serializedData.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return serializedData.isEmpty();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return serializedData.containsKey(key);
+        }
+
+        @Override
+        public T get(Object key) {
+            return decode(key, serializedData.get(key));
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super String, ? super T> action) {
+            serializedData.forEach((key, value) -> {
+                T decoded = decode(key, value);
+                if (decoded != null) {
+                    action.accept(key, decoded);
+                }
+            });
+        }
+
+        @Override
+        public Set<Entry<String, T>> entrySet() {
+            return new AbstractSet<Entry<String, T>>() {
+                @Override
+                public Iterator<Entry<String, T>> iterator() {
+                    Iterator<Entry<String, SerializedValue<T>>> iterator = serializedData.entrySet().iterator();
+                    return new Iterator<Entry<String, T>>() {
+                        // the keys deleted since the iteration started are skipped
+                        private Entry<String, T> next;
+
+                        @Override
+                        public boolean hasNext() {
+                            while (next == null && iterator.hasNext()) {
+                                Entry<String, SerializedValue<T>> entry = iterator.next();
+                                T decoded = decode(entry.getKey(), entry.getValue());
+                                if (decoded != null) {
+                                    next = new SimpleImmutableEntry<>(entry.getKey(), decoded);
+                                }
+                            }
+                            return next != null;
+                        }
+
+                        @Override
+                        public Entry<String, T> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<String, T> entry = next;
+                            next = null;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return serializedData.size();
+                }
+            };
+        }
+    }
 }
@@ -27,8 +27,11 @@ import io.netty.util.Timer;
 import io.netty.util.TimerTask;
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Semaphore;
@@ -69,6 +72,10 @@ public class TransactionMetaStoreHandler extends HandlerState
                     .concurrencyLevel(1)
                     .build();
     private final ConcurrentLinkedQueue<RequestTime> timeoutQueue;
+    // the registrations of a transaction that wait to be sent together, in a single request
+    private final Map<TxnID, PendingRegistrations<String>> pendingPartitionRegistrations = new ConcurrentHashMap<>();
+    private final Map<TxnID, PendingRegistrations<Subscription>> pendingSubscriptionRegistrations =
+            new ConcurrentHashMap<>();
 
     protected final Timer timer;
     private final ExecutorService internalPinnedExecutor;
@@ -83,6 +90,28 @@ public class TransactionMetaStoreHandler extends HandlerState
         }
     }
 
+    private static class PendingRegistrations<T> {
+        final List<T> items = new ArrayList<>();
+        final List<CompletableFuture<Void>> callbacks = new ArrayList<>();
+
+        CompletableFuture<Void> callback() {
+            if (callbacks.size() == 1) {
+                return callbacks.get(0);
+            }
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.whenComplete((ignore, e) -> {
+                for (CompletableFuture<Void> callback : callbacks) {
+                    if (e != null) {
+                        callback.completeExceptionally(e);
+                    } else {
+                        callback.complete(null);
+                    }
+                }
+            });
+            return future;
+        }
+    }
+
     private final boolean blockIfReachMaxPendingOps;
     private final Semaphore semaphore;
 
@@ -310,17 +339,23 @@ public class TransactionMetaStoreHandler extends HandlerState
             LOG.debug("Add publish partition {} to txn {}", partitions, txnID);
         }
         CompletableFuture<Void> callback = new CompletableFuture<>();
-        if (!canSendRequest(callback)) {
+        if (!addPendingRegistration(pendingPartitionRegistrations, txnID, partitions, callback)) {
             return callback;
         }
-        long requestId = client.newRequestId();
-        ByteBuf cmd = Commands.newAddPartitionToTxn(
-                requestId, txnID.getLeastSigBits(), txnID.getMostSigBits(), partitions);
-        String description = String.format("Add partition %s to TXN %s", String.valueOf(partitions),
-                String.valueOf(txnID));
-        OpForVoidCallBack op = OpForVoidCallBack
-                .create(cmd, callback, client, description, cnx());
+        boolean canSend = canSendRequest(callback);
         internalPinnedExecutor.execute(() -> {
+            PendingRegistrations<String> registrations = pendingPartitionRegistrations.remove(txnID);
+            if (!canSend) {
+                failPendingRegistrations(registrations, callback);
+                return;
+            }
+            long requestId = client.newRequestId();
+            ByteBuf cmd = Commands.newAddPartitionToTxn(
+                    requestId, txnID.getLeastSigBits(), txnID.getMostSigBits(), registrations.items);
+            String description = String.format("Add partition %s to TXN %s", String.valueOf(registrations.items),
+                    String.valueOf(txnID));
+            OpForVoidCallBack op = OpForVoidCallBack
+                    .create(cmd, registrations.callback(), client, description, cnx());
             pendingRequests.put(requestId, op);
             timeoutQueue.add(new RequestTime(System.currentTimeMillis(), requestId));
             if (!checkStateAndSendRequest(op)) {
@@ -331,6 +366,36 @@ public class TransactionMetaStoreHandler extends HandlerState
         return callback;
     }
 
+    /**
+     * Adds the registration to the ones of the transaction that wait to be sent, they're sent in a single request
+     * by the internal executor. This batches the registrations of a transaction that are made meanwhile, e.g. when
+     * it produces to all the partitions of a topic.
+     *
+     * @return whether it's the first registration waiting to be sent, i.e. the caller must send the request
+     */
+    private <T> boolean addPendingRegistration(Map<TxnID, PendingRegistrations<T>> pending, TxnID txnID,
+                                               List<T> items, CompletableFuture<Void> callback) {
+        boolean[] first = new boolean[1];
+        pending.compute(txnID, (key, registrations) -> {
+            if (registrations == null) {
+                registrations = new PendingRegistrations<>();
+                first[0] = true;
+            }
+            registrations.items.addAll(items);
+            registrations.callbacks.add(callback);
+            return registrations;
+        });
+        return first[0];
+    }
+
+    private void failPendingRegistrations(PendingRegistrations<?> registrations, CompletableFuture<Void> failed) {
+        failed.whenComplete((ignore, e) -> {
+            for (CompletableFuture<Void> callback : registrations.callbacks) {
+                callback.completeExceptionally(e);
+            }
+        });
+    }
+
     void handleAddPublishPartitionToTxnResponse(CommandAddPartitionToTxnResponse response) {
         final boolean hasError = response.hasError();
         final ServerError error;
@@ -397,16 +462,22 @@ public class TransactionMetaStoreHandler extends HandlerState
         }
 
         CompletableFuture<Void> callback = new CompletableFuture<>();
-        if (!canSendRequest(callback)) {
+        if (!addPendingRegistration(pendingSubscriptionRegistrations, txnID, subscriptionList, callback)) {
             return callback;
         }
-        long requestId = client.newRequestId();
-        ByteBuf cmd = Commands.newAddSubscriptionToTxn(
-                requestId, txnID.getLeastSigBits(), txnID.getMostSigBits(), subscriptionList);
-        String description = String.format("Add subscription %s to TXN %s", toStringSubscriptionList(subscriptionList),
-                String.valueOf(txnID));
-        OpForVoidCallBack op = OpForVoidCallBack.create(cmd, callback, client, description, cnx());
+        boolean canSend = canSendRequest(callback);
         internalPinnedExecutor.execute(() -> {
+            PendingRegistrations<Subscription> registrations = pendingSubscriptionRegistrations.remove(txnID);
+            if (!canSend) {
+                failPendingRegistrations(registrations, callback);
+                return;
+            }
+            long requestId = client.newRequestId();
+            ByteBuf cmd = Commands.newAddSubscriptionToTxn(
+                    requestId, txnID.getLeastSigBits(), txnID.getMostSigBits(), registrations.items);
+            String description = String.format("Add subscription %s to TXN %s",
+                    toStringSubscriptionList(registrations.items), String.valueOf(txnID));
+            OpForVoidCallBack op = OpForVoidCallBack.create(cmd, registrations.callback(), client, description, cnx());
             pendingRequests.put(requestId, op);
             timeoutQueue.add(new RequestTime(System.currentTimeMillis(), requestId));
             if (!checkStateAndSendRequest(op)) {
@@ -23,13 +23,15 @@ import io.netty.util.Timeout;
 import io.netty.util.TimerTask;
 import io.netty.util.concurrent.FastThreadLocal;
 import io.opentelemetry.api.common.Attributes;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMaps;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import java.io.Closeable;
-import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -45,8 +47,20 @@ import org.slf4j.LoggerFactory;
 public class UnAckedMessageTracker implements Closeable {
     private static final Logger log = LoggerFactory.getLogger(UnAckedMessageTracker.class);
 
-    protected final HashMap<MessageId, HashSet<MessageId>> messageIdPartitionMap;
-    protected final ArrayDeque<HashSet<MessageId>> timePartitions;
+    // message id -> tick of the time partition the message id was added to. The open addressing map doesn't allocate
+    // an entry per message id, and the time partitions are append-only lists, so that tracking a message is O(1) and
+    // doesn't allocate in the steady state. The message ids that are removed are only removed from the map, the time
+    // partitions keep referencing them until they are compacted or expire, the map tells which ones are still tracked.
+    protected final Object2LongOpenHashMap<MessageId> messageIdPartitionMap;
+    // wheel of time partitions, the partition of a tick is at the index tick % timePartitions.size()
+    protected final ArrayList<ArrayList<MessageId>> timePartitions;
+    // number of message ids that are still tracked in each time partition
+    protected final int[] timePartitionSizes;
+    // tick of the last time partition, it's incremented each time the head partition expires
+    protected long tick;
+
+    // a time partition is compacted when it references more than twice as many message ids as it tracks
+    private static final int MIN_COMPACTION_SIZE = 64;
 
     protected final Lock readLock;
     protected final Lock writeLock;
@@ -99,6 +113,7 @@ public class UnAckedMessageTracker implements Closeable {
         readLock = null;
         writeLock = null;
         timePartitions = null;
+        timePartitionSizes = null;
         messageIdPartitionMap = null;
         this.ackTimeoutMillis = 0;
         this.tickDurationInMs = 0;
@@ -130,13 +145,17 @@ public class UnAckedMessageTracker implements Closeable {
                 Attributes.builder().put("pulsar.subscription", consumerBase.getSubscription()).build());
 
         if (conf.getAckTimeoutRedeliveryBackoff() == null) {
-            this.messageIdPartitionMap = new HashMap<>();
-            this.timePartitions = new ArrayDeque<>();
+            this.messageIdPartitionMap = new Object2LongOpenHashMap<>();
+            this.messageIdPartitionMap.defaultReturnValue(-1);
+            this.timePartitions = new ArrayList<>();
 
             int blankPartitions = (int) Math.ceil((double) this.ackTimeoutMillis / this.tickDurationInMs);
             for (int i = 0; i < blankPartitions + 1; i++) {
-                timePartitions.add(new HashSet<>(16, 1));
+                timePartitions.add(new ArrayList<>());
             }
+            this.timePartitionSizes = new int[timePartitions.size()];
+            // the head partition starts at tick 0
+            this.tick = blankPartitions;
             timeout = client.timer().newTimeout(new TimerTask() {
                 @Override
                 public void run(Timeout t) throws Exception {
@@ -149,22 +168,11 @@ public class UnAckedMessageTracker implements Closeable {
 
                     writeLock.lock();
                     try {
-                        HashSet<MessageId> headPartition = timePartitions.removeFirst();
-                        if (!headPartition.isEmpty()) {
-                            consumerAckTimeoutsCounter.add(headPartition.size());
-                            log.info("[{}] {} messages will be re-delivered", consumerBase, headPartition.size());
-                            headPartition.forEach(messageId -> {
-                                if (messageId instanceof ChunkMessageIdImpl) {
-                                    addChunkedMessageIdsAndRemoveFromSequenceMap(messageId, messageIds, consumerBase);
-                                } else {
-                                    messageIds.add(messageId);
-                                }
-                                messageIdPartitionMap.remove(messageId);
-                            });
+                        int expired = expireHeadPartition(messageIds, consumerBase);
+                        if (expired > 0) {
+                            consumerAckTimeoutsCounter.add(expired);
+                            log.info("[{}] {} messages will be re-delivered", consumerBase, expired);
                         }
-
-                        headPartition.clear();
-                        timePartitions.addLast(headPartition);
                     } finally {
                         try {
                             timeout = client.timer().newTimeout(this, tickDurationInMs, TimeUnit.MILLISECONDS);
@@ -182,6 +190,54 @@ public class UnAckedMessageTracker implements Closeable {
         } else {
             this.messageIdPartitionMap = null;
             this.timePartitions = null;
+            this.timePartitionSizes = null;
+        }
+    }
+
+    /**
+     * Removes the message ids of the head time partition, which timed out, and makes it the last partition.
+     * Must be called with the write lock held.
+     *
+     * @return the number of message ids that timed out
+     */
+    int expireHeadPartition(Set<MessageId> messageIds, ConsumerBase<?> consumerBase) {
+        long headTick = tick - timePartitions.size() + 1;
+        int index = partitionIndex(headTick);
+        ArrayList<MessageId> headPartition = timePartitions.get(index);
+        int expired = 0;
+        for (int i = 0; i < headPartition.size(); i++) {
+            MessageId messageId = headPartition.get(i);
+            // skip the message ids that were removed, or removed and added again since
+            if (!messageIdPartitionMap.remove(messageId, headTick)) {
+                continue;
+            }
+            expired++;
+            if (messageId instanceof ChunkMessageIdImpl) {
+                addChunkedMessageIdsAndRemoveFromSequenceMap(messageId, messageIds, consumerBase);
+            } else {
+                messageIds.add(messageId);
+            }
+        }
+        headPartition.clear();
+        timePartitionSizes[index] = 0;
+        tick++;
+        return expired;
+    }
+
+    private int partitionIndex(long partitionTick) {
+        return (int) (partitionTick % timePartitions.size());
+    }
+
+    /**
+     * Updates the time partition of a message id that was removed from the partition map, the partition is compacted
+     * once most of the message ids it references were removed. Must be called with the write lock held.
+     */
+    protected void onRemoved(long partitionTick) {
+        int index = partitionIndex(partitionTick);
+        int size = --timePartitionSizes[index];
+        ArrayList<MessageId> partition = timePartitions.get(index);
+        if (partition.size() > 2 * size + MIN_COMPACTION_SIZE) {
+            partition.removeIf(messageId -> messageIdPartitionMap.getLong(messageId) != partitionTick);
         }
     }
 
@@ -201,7 +257,8 @@ public class UnAckedMessageTracker implements Closeable {
         writeLock.lock();
         try {
             messageIdPartitionMap.clear();
-            timePartitions.forEach(tp -> tp.clear());
+            timePartitions.forEach(ArrayList::clear);
+            Arrays.fill(timePartitionSizes, 0);
         } finally {
             writeLock.unlock();
         }
@@ -214,13 +271,12 @@ public class UnAckedMessageTracker implements Closeable {
 
         writeLock.lock();
         try {
-            HashSet<MessageId> partition = timePartitions.peekLast();
-            HashSet<MessageId> previousPartition = messageIdPartitionMap.putIfAbsent(messageId, partition);
-            if (previousPartition == null) {
-                return partition.add(messageId);
-            } else {
+            if (messageIdPartitionMap.putIfAbsent(messageId, tick) != -1) {
                 return false;
             }
+            int index = partitionIndex(tick);
+            timePartitionSizes[index]++;
+            return timePartitions.get(index).add(messageId);
         } finally {
             writeLock.unlock();
         }
@@ -246,12 +302,12 @@ public class UnAckedMessageTracker implements Closeable {
 
         writeLock.lock();
         try {
-            boolean removed = false;
-            HashSet<MessageId> exist = messageIdPartitionMap.remove(messageId);
-            if (exist != null) {
-                removed = exist.remove(messageId);
+            long partitionTick = messageIdPartitionMap.removeLong(messageId);
+            if (partitionTick == -1) {
+                return false;
             }
-            return removed;
+            onRemoved(partitionTick);
+            return true;
         } finally {
             writeLock.unlock();
         }
@@ -270,13 +326,14 @@ public class UnAckedMessageTracker implements Closeable {
         writeLock.lock();
         try {
             int removed = 0;
-            Iterator<Entry<MessageId, HashSet<MessageId>>> iterator = messageIdPartitionMap.entrySet().iterator();
+            ObjectIterator<Object2LongMap.Entry<MessageId>> iterator =
+                    Object2LongMaps.fastIterator(messageIdPartitionMap);
             while (iterator.hasNext()) {
-                Entry<MessageId, HashSet<MessageId>> entry = iterator.next();
-                MessageId messageId = entry.getKey();
-                if (messageId.compareTo(msgId) <= 0) {
-                    entry.getValue().remove(messageId);
+                Object2LongMap.Entry<MessageId> entry = iterator.next();
+                if (entry.getKey().compareTo(msgId) <= 0) {
+                    long partitionTick = entry.getLongValue();
                     iterator.remove();
+                    onRemoved(partitionTick);
                     removed++;
                 }
             }
@@ -18,9 +18,9 @@
  */
 package org.apache.pulsar.client.impl;
 
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Map.Entry;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMaps;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import org.apache.pulsar.client.api.MessageId;
 import org.apache.pulsar.client.api.TopicMessageId;
 import org.apache.pulsar.client.impl.conf.ConsumerConfigurationData;
@@ -36,14 +36,16 @@ public class UnAckedTopicMessageTracker extends UnAckedMessageTracker {
         writeLock.lock();
         try {
             int removed = 0;
-            Iterator<Entry<MessageId, HashSet<MessageId>>> iterator = messageIdPartitionMap.entrySet().iterator();
+            ObjectIterator<Object2LongMap.Entry<MessageId>> iterator =
+                    Object2LongMaps.fastIterator(messageIdPartitionMap);
             while (iterator.hasNext()) {
-                Entry<MessageId, HashSet<MessageId>> entry = iterator.next();
+                Object2LongMap.Entry<MessageId> entry = iterator.next();
                 MessageId messageId = entry.getKey();
                 if (messageId instanceof TopicMessageId
                         && ((TopicMessageId) messageId).getOwnerTopic().contains(topicName)) {
-                    entry.getValue().remove(messageId);
+                    long partitionTick = entry.getLongValue();
                     iterator.remove();
+                    onRemoved(partitionTick);
                     removed++;
                 }
             }
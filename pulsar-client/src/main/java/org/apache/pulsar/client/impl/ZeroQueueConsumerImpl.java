@@ -63,7 +63,7 @@ public class ZeroQueueConsumerImpl<T> extends ConsumerImpl<T> {
 
     @Override
     public void initReceiverQueueSize() {
-        if (conf.isAutoScaledReceiverQueueSizeEnabled()) {
+        if (isAutoScaledReceiverQueueSizeEnabled()) {
             throw new NotImplementedException("AutoScaledReceiverQueueSize is not supported in ZeroQueueConsumerImpl");
         } else {
             CURRENT_RECEIVER_QUEUE_SIZE_UPDATER.set(this, 0);
@@ -109,6 +109,13 @@ public class ClientConfigurationData implements Serializable, Cloneable {
     )
     private long lookupTimeoutMs = -1;
 
+    @ApiModelProperty(
+            name = "lookupCacheTtlMs",
+            value = "Time (in milliseconds) for which the client caches the results of the topic lookups and of the"
+                    + " partitioned topic metadata lookups. The cache is disabled if it's 0."
+    )
+    private long lookupCacheTtlMs = 0;
+
     @ApiModelProperty(
             name = "statsIntervalSeconds",
             value = "Interval to print client stats (in seconds)."
@@ -127,6 +134,12 @@ public class ClientConfigurationData implements Serializable, Cloneable {
     )
     private int numListenerThreads = Runtime.getRuntime().availableProcessors();
 
+    @ApiModelProperty(
+            name = "listenerVirtualThreads",
+            value = "Whether the message listeners run on virtual threads, one per consumer. It requires Java 21."
+    )
+    private boolean listenerVirtualThreads = false;
+
     @ApiModelProperty(
             name = "connectionsPerBroker",
             value = "Number of connections established between the client and each Broker."
@@ -415,6 +428,12 @@ public class ClientConfigurationData implements Serializable, Cloneable {
 
     private Map<String, String> lookupProperties;
 
+    @ApiModelProperty(
+            name = "compressionDictionaries",
+            value = "The zstd dictionaries that are used to decompress the messages compressed with a dictionary."
+    )
+    private List<byte[]> compressionDictionaries;
+
     private transient OpenTelemetry openTelemetry;
 
     /**
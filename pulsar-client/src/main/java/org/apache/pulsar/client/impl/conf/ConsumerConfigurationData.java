@@ -37,6 +37,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.apache.pulsar.client.api.BatchReceivePolicy;
+import org.apache.pulsar.client.api.ConsumerCompressionFailureAction;
 import org.apache.pulsar.client.api.ConsumerCryptoFailureAction;
 import org.apache.pulsar.client.api.ConsumerEventListener;
 import org.apache.pulsar.client.api.CryptoKeyReader;
@@ -286,6 +287,21 @@ public class ConsumerConfigurationData<T> implements Serializable, Cloneable {
     )
     private ConsumerCryptoFailureAction cryptoFailureAction = ConsumerCryptoFailureAction.FAIL;
 
+    @ApiModelProperty(
+            name = "compressionFailureAction",
+            value = "Consumer should take action when it receives a message that is compressed with a zstd dictionary"
+                    + " that the client doesn't know.\n"
+                    + "* **FAIL**: this is the default option to negatively acknowledge messages so that they are"
+                    + " redelivered.\n"
+                    + "* **DISCARD**:silently acknowledge and not deliver message to an application.\n"
+                    + "* **CONSUME**: deliver compressed messages to applications. It is the application's"
+                    + " responsibility to decompress the message.\n"
+                    + "\n"
+                    + "If messages contain batch messages, a client is not be able to retrieve individual messages in"
+                    + " batch."
+    )
+    private ConsumerCompressionFailureAction compressionFailureAction = ConsumerCompressionFailureAction.FAIL;
+
     @ApiModelProperty(
             name = "properties",
             value = "A name or value property of this consumer.\n"
@@ -413,6 +429,8 @@ public class ConsumerConfigurationData<T> implements Serializable, Cloneable {
 
     private boolean autoScaledReceiverQueueSizeEnabled = false;
 
+    private boolean adaptiveReceiverQueueSizeEnabled = false;
+
     private List<TopicConsumerConfigurationData> topicConfigurations = new ArrayList<>();
 
     public TopicConsumerConfigurationData getMatchingTopicConfiguration(String topicName) {
@@ -113,7 +113,9 @@ public class ProducerConfigurationData implements Serializable, Cloneable {
                     + "Available options are as follows:\n"
                     + "* `pulsar.RoundRobinDistribution`: round robin\n"
                     + "* `pulsar.UseSinglePartition`: publish all messages to a single partition\n"
-                    + "* `pulsar.CustomPartition`: a custom partitioning scheme"
+                    + "* `pulsar.CustomPartition`: a custom partitioning scheme\n"
+                    + "* `LeastLoadedPartition`: the partition with the lowest expected send latency out of two"
+                    + " random partitions"
     )
     private MessageRoutingMode messageRoutingMode = null;
 
@@ -191,6 +193,12 @@ public class ProducerConfigurationData implements Serializable, Cloneable {
 
     private int compressMinMsgBodySize = 4 * 1024; // 4kb
 
+    @ApiModelProperty(
+            name = "compressionDictionary",
+            value = "The zstd dictionary to compress the messages with, it requires the ZSTD compression type."
+    )
+    private byte[] compressionDictionary;
+
     // Cannot use Optional<Long> since it's not serializable
     private Long initialSequenceId = null;
 
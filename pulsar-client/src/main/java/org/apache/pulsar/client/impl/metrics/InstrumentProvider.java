@@ -23,6 +23,9 @@ import io.opentelemetry.api.GlobalOpenTelemetry;
 import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongGauge;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+import java.util.function.Consumer;
 import org.apache.pulsar.PulsarVersion;
 
 public class InstrumentProvider {
@@ -55,4 +58,17 @@ public class InstrumentProvider {
     public LatencyHistogram newLatencyHistogram(String name, String description, String topic, Attributes attributes) {
         return new LatencyHistogram(meter, name, description, topic, attributes);
     }
+
+    /**
+     * Creates a gauge whose values are recorded by the callback when the metrics are collected. The gauge must be
+     * closed to stop calling the callback.
+     */
+    public ObservableLongGauge newObservableGauge(String name, Unit unit, String description,
+                                                 Consumer<ObservableLongMeasurement> callback) {
+        return meter.gaugeBuilder(name)
+                .ofLongs()
+                .setDescription(description)
+                .setUnit(unit.toString())
+                .buildWithCallback(callback);
+    }
 }
@@ -76,6 +76,9 @@ public abstract class AbstractStructSchema<T> extends AbstractSchema<T> {
         if (buffer == null) {
             return null;
         }
+        if (isWholeArray(buffer)) {
+            return reader.read(buffer.array());
+        }
         List<ByteBuffer> buffers = Collections.singletonList(buffer);
         return this.reader.read(new ByteBufferInputStream(buffers));
     }
@@ -85,6 +88,9 @@ public abstract class AbstractStructSchema<T> extends AbstractSchema<T> {
         if (buffer == null) {
             return null;
         }
+        if (isWholeArray(buffer)) {
+            return reader.read(buffer.array(), schemaVersion);
+        }
         List<ByteBuffer> buffers = Collections.singletonList(buffer);
         InputStream input = new ByteBufferInputStream(buffers);
         return this.reader.read(input, schemaVersion);
@@ -92,14 +98,40 @@ public abstract class AbstractStructSchema<T> extends AbstractSchema<T> {
 
     @Override
     public T decode(ByteBuf byteBuf) {
+        if (isWholeArray(byteBuf)) {
+            return reader.read(byteBuf.array());
+        }
         return reader.read(new ByteBufInputStream(byteBuf));
     }
 
     @Override
     public T decode(ByteBuf byteBuf, byte[] schemaVersion) {
+        if (isWholeArray(byteBuf)) {
+            return reader.read(byteBuf.array(), schemaVersion);
+        }
         return reader.read(new ByteBufInputStream(byteBuf), schemaVersion);
     }
 
+    /**
+     * Whether the reader decodes an array and a stream with the same content the same way. A buffer that wraps a
+     * whole array is then decoded from the array, without going through an input stream, which the readers consume
+     * through an intermediate buffer. The readers don't all support decoding a part of an array, so the other heap
+     * buffers are still decoded from a stream.
+     */
+    protected boolean canDecodeFromArray() {
+        return true;
+    }
+
+    private boolean isWholeArray(ByteBuffer buffer) {
+        return buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0
+                && buffer.remaining() == buffer.array().length && canDecodeFromArray();
+    }
+
+    private boolean isWholeArray(ByteBuf byteBuf) {
+        return byteBuf.hasArray() && byteBuf.arrayOffset() == 0 && byteBuf.readerIndex() == 0
+                && byteBuf.readableBytes() == byteBuf.array().length && canDecodeFromArray();
+    }
+
     @Override
     public SchemaInfo getSchemaInfo() {
         return this.schemaInfo;
@@ -162,6 +194,11 @@ public abstract class AbstractStructSchema<T> extends AbstractSchema<T> {
             return decode(byteBuf, schemaVersion);
         }
 
+        @Override
+        protected boolean canDecodeFromArray() {
+            return parent.canDecodeFromArray();
+        }
+
         @Override
         public byte[] encode(T message) {
             throw new UnsupportedOperationException("This schema is not meant to be used for encoding");
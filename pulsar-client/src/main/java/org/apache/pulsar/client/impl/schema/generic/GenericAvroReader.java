@@ -26,8 +26,8 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.io.BinaryDecoder;
 import org.apache.avro.io.BinaryEncoder;
-import org.apache.avro.io.Decoder;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.avro.io.EncoderFactory;
 import org.apache.pulsar.client.api.SchemaSerializationException;
@@ -41,6 +41,8 @@ import org.slf4j.LoggerFactory;
 public class GenericAvroReader implements SchemaReader<GenericRecord> {
 
     private final GenericDatumReader<GenericAvroRecord> reader;
+    private static final ThreadLocal<BinaryDecoder> decoders =
+            new ThreadLocal<>();
     private BinaryEncoder encoder;
     private final ByteArrayOutputStream byteArrayOutputStream;
     private final List<Field> fields;
@@ -81,7 +83,12 @@ public class GenericAvroReader implements SchemaReader<GenericRecord> {
             if (offset == 0 && this.offset > 0) {
                 offset = this.offset;
             }
-            Decoder decoder = DecoderFactory.get().binaryDecoder(bytes, offset, length - offset, null);
+            BinaryDecoder decoderFromCache = decoders.get();
+            BinaryDecoder decoder =
+                    DecoderFactory.get().binaryDecoder(bytes, offset, length - offset, decoderFromCache);
+            if (decoderFromCache == null) {
+                decoders.set(decoder);
+            }
             org.apache.avro.generic.GenericRecord avroRecord =
                     (org.apache.avro.generic.GenericRecord) reader.read(
                     null,
@@ -95,7 +102,11 @@ public class GenericAvroReader implements SchemaReader<GenericRecord> {
     @Override
     public GenericRecord read(InputStream inputStream) {
         try {
-            Decoder decoder = DecoderFactory.get().binaryDecoder(inputStream, null);
+            BinaryDecoder decoderFromCache = decoders.get();
+            BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(inputStream, decoderFromCache);
+            if (decoderFromCache == null) {
+                decoders.set(decoder);
+            }
             org.apache.avro.generic.GenericRecord avroRecord =
                     (org.apache.avro.generic.GenericRecord) reader.read(
                             null,
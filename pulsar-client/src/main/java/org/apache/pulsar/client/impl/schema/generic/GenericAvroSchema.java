@@ -57,6 +57,12 @@ public class GenericAvroSchema extends GenericSchemaImpl {
         return true;
     }
 
+    @Override
+    protected boolean canDecodeFromArray() {
+        // the reader skips the OFFSET_PROP bytes when it reads an array, but not when it reads a stream
+        return false;
+    }
+
     @Override
     public org.apache.pulsar.client.api.Schema<GenericRecord> clone() {
         org.apache.pulsar.client.api.Schema<GenericRecord> schema =
@@ -75,7 +75,7 @@ public class AvroReader<T> implements SchemaReader<T> {
             if (decoderFromCache == null) {
                 decoders.set(decoder);
             }
-            return reader.read(null, DecoderFactory.get().binaryDecoder(bytes, offset, length, decoder));
+            return reader.read(null, decoder);
         } catch (IOException e) {
             throw new SchemaSerializationException(e);
         }
@@ -89,7 +89,7 @@ public class AvroReader<T> implements SchemaReader<T> {
             if (decoderFromCache == null) {
                 decoders.set(decoder);
             }
-            return reader.read(null, DecoderFactory.get().binaryDecoder(inputStream, decoder));
+            return reader.read(null, decoder);
         } catch (Exception e) {
             throw new SchemaSerializationException(e);
         } finally {
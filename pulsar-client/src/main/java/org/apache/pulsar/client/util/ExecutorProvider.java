@@ -120,6 +120,9 @@ public class ExecutorProvider {
 
     private String getThreadDump(Thread thread) {
         StringBuilder dump = new StringBuilder();
+        if (thread == null) {
+            return dump.toString();
+        }
         dump.append('\n');
         dump.append(String.format("\"%s\" %s prio=%d tid=%d %s%njava.lang.Thread.State: %s", thread.getName(),
                 (thread.isDaemon() ? "daemon" : ""), thread.getPriority(), thread.getId(),
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.util;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Provides executors that run the tasks on virtual threads, one at a time and in submission order.
+ * <p>
+ * Each call to {@link #getExecutor()} returns a new executor, so every consumer gets its own and a listener that
+ * blocks only delays the messages of its consumer. The executors start a virtual thread when a task is submitted
+ * while they are idle and the thread exits once the queue is drained, so the idle executors hold no thread and
+ * need no shutdown. The executors selected by key are shared, to keep the ordering of the keys.
+ * <p>
+ * Virtual threads require Java 21 or later, the client is built for Java 8 so they're created by reflection.
+ */
+@Slf4j
+public class VirtualThreadExecutorProvider extends ExecutorProvider {
+
+    private final ThreadFactory threadFactory;
+
+    public VirtualThreadExecutorProvider(int numThreads, String poolName) {
+        super(numThreads, poolName);
+        this.threadFactory = newVirtualThreadFactory(poolName + "-");
+    }
+
+    public static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static ThreadFactory newVirtualThreadFactory(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Method name = builderClass.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later", e);
+        }
+    }
+
+    @Override
+    protected ExecutorService createExecutor(ExtendedThreadFactory threadFactory) {
+        return new SerialExecutor();
+    }
+
+    @Override
+    public ExecutorService getExecutor() {
+        return new SerialExecutor();
+    }
+
+    private class SerialExecutor extends AbstractExecutorService {
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean running = new AtomicBoolean(false);
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition terminated = lock.newCondition();
+        private volatile boolean shutdown = false;
+
+        @Override
+        public void execute(Runnable task) {
+            if (shutdown) {
+                throw new RejectedExecutionException("Executor is shutdown");
+            }
+            tasks.add(task);
+            startIfIdle();
+        }
+
+        private void startIfIdle() {
+            // the thread that drained the queue may have exited before the task was added
+            if (!tasks.isEmpty() && running.compareAndSet(false, true)) {
+                threadFactory.newThread(this::drain).start();
+            }
+        }
+
+        private void drain() {
+            try {
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    try {
+                        task.run();
+                    } catch (Throwable t) {
+                        log.error("Thread {} got uncaught Exception", Thread.currentThread().getName(), t);
+                    }
+                }
+            } finally {
+                running.set(false);
+            }
+            if (shutdown) {
+                lock.lock();
+                try {
+                    terminated.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+            startIfIdle();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            List<Runnable> pending = new ArrayList<>();
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                pending.add(task);
+            }
+            return pending;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown && !running.get() && tasks.isEmpty();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            lock.lock();
+            try {
+                while (!isTerminated()) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    nanos = terminated.awaitNanos(nanos);
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -24,19 +24,27 @@ import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.util.ReferenceCountUtil;
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.pulsar.client.api.CompressionType;
 import org.apache.pulsar.client.api.Schema;
 import org.apache.pulsar.client.impl.conf.ProducerConfigurationData;
 import org.apache.pulsar.common.api.proto.MessageMetadata;
+import org.apache.pulsar.common.api.proto.SingleMessageMetadata;
+import org.apache.pulsar.common.compression.CompressionCodecProvider;
+import org.apache.pulsar.common.protocol.Commands;
 import org.testng.annotations.Test;
 
 public class BatchMessageContainerImplTest {
@@ -181,6 +189,81 @@ public class BatchMessageContainerImplTest {
         assertEquals(batchMessageContainer.getMaxMessagesNum(), 200);
     }
 
+    @Test
+    public void testCompositeBatchReferencesLargePayloads() throws Exception {
+        int[] payloadSizes = {100, 2048, 10, 100 * 1024, 1023, 1024};
+        BatchMessageContainerImpl compositeContainer = newContainerWithoutCompression();
+        BatchMessageContainerImpl copyingContainer = newContainerWithoutCompression();
+        copyingContainer.zeroCopyMinPayloadSize = Integer.MAX_VALUE;
+
+        ArrayList<MessageImpl<?>> messages = new ArrayList<>();
+        for (int i = 0; i < payloadSizes.length; i++) {
+            MessageMetadata messageMetadata = new MessageMetadata();
+            messageMetadata.setSequenceId(i);
+            messageMetadata.setProducerName("producer");
+            messageMetadata.setPublishTime(System.currentTimeMillis());
+            messageMetadata.addProperty().setKey("index").setValue(String.valueOf(i));
+            byte[] payload = new byte[payloadSizes[i]];
+            Arrays.fill(payload, (byte) i);
+            MessageImpl<?> message = MessageImpl.create(messageMetadata, ByteBuffer.wrap(payload), Schema.BYTES, null);
+            messages.add(message);
+            compositeContainer.add(message, null);
+            copyingContainer.add(message, null);
+        }
+
+        ByteBuf composite = compositeContainer.getCompressedBatchMetadataAndPayload();
+        ByteBuf copied = copyingContainer.getCompressedBatchMetadataAndPayload();
+        try {
+            assertTrue(composite instanceof CompositeByteBuf);
+            assertFalse(copied instanceof CompositeByteBuf);
+            // the payloads of 1024 bytes or more are referenced, the other bytes are copied to the batch buffer
+            assertEquals(((CompositeByteBuf) composite).numComponents(), 6);
+            assertTrue(ByteBufUtil.equals(composite, copied));
+            for (int i = 0; i < payloadSizes.length; i++) {
+                SingleMessageMetadata singleMessageMetadata = new SingleMessageMetadata();
+                ByteBuf payload = Commands.deSerializeSingleMessageInBatch(composite, singleMessageMetadata, i,
+                        payloadSizes.length);
+                assertEquals(singleMessageMetadata.getSequenceId(), i);
+                assertEquals(singleMessageMetadata.getPropertyAt(0).getValue(), String.valueOf(i));
+                assertEquals(payload.readableBytes(), payloadSizes[i]);
+                payload.release();
+            }
+            // the batch buffer is sized for the copied bytes only
+            assertTrue(compositeContainer.getMaxBatchSize() < 100 * 1024);
+        } finally {
+            composite.release();
+            copied.release();
+            messages.forEach(ReferenceCountUtil::safeRelease);
+        }
+    }
+
+    @Test
+    public void testSmallPayloadsAreCopied() {
+        BatchMessageContainerImpl container = newContainerWithoutCompression();
+        ArrayList<MessageImpl<?>> messages = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            MessageMetadata messageMetadata = new MessageMetadata();
+            messageMetadata.setSequenceId(i);
+            messageMetadata.setProducerName("producer");
+            messageMetadata.setPublishTime(System.currentTimeMillis());
+            ByteBuffer payload = ByteBuffer.wrap("payload".getBytes(StandardCharsets.UTF_8));
+            MessageImpl<?> message = MessageImpl.create(messageMetadata, payload, Schema.BYTES, null);
+            messages.add(message);
+            container.add(message, null);
+        }
+        ByteBuf batch = container.getCompressedBatchMetadataAndPayload();
+        assertFalse(batch instanceof CompositeByteBuf);
+        batch.release();
+        messages.forEach(ReferenceCountUtil::safeRelease);
+    }
+
+    private static BatchMessageContainerImpl newContainerWithoutCompression() {
+        BatchMessageContainerImpl container = new BatchMessageContainerImpl();
+        container.compressionType = CompressionCodecProvider.convertToWireProtocol(CompressionType.NONE);
+        container.compressor = CompressionCodecProvider.getCompressionCodec(container.compressionType);
+        return container;
+    }
+
     private void addMessagesAndCreateOpSendMsg(BatchMessageContainerImpl batchMessageContainer, int num)
             throws Exception{
         ArrayList<MessageImpl<?>> messages = new ArrayList<>();
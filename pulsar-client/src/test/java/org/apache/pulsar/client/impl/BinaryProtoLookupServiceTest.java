@@ -37,8 +37,10 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import lombok.Cleanup;
 import org.apache.pulsar.client.api.PulsarClientException.LookupException;
 import org.apache.pulsar.client.impl.BinaryProtoLookupService.LookupDataResult;
 import org.apache.pulsar.client.impl.conf.ClientConfigurationData;
@@ -56,6 +58,9 @@ public class BinaryProtoLookupServiceTest {
     private BinaryProtoLookupService lookup;
     private TopicName topicName;
     private ExecutorService internalExecutor;
+    private PulsarClientImpl client;
+    private ClientConfigurationData data;
+    private AtomicInteger lookupInvocationCounter;
 
     @AfterMethod
     public void cleanup() throws Exception {
@@ -72,7 +77,7 @@ public class BinaryProtoLookupServiceTest {
         CompletableFuture<LookupDataResult> lookupFuture2 = CompletableFuture.completedFuture(lookupResult2);
 
         ClientCnx clientCnx = mock(ClientCnx.class);
-        AtomicInteger lookupInvocationCounter = new AtomicInteger();
+        lookupInvocationCounter = new AtomicInteger();
         doAnswer(invocation -> {
             ByteBuf byteBuf = invocation.getArgument(0);
             byteBuf.release();
@@ -92,12 +97,12 @@ public class BinaryProtoLookupServiceTest {
         ClientConfigurationData clientConfig = mock(ClientConfigurationData.class);
         doReturn(0).when(clientConfig).getMaxLookupRedirects();
 
-        PulsarClientImpl client = mock(PulsarClientImpl.class);
+        client = mock(PulsarClientImpl.class);
         doReturn(InstrumentProvider.NOOP).when(client).instrumentProvider();
         doReturn(cnxPool).when(client).getCnxPool();
         doReturn(clientConfig).when(client).getConfiguration();
         doReturn(1L).when(client).newRequestId();
-        ClientConfigurationData data = new ClientConfigurationData();
+        data = new ClientConfigurationData();
         doReturn(data).when(client).getConfiguration();
         internalExecutor =
                 Executors.newSingleThreadExecutor(new DefaultThreadFactory("pulsar-client-test-internal-executor"));
@@ -180,6 +185,117 @@ public class BinaryProtoLookupServiceTest {
         assertEquals(successCommand.get().getType(), Type.PARTITIONED_METADATA);
     }
 
+    @Test
+    public void testLookupCache() throws Exception {
+        data.setLookupCacheTtlMs(TimeUnit.HOURS.toMillis(1));
+        @Cleanup
+        BinaryProtoLookupService cachingLookup = new BinaryProtoLookupService(client, "pulsar://localhost:6650",
+                null, false, mock(ExecutorService.class), internalExecutor);
+
+        // two redirects, then the broker
+        LookupTopicResult lookupResult = cachingLookup.getBroker(topicName).get();
+        assertEquals(lookupInvocationCounter.get(), 3);
+        assertEquals(cachingLookup.getBroker(topicName).get(), lookupResult);
+        assertEquals(lookupInvocationCounter.get(), 3);
+
+        cachingLookup.invalidateCachedBroker(topicName);
+        cachingLookup.getBroker(topicName).get();
+        assertEquals(lookupInvocationCounter.get(), 4);
+
+        // the cache is disabled by default
+        lookup.getBroker(topicName).get();
+        lookup.getBroker(topicName).get();
+        assertEquals(lookupInvocationCounter.get(), 6);
+    }
+
+    @Test
+    public void testLookupCacheInvalidatedDuringLookup() throws Exception {
+        data.setLookupCacheTtlMs(TimeUnit.HOURS.toMillis(1));
+        CompletableFuture<LookupDataResult> pendingLookup = new CompletableFuture<>();
+        AtomicInteger lookups = new AtomicInteger();
+        ClientCnx clientCnx = mock(ClientCnx.class);
+        doAnswer(invocation -> {
+            ByteBuf byteBuf = invocation.getArgument(0);
+            byteBuf.release();
+            return lookups.incrementAndGet() == 1 ? pendingLookup : CompletableFuture.completedFuture(
+                    createLookupDataResult("pulsar://broker3.pulsar.apache.org:6650", false));
+        }).when(clientCnx).newLookup(any(ByteBuf.class), anyLong());
+        ConnectionPool cnxPool = mock(ConnectionPool.class);
+        when(cnxPool.getConnection(any(InetSocketAddress.class)))
+                .thenReturn(CompletableFuture.completedFuture(clientCnx));
+        doReturn(cnxPool).when(client).getCnxPool();
+        @Cleanup
+        BinaryProtoLookupService cachingLookup = new BinaryProtoLookupService(client, "pulsar://localhost:6650",
+                null, false, mock(ExecutorService.class), internalExecutor);
+
+        CompletableFuture<LookupTopicResult> staleLookup = cachingLookup.getBroker(topicName);
+        Awaitility.await().untilAsserted(() -> assertEquals(lookups.get(), 1));
+        // the topic is unloaded while the lookup is in progress
+        cachingLookup.invalidateCachedBroker(topicName);
+        pendingLookup.complete(createLookupDataResult("pulsar://broker2.pulsar.apache.org:6650", false));
+        assertEquals(staleLookup.get().getLogicalAddress(),
+                InetSocketAddress.createUnresolved("broker2.pulsar.apache.org", 6650));
+
+        // the result of the lookup that started before the invalidation is not cached
+        LookupTopicResult lookupResult = cachingLookup.getBroker(topicName).get();
+        assertEquals(lookups.get(), 2);
+        assertEquals(lookupResult.getLogicalAddress(),
+                InetSocketAddress.createUnresolved("broker3.pulsar.apache.org", 6650));
+        assertEquals(cachingLookup.getBroker(topicName).get(), lookupResult);
+        assertEquals(lookups.get(), 2);
+    }
+
+    @Test
+    public void testLookupCacheInvalidationOfOtherTopicDuringLookup() throws Exception {
+        data.setLookupCacheTtlMs(TimeUnit.HOURS.toMillis(1));
+        CompletableFuture<LookupDataResult> pendingLookup = new CompletableFuture<>();
+        AtomicInteger lookups = new AtomicInteger();
+        ClientCnx clientCnx = mock(ClientCnx.class);
+        doAnswer(invocation -> {
+            ByteBuf byteBuf = invocation.getArgument(0);
+            byteBuf.release();
+            lookups.incrementAndGet();
+            return pendingLookup;
+        }).when(clientCnx).newLookup(any(ByteBuf.class), anyLong());
+        ConnectionPool cnxPool = mock(ConnectionPool.class);
+        when(cnxPool.getConnection(any(InetSocketAddress.class)))
+                .thenReturn(CompletableFuture.completedFuture(clientCnx));
+        doReturn(cnxPool).when(client).getCnxPool();
+        @Cleanup
+        BinaryProtoLookupService cachingLookup = new BinaryProtoLookupService(client, "pulsar://localhost:6650",
+                null, false, mock(ExecutorService.class), internalExecutor);
+
+        CompletableFuture<LookupTopicResult> lookupFuture = cachingLookup.getBroker(topicName);
+        Awaitility.await().untilAsserted(() -> assertEquals(lookups.get(), 1));
+        // another topic is unloaded while the lookup is in progress
+        cachingLookup.invalidateCachedBroker(TopicName.get("persistent://tenant1/ns1/other-topic"));
+        pendingLookup.complete(createLookupDataResult("pulsar://broker2.pulsar.apache.org:6650", false));
+        LookupTopicResult lookupResult = lookupFuture.get();
+
+        // the result of the lookup is still cached
+        assertEquals(cachingLookup.getBroker(topicName).get(), lookupResult);
+        assertEquals(lookups.get(), 1);
+    }
+
+    @Test
+    public void testPartitionedMetadataCache() throws Exception {
+        data.setLookupCacheTtlMs(TimeUnit.HOURS.toMillis(1));
+        @Cleanup
+        BinaryProtoLookupService cachingLookup = new BinaryProtoLookupService(client, "pulsar://localhost:6650",
+                null, false, mock(ExecutorService.class), internalExecutor);
+
+        cachingLookup.getPartitionedTopicMetadata(topicName, true, true).get();
+        cachingLookup.getPartitionedTopicMetadata(topicName, true, true).get();
+        assertEquals(lookupInvocationCounter.get(), 1);
+
+        // the metadata looked up with the auto creation is not used for the lookups without it, and vice versa
+        cachingLookup.getPartitionedTopicMetadata(topicName, false, true).get();
+        assertEquals(lookupInvocationCounter.get(), 2);
+        cachingLookup.getPartitionedTopicMetadata(topicName, false, true).get();
+        cachingLookup.getPartitionedTopicMetadata(topicName, true, true).get();
+        assertEquals(lookupInvocationCounter.get(), 2);
+    }
+
     private static LookupDataResult createLookupDataResult(String brokerUrl, boolean redirect) throws Exception {
         LookupDataResult lookupResult = new LookupDataResult(-1);
 
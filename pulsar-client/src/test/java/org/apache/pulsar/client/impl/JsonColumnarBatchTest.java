@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.common.api.proto.MessageMetadata;
+import org.apache.pulsar.common.api.proto.SingleMessageMetadata;
+import org.apache.pulsar.common.protocol.Commands;
+import org.testng.annotations.Test;
+
+public class JsonColumnarBatchTest {
+
+    private static List<MessageImpl<?>> newMessages(String... payloads) {
+        List<MessageImpl<?>> messages = new ArrayList<>();
+        for (int i = 0; i < payloads.length; i++) {
+            MessageMetadata metadata = new MessageMetadata().setPartitionKey("key-" + i);
+            metadata.addProperty().setKey("index").setValue(String.valueOf(i));
+            messages.add(MessageImpl.create(metadata, ByteBuffer.wrap(payloads[i].getBytes(StandardCharsets.UTF_8)),
+                    Schema.BYTES, "topic"));
+        }
+        return messages;
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        String[] payloads = {
+                "{\"id\":1,\"name\":\"a \\\"quoted\\\" name\",\"tags\":[\"x\",{\"y\":null}],\"score\":1.5e3}",
+                "{\"id\":22,\"name\":\"h\u00e9llo\",\"tags\":[],\"score\":-2}",
+                "{\"id\":333,\"name\":\"\",\"tags\":null,\"score\":0}"};
+        List<MessageImpl<?>> messages = newMessages(payloads);
+        ByteBuf columnarBatch = Unpooled.buffer();
+        assertTrue(JsonColumnarBatch.write(messages, columnarBatch));
+
+        ByteBuf rows = JsonColumnarBatch.toRows(columnarBatch, payloads.length, ByteBufAllocator.DEFAULT);
+        SingleMessageMetadata singleMessageMetadata = new SingleMessageMetadata();
+        for (int i = 0; i < payloads.length; i++) {
+            ByteBuf payload = Commands.deSerializeSingleMessageInBatch(rows, singleMessageMetadata, i,
+                    payloads.length);
+            assertEquals(payload.toString(StandardCharsets.UTF_8), payloads[i]);
+            assertEquals(singleMessageMetadata.getPartitionKey(), "key-" + i);
+            assertEquals(singleMessageMetadata.getPropertyAt(0).getValue(), String.valueOf(i));
+            payload.release();
+        }
+        assertFalse(rows.isReadable());
+        rows.release();
+        messages.forEach(MessageImpl::release);
+    }
+
+    @Test
+    public void testWhitespaceIsRemoved() {
+        List<MessageImpl<?>> messages = newMessages("{ \"a\" : 1 , \"b\" : [ 1, 2 ] }", "{\"a\":2,\"b\":[]}");
+        ByteBuf columnarBatch = Unpooled.buffer();
+        assertTrue(JsonColumnarBatch.write(messages, columnarBatch));
+
+        ByteBuf rows = JsonColumnarBatch.toRows(columnarBatch, 2, ByteBufAllocator.DEFAULT);
+        ByteBuf payload = Commands.deSerializeSingleMessageInBatch(rows, new SingleMessageMetadata(), 0, 2);
+        assertEquals(payload.toString(StandardCharsets.UTF_8), "{\"a\":1,\"b\":[ 1, 2 ]}");
+        payload.release();
+        rows.release();
+        messages.forEach(MessageImpl::release);
+    }
+
+    @Test
+    public void testMessagesThatCantBeWrittenByColumn() {
+        // different fields, different order of the fields, not an object, not JSON
+        String[][] batches = {
+                {"{\"a\":1}", "{\"b\":1}"},
+                {"{\"a\":1,\"b\":2}", "{\"b\":2,\"a\":1}"},
+                {"{\"a\":1}", "[1]"},
+                {"{\"a\":1}", "{\"a\":1"},
+                {"{\"a\":1}", "not json"}};
+        for (String[] payloads : batches) {
+            List<MessageImpl<?>> messages = newMessages(payloads);
+            ByteBuf columnarBatch = Unpooled.buffer();
+            assertFalse(JsonColumnarBatch.write(messages, columnarBatch));
+            assertEquals(columnarBatch.writerIndex(), 0);
+            messages.forEach(MessageImpl::release);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testCorruptedColumnarBatch() {
+        List<MessageImpl<?>> messages = newMessages("{\"a\":1}", "{\"a\":2}");
+        ByteBuf columnarBatch = Unpooled.buffer();
+        assertTrue(JsonColumnarBatch.write(messages, columnarBatch));
+        messages.forEach(MessageImpl::release);
+        JsonColumnarBatch.toRows(columnarBatch.slice(0, columnarBatch.writerIndex() - 1), 2,
+                ByteBufAllocator.DEFAULT);
+    }
+}
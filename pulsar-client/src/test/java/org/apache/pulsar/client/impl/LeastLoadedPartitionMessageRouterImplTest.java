@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.impl;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import java.time.Clock;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.pulsar.client.api.HashingScheme;
+import org.apache.pulsar.client.api.Message;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test of {@link LeastLoadedPartitionMessageRouterImpl}.
+ */
+public class LeastLoadedPartitionMessageRouterImplTest {
+
+    @Test
+    public void testSlowPartitionIsAvoided() {
+        Message<?> msg = mock(Message.class);
+        when(msg.hasKey()).thenReturn(false);
+
+        // partition 1 has the highest cost, it's only chosen when it's compared with itself, which can't happen
+        LeastLoadedPartitionMessageRouterImpl router = new LeastLoadedPartitionMessageRouterImpl(
+                HashingScheme.JavaStringHash, partition -> partition == 1 ? 1000 : partition, false, 0);
+        Set<Integer> partitions = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            partitions.add(router.choosePartition(msg, new TopicMetadataImpl(3)));
+        }
+        assertTrue(partitions.contains(0));
+        assertTrue(partitions.contains(2));
+        assertEquals(partitions.size(), 2);
+        assertEquals(router.choosePartition(msg, new TopicMetadataImpl(1)), 0);
+    }
+
+    @Test
+    public void testChoosePartitionWithKey() {
+        String key = "my-key";
+        Message<?> msg = mock(Message.class);
+        when(msg.hasKey()).thenReturn(true);
+        when(msg.getKey()).thenReturn(key);
+
+        LeastLoadedPartitionMessageRouterImpl router = new LeastLoadedPartitionMessageRouterImpl(
+                HashingScheme.JavaStringHash, partition -> partition, false, 0);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(router.choosePartition(msg, new TopicMetadataImpl(100)), key.hashCode() % 100);
+        }
+    }
+
+    @Test
+    public void testPartitionIsKeptWithinSwitchIntervalWithBatching() {
+        Message<?> msg = mock(Message.class);
+        when(msg.hasKey()).thenReturn(false);
+        AtomicLong now = new AtomicLong(0);
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).then(invocation -> now.get());
+
+        LeastLoadedPartitionMessageRouterImpl router = new LeastLoadedPartitionMessageRouterImpl(
+                HashingScheme.JavaStringHash, partition -> partition, true, 10, clock);
+        int partition = router.choosePartition(msg, new TopicMetadataImpl(1000));
+        for (int i = 1; i < 10; i++) {
+            now.set(i);
+            assertEquals(router.choosePartition(msg, new TopicMetadataImpl(1000)), partition);
+        }
+        // the next interval picks two random partitions again, the last one is never the least loaded
+        Set<Integer> partitions = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            now.addAndGet(10);
+            partitions.add(router.choosePartition(msg, new TopicMetadataImpl(1000)));
+        }
+        assertTrue(partitions.size() > 1);
+        assertFalse(partitions.contains(999));
+    }
+}
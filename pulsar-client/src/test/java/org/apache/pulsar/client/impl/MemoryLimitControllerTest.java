@@ -22,11 +22,14 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -233,4 +236,116 @@ public class MemoryLimitControllerTest {
 
         assertEquals(mlc.currentUsage(), 0);
     }
+
+    @Test
+    public void testStripedUsageIsExact() throws Exception {
+        long limit = 64 * 1024 * 1024;
+        MemoryLimitController mlc = new MemoryLimitController(limit);
+
+        int threads = 8;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    assertTrue(mlc.tryReserveMemory(100));
+                    mlc.releaseMemory(100);
+                }
+                mlc.reserveMemory(1000);
+                done.countDown();
+                return null;
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(mlc.currentUsage(), threads * 1000);
+
+        // Reserve up to the limit from a single thread, the last reservation goes over the limit like without
+        // striping
+        long reserved = threads * 1000;
+        while (mlc.tryReserveMemory(100)) {
+            reserved += 100;
+        }
+        assertEquals(mlc.currentUsage(), reserved);
+        assertTrue(reserved > limit && reserved <= limit + 100);
+
+        mlc.releaseMemory(reserved);
+        assertEquals(mlc.currentUsage(), 0);
+    }
+
+    @Test
+    public void testStripedUsageIsConsistentWhileCreditMoves() throws Exception {
+        MemoryLimitController mlc = new MemoryLimitController(64 * 1024 * 1024);
+
+        int threads = 4;
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                // Release in different sizes so that the stripes keep taking and giving back chunks
+                while (running.get()) {
+                    assertTrue(mlc.tryReserveMemory(1000));
+                    for (int i = 0; i < 10; i++) {
+                        mlc.releaseMemory(100);
+                    }
+                }
+                done.countDown();
+                return null;
+            });
+        }
+        try {
+            // Each thread holds at most 1000 bytes, whatever the credit held by the stripes
+            for (int i = 0; i < 100_000; i++) {
+                long usage = mlc.currentUsage();
+                assertTrue(usage >= 0 && usage <= threads * 1000, "Inconsistent usage " + usage);
+            }
+        } finally {
+            running.set(false);
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(mlc.currentUsage(), 0);
+    }
+
+    @Test
+    public void testStripedTriggerIsExact() {
+        long limit = 64 * 1024 * 1024;
+        long threshold = limit / 2;
+        AtomicLong usageWhenTriggered = new AtomicLong(-1);
+        MemoryLimitController[] mlc = new MemoryLimitController[1];
+        mlc[0] = new MemoryLimitController(limit, threshold, () -> usageWhenTriggered.set(mlc[0].currentUsage()));
+
+        while (usageWhenTriggered.get() < 0) {
+            assertTrue(mlc[0].tryReserveMemory(100));
+            mlc[0].releaseMemory(50);
+        }
+        assertTrue(usageWhenTriggered.get() >= threshold && usageWhenTriggered.get() < threshold + 100,
+                "triggered at " + usageWhenTriggered.get());
+    }
+
+    @Test
+    public void testBlockedThreadsAreWokenUpInOrder() throws Exception {
+        MemoryLimitController mlc = new MemoryLimitController(100);
+        mlc.forceReserveMemory(101);
+
+        List<CountDownLatch> latches = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            CountDownLatch latch = new CountDownLatch(1);
+            latches.add(latch);
+            executor.submit(() -> {
+                mlc.reserveMemory(1);
+                latch.countDown();
+                return null;
+            });
+            // Wait for the thread to block before starting the next one
+            assertFalse(latch.await(100, TimeUnit.MILLISECONDS));
+        }
+
+        // Each release makes room for a single reservation, which goes to the thread that has waited the longest
+        for (int i = 0; i < 3; i++) {
+            mlc.releaseMemory(1);
+            assertTrue(latches.get(i).await(1, TimeUnit.SECONDS));
+            for (int j = i + 1; j < 3; j++) {
+                assertFalse(latches.get(j).await(100, TimeUnit.MILLISECONDS));
+            }
+            assertEquals(mlc.currentUsage(), 101);
+        }
+    }
 }
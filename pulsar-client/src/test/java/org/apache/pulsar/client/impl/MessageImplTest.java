@@ -20,10 +20,12 @@ package org.apache.pulsar.client.impl;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.Optional;
 
 import java.util.concurrent.CompletableFuture;
 import org.apache.pulsar.client.api.Schema;
@@ -36,6 +38,7 @@ import org.apache.pulsar.client.impl.schema.generic.MultiVersionSchemaInfoProvid
 import org.apache.pulsar.common.allocator.PulsarByteBufAllocator;
 import org.apache.pulsar.common.api.proto.BrokerEntryMetadata;
 import org.apache.pulsar.common.api.proto.MessageMetadata;
+import org.apache.pulsar.common.api.proto.SingleMessageMetadata;
 import org.apache.pulsar.common.protocol.Commands;
 import org.apache.pulsar.common.schema.KeyValue;
 import org.apache.pulsar.common.schema.KeyValueEncodingType;
@@ -77,6 +80,31 @@ public class MessageImplTest {
         assertEquals("value3", msg.getProperty("key3"));
     }
 
+    @Test
+    public void testBatchMessagePropertiesReplaceBatchProperties() {
+        MessageMetadata batchMetadata = new MessageMetadata();
+        batchMetadata.addProperty().setKey("batchKey").setValue("batchValue");
+        SingleMessageMetadata singleMessageMetadata = new SingleMessageMetadata();
+        singleMessageMetadata.addProperty().setKey("key2").setValue("value2");
+        singleMessageMetadata.addProperty().setKey("key1").setValue("value1");
+        ByteBuf payload = Unpooled.wrappedBuffer(new byte[0]);
+        BatchMessageIdImpl messageId = new BatchMessageIdImpl(1, 2, -1, 0);
+
+        MessageImpl<?> msg = MessageImpl.create("topic", messageId, batchMetadata, singleMessageMetadata, payload,
+                Optional.empty(), null, Schema.BYTES, 0, true, 0);
+        singleMessageMetadata.clear();
+        assertEquals(msg.getProperties().size(), 2);
+        assertEquals(msg.getProperty("key1"), "value1");
+        assertEquals(msg.getProperty("key2"), "value2");
+        assertFalse(msg.hasProperty("batchKey"));
+
+        MessageImpl<?> msgWithoutProperties = MessageImpl.create("topic", messageId, batchMetadata,
+                singleMessageMetadata, payload, Optional.empty(), null, Schema.BYTES, 0, true, 0);
+        assertTrue(msgWithoutProperties.getProperties().isEmpty());
+        msg.release();
+        msgWithoutProperties.release();
+    }
+
     @Test
     public void testGetSequenceIdAssociated() {
         MessageMetadata builder = new MessageMetadata()
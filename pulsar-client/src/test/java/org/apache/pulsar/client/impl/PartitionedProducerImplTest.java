@@ -159,6 +159,23 @@ public class PartitionedProducerImplTest {
         assertNotEquals(actualHashList, expectedHashList);
     }
 
+    @Test
+    public void testStartAllPartitionsWithProducerName() {
+        ProducerConfigurationData producerConfigurationData = new ProducerConfigurationData();
+        PartitionedProducerImpl impl = new PartitionedProducerImpl(
+                client, TOPIC_NAME, producerConfigurationData,
+                4, producerCreatedFuture, schema, producerInterceptors);
+        // the other partitions wait for the name of the first one
+        assertEquals(impl.getProducers().size(), 1);
+
+        producerConfigurationData = new ProducerConfigurationData();
+        producerConfigurationData.setProducerName("producer");
+        impl = new PartitionedProducerImpl(
+                client, TOPIC_NAME, producerConfigurationData,
+                4, new CompletableFuture<>(), schema, producerInterceptors);
+        assertEquals(impl.getProducers().size(), 4);
+    }
+
     private MessageRouter getMessageRouter(ProducerConfigurationData producerConfigurationData)
             throws NoSuchFieldException, IllegalAccessException {
         PartitionedProducerImpl impl = new PartitionedProducerImpl(
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.impl;
+
+import static org.testng.Assert.assertEquals;
+import java.util.concurrent.TimeUnit;
+import org.testng.annotations.Test;
+
+public class ReceiverQueueSizeControllerTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static void process(ReceiverQueueSizeController controller, int messages) {
+        for (int i = 0; i < messages; i++) {
+            controller.recordProcessed();
+        }
+    }
+
+    @Test
+    public void testSizeIsTwiceTheBandwidthDelayProduct() {
+        ReceiverQueueSizeController controller = new ReceiverQueueSizeController(0);
+        controller.recordFlowSent(100 * MILLISECOND);
+        controller.recordMessageReceived(120 * MILLISECOND);
+        assertEquals(controller.getRoundTripTimeMs(), 20.0);
+
+        // 10000 msg/s * 20 ms = 200 messages in flight
+        process(controller, 10000);
+        assertEquals(controller.update(SECOND, 1, 1, 1000, true), 400);
+        assertEquals(controller.getProcessingRate(), 10000.0);
+
+        // bounded by the max receiver queue size
+        process(controller, 100000);
+        assertEquals(controller.update(2 * SECOND, 400, 1, 1000, true), 1000);
+    }
+
+    @Test
+    public void testNoExpansionUnderMemoryPressure() {
+        ReceiverQueueSizeController controller = new ReceiverQueueSizeController(0);
+        process(controller, 10000);
+        assertEquals(controller.update(SECOND, 10, 1, 1000, false), 10);
+    }
+
+    @Test
+    public void testShrinkByHalfWhenNotStarved() {
+        ReceiverQueueSizeController controller = new ReceiverQueueSizeController(0);
+        // the default round trip time is 10 ms, 100 msg/s * 10 ms = 1 message in flight
+        process(controller, 100);
+        assertEquals(controller.update(SECOND, 1000, 1, 1000, true), 500);
+        process(controller, 100);
+        assertEquals(controller.update(2 * SECOND, 500, 1, 1000, true), 250);
+
+        // the application waits for messages, the processing rate is the delivery rate
+        process(controller, 100);
+        controller.recordStarved();
+        assertEquals(controller.update(3 * SECOND, 250, 1, 1000, true), 250);
+
+        // idle consumer
+        int size = 250;
+        for (int i = 4; i < 20; i++) {
+            size = controller.update(i * SECOND, size, 2, 1000, true);
+        }
+        assertEquals(size, 2);
+    }
+
+    @Test
+    public void testMinRoundTripTimeOfTheWindow() {
+        ReceiverQueueSizeController controller = new ReceiverQueueSizeController(0);
+        controller.recordFlowSent(MILLISECOND);
+        controller.recordMessageReceived(31 * MILLISECOND);
+        // no flow command is being sampled
+        controller.recordMessageReceived(32 * MILLISECOND);
+        assertEquals(controller.getRoundTripTimeMs(), 30.0);
+
+        controller.recordFlowSent(SECOND);
+        controller.recordMessageReceived(SECOND + 5 * MILLISECOND);
+        controller.recordFlowSent(2 * SECOND);
+        controller.recordMessageReceived(2 * SECOND + 50 * MILLISECOND);
+        assertEquals(controller.getRoundTripTimeMs(), 5.0);
+
+        // the window expired
+        controller.recordFlowSent(20 * SECOND);
+        controller.recordMessageReceived(20 * SECOND + 8 * MILLISECOND);
+        assertEquals(controller.getRoundTripTimeMs(), 8.0);
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.pulsar.client.impl;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -27,10 +28,19 @@ import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.transaction.TxnID;
+import org.apache.pulsar.common.api.proto.BaseCommand;
 import org.awaitility.Awaitility;
 import org.testng.annotations.Test;
 
@@ -63,4 +73,58 @@ public class TransactionMetaStoreHandlerTest {
 
         client.close();
     }
+
+    @Test
+    public void testRegistrationsOfTransactionAreBatched() throws Exception {
+        // a single internal executor, so that it can be blocked while the registrations are made
+        final PulsarClientImpl client = (PulsarClientImpl) PulsarClient.builder()
+                .serviceUrl("pulsar://localhost:6650").ioThreads(1).build();
+        final TransactionMetaStoreHandler handler = new TransactionMetaStoreHandler(
+                0L, client, "topic", new CompletableFuture<>());
+        handler.setState(HandlerState.State.Connecting);
+
+        final ClientCnx cnx = mock(ClientCnx.class);
+        when(cnx.getRemoteEndpointProtocolVersion()).thenReturn(19);
+        when(cnx.sendRequestWithId(any(), anyLong())).thenReturn(CompletableFuture.completedFuture(null));
+        final ChannelHandlerContext ctx = mock(ChannelHandlerContext.class);
+        when(cnx.ctx()).thenReturn(ctx);
+        final List<BaseCommand> commands = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            ByteBuf buf = invocation.getArgument(0);
+            ByteBuf cmdBuf = buf.slice(4, buf.writerIndex() - 4);
+            int cmdSize = (int) cmdBuf.readUnsignedInt();
+            BaseCommand cmd = new BaseCommand();
+            cmd.parseFrom(cmdBuf, cmdSize);
+            commands.add(cmd);
+            buf.release();
+            return null;
+        }).when(ctx).writeAndFlush(any(), any());
+
+        final CountDownLatch blocked = new CountDownLatch(1);
+        client.getInternalExecutorService().execute(() -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        final TxnID txnID = new TxnID(0, 1);
+        handler.addPublishPartitionToTxnAsync(txnID, Collections.singletonList("topic-partition-0"));
+        handler.addPublishPartitionToTxnAsync(txnID, Collections.singletonList("topic-partition-1"));
+        handler.addPublishPartitionToTxnAsync(txnID, Collections.singletonList("topic-partition-2"));
+        handler.addPublishPartitionToTxnAsync(new TxnID(0, 2), Collections.singletonList("topic-partition-0"));
+        blocked.countDown();
+
+        handler.connectionOpened(cnx).get();
+        Awaitility.await().atMost(Duration.ofSeconds(3)).until(() -> commands.size() == 2);
+        final List<String> partitions = new ArrayList<>();
+        for (BaseCommand cmd : commands) {
+            if (cmd.getAddPartitionToTxn().getTxnidLeastBits() == 1) {
+                partitions.addAll(cmd.getAddPartitionToTxn().getPartitionsList());
+            }
+        }
+        assertEquals(partitions, Arrays.asList("topic-partition-0", "topic-partition-1", "topic-partition-2"));
+
+        client.close();
+    }
 }
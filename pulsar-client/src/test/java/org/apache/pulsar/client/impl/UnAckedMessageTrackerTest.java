@@ -22,6 +22,7 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -31,7 +32,10 @@ import io.netty.util.Timer;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import java.time.Duration;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import lombok.Cleanup;
 import org.apache.pulsar.client.api.MessageId;
@@ -70,9 +74,7 @@ public class UnAckedMessageTrackerTest  {
         assertFalse(tracker.add(mid));
         assertEquals(tracker.size(), 1);
 
-        HashSet<MessageId> headPartition = tracker.timePartitions.removeFirst();
-        headPartition.clear();
-        tracker.timePartitions.addLast(headPartition);
+        assertEquals(tracker.expireHeadPartition(new HashSet<>(), consumer), 0);
 
         assertFalse(tracker.add(mid));
         assertEquals(tracker.size(), 1);
@@ -82,6 +84,40 @@ public class UnAckedMessageTrackerTest  {
         assertEquals(tracker.size(), 0);
     }
 
+    @Test
+    public void testTimePartitionCompaction() {
+        PulsarClientImpl client = mock(PulsarClientImpl.class);
+        when(client.instrumentProvider()).thenReturn(InstrumentProvider.NOOP);
+        @Cleanup("stop")
+        Timer timer = new HashedWheelTimer(new DefaultThreadFactory("pulsar-timer", Thread.currentThread().isDaemon()),
+                1, TimeUnit.MILLISECONDS);
+        when(client.timer()).thenReturn(timer);
+
+        ConsumerBase<byte[]> consumer = mock(ConsumerBase.class);
+        ConsumerConfigurationData<?> conf = new ConsumerConfigurationData<>();
+        conf.setAckTimeoutMillis(1000000);
+        conf.setTickDurationMillis(100000);
+        UnAckedMessageTracker tracker = new UnAckedMessageTracker(client, consumer, conf);
+        tracker.close();
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(tracker.add(new MessageIdImpl(1L, i, -1)));
+        }
+        for (int i = 0; i < 990; i++) {
+            assertTrue(tracker.remove(new MessageIdImpl(1L, i, -1)));
+        }
+        assertEquals(tracker.size(), 10);
+        int references = tracker.timePartitions.stream().mapToInt(List::size).sum();
+        assertTrue(references <= 2 * 10 + 64, "time partitions reference " + references + " message ids");
+
+        Set<MessageId> expired = new HashSet<>();
+        for (int i = 0; i < tracker.timePartitions.size(); i++) {
+            tracker.expireHeadPartition(expired, consumer);
+        }
+        assertEquals(expired.size(), 10);
+        assertTrue(tracker.isEmpty());
+    }
+
     @Test
     public void testTrackChunkedMessageId() {
         PulsarClientImpl client = mock(PulsarClientImpl.class);
@@ -127,4 +163,42 @@ public class UnAckedMessageTrackerTest  {
         assertEquals(consumer.unAckedChunkedMessageIdSequenceMap.size(), 0);
     }
 
+    @Test
+    public void testRemovedMessagesAreNotRedelivered() {
+        PulsarClientImpl client = mock(PulsarClientImpl.class);
+        when(client.instrumentProvider()).thenReturn(InstrumentProvider.NOOP);
+        @Cleanup("stop")
+        Timer timer = new HashedWheelTimer(new DefaultThreadFactory("pulsar-timer", Thread.currentThread().isDaemon()),
+                1, TimeUnit.MILLISECONDS);
+        when(client.timer()).thenReturn(timer);
+
+        ConsumerBase<byte[]> consumer = mock(ConsumerBase.class);
+        List<Set<MessageId>> redelivered = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> redelivered.add(new HashSet<>(invocation.getArgument(0))))
+                .when(consumer).redeliverUnacknowledgedMessages(any());
+        ConsumerConfigurationData<?> conf = new ConsumerConfigurationData<>();
+        conf.setAckTimeoutMillis(1000);
+        conf.setTickDurationMillis(100);
+        @Cleanup
+        UnAckedMessageTracker tracker = new UnAckedMessageTracker(client, consumer, conf);
+
+        MessageIdImpl removed = new MessageIdImpl(1L, 1L, -1);
+        MessageIdImpl readded = new MessageIdImpl(1L, 2L, -1);
+        MessageIdImpl acked = new MessageIdImpl(1L, 3L, -1);
+        MessageIdImpl unacked = new MessageIdImpl(2L, 1L, -1);
+        assertTrue(tracker.add(removed));
+        assertTrue(tracker.add(readded));
+        assertTrue(tracker.add(acked));
+        assertTrue(tracker.add(unacked));
+        assertTrue(tracker.remove(removed));
+        assertFalse(tracker.remove(removed));
+        assertTrue(tracker.remove(readded));
+        assertTrue(tracker.add(readded));
+        assertEquals(tracker.removeMessagesTill(acked), 2);
+        assertEquals(tracker.size(), 1);
+
+        Awaitility.await().untilAsserted(() -> assertTrue(tracker.isEmpty()));
+        assertEquals(redelivered, List.of(Set.of(unacked)));
+    }
+
 }
@@ -29,7 +29,9 @@ import static org.testng.AssertJUnit.assertSame;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -384,6 +386,31 @@ public class AvroSchemaTest {
         assertEquals(object1, foo1);
     }
 
+    @Test
+    public void testDecodeByteBuffer() {
+        AvroSchema<Foo> avroSchema = AvroSchema.of(SchemaDefinition.<Foo>builder().withPojo(Foo.class).build());
+
+        Foo foo = new Foo();
+        foo.setField1("foo");
+        foo.setField2("bar");
+        foo.setField4(new Bar());
+        foo.setFieldUnableNull("notNull");
+        byte[] bytes = avroSchema.encode(foo);
+
+        // decoded from the array
+        assertEquals(avroSchema.decode(ByteBuffer.wrap(bytes)), foo);
+        assertEquals(avroSchema.decode(Unpooled.wrappedBuffer(bytes)), foo);
+
+        // decoded from a stream
+        byte[] bytesWithPrefix = new byte[bytes.length + 3];
+        System.arraycopy(bytes, 0, bytesWithPrefix, 3, bytes.length);
+        assertEquals(avroSchema.decode(ByteBuffer.wrap(bytesWithPrefix, 3, bytes.length)), foo);
+        assertEquals(avroSchema.decode(Unpooled.wrappedBuffer(bytesWithPrefix).skipBytes(3)), foo);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        assertEquals(avroSchema.decode(direct), foo);
+    }
+
     @Test
     public void discardBufferIfBadAvroData() {
         AvroWriter<NasaMission> avroWriter = new AvroWriter<>(
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.client.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class VirtualThreadExecutorProviderTest {
+
+    private VirtualThreadExecutorProvider provider;
+
+    @BeforeMethod
+    public void setup() {
+        if (!VirtualThreadExecutorProvider.isSupported()) {
+            throw new SkipException("Virtual threads require Java 21 or later");
+        }
+        provider = new VirtualThreadExecutorProvider(2, "test-virtual-listener");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void cleanup() {
+        if (provider != null) {
+            provider.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testTasksRunInOrder() throws Exception {
+        ExecutorService executor = provider.getExecutor();
+        List<Integer> results = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int value = i;
+            expected.add(value);
+            executor.execute(() -> {
+                assertTrue(Thread.currentThread().getName().startsWith("test-virtual-listener-"));
+                results.add(value);
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(results, expected);
+    }
+
+    @Test
+    public void testBlockedExecutorDoesNotDelayOthers() throws Exception {
+        ExecutorService blocked = provider.getExecutor();
+        ExecutorService other = provider.getExecutor();
+        assertNotSame(blocked, other);
+
+        CountDownLatch release = new CountDownLatch(1);
+        blocked.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertEquals(other.submit(() -> 1).get(10, TimeUnit.SECONDS), Integer.valueOf(1));
+        release.countDown();
+        assertEquals(blocked.submit(() -> 2).get(10, TimeUnit.SECONDS), Integer.valueOf(2));
+    }
+
+    @Test
+    public void testExecutorsByKeyAreShared() {
+        assertSame(provider.getExecutor("key"), provider.getExecutor("key"));
+    }
+}
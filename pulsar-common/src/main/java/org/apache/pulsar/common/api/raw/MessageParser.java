@@ -135,6 +135,11 @@ public class MessageParser {
     public static ByteBuf uncompressPayloadIfNeeded(TopicName topic, MessageMetadata msgMetadata,
             ByteBuf payload, long ledgerId, long entryId, int maxMessageSize) {
         CompressionCodec codec = CompressionCodecProvider.getCompressionCodec(msgMetadata.getCompression());
+        if (codec == null) {
+            log.error("[{}] Unable to decompress message with {} at {}:{}: the compression dictionary {} is unknown",
+                    topic, msgMetadata.getCompression(), ledgerId, entryId, msgMetadata.getCompressionDictionaryId());
+            return null;
+        }
         int uncompressedSize = msgMetadata.getUncompressedSize();
         int payloadSize = payload.readableBytes();
         if (payloadSize > maxMessageSize) {
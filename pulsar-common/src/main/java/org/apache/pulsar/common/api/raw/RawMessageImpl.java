@@ -118,6 +118,9 @@ public class RawMessageImpl implements RawMessage {
 
     @Override
     public long getPublishTime() {
+        if (setSingleMessageMetadata && singleMessageMetadata.hasPublishTime()) {
+            return singleMessageMetadata.getPublishTime();
+        }
         return msgMetadata.getMetadata().getPublishTime();
     }
 
@@ -134,11 +137,17 @@ public class RawMessageImpl implements RawMessage {
 
     @Override
     public long getSequenceId() {
+        if (setSingleMessageMetadata && singleMessageMetadata.hasSequenceId()) {
+            return singleMessageMetadata.getSequenceId();
+        }
         return msgMetadata.getMetadata().getSequenceId() + messageId.batchIndex;
     }
 
     @Override
     public String getProducerName() {
+        if (setSingleMessageMetadata && singleMessageMetadata.hasProducerName()) {
+            return singleMessageMetadata.getProducerName();
+        }
         return msgMetadata.getMetadata().getProducerName();
     }
 
@@ -44,10 +44,22 @@ public class CompressionCodecProvider {
         codecs.put(org.apache.pulsar.common.api.proto.CompressionType.SNAPPY, new CompressionCodecSnappy());
     }
 
+    /**
+     * Returns the codec for the compression type, or null for
+     * {@link org.apache.pulsar.common.api.proto.CompressionType#ZSTD_DICTIONARY}, which can only be decoded with the
+     * dictionary of the message.
+     */
     public static CompressionCodec getCompressionCodec(org.apache.pulsar.common.api.proto.CompressionType type) {
         return codecs.get(type);
     }
 
+    /**
+     * Returns true if a payload with the given compression type can be decoded without a compression dictionary.
+     */
+    public static boolean isDecodable(org.apache.pulsar.common.api.proto.CompressionType type) {
+        return codecs.containsKey(type);
+    }
+
     public static CompressionCodec getCompressionCodec(CompressionType type) {
         return codecs.get(convertToWireProtocol(type));
     }
@@ -81,6 +93,7 @@ public class CompressionCodecProvider {
         case ZLIB:
             return CompressionType.ZLIB;
         case ZSTD:
+        case ZSTD_DICTIONARY:
             return CompressionType.ZSTD;
         case SNAPPY:
             return CompressionType.SNAPPY;
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.common.compression;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+import io.netty.buffer.ByteBuf;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.apache.pulsar.common.allocator.PulsarByteBufAllocator;
+
+/**
+ * Zstandard Compression with a pre-trained dictionary.
+ * <p>
+ * Small payloads, e.g. single JSON messages or small batches, share most of their structure, which a dictionary
+ * trained on samples of the payloads captures, so that they can be compressed efficiently without having to build
+ * large batches. The same dictionary is required to decompress the payloads, it's identified by the dictionary id
+ * that is stored in the dictionary and in the message metadata.
+ * <p>
+ * This codec requires the native zstd-jni library, which is an optional dependency and must be added to the
+ * classpath of the applications that use dictionaries.
+ */
+public class CompressionCodecZstdDictionary implements CompressionCodec {
+
+    private static final int ZSTD_COMPRESSION_LEVEL = 3;
+
+    private final int dictionaryId;
+    private final ZstdDictCompress compressDictionary;
+    private final ZstdDictDecompress decompressDictionary;
+
+    public CompressionCodecZstdDictionary(byte[] dictionary) {
+        this.dictionaryId = getDictionaryId(dictionary);
+        if (dictionaryId == 0) {
+            throw new IllegalArgumentException("The compression dictionary isn't a zstd dictionary with an id");
+        }
+        this.compressDictionary = new ZstdDictCompress(dictionary, ZSTD_COMPRESSION_LEVEL);
+        this.decompressDictionary = new ZstdDictDecompress(dictionary);
+    }
+
+    /**
+     * Returns the id of a zstd dictionary, or 0 if the dictionary doesn't have an id.
+     */
+    public static int getDictionaryId(byte[] dictionary) {
+        return (int) Zstd.getDictIdFromDict(dictionary);
+    }
+
+    /**
+     * Trains a dictionary on samples of the payloads to compress.
+     *
+     * @param samples the samples, typically a few thousands of payloads
+     * @param maxDictionarySize the max size of the dictionary in bytes, e.g. 16 KB
+     * @return the dictionary
+     */
+    public static byte[] train(List<byte[]> samples, int maxDictionarySize) {
+        int samplesSize = 0;
+        for (byte[] sample : samples) {
+            samplesSize += sample.length;
+        }
+        ZstdDictTrainer trainer = new ZstdDictTrainer(samplesSize, maxDictionarySize);
+        for (byte[] sample : samples) {
+            trainer.addSample(sample);
+        }
+        return trainer.trainSamples();
+    }
+
+    public int getDictionaryId() {
+        return dictionaryId;
+    }
+
+    @Override
+    public ByteBuf encode(ByteBuf source) {
+        int uncompressedLength = source.readableBytes();
+        int maxLength = (int) Zstd.compressBound(uncompressedLength);
+
+        ByteBuf directSource = toDirect(source);
+        ByteBuf target = PulsarByteBufAllocator.DEFAULT.directBuffer(maxLength, maxLength);
+        try {
+            ByteBuffer sourceNio = directSource.nioBuffer(directSource.readerIndex(), uncompressedLength);
+            ByteBuffer targetNio = target.nioBuffer(0, maxLength);
+            int compressedLength = Zstd.compress(targetNio, sourceNio, compressDictionary);
+            target.writerIndex(compressedLength);
+            return target;
+        } catch (RuntimeException e) {
+            target.release();
+            throw e;
+        } finally {
+            if (directSource != source) {
+                directSource.release();
+            }
+        }
+    }
+
+    @Override
+    public ByteBuf decode(ByteBuf encoded, int uncompressedLength) throws IOException {
+        ByteBuf directEncoded = toDirect(encoded);
+        ByteBuf uncompressed = PulsarByteBufAllocator.DEFAULT.directBuffer(uncompressedLength, uncompressedLength);
+        try {
+            ByteBuffer uncompressedNio = uncompressed.nioBuffer(0, uncompressedLength);
+            ByteBuffer encodedNio = directEncoded.nioBuffer(directEncoded.readerIndex(), directEncoded.readableBytes());
+            Zstd.decompress(uncompressedNio, encodedNio, decompressDictionary);
+            uncompressed.writerIndex(uncompressedLength);
+            return uncompressed;
+        } catch (RuntimeException e) {
+            uncompressed.release();
+            throw new IOException("Failed to decompress with the zstd dictionary " + dictionaryId, e);
+        } finally {
+            if (directEncoded != encoded) {
+                directEncoded.release();
+            }
+        }
+    }
+
+    // zstd-jni requires direct buffers
+    private static ByteBuf toDirect(ByteBuf buffer) {
+        if (buffer.isDirect() && buffer.nioBufferCount() == 1) {
+            return buffer;
+        }
+        ByteBuf direct = PulsarByteBufAllocator.DEFAULT.directBuffer(buffer.readableBytes());
+        direct.writeBytes(buffer, buffer.readerIndex(), buffer.readableBytes());
+        return direct;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.common.naming;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A bounded cache of parsed names, such as {@link TopicName} and {@link NamespaceName}, keyed by their string form.
+ * <p>
+ * A lookup is a plain {@link ConcurrentHashMap} read that records the access with a single volatile write, it never
+ * takes a lock. The access times come from a clock that only advances when a name is added, so hits on a hot name
+ * don't contend on a shared counter. When the cache grows beyond the configured capacity, the least recently used
+ * names are evicted by the thread that added the name, instead of dropping all cached names at once. Evictions are
+ * done in batches of a small fraction of the capacity so that their cost is amortized over many additions.
+ *
+ * @param <V> the type of the parsed name
+ */
+public class NameCache<V> {
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 64;
+    // evict 1/16 of the capacity beyond what's needed, so that an eviction isn't triggered by every addition
+    private static final int EVICTION_BATCH_SHIFT = 4;
+
+    private final Function<String, V> loader;
+    private final ConcurrentHashMap<String, Node<V>> map;
+    private final AtomicLong clock = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private volatile int maxCapacity;
+
+    public NameCache(int maxCapacity, Function<String, V> loader) {
+        this(maxCapacity, DEFAULT_CONCURRENCY_LEVEL, loader);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxCapacity the maximum number of cached names, a negative value means that the cache is unbounded
+     * @param concurrencyLevel the estimated number of threads that add names concurrently
+     * @param loader the function that parses a name, it might throw a {@link RuntimeException} for invalid names
+     */
+    public NameCache(int maxCapacity, int concurrencyLevel, Function<String, V> loader) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("concurrencyLevel must be > 0");
+        }
+        this.loader = Objects.requireNonNull(loader);
+        this.map = new ConcurrentHashMap<>(16, 0.75f, concurrencyLevel);
+        this.maxCapacity = maxCapacity;
+    }
+
+    /**
+     * Returns the parsed name for the key, parsing and caching it if it isn't cached yet.
+     */
+    public V get(String key) {
+        Node<V> node = map.get(key);
+        if (node != null) {
+            hitCount.increment();
+            node.touch(clock.get());
+            return node.value;
+        }
+        missCount.increment();
+        // parse outside of the map's bin lock, concurrent misses for the same key keep the first cached value
+        Node<V> newNode = new Node<>(loader.apply(key), clock.incrementAndGet());
+        Node<V> existing = map.putIfAbsent(key, newNode);
+        if (existing != null) {
+            return existing.value;
+        }
+        int capacity = maxCapacity;
+        if (capacity >= 0 && map.size() > capacity) {
+            evict(capacity, false);
+        }
+        return newNode.value;
+    }
+
+    /**
+     * Returns the cached name for the key, or null if it isn't cached. This doesn't count as a hit or a miss and
+     * doesn't change the eviction order.
+     */
+    public V getIfPresent(String key) {
+        Node<V> node = map.get(key);
+        return node != null ? node.value : null;
+    }
+
+    public void invalidate(String key) {
+        map.remove(key);
+    }
+
+    public void invalidateAll() {
+        map.clear();
+    }
+
+    /**
+     * Changes the maximum number of cached names. When the capacity shrinks, the least recently used names are
+     * evicted immediately.
+     *
+     * @param maxCapacity the maximum number of cached names, a negative value means that the cache is unbounded
+     */
+    public void setMaxCapacity(int maxCapacity) {
+        this.maxCapacity = maxCapacity;
+        if (maxCapacity >= 0 && map.size() > maxCapacity) {
+            evict(maxCapacity, true);
+        }
+    }
+
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    public long size() {
+        return map.mappingCount();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    private void evict(int capacity, boolean wait) {
+        if (wait) {
+            evictionLock.lock();
+        } else if (!evictionLock.tryLock()) {
+            // another thread is already evicting
+            return;
+        }
+        try {
+            int size = map.size();
+            if (size <= capacity) {
+                return;
+            }
+            int toEvict = size - capacity + (capacity >> EVICTION_BATCH_SHIFT);
+            long[] accessTimes = new long[size];
+            int count = 0;
+            for (Node<V> node : map.values()) {
+                if (count == accessTimes.length) {
+                    break;
+                }
+                accessTimes[count++] = node.accessTime;
+            }
+            toEvict = Math.min(toEvict, count);
+            if (toEvict == 0) {
+                return;
+            }
+            Arrays.sort(accessTimes, 0, count);
+            long threshold = accessTimes[toEvict - 1];
+            int evicted = 0;
+            for (Map.Entry<String, Node<V>> entry : map.entrySet()) {
+                if (evicted == toEvict) {
+                    break;
+                }
+                if (entry.getValue().accessTime <= threshold && map.remove(entry.getKey(), entry.getValue())) {
+                    evicted++;
+                }
+            }
+            evictionCount.add(evicted);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static final class Node<V> {
+        final V value;
+        volatile long accessTime;
+
+        Node(V value, long accessTime) {
+            this.value = value;
+            this.accessTime = accessTime;
+        }
+
+        void touch(long now) {
+            // skip the write when the clock hasn't advanced, so that hot names don't bounce their cache line
+            if (accessTime != now) {
+                accessTime = now;
+            }
+        }
+    }
+}
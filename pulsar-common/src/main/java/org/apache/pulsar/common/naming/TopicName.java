@@ -23,7 +23,6 @@ import com.google.re2j.Pattern;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.pulsar.common.util.Codec;
 
@@ -49,18 +48,30 @@ public class TopicName implements ServiceUnitId {
 
     private final int partitionIndex;
 
-    private static final ConcurrentHashMap<String, TopicName> cache = new ConcurrentHashMap<>();
+    public static final int DEFAULT_CACHE_MAX_CAPACITY = 100_000;
 
+    private static final NameCache<TopicName> cache = new NameCache<>(DEFAULT_CACHE_MAX_CAPACITY, TopicName::new);
+
+    /**
+     * Applies the max capacity of the topic name cache. The cache is bounded and evicts the least recently used
+     * names, so it's only cleared completely when the max capacity is 0.
+     *
+     * @param maxCapacity the max capacity of the cache, a negative value means that the cache is unbounded
+     */
     public static void clearIfReachedMaxCapacity(int maxCapacity) {
-        if (maxCapacity < 0) {
-            // Unlimited cache.
+        if (maxCapacity == 0) {
+            cache.invalidateAll();
             return;
         }
-        if (cache.size() > maxCapacity) {
-            cache.clear();
+        if (cache.getMaxCapacity() != maxCapacity) {
+            cache.setMaxCapacity(maxCapacity);
         }
     }
 
+    public static NameCache<TopicName> getCache() {
+        return cache;
+    }
+
     public static TopicName get(String domain, NamespaceName namespaceName, String topic) {
         String name = domain + "://" + namespaceName.toString() + '/' + topic;
         return TopicName.get(name);
@@ -78,11 +89,7 @@ public class TopicName implements ServiceUnitId {
     }
 
     public static TopicName get(String topic) {
-        TopicName tp = cache.get(topic);
-        if (tp != null) {
-            return tp;
-        }
-        return cache.computeIfAbsent(topic, k -> new TopicName(k));
+        return cache.get(topic);
     }
 
     public static TopicName getPartitionedTopicName(String topic) {
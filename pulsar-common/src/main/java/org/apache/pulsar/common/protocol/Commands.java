@@ -194,6 +194,8 @@ public class Commands {
         flags.setSupportsPartialProducer(true);
         flags.setSupportsGetPartitionedMetadataWithoutAutoCreation(true);
         flags.setSupportsReplDedupByLidAndEid(true);
+        flags.setSupportsZstdDictionaryCompression(true);
+        flags.setSupportsColumnarBatch(true);
     }
 
     public static ByteBuf newConnect(String authMethodName, String authData, int protocolVersion, String libVersion,
@@ -301,6 +303,11 @@ public class Commands {
 
     public static BaseCommand newConnectedCommand(int clientProtocolVersion, int maxMessageSize,
                                                   boolean supportsTopicWatchers) {
+        return newConnectedCommand(clientProtocolVersion, maxMessageSize, supportsTopicWatchers, false);
+    }
+
+    public static BaseCommand newConnectedCommand(int clientProtocolVersion, int maxMessageSize,
+                                                  boolean supportsTopicWatchers, boolean supportsAckRanges) {
         BaseCommand cmd = localCmd(Type.CONNECTED);
         CommandConnected connected = cmd.setConnected()
                 .setServerVersion("Pulsar Server" + PulsarVersion.getVersion());
@@ -319,6 +326,9 @@ public class Commands {
         connected.setFeatureFlags().setSupportsTopicWatchers(supportsTopicWatchers);
         connected.setFeatureFlags().setSupportsGetPartitionedMetadataWithoutAutoCreation(true);
         connected.setFeatureFlags().setSupportsReplDedupByLidAndEid(true);
+        connected.setFeatureFlags().setSupportsAckRanges(supportsAckRanges);
+        connected.setFeatureFlags().setSupportsZstdDictionaryCompression(true);
+        connected.setFeatureFlags().setSupportsColumnarBatch(true);
         return cmd;
     }
 
@@ -326,6 +336,12 @@ public class Commands {
         return serializeWithSize(newConnectedCommand(clientProtocolVersion, maxMessageSize, supportsTopicWatchers));
     }
 
+    public static ByteBuf newConnected(int clientProtocolVersion, int maxMessageSize, boolean supportsTopicWatchers,
+                                       boolean supportsAckRanges) {
+        return serializeWithSize(newConnectedCommand(clientProtocolVersion, maxMessageSize, supportsTopicWatchers,
+                supportsAckRanges));
+    }
+
     public static ByteBuf newAuthChallenge(String authMethod, AuthData brokerData, int clientProtocolVersion) {
         BaseCommand cmd = localCmd(Type.AUTH_CHALLENGE);
         CommandAuthChallenge challenge = cmd.setAuthChallenge();
@@ -410,14 +426,27 @@ public class Commands {
 
     public static BaseCommand newSendReceiptCommand(long producerId, long sequenceId, long highestId, long ledgerId,
             long entryId) {
+        return newSendReceiptCommand(producerId, sequenceId, highestId, ledgerId, entryId, -1, 0);
+    }
+
+    /**
+     * Creates a send receipt. The batch index is only set for a message that the broker packed into a batch entry
+     * together with other messages, a negative batch index is ignored.
+     */
+    public static BaseCommand newSendReceiptCommand(long producerId, long sequenceId, long highestId, long ledgerId,
+            long entryId, int batchIndex, int batchSize) {
         BaseCommand cmd = localCmd(Type.SEND_RECEIPT);
-        cmd.setSendReceipt()
+        MessageIdData messageId = cmd.setSendReceipt()
                 .setProducerId(producerId)
                 .setSequenceId(sequenceId)
                 .setHighestSequenceId(highestId)
                 .setMessageId()
                 .setLedgerId(ledgerId)
                 .setEntryId(entryId);
+        if (batchIndex >= 0) {
+            messageId.setBatchIndex(batchIndex)
+                    .setBatchSize(batchSize);
+        }
         return cmd;
     }
 
@@ -1030,13 +1059,33 @@ public class Commands {
     }
 
     private static BaseCommand newMultiMessageAckCommon(List<Triple<Long, Long, ConcurrentBitSetRecyclable>> entries) {
+        return newMultiMessageAckCommon(entries, false);
+    }
+
+    private static BaseCommand newMultiMessageAckCommon(List<Triple<Long, Long, ConcurrentBitSetRecyclable>> entries,
+                                                        boolean useRanges) {
         BaseCommand cmd = localCmd(Type.ACK);
         CommandAck ack = cmd.setAck();
         int entriesCount = entries.size();
+        // The current run of contiguous entries without ack set, when using ranges
+        long rangeLedgerId = -1;
+        long rangeFirstEntryId = -1;
+        long rangeLastEntryId = -1;
         for (int i = 0; i < entriesCount; i++) {
             long ledgerId = entries.get(i).getLeft();
             long entryId = entries.get(i).getMiddle();
             ConcurrentBitSetRecyclable bitSet = entries.get(i).getRight();
+            if (useRanges && bitSet == null) {
+                if (rangeLedgerId == ledgerId && (entryId == rangeLastEntryId + 1 || entryId == rangeLastEntryId)) {
+                    rangeLastEntryId = entryId;
+                    continue;
+                }
+                addAckRange(ack, rangeLedgerId, rangeFirstEntryId, rangeLastEntryId);
+                rangeLedgerId = ledgerId;
+                rangeFirstEntryId = entryId;
+                rangeLastEntryId = entryId;
+                continue;
+            }
             MessageIdData msgId = ack.addMessageId()
                     .setLedgerId(ledgerId)
                     .setEntryId(entryId);
@@ -1048,14 +1097,41 @@ public class Commands {
                 bitSet.recycle();
             }
         }
+        addAckRange(ack, rangeLedgerId, rangeFirstEntryId, rangeLastEntryId);
 
         return cmd;
     }
 
+    private static void addAckRange(CommandAck ack, long ledgerId, long firstEntryId, long lastEntryId) {
+        if (ledgerId < 0) {
+            return;
+        }
+        if (firstEntryId == lastEntryId) {
+            ack.addMessageId()
+                    .setLedgerId(ledgerId)
+                    .setEntryId(firstEntryId);
+        } else {
+            ack.addMessageIdRange()
+                    .setLedgerId(ledgerId)
+                    .setFirstEntryId(firstEntryId)
+                    .setLastEntryId(lastEntryId);
+        }
+    }
+
     public static ByteBuf newMultiMessageAck(long consumerId,
                                              List<Triple<Long, Long, ConcurrentBitSetRecyclable>> entries,
                                              long requestId) {
-        BaseCommand cmd = newMultiMessageAckCommon(entries);
+        return newMultiMessageAck(consumerId, entries, requestId, false);
+    }
+
+    /**
+     * Creates an individual ack of multiple entries. With {@code useRanges}, the contiguous entries without ack set
+     * are sent as ranges, which requires a broker that supports ack ranges.
+     */
+    public static ByteBuf newMultiMessageAck(long consumerId,
+                                             List<Triple<Long, Long, ConcurrentBitSetRecyclable>> entries,
+                                             long requestId, boolean useRanges) {
+        BaseCommand cmd = newMultiMessageAckCommon(entries, useRanges);
         cmd.getAck()
                 .setConsumerId(consumerId)
                 .setAckType(AckType.Individual);
@@ -1875,6 +1951,35 @@ public class Commands {
 
     public static ByteBuf serializeSingleMessageInBatchWithPayload(MessageMetadata msg,
             ByteBuf payload, ByteBuf batchBuffer) {
+        return serializeSingleMessageInBatchWithPayload(toSingleMessageMetadata(msg), payload, batchBuffer);
+    }
+
+    /**
+     * Serializes a single message of a batch that the broker packs from messages of different producers. The producer
+     * name and the publish time of the message are kept in its single message meta-data.
+     */
+    public static ByteBuf serializeSingleMessageInBrokerBatchWithPayload(MessageMetadata msg,
+            ByteBuf payload, ByteBuf batchBuffer) {
+        SingleMessageMetadata smm = toSingleMessageMetadata(msg);
+        smm.setProducerName(msg.getProducerName());
+        smm.setPublishTime(msg.getPublishTime());
+        return serializeSingleMessageInBatchWithPayload(smm, payload, batchBuffer);
+    }
+
+    /**
+     * Serializes the meta-data size and the meta-data of a single message in a batch, without the payload. The caller
+     * is responsible for appending the payload of the given size right after the meta-data, e.g. as a component of a
+     * composite buffer.
+     */
+    public static void serializeSingleMessageMetadataInBatch(MessageMetadata msg, int payloadSize,
+                                                             ByteBuf batchBuffer) {
+        SingleMessageMetadata smm = toSingleMessageMetadata(msg);
+        smm.setPayloadSize(payloadSize);
+        batchBuffer.writeInt(smm.getSerializedSize());
+        smm.writeTo(batchBuffer);
+    }
+
+    private static SingleMessageMetadata toSingleMessageMetadata(MessageMetadata msg) {
         // build single message meta-data
         SingleMessageMetadata smm = LOCAL_SINGLE_MESSAGE_METADATA.get();
         smm.clear();
@@ -1907,8 +2012,7 @@ public class Commands {
         if (msg.hasNullPartitionKey()) {
             smm.setNullPartitionKey(msg.isNullPartitionKey());
         }
-
-        return serializeSingleMessageInBatchWithPayload(smm, payload, batchBuffer);
+        return smm;
     }
 
     public static ByteBuf deSerializeSingleMessageInBatch(ByteBuf uncompressedPayload,
@@ -181,6 +181,60 @@ public class GrowableArrayBlockingQueue<T> extends AbstractQueue<T> implements B
         return true;
     }
 
+    /**
+     * Adds all the items of a collection with a single acquisition of the tail lock.
+     */
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        if (c == this) {
+            throw new IllegalArgumentException();
+        }
+        int count = c.size();
+        if (count == 0) {
+            return false;
+        }
+
+        long stamp = tailLock.writeLock();
+
+        boolean wasEmpty = false;
+
+        try {
+            if (terminated) {
+                if (itemAfterTerminatedHandler != null) {
+                    c.forEach(itemAfterTerminatedHandler);
+                }
+                return true;
+            }
+
+            // the size can only decrease concurrently
+            while (SIZE_UPDATER.get(this) + count > data.length) {
+                expandArray();
+            }
+
+            int tail = tailIndex.value;
+            for (T e : c) {
+                data[tail] = e;
+                tail = (tail + 1) & (data.length - 1);
+            }
+            tailIndex.value = tail;
+            if (SIZE_UPDATER.getAndAdd(this, count) == 0) {
+                wasEmpty = true;
+            }
+        } finally {
+            tailLock.unlockWrite(stamp);
+        }
+
+        if (wasEmpty) {
+            headLock.lock();
+            try {
+                isNotEmpty.signal();
+            } finally {
+                headLock.unlock();
+            }
+        }
+        return true;
+    }
+
     @Override
     public boolean offer(T e, long timeout, TimeUnit unit) {
         // Queue is unbounded and it will never reject new items
@@ -365,7 +365,19 @@ public interface LongPairRangeSet<T extends Comparable<T>> {
 
         @Override
         public int cardinality(long lowerKey, long lowerValue, long upperKey, long upperValue) {
-            throw new UnsupportedOperationException();
+            if (lowerKey != upperKey) {
+                // the bounds of the ranges don't tell how many values each key has
+                throw new UnsupportedOperationException();
+            }
+            int cardinality = 0;
+            RangeSet<T> subRangeSet = set.subRangeSet(Range.openClosed(consumer.apply(lowerKey, lowerValue - 1),
+                    consumer.apply(upperKey, upperValue)));
+            for (Range<T> range : subRangeSet.asRanges()) {
+                // the ranges are open-closed, and within a single key once restricted to the bounds
+                cardinality += (int) (rangeEndPointConsumer.apply(range.upperEndpoint()).getValue()
+                        - rangeEndPointConsumer.apply(range.lowerEndpoint()).getValue());
+            }
+            return cardinality;
         }
 
         @Override
@@ -27,13 +27,19 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Base64;
 import io.netty.util.ReferenceCountUtil;
+import java.util.List;
+import org.apache.commons.lang3.tuple.Triple;
 import org.apache.pulsar.common.allocator.PulsarByteBufAllocator;
+import org.apache.pulsar.common.api.proto.BaseCommand;
+import org.apache.pulsar.common.api.proto.CommandAck;
 import org.apache.pulsar.common.api.proto.MessageMetadata;
 import org.apache.pulsar.common.protocol.ByteBufPair;
 import org.apache.pulsar.common.protocol.Commands;
 import org.apache.pulsar.common.protocol.Commands.ChecksumType;
+import org.apache.pulsar.common.util.collections.ConcurrentBitSetRecyclable;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -138,4 +144,50 @@ public class CommandsTest {
         Assert.assertEquals(fallbackPartitionedKey, key3);
         ReferenceCountUtil.safeRelease(byteBuf3);
     }
+
+    @Test
+    public void testMultiMessageAckWithRanges() {
+        ConcurrentBitSetRecyclable ackSet = ConcurrentBitSetRecyclable.create();
+        ackSet.set(0, 3);
+        List<Triple<Long, Long, ConcurrentBitSetRecyclable>> entries = new ArrayList<>();
+        for (long entryId = 0; entryId < 100; entryId++) {
+            entries.add(Triple.of(1L, entryId, null));
+        }
+        entries.add(Triple.of(1L, 200L, null));
+        entries.add(Triple.of(2L, 0L, null));
+        entries.add(Triple.of(2L, 1L, null));
+        entries.add(Triple.of(2L, 5L, ackSet));
+
+        ByteBuf ackWithRanges = Commands.newMultiMessageAck(1, entries, -1, true);
+        CommandAck ack = parseCommand(ackWithRanges).getAck();
+        assertEquals(ack.getMessageIdRangesCount(), 2);
+        assertEquals(ack.getMessageIdRangeAt(0).getLedgerId(), 1L);
+        assertEquals(ack.getMessageIdRangeAt(0).getFirstEntryId(), 0L);
+        assertEquals(ack.getMessageIdRangeAt(0).getLastEntryId(), 99L);
+        assertEquals(ack.getMessageIdRangeAt(1).getLedgerId(), 2L);
+        assertEquals(ack.getMessageIdRangeAt(1).getFirstEntryId(), 0L);
+        assertEquals(ack.getMessageIdRangeAt(1).getLastEntryId(), 1L);
+        assertEquals(ack.getMessageIdsCount(), 2);
+        assertEquals(ack.getMessageIdAt(0).getLedgerId(), 1L);
+        assertEquals(ack.getMessageIdAt(0).getEntryId(), 200L);
+        assertEquals(ack.getMessageIdAt(1).getLedgerId(), 2L);
+        assertEquals(ack.getMessageIdAt(1).getEntryId(), 5L);
+        assertTrue(ack.getMessageIdAt(1).getAckSetsCount() > 0);
+        ackWithRanges.release();
+
+        entries.remove(entries.size() - 1);
+        ByteBuf ackWithoutRanges = Commands.newMultiMessageAck(1, entries, -1, false);
+        ack = parseCommand(ackWithoutRanges).getAck();
+        assertEquals(ack.getMessageIdRangesCount(), 0);
+        assertEquals(ack.getMessageIdsCount(), 103);
+        ackWithoutRanges.release();
+    }
+
+    private static BaseCommand parseCommand(ByteBuf serializedCommand) {
+        serializedCommand.skipBytes(4); // skip [total-size]
+        int cmdSize = (int) serializedCommand.readUnsignedInt();
+        BaseCommand cmd = new BaseCommand();
+        cmd.parseFrom(serializedCommand, cmdSize);
+        return cmd;
+    }
 }
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.common.compression;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.pulsar.common.allocator.PulsarByteBufAllocator;
+import org.apache.pulsar.common.api.proto.CompressionType;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class CompressionCodecZstdDictionaryTest {
+
+    private final Random random = new Random(1);
+    private byte[] dictionary;
+
+    @BeforeClass
+    public void setup() {
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            samples.add(newJsonMessage());
+        }
+        dictionary = CompressionCodecZstdDictionary.train(samples, 16 * 1024);
+    }
+
+    private byte[] newJsonMessage() {
+        return ("{\"orderId\":\"" + random.nextLong() + "\",\"customer\":{\"id\":" + random.nextInt(100000)
+                + ",\"country\":\"" + (random.nextBoolean() ? "US" : "DE") + "\",\"tier\":\"gold\"},"
+                + "\"items\":[{\"sku\":\"SKU-" + random.nextInt(1000) + "\",\"quantity\":" + random.nextInt(10)
+                + ",\"price\":" + random.nextInt(10000) / 100.0 + "}],\"status\":\"CREATED\","
+                + "\"createdAt\":\"2024-05-0" + random.nextInt(10) + "T10:15:30Z\",\"source\":\"web\"}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testCompressDecompress() throws IOException {
+        CompressionCodecZstdDictionary codec = new CompressionCodecZstdDictionary(dictionary);
+        assertNotEquals(codec.getDictionaryId(), 0);
+        assertEquals(codec.getDictionaryId(), CompressionCodecZstdDictionary.getDictionaryId(dictionary));
+
+        byte[] message = newJsonMessage();
+        for (ByteBuf raw : new ByteBuf[]{Unpooled.wrappedBuffer(message),
+                PulsarByteBufAllocator.DEFAULT.directBuffer().writeBytes(message)}) {
+            ByteBuf compressed = codec.encode(raw);
+            assertEquals(raw.readableBytes(), message.length);
+
+            ByteBuf heapCompressed = Unpooled.copiedBuffer(compressed);
+            ByteBuf uncompressed = codec.decode(heapCompressed, message.length);
+            assertEquals(uncompressed.readableBytes(), message.length);
+            byte[] result = new byte[message.length];
+            uncompressed.getBytes(0, result);
+            assertEquals(result, message);
+
+            raw.release();
+            compressed.release();
+            heapCompressed.release();
+            uncompressed.release();
+        }
+    }
+
+    @Test
+    public void testDictionaryImprovesTheRatioOfSmallMessages() {
+        CompressionCodec codec = new CompressionCodecZstdDictionary(dictionary);
+        CompressionCodec codecWithoutDictionary = CompressionCodecProvider.getCompressionCodec(CompressionType.ZSTD);
+        int compressedSize = 0;
+        int compressedSizeWithoutDictionary = 0;
+        for (int i = 0; i < 100; i++) {
+            ByteBuf raw = Unpooled.wrappedBuffer(newJsonMessage());
+            ByteBuf compressed = codec.encode(raw);
+            ByteBuf compressedWithoutDictionary = codecWithoutDictionary.encode(raw);
+            compressedSize += compressed.readableBytes();
+            compressedSizeWithoutDictionary += compressedWithoutDictionary.readableBytes();
+            compressed.release();
+            compressedWithoutDictionary.release();
+            raw.release();
+        }
+        assertTrue(compressedSize * 2 < compressedSizeWithoutDictionary,
+                compressedSize + " >= " + compressedSizeWithoutDictionary + " / 2");
+    }
+
+    @Test
+    public void testDecompressWithAnotherDictionaryFails() {
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            samples.add(("{\"sensor\":" + random.nextInt(1000) + ",\"temperature\":" + random.nextInt(50)
+                    + ",\"unit\":\"celsius\"}").getBytes(StandardCharsets.UTF_8));
+        }
+        CompressionCodecZstdDictionary otherCodec =
+                new CompressionCodecZstdDictionary(CompressionCodecZstdDictionary.train(samples, 4 * 1024));
+        CompressionCodecZstdDictionary codec = new CompressionCodecZstdDictionary(dictionary);
+        assertNotEquals(otherCodec.getDictionaryId(), codec.getDictionaryId());
+
+        byte[] message = newJsonMessage();
+        ByteBuf compressed = codec.encode(Unpooled.wrappedBuffer(message));
+        assertThrows(IOException.class, () -> otherCodec.decode(compressed, message.length));
+        compressed.release();
+    }
+
+    @Test
+    public void testInvalidDictionary() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CompressionCodecZstdDictionary("not a dictionary".getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pulsar.common.naming;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.annotations.Test;
+
+public class NameCacheTest {
+
+    @Test
+    public void testGetCachesParsedValue() {
+        AtomicInteger loads = new AtomicInteger();
+        NameCache<String> cache = new NameCache<>(10, key -> {
+            loads.incrementAndGet();
+            return key.toUpperCase();
+        });
+        assertEquals(cache.get("a/b"), "A/B");
+        assertSame(cache.get("a/b"), cache.get("a/b"));
+        assertEquals(loads.get(), 1);
+        assertEquals(cache.getMissCount(), 1);
+        assertEquals(cache.getHitCount(), 2);
+        assertEquals(cache.size(), 1);
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        NameCache<String> cache = new NameCache<>(3, 1, key -> key);
+        cache.get("a");
+        cache.get("b");
+        cache.get("c");
+        // "a" becomes the most recently used name
+        cache.get("a");
+        cache.get("d");
+        assertEquals(cache.size(), 3);
+        assertEquals(cache.getEvictionCount(), 1);
+        assertNull(cache.getIfPresent("b"));
+        assertNotNull(cache.getIfPresent("a"));
+        assertNotNull(cache.getIfPresent("c"));
+        assertNotNull(cache.getIfPresent("d"));
+    }
+
+    @Test
+    public void testBoundedWithManyNames() {
+        NameCache<String> cache = new NameCache<>(1000, 16, key -> key);
+        for (int i = 0; i < 100_000; i++) {
+            cache.get("persistent://tenant/ns/topic-" + i);
+        }
+        assertEquals(cache.size() <= 1000, true);
+        assertEquals(cache.getEvictionCount(), 100_000 - cache.size());
+        assertEquals(cache.getMissCount(), 100_000);
+    }
+
+    @Test
+    public void testSetMaxCapacity() {
+        NameCache<String> cache = new NameCache<>(-1, 1, key -> key);
+        for (int i = 0; i < 100; i++) {
+            cache.get("topic-" + i);
+        }
+        assertEquals(cache.size(), 100);
+        cache.setMaxCapacity(10);
+        assertEquals(cache.size(), 10);
+        assertNotNull(cache.getIfPresent("topic-99"));
+        assertNull(cache.getIfPresent("topic-0"));
+        cache.invalidateAll();
+        assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void testLoaderExceptionIsNotCached() {
+        NameCache<NamespaceName> cache = new NameCache<>(10, NamespaceName::get);
+        try {
+            cache.get("invalid");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void testGetIfPresentIsNotCounted() {
+        NameCache<String> cache = new NameCache<>(10, key -> key);
+        assertNull(cache.getIfPresent("a"));
+        cache.get("a");
+        assertNotNull(cache.getIfPresent("a"));
+        assertEquals(cache.getMissCount(), 1);
+        assertEquals(cache.getHitCount(), 0);
+    }
+
+    @Test
+    public void testConcurrentAccessStaysBounded() throws Exception {
+        NameCache<String> cache = new NameCache<>(100, key -> key);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            int offset = t * 10_000;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    String key = "topic-" + (offset + i);
+                    assertEquals(cache.get(key), key);
+                    // a hot name that keeps being used
+                    assertEquals(cache.get("hot"), "hot");
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // concurrent additions may overshoot while another thread is evicting, but only briefly
+        cache.setMaxCapacity(100);
+        assertEquals(cache.size() <= 100, true);
+        assertNotNull(cache.getIfPresent("hot"));
+        assertEquals(cache.getMissCount() + cache.getHitCount(), 160_000);
+    }
+}
@@ -18,8 +18,10 @@
  */
 package org.apache.pulsar.common.util.collections;
 
+import java.util.List;
 import org.testng.annotations.Test;
 
+import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertTrue;
 import static org.testng.AssertJUnit.fail;
@@ -62,4 +64,24 @@ public class DefaultRangeSetTest {
         assertTrue(set.contains(10,1));
 
     }
+
+    @Test
+    public void testCardinality() {
+        LongPairRangeSet.DefaultRangeSet<LongPairRangeSet.LongPair> set =
+                new LongPairRangeSet.DefaultRangeSet<>(consumer, reverseConsumer);
+        OpenLongPairRangeSet<LongPairRangeSet.LongPair> rangeSet =
+                new OpenLongPairRangeSet<>(consumer);
+        for (LongPairRangeSet<LongPairRangeSet.LongPair> s : List.of(set, rangeSet)) {
+            s.addOpenClosed(1, -1, 1, 3);
+            s.addOpenClosed(1, 9, 1, 20);
+            s.addOpenClosed(2, 4, 2, 5);
+        }
+        for (long[] bounds : new long[][]{{0, 100}, {0, 3}, {3, 10}, {4, 9}, {2, 15}, {15, 15}}) {
+            assertEquals(rangeSet.cardinality(1, bounds[0], 1, bounds[1]),
+                    set.cardinality(1, bounds[0], 1, bounds[1]));
+        }
+        assertEquals(set.cardinality(1, 0, 1, 100), 15);
+        assertEquals(set.cardinality(2, 0, 2, 100), 1);
+        assertEquals(set.cardinality(3, 0, 3, 100), 0);
+    }
 }
@@ -170,6 +170,56 @@ public class GrowableArrayBlockingQueueTest {
         assertEquals(list, Lists.newArrayList(1, 2, 3));
     }
 
+    @Test
+    public void addAll() throws Exception {
+        BlockingQueue<Integer> queue = new GrowableArrayBlockingQueue<>(4);
+        assertFalse(queue.addAll(new ArrayList<>()));
+
+        // Test index rollover
+        queue.offer(0);
+        queue.offer(1);
+        queue.offer(2);
+        assertEquals(queue.take().intValue(), 0);
+        assertEquals(queue.take().intValue(), 1);
+        assertTrue(queue.addAll(Lists.newArrayList(3, 4, 5)));
+        assertEquals(queue.toString(), "[2, 3, 4, 5]");
+
+        // Test array expansion
+        assertTrue(queue.addAll(Lists.newArrayList(6, 7, 8, 9, 10, 11, 12, 13, 14)));
+        assertEquals(queue.size(), 13);
+        for (int i = 2; i < 15; i++) {
+            assertEquals(queue.take().intValue(), i);
+        }
+        assertEquals(queue.size(), 0);
+    }
+
+    @Test(timeOut = 10000)
+    public void blockingTakeAddAll() throws Exception {
+        BlockingQueue<Integer> queue = new GrowableArrayBlockingQueue<>();
+
+        CountDownLatch latch = new CountDownLatch(2);
+        List<Integer> taken = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            new Thread(() -> {
+                try {
+                    int item = queue.take();
+                    synchronized (taken) {
+                        taken.add(item);
+                    }
+                    latch.countDown();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }).start();
+        }
+
+        Thread.sleep(100);
+        queue.addAll(Lists.newArrayList(1, 2));
+        latch.await();
+        assertEquals(taken.size(), 2);
+        assertTrue(taken.contains(1) && taken.contains(2));
+    }
+
     @Test(timeOut = 10000)
     public void pollTimeout() throws Exception {
         BlockingQueue<Integer> queue = new GrowableArrayBlockingQueue<>(4);
@@ -428,7 +428,8 @@ public class ProxyConnection extends PulsarHandler {
             int maxMessageSize =
                     connected.hasMaxMessageSize() ? connected.getMaxMessageSize() : Commands.INVALID_MAX_MESSAGE_SIZE;
             final ByteBuf msg = Commands.newConnected(connected.getProtocolVersion(), maxMessageSize,
-                    connected.hasFeatureFlags() && connected.getFeatureFlags().isSupportsTopicWatchers());
+                    connected.hasFeatureFlags() && connected.getFeatureFlags().isSupportsTopicWatchers(),
+                    connected.hasFeatureFlags() && connected.getFeatureFlags().isSupportsAckRanges());
             writeAndFlush(msg);
         } else {
             LOG.warn("[{}] Channel is {}. ProxyConnection is in {}. "
@@ -51,6 +51,9 @@ public class ProducerAck {
     // Version of schema used to encode the message.
     public long schemaVersion;
 
+    // Number of messages covered by this result when several messages are published as one batch entry.
+    public Integer numMessages;
+
     public ProducerAck(String messageId, String context) {
         this.result = "ok";
         this.messageId = messageId;